@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.BrokerResponse;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BrokerResultCache} caches the broker responses for the queries on the immutable (offline) segments.
+ * <p>The cache key contains the optimized broker request (with the time boundary filter attached for the hybrid
+ * table), the segments selected by the routing, and the routing versions of the offline and real-time table (-1 if not
+ * exist). The routing version changes on each external view (and segment lineage) change and segment refresh, so a
+ * stale entry can never be hit, and will be evicted by the size bound or the expiration. The real-time routing version
+ * is included for the hybrid table whose real-time segments are all pruned, so that adding real-time segments
+ * invalidates the entry.
+ * <p>The cache is bounded by the estimated size of the entries in bytes, and entries are evicted in LRU order. The
+ * responses are stored in the serialized format, which gives an accurate size estimation and ensures each hit gets its
+ * own response instance.
+ */
+@ThreadSafe
+public class BrokerResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BrokerResultCache.class);
+
+  // Estimated size of the broker request and the object overhead of the cache entry
+  private static final int ENTRY_OVERHEAD_BYTES = 1024;
+  // Estimated object overhead for each segment in the cache key
+  private static final int SEGMENT_OVERHEAD_BYTES = 64;
+
+  private final Cache<Key, String> _cache;
+  private final BrokerMetrics _brokerMetrics;
+
+  public BrokerResultCache(long maxSizeInBytes, long expireAfterWriteMs, BrokerMetrics brokerMetrics) {
+    _brokerMetrics = brokerMetrics;
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((Key key, String value) -> key._estimatedSizeInBytes + 2 * value.length())
+        .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS).removalListener(notification -> {
+          if (notification.wasEvicted()) {
+            _brokerMetrics.addMeteredGlobalValue(BrokerMeter.RESULT_CACHE_EVICTIONS, 1);
+          }
+        }).build();
+    LOGGER.info("Initialized broker result cache with max size: {} bytes, expire after write: {}ms", maxSizeInBytes,
+        expireAfterWriteMs);
+  }
+
+  /**
+   * Returns the cache key for the given broker request and routing table.
+   * <p>NOTE: The broker request is copied so that the key is not affected by the changes applied to the request after
+   *          the key is created (e.g. query timeout).
+   */
+  public static Key getKey(BrokerRequest brokerRequest, Map<ServerInstance, List<String>> routingTable,
+      long offlineRoutingVersion, long realtimeRoutingVersion) {
+    Set<String> segments = new HashSet<>();
+    for (List<String> segmentsForServer : routingTable.values()) {
+      segments.addAll(segmentsForServer);
+    }
+    return new Key(new BrokerRequest(brokerRequest), segments, offlineRoutingVersion, realtimeRoutingVersion);
+  }
+
+  /**
+   * Returns the cached broker response for the given key, or {@code null} if it does not exist.
+   */
+  @Nullable
+  public BrokerResponseNative get(Key key, String rawTableName) {
+    String serializedResponse = _cache.getIfPresent(key);
+    if (serializedResponse != null) {
+      try {
+        BrokerResponseNative brokerResponse = BrokerResponseNative.fromJsonString(serializedResponse);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_HITS, 1);
+        return brokerResponse;
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while deserializing cached broker response for table: {}, invalidating the entry",
+            rawTableName, e);
+        _cache.invalidate(key);
+      }
+    }
+    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESULT_CACHE_MISSES, 1);
+    return null;
+  }
+
+  /**
+   * Caches the given broker response if it is complete (no exception, all servers responded).
+   */
+  public void put(Key key, BrokerResponse brokerResponse) {
+    if (brokerResponse.getExceptionsSize() != 0
+        || brokerResponse.getNumServersResponded() != brokerResponse.getNumServersQueried()) {
+      return;
+    }
+    try {
+      _cache.put(key, brokerResponse.toJsonString());
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while serializing broker response, skipping caching the response", e);
+    }
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  public static final class Key {
+    private final BrokerRequest _brokerRequest;
+    private final Set<String> _segments;
+    private final long _offlineRoutingVersion;
+    private final long _realtimeRoutingVersion;
+    private final int _hashCode;
+    private final int _estimatedSizeInBytes;
+
+    private Key(BrokerRequest brokerRequest, Set<String> segments, long offlineRoutingVersion,
+        long realtimeRoutingVersion) {
+      _brokerRequest = brokerRequest;
+      _segments = segments;
+      _offlineRoutingVersion = offlineRoutingVersion;
+      _realtimeRoutingVersion = realtimeRoutingVersion;
+      _hashCode = 31 * (31 * (31 * brokerRequest.hashCode() + segments.hashCode()) + Long
+          .hashCode(offlineRoutingVersion)) + Long.hashCode(realtimeRoutingVersion);
+      int estimatedSizeInBytes = ENTRY_OVERHEAD_BYTES;
+      for (String segment : segments) {
+        estimatedSizeInBytes += SEGMENT_OVERHEAD_BYTES + 2 * segment.length();
+      }
+      _estimatedSizeInBytes = estimatedSizeInBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _offlineRoutingVersion == that._offlineRoutingVersion
+          && _realtimeRoutingVersion == that._realtimeRoutingVersion && _hashCode == that._hashCode && _segments
+          .equals(that._segments) && _brokerRequest.equals(that._brokerRequest);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
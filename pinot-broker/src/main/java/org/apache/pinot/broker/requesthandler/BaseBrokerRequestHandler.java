@@ -44,6 +44,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.cache.BrokerResultCache;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingManager;
 import org.apache.pinot.broker.routing.RoutingTable;
@@ -123,6 +124,9 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   private final int _defaultHllLog2m;
   private final boolean _enableQueryLimitOverride;
   private final boolean _enableDistinctCountBitmapOverride;
+  private final int _dataTableVersion;
+  private final String _dataTableCompressionType;
+  private final BrokerResultCache _resultCache;
 
   public BaseBrokerRequestHandler(PinotConfiguration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
@@ -150,6 +154,16 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
         Broker.DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND));
     _numDroppedLog = new AtomicInteger(0);
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
+    _dataTableVersion = config.getProperty(Broker.CONFIG_OF_DATA_TABLE_VERSION, Broker.DEFAULT_DATA_TABLE_VERSION);
+    _dataTableCompressionType = config.getProperty(Broker.CONFIG_OF_DATA_TABLE_COMPRESSION_TYPE);
+    if (config.getProperty(Broker.CONFIG_OF_ENABLE_RESULT_CACHE, Broker.DEFAULT_ENABLE_RESULT_CACHE)) {
+      _resultCache = new BrokerResultCache(
+          config.getProperty(Broker.CONFIG_OF_RESULT_CACHE_MAX_SIZE_BYTES, Broker.DEFAULT_RESULT_CACHE_MAX_SIZE_BYTES),
+          config.getProperty(Broker.CONFIG_OF_RESULT_CACHE_EXPIRE_AFTER_WRITE_MS,
+              Broker.DEFAULT_RESULT_CACHE_EXPIRE_AFTER_WRITE_MS), brokerMetrics);
+    } else {
+      _resultCache = null;
+    }
 
     _brokerReduceService = new BrokerReduceService(_config);
     LOGGER
@@ -307,6 +321,12 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
       return new BrokerResponseNative(QueryException.getException(QueryException.QUERY_VALIDATION_ERROR, e));
     }
 
+    // NOTE: Read the routing versions before attaching the time boundary and calculating the routing tables so that a
+    //       routing change in between can be detected, and the result cache won't store the results computed from the
+    //       old routing under the new version.
+    long offlineRoutingVersion = getRoutingVersion(offlineTableName);
+    long realtimeRoutingVersion = getRoutingVersion(realtimeTableName);
+
     // Optimize the query
     // TODO: get time column name from schema or table config so that we can apply it for REALTIME only case
     // We get timeColumnName from time boundary service currently, which only exists for offline table
@@ -375,35 +395,65 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long routingEndTimeNs = System.nanoTime();
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_ROUTING, routingEndTimeNs - routingStartTimeNs);
 
-    // Set timeout in the requests
-    long timeSpentMs = TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
-    // Remaining time in milliseconds for the server query execution
-    // NOTE: For hybrid use case, in most cases offline table and real-time table should have the same query timeout
-    //       configured, but if necessary, we also allow different timeout for them.
-    //       If the timeout is not the same for offline table and real-time table, use the max of offline table
-    //       remaining time and realtime table remaining time. Server side will have different remaining time set for
-    //       each table type, and broker should wait for both types to return.
-    long remainingTimeMs = 0;
-    try {
+    // Look up the result cache
+    // NOTE: Only cache the results when no real-time segment is queried (offline table, or hybrid table with the query
+    //       time range falling fully on the offline side of the time boundary so that all the real-time segments are
+    //       pruned), all the segments are available, and the routing did not change while calculating the routing
+    //       tables. The key is created before setting the query timeout. For hybrid table, the key contains the time
+    //       boundary (attached to the offline request) and the real-time routing version, so that moving the time
+    //       boundary or adding real-time segments invalidates the entry.
+    BrokerResultCache.Key resultCacheKey = null;
+    BrokerResponse brokerResponse = null;
+    if (_resultCache != null && realtimeBrokerRequest == null && numUnavailableSegments == 0 && !brokerRequest
+        .isEnableTrace() && isRoutingVersionUnchanged(offlineTableName, offlineRoutingVersion, realtimeTableName,
+        realtimeRoutingVersion)) {
+      resultCacheKey = BrokerResultCache
+          .getKey(offlineBrokerRequest, offlineRoutingTable, offlineRoutingVersion, realtimeRoutingVersion);
+      brokerResponse = _resultCache.get(resultCacheKey, rawTableName);
+    }
+
+    ServerStats serverStats = new ServerStats();
+    if (brokerResponse == null) {
+      // Set timeout in the requests
+      long timeSpentMs = TimeUnit.NANOSECONDS.toMillis(routingEndTimeNs - compilationStartTimeNs);
+      // Remaining time in milliseconds for the server query execution
+      // NOTE: For hybrid use case, in most cases offline table and real-time table should have the same query timeout
+      //       configured, but if necessary, we also allow different timeout for them.
+      //       If the timeout is not the same for offline table and real-time table, use the max of offline table
+      //       remaining time and realtime table remaining time. Server side will have different remaining time set for
+      //       each table type, and broker should wait for both types to return.
+      long remainingTimeMs = 0;
+      try {
+        if (offlineBrokerRequest != null) {
+          remainingTimeMs = setQueryTimeout(offlineTableName, offlineBrokerRequest.getQueryOptions(), timeSpentMs);
+        }
+        if (realtimeBrokerRequest != null) {
+          remainingTimeMs = Math.max(remainingTimeMs,
+              setQueryTimeout(realtimeTableName, realtimeBrokerRequest.getQueryOptions(), timeSpentMs));
+        }
+      } catch (TimeoutException e) {
+        String errorMessage = e.getMessage();
+        LOGGER.info("{} {}: {}", errorMessage, requestId, query);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_TIMEOUT_BEFORE_SCATTERED_EXCEPTIONS, 1);
+        return new BrokerResponseNative(QueryException.getException(QueryException.BROKER_TIMEOUT_ERROR, errorMessage));
+      }
+
+      // Set the data table options in the requests
       if (offlineBrokerRequest != null) {
-        remainingTimeMs = setQueryTimeout(offlineTableName, offlineBrokerRequest.getQueryOptions(), timeSpentMs);
+        setDataTableOptions(offlineBrokerRequest.getQueryOptions());
       }
       if (realtimeBrokerRequest != null) {
-        remainingTimeMs = Math.max(remainingTimeMs,
-            setQueryTimeout(realtimeTableName, realtimeBrokerRequest.getQueryOptions(), timeSpentMs));
+        setDataTableOptions(realtimeBrokerRequest.getQueryOptions());
       }
-    } catch (TimeoutException e) {
-      String errorMessage = e.getMessage();
-      LOGGER.info("{} {}: {}", errorMessage, requestId, query);
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_TIMEOUT_BEFORE_SCATTERED_EXCEPTIONS, 1);
-      return new BrokerResponseNative(QueryException.getException(QueryException.BROKER_TIMEOUT_ERROR, errorMessage));
-    }
 
-    // Execute the query
-    ServerStats serverStats = new ServerStats();
-    BrokerResponse brokerResponse =
-        processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
+      // Execute the query
+      brokerResponse = processBrokerRequest(requestId, brokerRequest, offlineBrokerRequest, offlineRoutingTable,
+          realtimeBrokerRequest, realtimeRoutingTable, remainingTimeMs, serverStats, requestStatistics);
+      if (resultCacheKey != null && isRoutingVersionUnchanged(offlineTableName, offlineRoutingVersion,
+          realtimeTableName, realtimeRoutingVersion)) {
+        _resultCache.put(resultCacheKey, brokerResponse);
+      }
+    }
     long executionEndTimeNs = System.nanoTime();
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION, executionEndTimeNs - routingEndTimeNs);
@@ -1078,6 +1128,19 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     }
   }
 
+  /**
+   * Sets the data table version and compression type to request from the servers into the query options, unless they
+   * are already set in the query.
+   */
+  private void setDataTableOptions(Map<String, String> queryOptions) {
+    if (_dataTableVersion != Broker.DEFAULT_DATA_TABLE_VERSION) {
+      queryOptions.putIfAbsent(Broker.Request.QueryOptionKey.DATA_TABLE_VERSION, Integer.toString(_dataTableVersion));
+    }
+    if (_dataTableCompressionType != null) {
+      queryOptions.putIfAbsent(Broker.Request.QueryOptionKey.DATA_TABLE_COMPRESSION_TYPE, _dataTableCompressionType);
+    }
+  }
+
   /**
    * Sets the query timeout (remaining time in milliseconds) into the query options, and returns the remaining time in
    * milliseconds.
@@ -1245,6 +1308,22 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     }
   }
 
+  /**
+   * Returns the routing version of the given table, or -1 if the table is not queried.
+   */
+  private long getRoutingVersion(@Nullable String tableNameWithType) {
+    return tableNameWithType != null ? _routingManager.getRoutingVersion(tableNameWithType) : -1;
+  }
+
+  /**
+   * Returns {@code true} if the routing versions of the queried tables are the same as the given ones.
+   */
+  private boolean isRoutingVersionUnchanged(@Nullable String offlineTableName, long offlineRoutingVersion,
+      @Nullable String realtimeTableName, long realtimeRoutingVersion) {
+    return getRoutingVersion(offlineTableName) == offlineRoutingVersion
+        && getRoutingVersion(realtimeTableName) == realtimeRoutingVersion;
+  }
+
   /**
    * Helper method to get the time column name for the OFFLINE table name from the time boundary service, or
    * <code>null</code> if the time boundary service does not have the information.
@@ -28,6 +28,7 @@ import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.broker.AccessControlFactory;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.RoutingManager;
+import org.apache.pinot.broker.routing.instanceselector.ServerLoadTracker;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
@@ -36,14 +37,18 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.helix.TableCache;
+import org.apache.pinot.core.query.reduce.StreamingBrokerReducer;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
+import org.apache.pinot.core.transport.RequestHedger;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
@@ -60,7 +65,15 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
       BrokerMetrics brokerMetrics) {
     super(config, routingManager, accessControlFactory, queryQuotaManager, tableCache, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    RequestHedger requestHedger = null;
+    if (config.getProperty(Broker.CONFIG_OF_ENABLE_HEDGED_REQUESTS, Broker.DEFAULT_ENABLE_HEDGED_REQUESTS)) {
+      requestHedger = new RequestHedger(routingManager::getHedgeServer,
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUESTS_LATENCY_PERCENTILE,
+              Broker.DEFAULT_HEDGED_REQUESTS_LATENCY_PERCENTILE),
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUESTS_BUDGET_RATIO,
+              Broker.DEFAULT_HEDGED_REQUESTS_BUDGET_RATIO));
+    }
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, requestHedger);
   }
 
   @Override
@@ -83,32 +96,57 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
     long scatterGatherStartTimeNs = System.nanoTime();
+    Map<ServerRoutingInstance, String> serverToInstanceIdMap = new HashMap<>();
+    addServerInstanceIds(serverToInstanceIdMap, offlineRoutingTable, TableType.OFFLINE);
+    addServerInstanceIds(serverToInstanceIdMap, realtimeRoutingTable, TableType.REALTIME);
+    ServerLoadTracker serverLoadTracker = _routingManager.getServerLoadTracker();
+    for (String instanceId : serverToInstanceIdMap.values()) {
+      serverLoadTracker.recordRequestSent(instanceId);
+    }
+    // When streaming reduce is enabled for the query, the data tables are reduced as they arrive instead of being kept
+    // in the server responses
+    StreamingBrokerReducer streamingBrokerReducer =
+        _brokerReduceService.getStreamingBrokerReducer(originalBrokerRequest, timeoutMs);
     AsyncQueryResponse asyncQueryResponse = _queryRouter
         .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, timeoutMs);
-    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+            realtimeRoutingTable, timeoutMs, streamingBrokerReducer);
+    Map<ServerRoutingInstance, ServerResponse> response = null;
+    try {
+      response = asyncQueryResponse.getResponse();
+    } finally {
+      recordServerResponses(serverLoadTracker, serverToInstanceIdMap, response, timeoutMs);
+    }
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
     // TODO Use scatterGatherStats as serverStats
     serverStats.setServerStats(asyncQueryResponse.getStats());
 
     int numServersQueried = response.size();
+    int numServersResponded = 0;
     long totalResponseSize = 0;
     Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>(HashUtil.getHashMapCapacity(numServersQueried));
     for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : response.entrySet()) {
       ServerResponse serverResponse = entry.getValue();
-      DataTable dataTable = serverResponse.getDataTable();
-      if (dataTable != null) {
-        dataTableMap.put(entry.getKey(), dataTable);
+      if (serverResponse.hasResponded()) {
+        numServersResponded++;
         totalResponseSize += serverResponse.getResponseSize();
+        // NOTE: Data table is already released if it is consumed by the streaming broker reducer
+        DataTable dataTable = serverResponse.getDataTable();
+        if (dataTable != null) {
+          dataTableMap.put(entry.getKey(), dataTable);
+        }
       }
     }
-    int numServersResponded = dataTableMap.size();
 
     long reduceStartTimeNs = System.nanoTime();
-    long reduceTimeOutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
-    BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, reduceTimeOutMs, _brokerMetrics);
+    BrokerResponseNative brokerResponse;
+    if (streamingBrokerReducer != null) {
+      brokerResponse = streamingBrokerReducer.seal(_brokerMetrics);
+    } else {
+      long reduceTimeOutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
+      brokerResponse =
+          _brokerReduceService.reduceOnDataTable(originalBrokerRequest, dataTableMap, reduceTimeOutMs, _brokerMetrics);
+    }
     final long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
     requestStatistics.setReduceTimeNanos(reduceTimeNanos);
     _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
@@ -132,4 +170,32 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     return brokerResponse;
   }
+
+  private static void addServerInstanceIds(Map<ServerRoutingInstance, String> serverToInstanceIdMap,
+      @Nullable Map<ServerInstance, List<String>> routingTable, TableType tableType) {
+    if (routingTable != null) {
+      for (ServerInstance serverInstance : routingTable.keySet()) {
+        serverToInstanceIdMap.put(serverInstance.toServerRoutingInstance(tableType), serverInstance.getInstanceId());
+      }
+    }
+  }
+
+  /**
+   * Records the response latency of each queried server into the server load tracker. Servers not responding in time
+   * are recorded with the query timeout as the latency.
+   */
+  private static void recordServerResponses(ServerLoadTracker serverLoadTracker,
+      Map<ServerRoutingInstance, String> serverToInstanceIdMap,
+      @Nullable Map<ServerRoutingInstance, ServerResponse> response, long timeoutMs) {
+    for (Map.Entry<ServerRoutingInstance, String> entry : serverToInstanceIdMap.entrySet()) {
+      ServerResponse serverResponse = response != null ? response.get(entry.getKey()) : null;
+      long latencyMs;
+      if (serverResponse != null && serverResponse.hasResponded()) {
+        latencyMs = serverResponse.getResponseDelayMs();
+      } else {
+        latencyMs = timeoutMs;
+      }
+      serverLoadTracker.recordResponse(entry.getValue(), latencyMs);
+    }
+  }
 }
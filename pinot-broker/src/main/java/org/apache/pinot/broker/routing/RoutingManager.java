@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.helix.AccessOption;
 import org.apache.helix.BaseDataAccessor;
@@ -41,6 +42,8 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.broker.broker.helix.ClusterChangeHandler;
 import org.apache.pinot.broker.routing.instanceselector.InstanceSelector;
 import org.apache.pinot.broker.routing.instanceselector.InstanceSelectorFactory;
+import org.apache.pinot.broker.routing.instanceselector.ReplicaGroupInstanceSelector;
+import org.apache.pinot.broker.routing.instanceselector.ServerLoadTracker;
 import org.apache.pinot.broker.routing.segmentpreselector.SegmentPreSelector;
 import org.apache.pinot.broker.routing.segmentpreselector.SegmentPreSelectorFactory;
 import org.apache.pinot.broker.routing.segmentpruner.SegmentPruner;
@@ -77,6 +80,11 @@ import org.slf4j.LoggerFactory;
  *   <li>{@link #getRoutingTable(BrokerRequest)}: Returns the routing table for a query</li>
  *   <li>{@link #getTimeBoundaryInfo(String)}: Returns the time boundary info for a table</li>
  *   <li>{@link #getQueryTimeoutMs(String)}: Returns the table-level query timeout in milliseconds for a table</li>
+ *   <li>{@link #getServerLoadTracker()}: Returns the tracker for the server load used by the adaptive routing</li>
+ *   <li>
+ *     {@link #getHedgeServer(String, List, ServerInstance)}: Returns the server to send the hedged request to for a
+ *     slow server (replica-group routing only)
+ *   </li>
  * </ul>
  *
  * TODO: Expose RoutingEntry class to get a consistent view in the broker request handler and save the redundant map
@@ -88,6 +96,10 @@ public class RoutingManager implements ClusterChangeHandler {
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
+  private final ServerLoadTracker _serverLoadTracker = new ServerLoadTracker();
+  // Generates the routing versions, which are unique across routing entries so that a rebuilt routing never reuses the
+  // version of the previous routing entry for the same table
+  private final AtomicLong _routingVersionGenerator = new AtomicLong();
 
   private BaseDataAccessor<ZNRecord> _zkDataAccessor;
   private String _externalViewPathPrefix;
@@ -161,7 +173,7 @@ public class RoutingManager implements ClusterChangeHandler {
                   .warn("Failed to find ideal state for table: {}, skipping updating routing entry", tableNameWithType);
               continue;
             }
-            routingEntry.onExternalViewChange(externalView, idealState);
+            routingEntry.onExternalViewChange(externalView, idealState, _routingVersionGenerator.incrementAndGet());
           } catch (Exception e) {
             LOGGER
                 .error("Caught unexpected exception while updating routing entry on external view change for table: {}",
@@ -261,6 +273,9 @@ public class RoutingManager implements ClusterChangeHandler {
     // Remove new disabled instances from _enabledServerInstanceMap after updating all routing entries to ensure it
     // always contains the selected instances
     _enabledServerInstanceMap.keySet().removeAll(newDisabledInstances);
+    // Also drop the load tracked for the instances not enabled, including the ones tracked by queries in flight while
+    // the instance was removed
+    _serverLoadTracker.retainInstances(_enabledServerInstanceMap.keySet());
 
     LOGGER.info(
         "Processed instance config change in {}ms (fetch {} instance configs: {}ms, calculate changed instances: {}ms, update {} routing entries: {}ms), new enabled instances: {}, new disabled instances: {}",
@@ -319,7 +334,8 @@ public class RoutingManager implements ClusterChangeHandler {
     for (SegmentPruner segmentPruner : segmentPruners) {
       segmentPruner.init(externalView, idealState, preSelectedOnlineSegments);
     }
-    InstanceSelector instanceSelector = InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics);
+    InstanceSelector instanceSelector =
+        InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics, _serverLoadTracker);
     instanceSelector.init(_enabledServerInstanceMap.keySet(), externalView, idealState, preSelectedOnlineSegments);
 
     // Add time boundary manager if both offline and real-time part exist for a hybrid table
@@ -371,7 +387,7 @@ public class RoutingManager implements ClusterChangeHandler {
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, segmentPreSelector, segmentSelector, segmentPruners, instanceSelector,
-            externalViewVersion, timeBoundaryManager, queryTimeoutMs);
+            externalViewVersion, timeBoundaryManager, queryTimeoutMs, _routingVersionGenerator.incrementAndGet());
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -426,7 +442,7 @@ public class RoutingManager implements ClusterChangeHandler {
     LOGGER.info("Refreshing segment: {} for table: {}", segment, tableNameWithType);
     RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
     if (routingEntry != null) {
-      routingEntry.refreshSegment(segment);
+      routingEntry.refreshSegment(segment, _routingVersionGenerator.incrementAndGet());
       LOGGER.info("Refreshed segment: {} for table: {}", segment, tableNameWithType);
     } else {
       LOGGER.warn("Routing does not exist for table: {}, skipping refreshing segment", tableNameWithType);
@@ -440,6 +456,16 @@ public class RoutingManager implements ClusterChangeHandler {
     return _routingEntryMap.containsKey(tableNameWithType);
   }
 
+  /**
+   * Returns the routing version for the given table, or {@code -1} if the routing does not exist.
+   * <p>The routing version changes whenever the routing is rebuilt, the external view (which also reflects the segment
+   * lineage changes) is processed, or a segment is refreshed, so it can be used to invalidate the cached query results.
+   */
+  public long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : -1;
+  }
+
   /**
    * Returns the routing table (a map from server instance to list of segments hosted by the server, and a list of
    * unavailable segments) based on the broker request, or {@code null} if the routing does not exist.
@@ -492,6 +518,60 @@ public class RoutingManager implements ClusterChangeHandler {
     return routingEntry != null ? routingEntry.getQueryTimeoutMs() : null;
   }
 
+  /**
+   * Returns the tracker for the load of the server instances, which should be updated for all the queries routed to
+   * the servers.
+   */
+  public ServerLoadTracker getServerLoadTracker() {
+    return _serverLoadTracker;
+  }
+
+  /**
+   * Returns the least loaded enabled server other than the given server which serves all the given segments of the
+   * given table, or {@code null} if there is no such server. Used to pick the server for the hedged requests.
+   * <p>NOTE: Only tables with replica-group routing are hedged. With the other routing strategies, the segments routed
+   * to a server are spread across the replicas, so another server hosting all of them hardly ever exists, and looking
+   * for it would only cost CPU on the hedge path.
+   */
+  @Nullable
+  public ServerInstance getHedgeServer(String tableNameWithType, List<String> segments, ServerInstance serverInstance) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null || segments.isEmpty()) {
+      return null;
+    }
+    InstanceSelector instanceSelector = routingEntry._instanceSelector;
+    if (!(instanceSelector instanceof ReplicaGroupInstanceSelector)) {
+      return null;
+    }
+    List<String> candidateInstances = instanceSelector.getEnabledInstances(segments.get(0));
+    if (candidateInstances == null) {
+      return null;
+    }
+    String hedgeInstance = null;
+    double minLoadScore = Double.MAX_VALUE;
+    for (String candidateInstance : candidateInstances) {
+      if (candidateInstance.equals(serverInstance.getInstanceId())) {
+        continue;
+      }
+      boolean servesAllSegments = true;
+      for (String segment : segments) {
+        List<String> enabledInstances = instanceSelector.getEnabledInstances(segment);
+        if (enabledInstances == null || !enabledInstances.contains(candidateInstance)) {
+          servesAllSegments = false;
+          break;
+        }
+      }
+      if (servesAllSegments) {
+        double loadScore = _serverLoadTracker.getLoadScore(candidateInstance);
+        if (loadScore < minLoadScore) {
+          hedgeInstance = candidateInstance;
+          minLoadScore = loadScore;
+        }
+      }
+    }
+    return hedgeInstance != null ? _enabledServerInstanceMap.get(hedgeInstance) : null;
+  }
+
   private static class RoutingEntry {
     final String _tableNameWithType;
     final SegmentPreSelector _segmentPreSelector;
@@ -504,10 +584,12 @@ public class RoutingManager implements ClusterChangeHandler {
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Routing version, updated after each change applied to the routing entry
+    transient long _routingVersion;
 
     RoutingEntry(String tableNameWithType, SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector,
         List<SegmentPruner> segmentPruners, InstanceSelector instanceSelector, int lastUpdateExternalViewVersion,
-        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs) {
+        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs, long routingVersion) {
       _tableNameWithType = tableNameWithType;
       _segmentPreSelector = segmentPreSelector;
       _segmentSelector = segmentSelector;
@@ -516,6 +598,7 @@ public class RoutingManager implements ClusterChangeHandler {
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _queryTimeoutMs = queryTimeoutMs;
+      _routingVersion = routingVersion;
     }
 
     String getTableNameWithType() {
@@ -539,10 +622,14 @@ public class RoutingManager implements ClusterChangeHandler {
       return _queryTimeoutMs;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
-    void onExternalViewChange(ExternalView externalView, IdealState idealState) {
+    void onExternalViewChange(ExternalView externalView, IdealState idealState, long routingVersion) {
       Set<String> onlineSegments = getOnlineSegments(idealState);
       Set<String> preSelectedOnlineSegments = _segmentPreSelector.preSelect(onlineSegments);
       _segmentSelector.onExternalViewChange(externalView, idealState, preSelectedOnlineSegments);
@@ -554,19 +641,21 @@ public class RoutingManager implements ClusterChangeHandler {
         _timeBoundaryManager.onExternalViewChange(externalView, idealState, preSelectedOnlineSegments);
       }
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      _routingVersion = routingVersion;
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
       _instanceSelector.onInstancesChange(enabledInstances, changedInstances);
     }
 
-    void refreshSegment(String segment) {
+    void refreshSegment(String segment, long routingVersion) {
       for (SegmentPruner segmentPruner : _segmentPruners) {
         segmentPruner.refreshSegment(segment);
       }
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      _routingVersion = routingVersion;
     }
 
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest) {
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.instanceselector;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.utils.HashUtil;
+
+
+/**
+ * Instance selector to route the query to the least loaded replica of each segment, based on the live server load
+ * (latency EWMA and in-flight requests) tracked by the {@link ServerLoadTracker}.
+ * <p>The load score of each server is read once per query, and is increased with the number of segments already
+ * assigned to the server within the query, so that the segments are spread over the replicas in proportion to how fast
+ * each server is, instead of all going to the fastest one. Ties (e.g. servers without any query routed yet) are broken
+ * in a round-robin fashion based on the request id, same as the {@link BalancedInstanceSelector}.
+ */
+public class AdaptiveInstanceSelector extends BaseInstanceSelector {
+  private final ServerLoadTracker _serverLoadTracker;
+
+  public AdaptiveInstanceSelector(String tableNameWithType, BrokerMetrics brokerMetrics,
+      ServerLoadTracker serverLoadTracker) {
+    super(tableNameWithType, brokerMetrics);
+    _serverLoadTracker = serverLoadTracker;
+  }
+
+  @Override
+  Map<String, String> select(List<String> segments, int requestId,
+      Map<String, List<String>> segmentToEnabledInstancesMap) {
+    int numSegments = segments.size();
+    Map<String, String> segmentToSelectedInstanceMap = new HashMap<>(HashUtil.getHashMapCapacity(numSegments));
+    Map<String, InstanceLoad> instanceLoadMap = new HashMap<>();
+    for (String segment : segments) {
+      List<String> enabledInstances = segmentToEnabledInstancesMap.get(segment);
+      // NOTE: enabledInstances can be null when there is no enabled instances for the segment, or the instance selector
+      // has not been updated (we update all components for routing in sequence)
+      if (enabledInstances != null) {
+        int numEnabledInstances = enabledInstances.size();
+        InstanceLoad selectedInstanceLoad = null;
+        double minScore = Double.MAX_VALUE;
+        for (int i = 0; i < numEnabledInstances; i++) {
+          String instance = enabledInstances.get((requestId + i) % numEnabledInstances);
+          InstanceLoad instanceLoad = instanceLoadMap
+              .computeIfAbsent(instance, k -> new InstanceLoad(k, _serverLoadTracker.getLoadScore(k)));
+          double score = instanceLoad._loadScore * (1 + (double) instanceLoad._numSegmentsAssigned / numSegments);
+          if (score < minScore) {
+            selectedInstanceLoad = instanceLoad;
+            minScore = score;
+          }
+        }
+        requestId++;
+        if (selectedInstanceLoad != null) {
+          selectedInstanceLoad._numSegmentsAssigned++;
+          segmentToSelectedInstanceMap.put(segment, selectedInstanceLoad._instance);
+        }
+      }
+    }
+    return segmentToSelectedInstanceMap;
+  }
+
+  private static class InstanceLoad {
+    final String _instance;
+    final double _loadScore;
+    int _numSegmentsAssigned;
+
+    InstanceLoad(String instance, double loadScore) {
+      _instance = instance;
+      _loadScore = loadScore;
+    }
+  }
+}
@@ -257,6 +257,12 @@ abstract class BaseInstanceSelector implements InstanceSelector {
     }
   }
 
+  @Nullable
+  @Override
+  public List<String> getEnabledInstances(String segment) {
+    return _segmentToEnabledInstancesMap.get(segment);
+  }
+
   /**
    * Selects the server instances for the given segments based on the request id and segment to enabled ONLINE/CONSUMING
    * instances map, returns a map from segment to selected server instance hosting the segment.
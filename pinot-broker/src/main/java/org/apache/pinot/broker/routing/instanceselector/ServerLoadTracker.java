@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.instanceselector;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The server load tracker keeps track of the load of each server instance based on the queries routed to it: the
+ * exponentially weighted moving average (EWMA) of the response latency, and the number of in-flight requests.
+ * <p>The latency EWMA decays towards 0 while the server is not responding to any query, so that a server avoided for
+ * being slow (e.g. stuck in GC or loading segments) gets probed again after a while, and can be picked again once it
+ * recovers.
+ * <p>One tracker is shared by all the tables of the broker, and is updated by the request handler for every query. The
+ * entries for the server instances that are no longer enabled are removed when the routing is updated on instance
+ * changes.
+ */
+@ThreadSafe
+public class ServerLoadTracker {
+  // Weight of the latest response latency in the latency EWMA
+  static final double LATENCY_EWMA_ALPHA = 0.3;
+  // Half-life of the latency EWMA while the server is not responding
+  static final long LATENCY_EWMA_HALF_LIFE_MS = 10_000L;
+
+  private final Map<String, ServerLoad> _serverLoadMap = new ConcurrentHashMap<>();
+
+  /**
+   * Records that a request is sent to the given server instance.
+   */
+  public void recordRequestSent(String instanceId) {
+    _serverLoadMap.computeIfAbsent(instanceId, k -> new ServerLoad()).recordRequestSent();
+  }
+
+  /**
+   * Records the response latency for a request sent to the given server instance. Should be called once for each
+   * request sent, with the query timeout as the latency if the server did not respond in time.
+   */
+  public void recordResponse(String instanceId, long latencyMs) {
+    recordResponse(instanceId, latencyMs, System.currentTimeMillis());
+  }
+
+  /**
+   * Returns the load score of the given server instance, where lower score means less loaded. The score is computed as
+   * {@code (latencyEwmaMs + 1) * (numInFlightRequests + 1)}, and is 1 for servers without any query routed to it.
+   */
+  public double getLoadScore(String instanceId) {
+    return getLoadScore(instanceId, System.currentTimeMillis());
+  }
+
+  /**
+   * Removes the load of the server instances not in the given set of enabled server instances. Should be called when
+   * server instances are removed from the routing so that the tracker does not grow unbounded as servers come and go.
+   * The load of a server instance re-added later starts fresh.
+   */
+  public void retainInstances(Set<String> enabledInstances) {
+    _serverLoadMap.keySet().retainAll(enabledInstances);
+  }
+
+  @VisibleForTesting
+  int getNumTrackedInstances() {
+    return _serverLoadMap.size();
+  }
+
+  @VisibleForTesting
+  double getLoadScore(String instanceId, long currentTimeMs) {
+    ServerLoad serverLoad = _serverLoadMap.get(instanceId);
+    return serverLoad != null ? serverLoad.getLoadScore(currentTimeMs) : 1;
+  }
+
+  @VisibleForTesting
+  void recordResponse(String instanceId, long latencyMs, long currentTimeMs) {
+    _serverLoadMap.computeIfAbsent(instanceId, k -> new ServerLoad()).recordResponse(latencyMs, currentTimeMs);
+  }
+
+  private static class ServerLoad {
+    double _latencyEwmaMs;
+    long _lastResponseTimeMs;
+    int _numInFlightRequests;
+
+    synchronized void recordRequestSent() {
+      _numInFlightRequests++;
+    }
+
+    synchronized void recordResponse(long latencyMs, long currentTimeMs) {
+      if (_numInFlightRequests > 0) {
+        _numInFlightRequests--;
+      }
+      if (_lastResponseTimeMs == 0) {
+        _latencyEwmaMs = latencyMs;
+      } else {
+        _latencyEwmaMs =
+            LATENCY_EWMA_ALPHA * latencyMs + (1 - LATENCY_EWMA_ALPHA) * getDecayedLatencyEwmaMs(currentTimeMs);
+      }
+      _lastResponseTimeMs = currentTimeMs;
+    }
+
+    synchronized double getLoadScore(long currentTimeMs) {
+      return (getDecayedLatencyEwmaMs(currentTimeMs) + 1) * (_numInFlightRequests + 1);
+    }
+
+    private double getDecayedLatencyEwmaMs(long currentTimeMs) {
+      long timeSinceLastResponseMs = currentTimeMs - _lastResponseTimeMs;
+      if (timeSinceLastResponseMs <= 0) {
+        return _latencyEwmaMs;
+      }
+      return _latencyEwmaMs * Math.pow(0.5, (double) timeSinceLastResponseMs / LATENCY_EWMA_HALF_LIFE_MS);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class BrokerResultCacheTest {
+  private static final CalciteSqlCompiler COMPILER = new CalciteSqlCompiler();
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String QUERY = "SELECT COUNT(*) FROM testTable_OFFLINE WHERE foo = 'bar'";
+  private static final ServerInstance SERVER_INSTANCE_1 = new ServerInstance(new InstanceConfig("Server_localhost_1"));
+  private static final ServerInstance SERVER_INSTANCE_2 = new ServerInstance(new InstanceConfig("Server_localhost_2"));
+
+  @Test
+  public void testGetAndPut() {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024, 3_600_000L, mock(BrokerMetrics.class));
+
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    Map<ServerInstance, List<String>> routingTable = new HashMap<>();
+    routingTable.put(SERVER_INSTANCE_1, Arrays.asList("segment0", "segment1"));
+    routingTable.put(SERVER_INSTANCE_2, Collections.singletonList("segment2"));
+    BrokerResultCache.Key key = BrokerResultCache.getKey(brokerRequest, routingTable, 1L, -1L);
+    assertNull(resultCache.get(key, RAW_TABLE_NAME));
+
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumServersQueried(2);
+    brokerResponse.setNumServersResponded(2);
+    brokerResponse.setNumDocsScanned(123L);
+    resultCache.put(key, brokerResponse);
+    assertEquals(resultCache.size(), 1);
+
+    // Changes applied to the broker request after creating the key should not affect the key
+    brokerRequest.putToQueryOptions(QueryOptionKey.TIMEOUT_MS, "1000");
+
+    // Same query served by different replicas should hit the cache
+    BrokerRequest sameBrokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    Map<ServerInstance, List<String>> sameRoutingTable = new HashMap<>();
+    sameRoutingTable.put(SERVER_INSTANCE_1, Collections.singletonList("segment2"));
+    sameRoutingTable.put(SERVER_INSTANCE_2, Arrays.asList("segment1", "segment0"));
+    BrokerResponseNative cachedResponse =
+        resultCache.get(BrokerResultCache.getKey(sameBrokerRequest, sameRoutingTable, 1L, -1L), RAW_TABLE_NAME);
+    assertNotNull(cachedResponse);
+    assertNotSame(cachedResponse, brokerResponse);
+    assertEquals(cachedResponse.getNumDocsScanned(), 123L);
+
+    // Different routing version (e.g. external view changed)
+    assertNull(
+        resultCache.get(BrokerResultCache.getKey(sameBrokerRequest, sameRoutingTable, 2L, -1L), RAW_TABLE_NAME));
+
+    // Different real-time routing version (e.g. real-time segments added to the hybrid table)
+    assertNull(
+        resultCache.get(BrokerResultCache.getKey(sameBrokerRequest, sameRoutingTable, 1L, 1L), RAW_TABLE_NAME));
+
+    // Different segments
+    sameRoutingTable.put(SERVER_INSTANCE_1, Arrays.asList("segment2", "segment3"));
+    assertNull(
+        resultCache.get(BrokerResultCache.getKey(sameBrokerRequest, sameRoutingTable, 1L, -1L), RAW_TABLE_NAME));
+
+    // Different query
+    BrokerRequest differentBrokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable_OFFLINE WHERE foo = 'baz'");
+    assertNull(
+        resultCache.get(BrokerResultCache.getKey(differentBrokerRequest, routingTable, 1L, -1L), RAW_TABLE_NAME));
+  }
+
+  @Test
+  public void testSkipIncompleteResponse() {
+    BrokerResultCache resultCache = new BrokerResultCache(1024 * 1024, 3_600_000L, mock(BrokerMetrics.class));
+    Map<ServerInstance, List<String>> routingTable =
+        Collections.singletonMap(SERVER_INSTANCE_1, Collections.singletonList("segment0"));
+    BrokerResultCache.Key key =
+        BrokerResultCache.getKey(COMPILER.compileToBrokerRequest(QUERY), routingTable, 1L, -1L);
+
+    // Response with exceptions
+    BrokerResponseNative brokerResponse =
+        new BrokerResponseNative(QueryException.getException(QueryException.BROKER_TIMEOUT_ERROR, "timeout"));
+    resultCache.put(key, brokerResponse);
+    assertEquals(resultCache.size(), 0);
+
+    // Response with servers not responded
+    brokerResponse = new BrokerResponseNative();
+    brokerResponse.setNumServersQueried(2);
+    brokerResponse.setNumServersResponded(1);
+    resultCache.put(key, brokerResponse);
+    assertEquals(resultCache.size(), 0);
+  }
+
+  @Test
+  public void testEviction() {
+    // Each entry takes more than 1KB, so the cache can hold less than 10 entries
+    BrokerResultCache resultCache = new BrokerResultCache(10 * 1024, 3_600_000L, mock(BrokerMetrics.class));
+    Map<ServerInstance, List<String>> routingTable =
+        Collections.singletonMap(SERVER_INSTANCE_1, Collections.singletonList("segment0"));
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(QUERY);
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    for (int i = 0; i < 100; i++) {
+      resultCache.put(BrokerResultCache.getKey(brokerRequest, routingTable, i, -1L), brokerResponse);
+    }
+    assertTrue(resultCache.size() < 10);
+    assertNotNull(resultCache.get(BrokerResultCache.getKey(brokerRequest, routingTable, 99, -1L), RAW_TABLE_NAME));
+    assertNull(resultCache.get(BrokerResultCache.getKey(brokerRequest, routingTable, 0, -1L), RAW_TABLE_NAME));
+  }
+}
@@ -51,26 +51,32 @@ public class InstanceSelectorTest {
   public void testInstanceSelectorFactory() {
     TableConfig tableConfig = mock(TableConfig.class);
     BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
 
     // Routing config is missing
-    assertTrue(
-        InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics) instanceof BalancedInstanceSelector);
+    assertTrue(InstanceSelectorFactory
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof BalancedInstanceSelector);
 
     // Instance selector type is not configured
     RoutingConfig routingConfig = mock(RoutingConfig.class);
     when(tableConfig.getRoutingConfig()).thenReturn(routingConfig);
-    assertTrue(
-        InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics) instanceof BalancedInstanceSelector);
+    assertTrue(InstanceSelectorFactory
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof BalancedInstanceSelector);
 
     // Replica-group instance selector should be returned
     when(routingConfig.getInstanceSelectorType()).thenReturn(RoutingConfig.REPLICA_GROUP_INSTANCE_SELECTOR_TYPE);
     assertTrue(InstanceSelectorFactory
-        .getInstanceSelector(tableConfig, brokerMetrics) instanceof ReplicaGroupInstanceSelector);
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof ReplicaGroupInstanceSelector);
 
     // Strict replica-group instance selector should be returned
     when(routingConfig.getInstanceSelectorType()).thenReturn(RoutingConfig.STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE);
+    assertTrue(InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics,
+        serverLoadTracker) instanceof StrictReplicaGroupInstanceSelector);
+
+    // Adaptive instance selector should be returned
+    when(routingConfig.getInstanceSelectorType()).thenReturn(RoutingConfig.ADAPTIVE_INSTANCE_SELECTOR_TYPE);
     assertTrue(InstanceSelectorFactory
-        .getInstanceSelector(tableConfig, brokerMetrics) instanceof StrictReplicaGroupInstanceSelector);
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof AdaptiveInstanceSelector);
 
     // Should be backward-compatible with legacy config
     when(routingConfig.getInstanceSelectorType()).thenReturn(null);
@@ -78,12 +84,12 @@ public class InstanceSelectorTest {
     when(routingConfig.getRoutingTableBuilderName())
         .thenReturn(InstanceSelectorFactory.LEGACY_REPLICA_GROUP_OFFLINE_ROUTING);
     assertTrue(InstanceSelectorFactory
-        .getInstanceSelector(tableConfig, brokerMetrics) instanceof ReplicaGroupInstanceSelector);
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof ReplicaGroupInstanceSelector);
     when(tableConfig.getTableType()).thenReturn(TableType.REALTIME);
     when(routingConfig.getRoutingTableBuilderName())
         .thenReturn(InstanceSelectorFactory.LEGACY_REPLICA_GROUP_REALTIME_ROUTING);
     assertTrue(InstanceSelectorFactory
-        .getInstanceSelector(tableConfig, brokerMetrics) instanceof ReplicaGroupInstanceSelector);
+        .getInstanceSelector(tableConfig, brokerMetrics, serverLoadTracker) instanceof ReplicaGroupInstanceSelector);
   }
 
   @Test
@@ -842,4 +848,76 @@ public class InstanceSelectorTest {
       assertEquals(selectionResult.getUnavailableSegments(), Arrays.asList(segment0, segment1));
     }
   }
+
+  @Test
+  public void testServerLoadTracker() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
+    String instance = "instance";
+    long currentTimeMs = System.currentTimeMillis();
+
+    // Server without any query routed
+    assertEquals(serverLoadTracker.getLoadScore(instance, currentTimeMs), 1.0);
+
+    // In-flight requests should increase the score
+    serverLoadTracker.recordRequestSent(instance);
+    serverLoadTracker.recordRequestSent(instance);
+    assertEquals(serverLoadTracker.getLoadScore(instance, currentTimeMs), 3.0);
+
+    // First response initializes the latency EWMA, following responses are weighted
+    serverLoadTracker.recordResponse(instance, 99, currentTimeMs);
+    assertEquals(serverLoadTracker.getLoadScore(instance, currentTimeMs), 200.0);
+    serverLoadTracker.recordResponse(instance, 199, currentTimeMs);
+    double latencyEwmaMs = ServerLoadTracker.LATENCY_EWMA_ALPHA * 199 + (1 - ServerLoadTracker.LATENCY_EWMA_ALPHA) * 99;
+    assertEquals(serverLoadTracker.getLoadScore(instance, currentTimeMs), latencyEwmaMs + 1, 1e-9);
+
+    // Latency EWMA should decay while the server is not responding
+    assertEquals(
+        serverLoadTracker.getLoadScore(instance, currentTimeMs + ServerLoadTracker.LATENCY_EWMA_HALF_LIFE_MS),
+        latencyEwmaMs / 2 + 1, 1e-9);
+
+    // Load of the instances no longer enabled should be removed
+    String otherInstance = "otherInstance";
+    serverLoadTracker.recordRequestSent(otherInstance);
+    assertEquals(serverLoadTracker.getNumTrackedInstances(), 2);
+    serverLoadTracker.retainInstances(Collections.singleton(otherInstance));
+    assertEquals(serverLoadTracker.getNumTrackedInstances(), 1);
+    assertEquals(serverLoadTracker.getLoadScore(instance, currentTimeMs), 1.0);
+    assertEquals(serverLoadTracker.getLoadScore(otherInstance, currentTimeMs), 2.0);
+  }
+
+  @Test
+  public void testAdaptiveInstanceSelector() {
+    ServerLoadTracker serverLoadTracker = new ServerLoadTracker();
+    AdaptiveInstanceSelector adaptiveInstanceSelector =
+        new AdaptiveInstanceSelector("testTable_OFFLINE", mock(BrokerMetrics.class), serverLoadTracker);
+
+    String instance0 = "instance0";
+    String instance1 = "instance1";
+    List<String> segments = Arrays.asList("segment0", "segment1", "segment2", "segment3");
+    Map<String, List<String>> segmentToEnabledInstancesMap = new HashMap<>();
+    for (String segment : segments) {
+      segmentToEnabledInstancesMap.put(segment, Arrays.asList(instance0, instance1));
+    }
+
+    // Without server load, segments should be evenly distributed
+    Map<String, String> segmentToSelectedInstanceMap =
+        adaptiveInstanceSelector.select(segments, 0, segmentToEnabledInstancesMap);
+    assertEquals(Collections.frequency(segmentToSelectedInstanceMap.values(), instance0), 2);
+    assertEquals(Collections.frequency(segmentToSelectedInstanceMap.values(), instance1), 2);
+
+    // Slow server should be avoided
+    serverLoadTracker.recordResponse(instance0, 10);
+    serverLoadTracker.recordResponse(instance1, 1000);
+    segmentToSelectedInstanceMap = adaptiveInstanceSelector.select(segments, 0, segmentToEnabledInstancesMap);
+    assertEquals(Collections.frequency(segmentToSelectedInstanceMap.values(), instance0), 4);
+    segmentToSelectedInstanceMap = adaptiveInstanceSelector.select(segments, 1, segmentToEnabledInstancesMap);
+    assertEquals(Collections.frequency(segmentToSelectedInstanceMap.values(), instance0), 4);
+
+    // Server with a lot of in-flight requests should be avoided
+    for (int i = 0; i < 1000; i++) {
+      serverLoadTracker.recordRequestSent(instance0);
+    }
+    segmentToSelectedInstanceMap = adaptiveInstanceSelector.select(segments, 0, segmentToEnabledInstancesMap);
+    assertEquals(Collections.frequency(segmentToSelectedInstanceMap.values(), instance1), 4);
+  }
 }
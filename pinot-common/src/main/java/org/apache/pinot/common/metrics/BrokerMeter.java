@@ -97,6 +97,16 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Track the case where selected server is missing in RoutingManager
   SERVER_MISSING_FOR_ROUTING("badResponses", false),
 
+  // Broker result cache metrics
+  RESULT_CACHE_HITS("queries", false),
+  RESULT_CACHE_MISSES("queries", false),
+  RESULT_CACHE_EVICTIONS("evictions", true),
+
+  // Hedged request metrics: number of hedged requests sent to another replica of a slow server, and number of hedged
+  // requests responded before the original request
+  HEDGED_REQUESTS_FIRED("requests", false),
+  HEDGED_REQUESTS_WON("requests", false),
+
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
@@ -42,6 +42,10 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   REALTIME_SEGMENT_NUM_PARTITIONS("realtimeSegmentNumPartitions", false),
   LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true),
 
+  // Bitmap cache metrics (callback gauges registered by the cache)
+  BITMAP_CACHE_SIZE_BYTES("bytes", false),
+  BITMAP_CACHE_HIT_RATIO_PERCENT("percent", false),
+
   // Upsert metrics
   UPSERT_PRIMARY_KEYS_COUNT("upsertPrimaryKeysCount", false);
 
@@ -36,6 +36,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   DELETED_SEGMENT_COUNT("segments", false),
   REALTIME_ROWS_CONSUMED("rows", true),
   INVALID_REALTIME_ROWS_DROPPED("rows", false),
+  REALTIME_ROWS_DECODED("rows", false),
+  REALTIME_ROWS_TRANSFORMED("rows", false),
   REALTIME_CONSUMPTION_EXCEPTIONS("exceptions", true),
   REALTIME_OFFSET_COMMITS("commits", true),
   REALTIME_OFFSET_COMMIT_EXCEPTIONS("exceptions", false),
@@ -67,6 +69,14 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   NUM_RESIZES("numResizes", false),
   RESIZE_TIME_MS("resizeTimeMs", false),
 
+  // Segment result cache metrics
+  SEGMENT_RESULT_CACHE_HITS("segments", false),
+  SEGMENT_RESULT_CACHE_MISSES("segments", false),
+  SEGMENT_RESULT_CACHE_EVICTIONS("evictions", true),
+
+  // Bitmap cache metrics
+  BITMAP_CACHE_EVICTIONS("evictions", true),
+
   // Netty connection metrics
   NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true),
   NETTY_CONNECTION_RESPONSES_SENT("nettyConnection", true),
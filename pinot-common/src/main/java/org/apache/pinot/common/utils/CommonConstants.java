@@ -177,6 +177,40 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_GROUPBY_TRIM_THRESHOLD = "pinot.broker.groupby.trim.threshold";
     public static final int DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD = 1_000_000;
 
+    // Whether to reduce the server responses incrementally as they arrive (for aggregation, SQL group-by and selection
+    // order-by queries) instead of after all servers responded.
+    public static final String CONFIG_OF_ENABLE_STREAMING_REDUCE = "pinot.broker.streaming.reduce.enabled";
+    public static final boolean DEFAULT_ENABLE_STREAMING_REDUCE = false;
+
+    // Data table version and compression type requested from the servers. Servers serialize the data table with the
+    // highest supported version up to the requested one, and servers not aware of the option always return version 2,
+    // so it is safe to change on mixed-version clusters.
+    public static final String CONFIG_OF_DATA_TABLE_VERSION = "pinot.broker.data.table.version";
+    public static final int DEFAULT_DATA_TABLE_VERSION = 2;
+    public static final String CONFIG_OF_DATA_TABLE_COMPRESSION_TYPE = "pinot.broker.data.table.compression.type";
+
+    // Broker side query result cache. Results are keyed by the optimized query and the segments selected by the routing,
+    // and only cached when no consuming (real-time) segment is queried.
+    public static final String CONFIG_OF_ENABLE_RESULT_CACHE = "pinot.broker.result.cache.enabled";
+    public static final boolean DEFAULT_ENABLE_RESULT_CACHE = false;
+    public static final String CONFIG_OF_RESULT_CACHE_MAX_SIZE_BYTES = "pinot.broker.result.cache.max.size.bytes";
+    public static final long DEFAULT_RESULT_CACHE_MAX_SIZE_BYTES = 64 * 1024 * 1024L;
+    public static final String CONFIG_OF_RESULT_CACHE_EXPIRE_AFTER_WRITE_MS =
+        "pinot.broker.result.cache.expire.after.write.ms";
+    public static final long DEFAULT_RESULT_CACHE_EXPIRE_AFTER_WRITE_MS = 3_600_000L;
+
+    // Hedged requests. When a server has not responded after the configured percentile of its recent response latency,
+    // the request is re-sent to another server hosting the same segments, and the first response is used. The number of
+    // hedged requests is capped to the configured ratio of the requests sent. Only tables with replica-group routing
+    // are hedged, where another replica hosting all the segments of the slow server can be found.
+    public static final String CONFIG_OF_ENABLE_HEDGED_REQUESTS = "pinot.broker.hedged.requests.enabled";
+    public static final boolean DEFAULT_ENABLE_HEDGED_REQUESTS = false;
+    public static final String CONFIG_OF_HEDGED_REQUESTS_LATENCY_PERCENTILE =
+        "pinot.broker.hedged.requests.latency.percentile";
+    public static final double DEFAULT_HEDGED_REQUESTS_LATENCY_PERCENTILE = 95.0;
+    public static final String CONFIG_OF_HEDGED_REQUESTS_BUDGET_RATIO = "pinot.broker.hedged.requests.budget.ratio";
+    public static final double DEFAULT_HEDGED_REQUESTS_BUDGET_RATIO = 0.05;
+
     public static class Request {
       public static final String PQL = "pql";
       public static final String SQL = "sql";
@@ -190,6 +224,11 @@ public class CommonConstants {
         public static final String RESPONSE_FORMAT = "responseFormat";
         public static final String GROUP_BY_MODE = "groupByMode";
         public static final String SKIP_UPSERT = "skipUpsert";
+        public static final String GROUP_BY_MERGE_TREE = "groupByMergeTree";
+        public static final String DATA_TABLE_VERSION = "dataTableVersion";
+        public static final String DATA_TABLE_COMPRESSION_TYPE = "dataTableCompressionType";
+        public static final String COMPILE_TRANSFORMS = "compileTransforms";
+        public static final String TARGET_BLOCK_SIZE_BYTES = "targetBlockSizeBytes";
       }
     }
   }
@@ -23,7 +23,6 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.utils.EqualityUtils;
 
@@ -92,8 +91,8 @@ public class DataBlockCache {
   public int[] getDictIdsForSVColumn(String column) {
     int[] dictIds = (int[]) _dictIdsMap.get(column);
     if (_columnDictIdLoaded.add(column)) {
-      if (dictIds == null) {
-        dictIds = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (dictIds == null || dictIds.length < _length) {
+        dictIds = new int[_length];
         _dictIdsMap.put(column, dictIds);
       }
       _dataFetcher.fetchDictIds(column, _docIds, _length, dictIds);
@@ -111,8 +110,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.INT);
     int[] intValues = (int[]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (intValues == null) {
-        intValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (intValues == null || intValues.length < _length) {
+        intValues = new int[_length];
         _valuesMap.put(key, intValues);
       }
       _dataFetcher.fetchIntValues(column, _docIds, _length, intValues);
@@ -130,8 +129,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.LONG);
     long[] longValues = (long[]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (longValues == null) {
-        longValues = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (longValues == null || longValues.length < _length) {
+        longValues = new long[_length];
         _valuesMap.put(key, longValues);
       }
       _dataFetcher.fetchLongValues(column, _docIds, _length, longValues);
@@ -149,8 +148,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.FLOAT);
     float[] floatValues = (float[]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (floatValues == null) {
-        floatValues = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (floatValues == null || floatValues.length < _length) {
+        floatValues = new float[_length];
         _valuesMap.put(key, floatValues);
       }
       _dataFetcher.fetchFloatValues(column, _docIds, _length, floatValues);
@@ -168,8 +167,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.DOUBLE);
     double[] doubleValues = (double[]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (doubleValues == null) {
-        doubleValues = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (doubleValues == null || doubleValues.length < _length) {
+        doubleValues = new double[_length];
         _valuesMap.put(key, doubleValues);
       }
       _dataFetcher.fetchDoubleValues(column, _docIds, _length, doubleValues);
@@ -187,8 +186,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.STRING);
     String[] stringValues = (String[]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (stringValues == null) {
-        stringValues = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (stringValues == null || stringValues.length < _length) {
+        stringValues = new String[_length];
         _valuesMap.put(key, stringValues);
       }
       _dataFetcher.fetchStringValues(column, _docIds, _length, stringValues);
@@ -207,8 +206,8 @@ public class DataBlockCache {
     byte[][] bytesValues = (byte[][]) _valuesMap.get(key);
 
     if (_columnValueLoaded.add(key)) {
-      if (bytesValues == null) {
-        bytesValues = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (bytesValues == null || bytesValues.length < _length) {
+        bytesValues = new byte[_length][];
         _valuesMap.put(key, bytesValues);
       }
       _dataFetcher.fetchBytesValues(column, _docIds, _length, bytesValues);
@@ -229,8 +228,8 @@ public class DataBlockCache {
   public int[][] getDictIdsForMVColumn(String column) {
     int[][] dictIds = (int[][]) _dictIdsMap.get(column);
     if (_columnDictIdLoaded.add(column)) {
-      if (dictIds == null) {
-        dictIds = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (dictIds == null || dictIds.length < _length) {
+        dictIds = new int[_length][];
         _dictIdsMap.put(column, dictIds);
       }
       _dataFetcher.fetchDictIds(column, _docIds, _length, dictIds);
@@ -248,8 +247,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.INT);
     int[][] intValues = (int[][]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (intValues == null) {
-        intValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (intValues == null || intValues.length < _length) {
+        intValues = new int[_length][];
         _valuesMap.put(key, intValues);
       }
       _dataFetcher.fetchIntValues(column, _docIds, _length, intValues);
@@ -267,8 +266,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.LONG);
     long[][] longValues = (long[][]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (longValues == null) {
-        longValues = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (longValues == null || longValues.length < _length) {
+        longValues = new long[_length][];
         _valuesMap.put(key, longValues);
       }
       _dataFetcher.fetchLongValues(column, _docIds, _length, longValues);
@@ -286,8 +285,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.FLOAT);
     float[][] floatValues = (float[][]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (floatValues == null) {
-        floatValues = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (floatValues == null || floatValues.length < _length) {
+        floatValues = new float[_length][];
         _valuesMap.put(key, floatValues);
       }
       _dataFetcher.fetchFloatValues(column, _docIds, _length, floatValues);
@@ -305,8 +304,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.DOUBLE);
     double[][] doubleValues = (double[][]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (doubleValues == null) {
-        doubleValues = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (doubleValues == null || doubleValues.length < _length) {
+        doubleValues = new double[_length][];
         _valuesMap.put(key, doubleValues);
       }
       _dataFetcher.fetchDoubleValues(column, _docIds, _length, doubleValues);
@@ -324,8 +323,8 @@ public class DataBlockCache {
     ColumnTypePair key = new ColumnTypePair(column, FieldSpec.DataType.STRING);
     String[][] stringValues = (String[][]) _valuesMap.get(key);
     if (_columnValueLoaded.add(key)) {
-      if (stringValues == null) {
-        stringValues = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+      if (stringValues == null || stringValues.length < _length) {
+        stringValues = new String[_length][];
         _valuesMap.put(key, stringValues);
       }
       _dataFetcher.fetchStringValues(column, _docIds, _length, stringValues);
@@ -342,8 +341,8 @@ public class DataBlockCache {
   public int[] getNumValuesForMVColumn(String column) {
     int[] numValues = _numValuesMap.get(column);
     if (_columnNumValuesLoaded.add(column)) {
-      if (numValues == null) {
-        numValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (numValues == null || numValues.length < _length) {
+        numValues = new int[_length];
         _numValuesMap.put(column, numValues);
       }
       _dataFetcher.fetchNumValues(column, _docIds, _length, numValues);
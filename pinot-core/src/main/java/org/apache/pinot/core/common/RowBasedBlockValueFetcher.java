@@ -42,6 +42,10 @@ public class RowBasedBlockValueFetcher {
     return row;
   }
 
+  public Object getValue(int colId, int docId) {
+    return _valueFetchers[colId].getValue(docId);
+  }
+
   public void getRow(int docId, Object[] buffer, int startIndex) {
     for (ValueFetcher valueFetcher : _valueFetchers) {
       buffer[startIndex++] = valueFetcher.getValue(docId);
@@ -75,11 +75,18 @@ import org.apache.pinot.spi.utils.ByteArray;
 // TODO:   1. Fix float size.
 // TODO:   2. Use one dictionary for all columns (save space).
 // TODO:   3. Given a data schema, write all values one by one instead of using rowId and colId to position (save time).
-// TODO:   4. Store bytes as variable size data instead of String
 public class DataTableBuilder {
+  // Initial number of rows allocated for each column of data table V3
+  private static final int INITIAL_NUM_ROWS = 16;
+
   private final DataSchema _dataSchema;
+  private final int _version;
+  // Data table V2: row-major fixed size data
   private final int[] _columnOffsets;
   private final int _rowSizeInBytes;
+  // Data table V3: column-major fixed size data
+  private final int[] _columnValueSizes;
+  private final ByteBuffer[] _columnDataByteBuffers;
   private final Map<String, Map<String, Integer>> _dictionaryMap = new HashMap<>();
   private final Map<String, Map<Integer, String>> _reverseDictionaryMap = new HashMap<>();
   private final ByteArrayOutputStream _fixedSizeDataByteArrayOutputStream = new ByteArrayOutputStream();
@@ -91,58 +98,108 @@ public class DataTableBuilder {
   private ByteBuffer _currentRowDataByteBuffer;
 
   public DataTableBuilder(DataSchema dataSchema) {
+    this(dataSchema, DataTableImplV2.VERSION);
+  }
+
+  /**
+   * Constructs a builder for the highest supported data table version up to the given version. Data table V3 is built
+   * column-major directly, so that it can be serialized without any conversion.
+   */
+  public DataTableBuilder(DataSchema dataSchema, int version) {
     _dataSchema = dataSchema;
-    _columnOffsets = new int[dataSchema.size()];
-    _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+    int numColumns = dataSchema.size();
+    if (version >= DataTableImplV3.VERSION) {
+      _version = DataTableImplV3.VERSION;
+      _columnOffsets = null;
+      _rowSizeInBytes = 0;
+      _columnValueSizes = new int[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        _columnValueSizes[colId] = DataTableImplV3.getFixedValueSize(dataSchema.getColumnDataType(colId));
+      }
+      _columnDataByteBuffers = new ByteBuffer[numColumns];
+    } else {
+      _version = DataTableImplV2.VERSION;
+      _columnOffsets = new int[numColumns];
+      _rowSizeInBytes = DataTableUtils.computeColumnOffsets(dataSchema, _columnOffsets);
+      _columnValueSizes = null;
+      _columnDataByteBuffers = null;
+    }
   }
 
   public void startRow() {
     _numRows++;
-    _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    if (_version == DataTableImplV2.VERSION) {
+      _currentRowDataByteBuffer = ByteBuffer.allocate(_rowSizeInBytes);
+    }
+  }
+
+  /**
+   * Returns the byte buffer positioned at the value of the given column within the current row.
+   */
+  private ByteBuffer getValueByteBuffer(int colId) {
+    if (_version == DataTableImplV2.VERSION) {
+      _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+      return _currentRowDataByteBuffer;
+    }
+    int valueSize = _columnValueSizes[colId];
+    int endOffset = _numRows * valueSize;
+    ByteBuffer columnDataByteBuffer = _columnDataByteBuffers[colId];
+    if (columnDataByteBuffer == null) {
+      columnDataByteBuffer = ByteBuffer.allocate(Math.max(endOffset, INITIAL_NUM_ROWS * valueSize));
+      _columnDataByteBuffers[colId] = columnDataByteBuffer;
+    } else if (columnDataByteBuffer.capacity() < endOffset) {
+      ByteBuffer expandedByteBuffer =
+          ByteBuffer.allocate(Math.max(endOffset, columnDataByteBuffer.capacity() * 2));
+      expandedByteBuffer.put(columnDataByteBuffer.array());
+      columnDataByteBuffer = expandedByteBuffer;
+      _columnDataByteBuffers[colId] = columnDataByteBuffer;
+    }
+    columnDataByteBuffer.position(endOffset - valueSize);
+    return columnDataByteBuffer;
   }
 
   public void setColumn(int colId, boolean value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
     if (value) {
-      _currentRowDataByteBuffer.put((byte) 1);
+      valueByteBuffer.put((byte) 1);
     } else {
-      _currentRowDataByteBuffer.put((byte) 0);
+      valueByteBuffer.put((byte) 0);
     }
   }
 
   public void setColumn(int colId, byte value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.put(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.put(value);
   }
 
   public void setColumn(int colId, char value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putChar(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putChar(value);
   }
 
   public void setColumn(int colId, short value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putShort(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putShort(value);
   }
 
   public void setColumn(int colId, int value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(value);
   }
 
   public void setColumn(int colId, long value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putLong(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putLong(value);
   }
 
   public void setColumn(int colId, float value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putFloat(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putFloat(value);
   }
 
   public void setColumn(int colId, double value) {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putDouble(value);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putDouble(value);
   }
 
   public void setColumn(int colId, String value) {
@@ -154,49 +211,46 @@ public class DataTableBuilder {
       _reverseDictionaryMap.put(columnName, new HashMap<>());
     }
 
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
     Integer dictId = dictionary.get(value);
     if (dictId == null) {
       dictId = dictionary.size();
       dictionary.put(value, dictId);
       _reverseDictionaryMap.get(columnName).put(dictId, value);
     }
-    _currentRowDataByteBuffer.putInt(dictId);
+    valueByteBuffer.putInt(dictId);
   }
 
   public void setColumn(int colId, ByteArray value)
       throws IOException {
-    // NOTE: Use String to store bytes value in DataTable V2 for backward-compatibility
-    setColumn(colId, value.toHexString());
-
-    /*
-    TODO: Store bytes as variable size data instead of String. Make the change for the next version data table for
-          backward-compatibility
-
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    byte[] bytes = value.getBytes();
-    _currentRowDataByteBuffer.putInt(bytes.length);
-    _variableSizeDataByteArrayOutputStream.write(bytes);
-     */
+    if (_version == DataTableImplV2.VERSION) {
+      // NOTE: Use String to store bytes value in DataTable V2 for backward-compatibility
+      setColumn(colId, value.toHexString());
+    } else {
+      ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+      valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+      byte[] bytes = value.getBytes();
+      valueByteBuffer.putInt(bytes.length);
+      _variableSizeDataByteArrayOutputStream.write(bytes);
+    }
   }
 
   public void setColumn(int colId, Object value)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
     int objectTypeValue = ObjectSerDeUtils.ObjectType.getObjectType(value).getValue();
     byte[] bytes = ObjectSerDeUtils.serialize(value, objectTypeValue);
-    _currentRowDataByteBuffer.putInt(bytes.length);
+    valueByteBuffer.putInt(bytes.length);
     _variableSizeDataOutputStream.writeInt(objectTypeValue);
     _variableSizeDataByteArrayOutputStream.write(bytes);
   }
 
   public void setColumn(int colId, int[] values)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    valueByteBuffer.putInt(values.length);
     for (int value : values) {
       _variableSizeDataOutputStream.writeInt(value);
     }
@@ -204,9 +258,9 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, long[] values)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    valueByteBuffer.putInt(values.length);
     for (long value : values) {
       _variableSizeDataOutputStream.writeLong(value);
     }
@@ -214,9 +268,9 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, float[] values)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    valueByteBuffer.putInt(values.length);
     for (float value : values) {
       _variableSizeDataOutputStream.writeFloat(value);
     }
@@ -224,9 +278,9 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, double[] values)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    valueByteBuffer.putInt(values.length);
     for (double value : values) {
       _variableSizeDataOutputStream.writeDouble(value);
     }
@@ -234,9 +288,9 @@ public class DataTableBuilder {
 
   public void setColumn(int colId, String[] values)
       throws IOException {
-    _currentRowDataByteBuffer.position(_columnOffsets[colId]);
-    _currentRowDataByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
-    _currentRowDataByteBuffer.putInt(values.length);
+    ByteBuffer valueByteBuffer = getValueByteBuffer(colId);
+    valueByteBuffer.putInt(_variableSizeDataByteArrayOutputStream.size());
+    valueByteBuffer.putInt(values.length);
 
     String columnName = _dataSchema.getColumnName(colId);
     Map<String, Integer> dictionary = _dictionaryMap.get(columnName);
@@ -259,11 +313,34 @@ public class DataTableBuilder {
 
   public void finishRow()
       throws IOException {
-    _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    if (_version == DataTableImplV2.VERSION) {
+      _fixedSizeDataByteArrayOutputStream.write(_currentRowDataByteBuffer.array());
+    }
   }
 
   public DataTable build() {
-    return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
-        _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    if (_version == DataTableImplV2.VERSION) {
+      return new DataTableImplV2(_numRows, _dataSchema, _reverseDictionaryMap,
+          _fixedSizeDataByteArrayOutputStream.toByteArray(), _variableSizeDataByteArrayOutputStream.toByteArray());
+    }
+    int numColumns = _columnValueSizes.length;
+    int fixedSizeDataSize = 0;
+    for (int valueSize : _columnValueSizes) {
+      fixedSizeDataSize += _numRows * valueSize;
+    }
+    // NOTE: Values not set are 0, same as data table V2
+    byte[] fixedSizeDataBytes = new byte[fixedSizeDataSize];
+    int offset = 0;
+    for (int colId = 0; colId < numColumns; colId++) {
+      int columnDataSize = _numRows * _columnValueSizes[colId];
+      ByteBuffer columnDataByteBuffer = _columnDataByteBuffers[colId];
+      if (columnDataByteBuffer != null) {
+        System.arraycopy(columnDataByteBuffer.array(), 0, fixedSizeDataBytes, offset,
+            Math.min(columnDataSize, columnDataByteBuffer.capacity()));
+      }
+      offset += columnDataSize;
+    }
+    return new DataTableImplV3(_numRows, _dataSchema, _reverseDictionaryMap, fixedSizeDataBytes,
+        _variableSizeDataByteArrayOutputStream.toByteArray());
   }
 }
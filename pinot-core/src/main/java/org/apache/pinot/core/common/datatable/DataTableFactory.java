@@ -21,6 +21,7 @@ package org.apache.pinot.core.common.datatable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
 
 
 public class DataTableFactory {
@@ -33,6 +34,8 @@ public class DataTableFactory {
     switch (version) {
       case 2:
         return new DataTableImplV2(byteBuffer);
+      case DataTableImplV3.VERSION:
+        return new DataTableImplV3(byteBuffer);
       default:
         throw new UnsupportedOperationException("Unsupported data table version: " + version);
     }
@@ -42,4 +45,28 @@ public class DataTableFactory {
       throws IOException {
     return getDataTable(ByteBuffer.wrap(bytes));
   }
+
+  /**
+   * Returns {@code true} if the data table serialized in the given byte buffer keeps views of the buffer after being
+   * deserialized, in which case the buffer should not be released while the data table is in use.
+   */
+  public static boolean isReferencingBuffer(ByteBuffer byteBuffer) {
+    int position = byteBuffer.position();
+    return byteBuffer.getInt(position) >= DataTableImplV3.VERSION && DataTableImplV3.isReferencingBuffer(byteBuffer,
+        position);
+  }
+
+  /**
+   * Serializes the data table with the version it was built with. (Server side)
+   * <p>The {@link DataTableBuilder} builds the data table with the version negotiated for the request, so there is no
+   * conversion at serialization time. The compression type only applies to data table V3.
+   */
+  public static byte[] toBytes(DataTable dataTable, CompressionType compressionType)
+      throws IOException {
+    if (dataTable instanceof DataTableImplV3) {
+      return ((DataTableImplV3) dataTable).toBytes(compressionType);
+    } else {
+      return dataTable.toBytes();
+    }
+  }
 }
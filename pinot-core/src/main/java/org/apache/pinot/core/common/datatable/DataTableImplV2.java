@@ -38,7 +38,7 @@ import org.apache.pinot.spi.utils.BytesUtils;
 
 
 public class DataTableImplV2 implements DataTable {
-  private static final int VERSION = 2;
+  public static final int VERSION = 2;
 
   // VERSION
   // NUM_ROWS
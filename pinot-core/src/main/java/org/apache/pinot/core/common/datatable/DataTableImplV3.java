@@ -0,0 +1,616 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.common.datatable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * Data table V3 stores the values column-major, so that the values of a column can be read with absolute reads from
+ * a single contiguous region instead of stepping over the rows.
+ * <ul>
+ *   <li>Fixed size data: for each column, the values of all the rows, where INT and FLOAT take 4 bytes, LONG and DOUBLE
+ *   take 8 bytes, STRING takes 4 bytes (dictionary id), and BYTES, OBJECT and arrays take 8 bytes (POSITION|LENGTH)
+ *   pointing to the variable size data.</li>
+ *   <li>Variable size data: same format as data table V2, except that BYTES values are stored as raw bytes instead of
+ *   hex encoded strings.</li>
+ *   <li>Dictionary: for each STRING and STRING_ARRAY column, the number of values, the end offsets of the values and
+ *   the UTF-8 encoded values. The values are decoded lazily on first access instead of being deserialized into maps
+ *   upfront.</li>
+ * </ul>
+ * The body (everything after the header) can optionally be compressed with LZ4. On the broker side, the sections of an
+ * uncompressed data table are views of the given buffer without any copy.
+ * <p>Data table V3 is only used when requested by the broker via the query options, in which case the
+ * {@link DataTableBuilder} builds the column-major values directly on the server side.
+ */
+public class DataTableImplV3 implements DataTable {
+  static final int VERSION = 3;
+
+  // VERSION
+  // NUM_ROWS
+  // NUM_COLUMNS
+  // COMPRESSION_TYPE
+  // UNCOMPRESSED_BODY_SIZE
+  // DICTIONARY (START|SIZE)
+  // METADATA (START|SIZE)
+  // DATA_SCHEMA (START|SIZE)
+  // FIXED_SIZE_DATA (START|SIZE)
+  // VARIABLE_SIZE_DATA (START|SIZE)
+  // NOTE: START is relative to the start of the body.
+  private static final int HEADER_SIZE = Integer.BYTES * 15;
+
+  // Only compress the body when it is large enough to benefit from the compression
+  private static final int MIN_BODY_SIZE_TO_COMPRESS = 4096;
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+  private final int _numRows;
+  private final int _numColumns;
+  private final DataSchema _dataSchema;
+  private final int[] _columnOffsets;
+  private final ByteBuffer _dictionaryData;
+  // Offset of the dictionary (NUM_VALUES) within the dictionary data for each column, -1 if the column has no dictionary
+  private final int[] _dictionaryOffsets;
+  private final String[][] _dictionaries;
+  private final ByteBuffer _fixedSizeData;
+  private final ByteBuffer _variableSizeData;
+  private final Map<String, String> _metadata;
+
+  /**
+   * Construct data table with the column-major values built by the {@link DataTableBuilder}. (Server side)
+   */
+  DataTableImplV3(int numRows, DataSchema dataSchema, Map<String, Map<Integer, String>> dictionaryMap,
+      byte[] fixedSizeDataBytes, byte[] variableSizeDataBytes) {
+    _numRows = numRows;
+    _numColumns = dataSchema.size();
+    _dataSchema = dataSchema;
+    _metadata = new HashMap<>();
+    _columnOffsets = new int[_numColumns];
+    computeColumnOffsets(dataSchema, numRows, _columnOffsets);
+    _fixedSizeData = ByteBuffer.wrap(fixedSizeDataBytes);
+    _variableSizeData = ByteBuffer.wrap(variableSizeDataBytes);
+    _dictionaryData = buildDictionaryData(dataSchema, dictionaryMap);
+    _dictionaryOffsets = new int[_numColumns];
+    _dictionaries = new String[_numColumns][];
+    initDictionaries();
+  }
+
+  /**
+   * Construct data table from byte buffer positioned after the version. (Broker side)
+   * <p>NOTE: For uncompressed data table, the sections are views of the given byte buffer, so the byte buffer should
+   * not be modified or released while the data table is in use.
+   */
+  public DataTableImplV3(ByteBuffer byteBuffer)
+      throws IOException {
+    // Read header.
+    _numRows = byteBuffer.getInt();
+    _numColumns = byteBuffer.getInt();
+    int compressionTypeValue = byteBuffer.getInt();
+    int bodySize = byteBuffer.getInt();
+    int dictionaryStart = byteBuffer.getInt();
+    int dictionaryLength = byteBuffer.getInt();
+    int metadataStart = byteBuffer.getInt();
+    int metadataLength = byteBuffer.getInt();
+    int dataSchemaStart = byteBuffer.getInt();
+    int dataSchemaLength = byteBuffer.getInt();
+    int fixedSizeDataStart = byteBuffer.getInt();
+    int fixedSizeDataLength = byteBuffer.getInt();
+    int variableSizeDataStart = byteBuffer.getInt();
+    int variableSizeDataLength = byteBuffer.getInt();
+
+    // Read body.
+    ByteBuffer body;
+    CompressionType compressionType = CompressionType.values()[compressionTypeValue];
+    switch (compressionType) {
+      case PASS_THROUGH:
+        body = byteBuffer.slice();
+        break;
+      case LZ4:
+        body = ByteBuffer.allocate(bodySize);
+        LZ4_FACTORY.fastDecompressor().decompress(byteBuffer, byteBuffer.position(), body, 0, bodySize);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported compression type: " + compressionType);
+    }
+
+    // Read metadata.
+    _metadata = deserializeMetadata(getSection(body, metadataStart, metadataLength));
+
+    // Read data schema.
+    if (dataSchemaLength != 0) {
+      ByteBuffer dataSchemaData = getSection(body, dataSchemaStart, dataSchemaLength);
+      byte[] dataSchemaBytes = new byte[dataSchemaLength];
+      dataSchemaData.get(dataSchemaBytes);
+      _dataSchema = DataSchema.fromBytes(dataSchemaBytes);
+      _columnOffsets = new int[_numColumns];
+      computeColumnOffsets(_dataSchema, _numRows, _columnOffsets);
+      _fixedSizeData = getSection(body, fixedSizeDataStart, fixedSizeDataLength);
+      _variableSizeData = getSection(body, variableSizeDataStart, variableSizeDataLength);
+      _dictionaryData = getSection(body, dictionaryStart, dictionaryLength);
+      _dictionaryOffsets = new int[_numColumns];
+      _dictionaries = new String[_numColumns][];
+      initDictionaries();
+    } else {
+      _dataSchema = null;
+      _columnOffsets = null;
+      _fixedSizeData = null;
+      _variableSizeData = null;
+      _dictionaryData = null;
+      _dictionaryOffsets = null;
+      _dictionaries = null;
+    }
+  }
+
+  /**
+   * Returns the size of the value stored in the fixed size data for the given column data type.
+   */
+  static int getFixedValueSize(ColumnDataType columnDataType) {
+    switch (columnDataType) {
+      case INT:
+      case FLOAT:
+      case STRING:
+        return Integer.BYTES;
+      case LONG:
+      case DOUBLE:
+        return Long.BYTES;
+      // BYTES, object and array. (POSITION|LENGTH)
+      default:
+        return Integer.BYTES * 2;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the data table V3 serialized at the given position (pointing to the version) keeps views of
+   * the byte buffer after being deserialized, i.e. the body is not compressed.
+   */
+  static boolean isReferencingBuffer(ByteBuffer byteBuffer, int position) {
+    // VERSION|NUM_ROWS|NUM_COLUMNS|COMPRESSION_TYPE
+    return byteBuffer.getInt(position + Integer.BYTES * 3) == CompressionType.PASS_THROUGH.getValue();
+  }
+
+  /**
+   * Computes the offset of each column within the fixed size data, and returns the size of the fixed size data.
+   */
+  private static int computeColumnOffsets(DataSchema dataSchema, int numRows, int[] columnOffsets) {
+    int numColumns = columnOffsets.length;
+    int fixedSizeDataSize = 0;
+    for (int colId = 0; colId < numColumns; colId++) {
+      columnOffsets[colId] = fixedSizeDataSize;
+      fixedSizeDataSize += numRows * getFixedValueSize(dataSchema.getColumnDataType(colId));
+    }
+    return fixedSizeDataSize;
+  }
+
+  private static ByteBuffer getSection(ByteBuffer body, int start, int length) {
+    ByteBuffer section = body.duplicate();
+    section.position(start);
+    section.limit(start + length);
+    return section.slice();
+  }
+
+  /**
+   * Builds the dictionary data: NUM_DICTIONARIES, then for each STRING and STRING_ARRAY column: COLUMN_ID,
+   * NUM_VALUES, the end offset of each value, then the UTF-8 encoded values.
+   * <p>NOTE: Dictionary ids are assigned sequentially by the {@link DataTableBuilder}.
+   */
+  private static ByteBuffer buildDictionaryData(DataSchema dataSchema,
+      Map<String, Map<Integer, String>> dictionaryMap) {
+    int numColumns = dataSchema.size();
+    byte[][][] valueBytesPerColumn = new byte[numColumns][][];
+    int numDictionaries = 0;
+    int dictionaryDataSize = Integer.BYTES;
+    for (int colId = 0; colId < numColumns; colId++) {
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(colId);
+      if (columnDataType != ColumnDataType.STRING && columnDataType != ColumnDataType.STRING_ARRAY) {
+        continue;
+      }
+      Map<Integer, String> dictionary = dictionaryMap.get(dataSchema.getColumnName(colId));
+      int numValues = dictionary != null ? dictionary.size() : 0;
+      byte[][] valueBytes = new byte[numValues][];
+      dictionaryDataSize += Integer.BYTES * (numValues + 2);
+      for (int dictId = 0; dictId < numValues; dictId++) {
+        valueBytes[dictId] = StringUtil.encodeUtf8(dictionary.get(dictId));
+        dictionaryDataSize += valueBytes[dictId].length;
+      }
+      valueBytesPerColumn[colId] = valueBytes;
+      numDictionaries++;
+    }
+
+    ByteBuffer dictionaryData = ByteBuffer.allocate(dictionaryDataSize);
+    dictionaryData.putInt(numDictionaries);
+    for (int colId = 0; colId < numColumns; colId++) {
+      byte[][] valueBytes = valueBytesPerColumn[colId];
+      if (valueBytes == null) {
+        continue;
+      }
+      dictionaryData.putInt(colId);
+      dictionaryData.putInt(valueBytes.length);
+      int endOffset = 0;
+      for (byte[] bytes : valueBytes) {
+        endOffset += bytes.length;
+        dictionaryData.putInt(endOffset);
+      }
+      for (byte[] bytes : valueBytes) {
+        dictionaryData.put(bytes);
+      }
+    }
+    dictionaryData.flip();
+    return dictionaryData;
+  }
+
+  /**
+   * Locates the dictionary of each column without decoding the values.
+   */
+  private void initDictionaries() {
+    for (int colId = 0; colId < _numColumns; colId++) {
+      _dictionaryOffsets[colId] = -1;
+    }
+    int numDictionaries = _dictionaryData.getInt(0);
+    int offset = Integer.BYTES;
+    for (int i = 0; i < numDictionaries; i++) {
+      int colId = _dictionaryData.getInt(offset);
+      int numValues = _dictionaryData.getInt(offset + Integer.BYTES);
+      _dictionaryOffsets[colId] = offset + Integer.BYTES;
+      _dictionaries[colId] = new String[numValues];
+      int valuesSize = numValues > 0 ? _dictionaryData.getInt(offset + Integer.BYTES * (numValues + 1)) : 0;
+      offset += Integer.BYTES * (numValues + 2) + valuesSize;
+    }
+  }
+
+  private String getDictionaryValue(int colId, int dictId) {
+    String[] dictionary = _dictionaries[colId];
+    String value = dictionary[dictId];
+    if (value == null) {
+      // NUM_VALUES|END_OFFSETS|VALUES
+      int dictionaryOffset = _dictionaryOffsets[colId];
+      int endOffsetsStart = dictionaryOffset + Integer.BYTES;
+      int valuesStart = endOffsetsStart + Integer.BYTES * dictionary.length;
+      int startOffset = dictId > 0 ? _dictionaryData.getInt(endOffsetsStart + Integer.BYTES * (dictId - 1)) : 0;
+      int endOffset = _dictionaryData.getInt(endOffsetsStart + Integer.BYTES * dictId);
+      value = decodeUtf8(_dictionaryData, valuesStart + startOffset, endOffset - startOffset);
+      dictionary[dictId] = value;
+    }
+    return value;
+  }
+
+  private static String decodeUtf8(ByteBuffer byteBuffer, int offset, int length) {
+    if (byteBuffer.hasArray()) {
+      return new String(byteBuffer.array(), byteBuffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+    } else {
+      byte[] bytes = new byte[length];
+      ByteBuffer duplicate = byteBuffer.duplicate();
+      duplicate.position(offset);
+      duplicate.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static Map<String, String> deserializeMetadata(ByteBuffer metadataData) {
+    int numEntries = metadataData.getInt();
+    Map<String, String> metadata = new HashMap<>(numEntries);
+    for (int i = 0; i < numEntries; i++) {
+      int keyLength = metadataData.getInt();
+      String key = decodeUtf8(metadataData, metadataData.position(), keyLength);
+      metadataData.position(metadataData.position() + keyLength);
+      int valueLength = metadataData.getInt();
+      String value = decodeUtf8(metadataData, metadataData.position(), valueLength);
+      metadataData.position(metadataData.position() + valueLength);
+      metadata.put(key, value);
+    }
+    return metadata;
+  }
+
+  private byte[] serializeMetadata()
+      throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+
+    dataOutputStream.writeInt(_metadata.size());
+    for (Map.Entry<String, String> entry : _metadata.entrySet()) {
+      byte[] keyBytes = StringUtil.encodeUtf8(entry.getKey());
+      dataOutputStream.writeInt(keyBytes.length);
+      dataOutputStream.write(keyBytes);
+
+      byte[] valueBytes = StringUtil.encodeUtf8(entry.getValue());
+      dataOutputStream.writeInt(valueBytes.length);
+      dataOutputStream.write(valueBytes);
+    }
+
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  @Override
+  public void addException(ProcessingException processingException) {
+    _metadata.put(EXCEPTION_METADATA_KEY + processingException.getErrorCode(), processingException.getMessage());
+  }
+
+  @Override
+  public byte[] toBytes()
+      throws IOException {
+    return toBytes(CompressionType.PASS_THROUGH);
+  }
+
+  /**
+   * Serializes the data table with the given compression type. Only LZ4 compression is supported, data table is not
+   * compressed for other compression types or when the compression does not reduce the size.
+   */
+  public byte[] toBytes(CompressionType compressionType)
+      throws IOException {
+    byte[] metadataBytes = serializeMetadata();
+    byte[] dataSchemaBytes = _dataSchema != null ? _dataSchema.toBytes() : new byte[0];
+    int dictionarySize = getSectionSize(_dictionaryData);
+    int fixedSizeDataSize = getSectionSize(_fixedSizeData);
+    int variableSizeDataSize = getSectionSize(_variableSizeData);
+    int bodySize = dictionarySize + metadataBytes.length + dataSchemaBytes.length + fixedSizeDataSize
+        + variableSizeDataSize;
+
+    // Write the sections directly after the header, and only move the body out when it gets compressed
+    ByteBuffer byteBuffer = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+    byteBuffer.position(HEADER_SIZE);
+    putSection(byteBuffer, _dictionaryData);
+    byteBuffer.put(metadataBytes);
+    byteBuffer.put(dataSchemaBytes);
+    putSection(byteBuffer, _fixedSizeData);
+    putSection(byteBuffer, _variableSizeData);
+    int serializedBodySize = bodySize;
+    if (compressionType == CompressionType.LZ4 && bodySize >= MIN_BODY_SIZE_TO_COMPRESS) {
+      LZ4Compressor compressor = LZ4_FACTORY.fastCompressor();
+      byte[] compressedBytes = new byte[HEADER_SIZE + compressor.maxCompressedLength(bodySize)];
+      int compressedBodySize = compressor
+          .compress(byteBuffer.array(), HEADER_SIZE, bodySize, compressedBytes, HEADER_SIZE,
+              compressedBytes.length - HEADER_SIZE);
+      if (compressedBodySize < bodySize) {
+        byteBuffer = ByteBuffer.wrap(compressedBytes);
+        serializedBodySize = compressedBodySize;
+      } else {
+        compressionType = CompressionType.PASS_THROUGH;
+      }
+    } else {
+      compressionType = CompressionType.PASS_THROUGH;
+    }
+
+    byteBuffer.position(0);
+    byteBuffer.putInt(VERSION);
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
+    byteBuffer.putInt(compressionType.getValue());
+    byteBuffer.putInt(bodySize);
+    int dataOffset = 0;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dictionarySize);
+    dataOffset += dictionarySize;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(metadataBytes.length);
+    dataOffset += metadataBytes.length;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(dataSchemaBytes.length);
+    dataOffset += dataSchemaBytes.length;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(fixedSizeDataSize);
+    dataOffset += fixedSizeDataSize;
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(variableSizeDataSize);
+    if (HEADER_SIZE + serializedBodySize == byteBuffer.capacity()) {
+      return byteBuffer.array();
+    } else {
+      return Arrays.copyOf(byteBuffer.array(), HEADER_SIZE + serializedBodySize);
+    }
+  }
+
+  private static int getSectionSize(@Nullable ByteBuffer section) {
+    return section != null ? section.limit() : 0;
+  }
+
+  private static void putSection(ByteBuffer byteBuffer, @Nullable ByteBuffer section) {
+    if (section != null) {
+      ByteBuffer duplicate = section.duplicate();
+      duplicate.position(0);
+      byteBuffer.put(duplicate);
+    }
+  }
+
+  @Override
+  public Map<String, String> getMetadata() {
+    return _metadata;
+  }
+
+  @Override
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  @Override
+  public int getNumberOfRows() {
+    return _numRows;
+  }
+
+  @Override
+  public int getInt(int rowId, int colId) {
+    return _fixedSizeData.getInt(_columnOffsets[colId] + rowId * Integer.BYTES);
+  }
+
+  @Override
+  public long getLong(int rowId, int colId) {
+    return _fixedSizeData.getLong(_columnOffsets[colId] + rowId * Long.BYTES);
+  }
+
+  @Override
+  public float getFloat(int rowId, int colId) {
+    return _fixedSizeData.getFloat(_columnOffsets[colId] + rowId * Integer.BYTES);
+  }
+
+  @Override
+  public double getDouble(int rowId, int colId) {
+    return _fixedSizeData.getDouble(_columnOffsets[colId] + rowId * Long.BYTES);
+  }
+
+  @Override
+  public String getString(int rowId, int colId) {
+    return getDictionaryValue(colId, getInt(rowId, colId));
+  }
+
+  @Override
+  public ByteArray getBytes(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    byte[] bytes = new byte[length];
+    ByteBuffer variableSizeData = _variableSizeData.duplicate();
+    variableSizeData.position(offset);
+    variableSizeData.get(bytes);
+    return new ByteArray(bytes);
+  }
+
+  @Override
+  public <T> T getObject(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int size = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    int objectTypeValue = _variableSizeData.getInt(offset);
+    ByteBuffer byteBuffer = _variableSizeData.duplicate();
+    byteBuffer.position(offset + Integer.BYTES);
+    byteBuffer = byteBuffer.slice();
+    byteBuffer.limit(size);
+    return ObjectSerDeUtils.deserialize(byteBuffer, objectTypeValue);
+  }
+
+  @Override
+  public int[] getIntArray(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    int[] ints = new int[length];
+    for (int i = 0; i < length; i++) {
+      ints[i] = _variableSizeData.getInt(offset + i * Integer.BYTES);
+    }
+    return ints;
+  }
+
+  @Override
+  public long[] getLongArray(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    long[] longs = new long[length];
+    for (int i = 0; i < length; i++) {
+      longs[i] = _variableSizeData.getLong(offset + i * Long.BYTES);
+    }
+    return longs;
+  }
+
+  @Override
+  public float[] getFloatArray(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    float[] floats = new float[length];
+    for (int i = 0; i < length; i++) {
+      floats[i] = _variableSizeData.getFloat(offset + i * Integer.BYTES);
+    }
+    return floats;
+  }
+
+  @Override
+  public double[] getDoubleArray(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    double[] doubles = new double[length];
+    for (int i = 0; i < length; i++) {
+      doubles[i] = _variableSizeData.getDouble(offset + i * Long.BYTES);
+    }
+    return doubles;
+  }
+
+  @Override
+  public String[] getStringArray(int rowId, int colId) {
+    int cellOffset = getCellOffset(rowId, colId);
+    int offset = _fixedSizeData.getInt(cellOffset);
+    int length = _fixedSizeData.getInt(cellOffset + Integer.BYTES);
+    String[] strings = new String[length];
+    for (int i = 0; i < length; i++) {
+      strings[i] = getDictionaryValue(colId, _variableSizeData.getInt(offset + i * Integer.BYTES));
+    }
+    return strings;
+  }
+
+  /**
+   * Returns the offset of the (POSITION|LENGTH) cell within the fixed size data.
+   */
+  private int getCellOffset(int rowId, int colId) {
+    return _columnOffsets[colId] + rowId * Integer.BYTES * 2;
+  }
+
+  @Override
+  public String toString() {
+    if (_dataSchema == null) {
+      return _metadata.toString();
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(_dataSchema.toString()).append('\n');
+    stringBuilder.append("numRows: ").append(_numRows).append('\n');
+
+    for (int rowId = 0; rowId < _numRows; rowId++) {
+      for (int colId = 0; colId < _numColumns; colId++) {
+        switch (_dataSchema.getColumnDataType(colId)) {
+          case INT:
+          case STRING:
+            stringBuilder.append(getInt(rowId, colId));
+            break;
+          case LONG:
+            stringBuilder.append(getLong(rowId, colId));
+            break;
+          case FLOAT:
+            stringBuilder.append(getFloat(rowId, colId));
+            break;
+          case DOUBLE:
+            stringBuilder.append(getDouble(rowId, colId));
+            break;
+          // BYTES, object and array.
+          default:
+            int cellOffset = _columnOffsets[colId] + rowId * Integer.BYTES * 2;
+            stringBuilder.append(String.format("(%s:%s)", _fixedSizeData.getInt(cellOffset),
+                _fixedSizeData.getInt(cellOffset + Integer.BYTES)));
+            break;
+        }
+        stringBuilder.append("\t");
+      }
+      stringBuilder.append("\n");
+    }
+    return stringBuilder.toString();
+  }
+}
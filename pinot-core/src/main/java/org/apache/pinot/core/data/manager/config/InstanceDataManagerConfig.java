@@ -50,4 +50,10 @@ public interface InstanceDataManagerConfig {
   boolean isDirectRealtimeOffHeapAllocation();
 
   int getMaxParallelSegmentBuilds();
+
+  int getRealtimeSegmentBuildParallelism();
+
+  int getIndexBuildParallelism();
+
+  boolean isLazyIndexBuildEnabled();
 }
@@ -26,7 +26,6 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +47,8 @@ import org.apache.pinot.common.protocols.SegmentCompletionProtocol;
 import org.apache.pinot.common.utils.CommonConstants.Segment.Realtime.CompletionMode;
 import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
+import org.apache.pinot.core.data.manager.realtime.ParallelMessageDecoder.DecodedBatch;
+import org.apache.pinot.core.data.manager.realtime.ParallelMessageDecoder.DecodedMessage;
 import org.apache.pinot.core.data.partition.PartitionFunctionFactory;
 import org.apache.pinot.core.data.recordtransformer.CompositeTransformer;
 import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
@@ -251,6 +252,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   final String _clientId;
   private final LLCSegmentName _llcSegmentName;
   private final RecordTransformer _recordTransformer;
+  // Decodes and transforms the messages on a separate thread pool, null when the decoder parallelism is 1
+  private final ParallelMessageDecoder _parallelMessageDecoder;
   private PartitionLevelConsumer _partitionLevelConsumer = null;
   private StreamMetadataProvider _streamMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -433,88 +436,104 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
     int indexedMessageCount = 0;
     int streamMessageCount = 0;
+    int numRowsDecoded = 0;
+    int numRowsTransformed = 0;
     boolean canTakeMore = true;
 
+    // When the parallel decoder is enabled, messages are decoded and transformed on the decoder threads, and indexed
+    // in the offset order on the consumer thread
+    DecodedBatch decodedBatch =
+        _parallelMessageDecoder != null && messagesAndOffsets.getMessageCount() > 1 ? _parallelMessageDecoder
+            .decode(messagesAndOffsets) : null;
     GenericRow reuse = new GenericRow();
-    for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
-      if (_shouldStop || endCriteriaReached()) {
-        break;
-      }
-      if (!canTakeMore) {
-        // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
-        // rows. This can happen in one of two conditions:
-        // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to consume
-        //    for this row. Something is seriously wrong, because endCriteriaReached() should have returned true when
-        //    we hit the row limit.
-        //    Throw an exception.
-        //
-        // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
-        //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if another
-        //    server (who got a larger stream offset) asked us to catch up to that offset, but we are connected to a
-        //    broker who has smaller offsets, then we may try to push more rows into the buffer than maximum. This
-        //    is a rare case, and we really don't know how to handle this at this time.
-        //    Throw an exception.
-        //
-        segmentLogger
-            .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
-                _segmentMaxRowCount);
-        throw new RuntimeException("Realtime segment full");
-      }
+    try {
+      for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
+        if (_shouldStop || endCriteriaReached()) {
+          break;
+        }
+        if (!canTakeMore) {
+          // The RealtimeSegmentImpl that we are pushing rows into has indicated that it cannot accept any more
+          // rows. This can happen in one of two conditions:
+          // 1. We are in INITIAL_CONSUMING state, and we somehow exceeded the max number of rows we are allowed to
+          //    consume for this row. Something is seriously wrong, because endCriteriaReached() should have returned
+          //    true when we hit the row limit.
+          //    Throw an exception.
+          //
+          // 2. We are in CATCHING_UP state, and we legally hit this error due to unclean leader election where
+          //    offsets get changed with higher generation numbers for some pinot servers but not others. So, if
+          //    another server (who got a larger stream offset) asked us to catch up to that offset, but we are
+          //    connected to a broker who has smaller offsets, then we may try to push more rows into the buffer than
+          //    maximum. This is a rare case, and we really don't know how to handle this at this time.
+          //    Throw an exception.
+          //
+          segmentLogger
+              .error("Buffer full with {} rows consumed (row limit {}, indexed {})", _numRowsConsumed, _numRowsIndexed,
+                  _segmentMaxRowCount);
+          throw new RuntimeException("Realtime segment full");
+        }
 
-      // Index each message
-      reuse.clear();
-      // retrieve metadata from the message batch if available
-      // this can be overridden by the decoder if there is a better indicator in the message payload
-      RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
+        // Index each message
+        // retrieve metadata from the message batch if available
+        // this can be overridden by the decoder if there is a better indicator in the message payload
+        RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
 
-      GenericRow decodedRow = _messageDecoder
-          .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
-              messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
-      if (decodedRow != null) {
-        try {
-          if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
-            for (Object singleRow : (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
-              GenericRow transformedRow = _recordTransformer.transform((GenericRow) singleRow);
-              if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
-                realtimeRowsConsumedMeter = _serverMetrics
-                    .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1,
-                        realtimeRowsConsumedMeter);
-                indexedMessageCount++;
-                canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
-              } else {
-                realtimeRowsDroppedMeter = _serverMetrics
-                    .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                        realtimeRowsDroppedMeter);
-              }
-            }
-          } else {
-            GenericRow transformedRow = _recordTransformer.transform(decodedRow);
-            if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+        DecodedMessage decodedMessage;
+        if (decodedBatch != null) {
+          decodedMessage = decodedBatch.get(index);
+        } else {
+          reuse.clear();
+          decodedMessage = ParallelMessageDecoder
+              .decodeAndTransform(_messageDecoder, _recordTransformer, messagesAndOffsets, index, reuse);
+        }
+        GenericRow decodedRow = decodedMessage.getDecodedRow();
+        if (decodedRow != null) {
+          numRowsDecoded++;
+          List<GenericRow> transformedRows = decodedMessage.getTransformedRows();
+          numRowsTransformed += transformedRows.size();
+          Exception exception = null;
+          try {
+            for (GenericRow transformedRow : transformedRows) {
               realtimeRowsConsumedMeter = _serverMetrics
                   .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1,
                       realtimeRowsConsumedMeter);
               indexedMessageCount++;
               canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
-            } else {
-              realtimeRowsDroppedMeter = _serverMetrics
-                  .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                      realtimeRowsDroppedMeter);
             }
+          } catch (Exception e) {
+            exception = e;
           }
-        } catch (Exception e) {
-          segmentLogger.error("Caught exception while transforming the record: {}", decodedRow, e);
-          _numRowsErrored++;
+          if (exception == null) {
+            exception = decodedMessage.getTransformException();
+          }
+          if (exception != null) {
+            segmentLogger.error("Caught exception while transforming the record: {}", decodedRow, exception);
+            _numRowsErrored++;
+          }
+          int numRowsDropped = decodedMessage.getNumRowsDropped();
+          if (numRowsDropped > 0) {
+            realtimeRowsDroppedMeter = _serverMetrics
+                .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, numRowsDropped,
+                    realtimeRowsDroppedMeter);
+          }
+        } else {
+          realtimeRowsDroppedMeter = _serverMetrics
+              .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
+                  realtimeRowsDroppedMeter);
         }
-      } else {
-        realtimeRowsDroppedMeter = _serverMetrics
-            .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
-                realtimeRowsDroppedMeter);
-      }
 
-      _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index);
-      _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
-      _numRowsConsumed++;
-      streamMessageCount++;
+        _currentOffset = messagesAndOffsets.getNextStreamParitionMsgOffsetAtIndex(index);
+        _numRowsIndexed = _realtimeSegment.getNumDocsIndexed();
+        _numRowsConsumed++;
+        streamMessageCount++;
+      }
+    } finally {
+      if (decodedBatch != null) {
+        decodedBatch.cancel();
+      }
+    }
+    if (numRowsDecoded > 0) {
+      _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_DECODED, numRowsDecoded);
+      _serverMetrics.addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_TRANSFORMED, numRowsTransformed);
     }
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
@@ -759,7 +778,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
           new RealtimeSegmentConverter(_realtimeSegment, tempSegmentFolder.getAbsolutePath(), _schema,
               _tableNameWithType, _tableConfig, _segmentZKMetadata.getSegmentName(), _sortedColumn,
               _invertedIndexColumns, _textIndexColumns, _fstIndexColumns, _noDictionaryColumns,
-              _varLengthDictionaryColumns, _nullHandlingEnabled);
+              _varLengthDictionaryColumns, _nullHandlingEnabled,
+              _indexLoadingConfig.getRealtimeSegmentBuildParallelism());
       segmentLogger.info("Trying to build segment");
       try {
         converter.build(_segmentVersion, _serverMetrics);
@@ -1072,6 +1092,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
     _realtimeSegment.destroy();
     closeKafkaConsumers();
+    if (_parallelMessageDecoder != null) {
+      _parallelMessageDecoder.close();
+    }
   }
 
   protected void start() {
@@ -1199,7 +1222,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setNoDictionaryColumns(indexLoadingConfig.getNoDictionaryColumns())
             .setVarLengthDictionaryColumns(indexLoadingConfig.getVarLengthDictionaryColumns())
             .setInvertedIndexColumns(invertedIndexColumns).setTextIndexColumns(textIndexColumns)
-            .setFSTIndexColumns(fstIndexColumns)
+            .setFSTIndexColumns(fstIndexColumns).setJsonIndexColumns(indexLoadingConfig.getJsonIndexColumns())
             .setRealtimeSegmentZKMetadata(segmentZKMetadata).setOffHeap(_isOffHeap).setMemoryManager(_memoryManager)
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
             .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
@@ -1214,6 +1237,16 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     // Create record transformer
     _recordTransformer = CompositeTransformer.getDefaultTransformer(tableConfig, schema);
 
+    int decoderParallelism = _partitionLevelStreamConfig.getDecoderParallelism();
+    if (decoderParallelism > 1) {
+      segmentLogger.info("Decoding and transforming messages with parallelism: {}", decoderParallelism);
+      _parallelMessageDecoder = new ParallelMessageDecoder(decoderParallelism,
+          () -> StreamDecoderProvider.create(_partitionLevelStreamConfig, fieldsToRead),
+          () -> CompositeTransformer.getDefaultTransformer(tableConfig, schema), _segmentNameStr + "-decoder");
+    } else {
+      _parallelMessageDecoder = null;
+    }
+
     // Acquire semaphore to create Kafka consumers
     try {
       _partitionConsumerSemaphore.acquire();
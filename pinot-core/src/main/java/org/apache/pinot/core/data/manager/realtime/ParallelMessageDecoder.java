@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.core.util.IngestionUtils;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+
+
+/**
+ * The {@code ParallelMessageDecoder} decodes and transforms the messages of a {@link MessageBatch} on a bounded thread
+ * pool, so that the consumer thread only needs to index the decoded rows in the offset order.
+ * <p>The batch is split into contiguous chunks of messages, and the consumer thread can start indexing the first chunk
+ * while the following chunks are still being decoded. Each worker thread owns its own {@link StreamMessageDecoder} and
+ * {@link RecordTransformer} because they are not thread-safe.
+ */
+public class ParallelMessageDecoder implements Closeable {
+  // Number of chunks per thread to split the batch into, so that indexing can overlap with decoding
+  private static final int NUM_CHUNKS_PER_THREAD = 4;
+
+  private final int _parallelism;
+  private final ExecutorService _executorService;
+  private final ThreadLocal<Worker> _workers;
+
+  public ParallelMessageDecoder(int parallelism, Supplier<StreamMessageDecoder> decoderSupplier,
+      Supplier<RecordTransformer> recordTransformerSupplier, String threadNamePrefix) {
+    _parallelism = parallelism;
+    _executorService = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory(threadNamePrefix));
+    _workers = ThreadLocal.withInitial(() -> new Worker(decoderSupplier.get(), recordTransformerSupplier.get()));
+  }
+
+  /**
+   * Submits all the messages within the batch to be decoded and transformed, and returns the handle to fetch the
+   * results in the offset order.
+   */
+  public DecodedBatch decode(MessageBatch messageBatch) {
+    return new DecodedBatch(messageBatch);
+  }
+
+  @Override
+  public void close() {
+    _executorService.shutdownNow();
+  }
+
+  /**
+   * Decodes and transforms the message at the given index of the batch with the given decoder and record transformer.
+   *
+   * @param reuse Row to decode the message into, or {@code null} to create a new one
+   */
+  @SuppressWarnings("unchecked")
+  public static DecodedMessage decodeAndTransform(StreamMessageDecoder decoder, RecordTransformer recordTransformer,
+      MessageBatch messageBatch, int index, @Nullable GenericRow reuse) {
+    GenericRow destination = reuse != null ? reuse : new GenericRow();
+    GenericRow decodedRow = decoder
+        .decode(messageBatch.getMessageAtIndex(index), messageBatch.getMessageOffsetAtIndex(index),
+            messageBatch.getMessageLengthAtIndex(index), destination);
+    DecodedMessage decodedMessage = new DecodedMessage(decodedRow);
+    if (decodedRow != null) {
+      try {
+        Object multipleRecords = decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY);
+        if (multipleRecords != null) {
+          for (Object singleRow : (Collection) multipleRecords) {
+            decodedMessage.addTransformedRow(recordTransformer.transform((GenericRow) singleRow));
+          }
+        } else {
+          decodedMessage.addTransformedRow(recordTransformer.transform(decodedRow));
+        }
+      } catch (Exception e) {
+        decodedMessage._transformException = e;
+      }
+    }
+    return decodedMessage;
+  }
+
+  /**
+   * Handle of a batch of messages being decoded.
+   */
+  public class DecodedBatch {
+    private final DecodedMessage[] _decodedMessages;
+    private final int _chunkSize;
+    private final List<Future<?>> _futures;
+    private int _numChunksDone;
+
+    private DecodedBatch(MessageBatch messageBatch) {
+      int numMessages = messageBatch.getMessageCount();
+      _decodedMessages = new DecodedMessage[numMessages];
+      int numChunks = Math.min(numMessages, _parallelism * NUM_CHUNKS_PER_THREAD);
+      _chunkSize = numChunks > 0 ? (numMessages + numChunks - 1) / numChunks : 1;
+      _futures = new ArrayList<>(numChunks);
+      for (int startIndex = 0; startIndex < numMessages; startIndex += _chunkSize) {
+        int chunkStartIndex = startIndex;
+        int chunkEndIndex = Math.min(startIndex + _chunkSize, numMessages);
+        _futures.add(_executorService.submit(() -> {
+          Worker worker = _workers.get();
+          for (int i = chunkStartIndex; i < chunkEndIndex; i++) {
+            _decodedMessages[i] =
+                decodeAndTransform(worker._decoder, worker._recordTransformer, messageBatch, i, null);
+          }
+        }));
+      }
+    }
+
+    /**
+     * Returns the decoded message at the given index, waits for the chunk containing the message to be decoded if
+     * necessary. Messages are expected to be fetched in the offset order.
+     */
+    public DecodedMessage get(int index) {
+      int chunkId = index / _chunkSize;
+      while (_numChunksDone <= chunkId) {
+        try {
+          _futures.get(_numChunksDone).get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while decoding messages", e);
+        } catch (ExecutionException e) {
+          throw new RuntimeException("Caught exception while decoding messages", e.getCause());
+        }
+        _numChunksDone++;
+      }
+      return _decodedMessages[index];
+    }
+
+    /**
+     * Cancels the decoding of the remaining messages, should be called when the batch is not fully consumed.
+     */
+    public void cancel() {
+      for (int i = _numChunksDone; i < _futures.size(); i++) {
+        _futures.get(i).cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Result of decoding and transforming a single message.
+   */
+  public static class DecodedMessage {
+    private final GenericRow _decodedRow;
+    private final List<GenericRow> _transformedRows = new ArrayList<>(1);
+    private int _numRowsDropped;
+    private Exception _transformException;
+
+    private DecodedMessage(@Nullable GenericRow decodedRow) {
+      _decodedRow = decodedRow;
+    }
+
+    private void addTransformedRow(@Nullable GenericRow transformedRow) {
+      if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
+        _transformedRows.add(transformedRow);
+      } else {
+        _numRowsDropped++;
+      }
+    }
+
+    /**
+     * Returns the decoded row, or {@code null} if the message cannot be decoded.
+     */
+    @Nullable
+    public GenericRow getDecodedRow() {
+      return _decodedRow;
+    }
+
+    /**
+     * Returns the transformed rows to be indexed (in the order of the records within the message).
+     */
+    public List<GenericRow> getTransformedRows() {
+      return _transformedRows;
+    }
+
+    /**
+     * Returns the number of rows dropped by the record transformer.
+     */
+    public int getNumRowsDropped() {
+      return _numRowsDropped;
+    }
+
+    /**
+     * Returns the exception thrown while transforming the rows, or {@code null} if no exception is thrown.
+     */
+    @Nullable
+    public Exception getTransformException() {
+      return _transformException;
+    }
+  }
+
+  private static class Worker {
+    final StreamMessageDecoder _decoder;
+    final RecordTransformer _recordTransformer;
+
+    Worker(StreamMessageDecoder decoder, RecordTransformer recordTransformer) {
+      _decoder = decoder;
+      _recordTransformer = recordTransformer;
+    }
+  }
+}
@@ -24,18 +24,22 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.helix.model.IdealState;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metadata.instance.InstanceZKMetadata;
@@ -49,6 +53,7 @@ import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.common.utils.SegmentName;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
+import org.apache.pinot.common.utils.helix.HelixHelper;
 import org.apache.pinot.core.data.manager.BaseTableDataManager;
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.data.readers.PinotSegmentColumnReader;
@@ -94,6 +99,7 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   // The old name of the stats file used to be stats.ser which we changed when we moved all packages
   // from com.linkedin to org.apache because of not being able to deserialize the old files using the newer classes
   private static final String STATS_FILE_NAME = "segment-stats.ser";
+  private static final String UPSERT_METADATA_DIR_NAME = "upsert";
   private static final String CONSUMERS_DIR = "consumers";
 
   // Topics tend to have similar cardinality for values across partitions consumed during the same time.
@@ -158,7 +164,11 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     if (isUpsertEnabled()) {
       Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, _tableNameWithType);
       Preconditions.checkState(schema != null, "Failed to find schema for table: %s", _tableNameWithType);
-      _tableUpsertMetadataManager = new TableUpsertMetadataManager(_tableNameWithType, _serverMetrics);
+      UpsertConfig upsertConfig = tableConfig.getUpsertConfig();
+      File offHeapIndexDir = upsertConfig.getPrimaryKeyStore() == UpsertConfig.PrimaryKeyStore.OFF_HEAP ? new File(
+          _indexDir, UPSERT_METADATA_DIR_NAME) : null;
+      _tableUpsertMetadataManager = new TableUpsertMetadataManager(_tableNameWithType, _serverMetrics, offHeapIndexDir,
+          this::getAssignedSegments);
       _primaryKeyColumns = schema.getPrimaryKeyColumns();
       Preconditions.checkState(!CollectionUtils.isEmpty(_primaryKeyColumns),
           "Primary key columns must be configured for upsert");
@@ -189,6 +199,10 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   @Override
   protected void doShutdown() {
     _segmentAsyncExecutorService.shutdown();
+    // Close the upsert metadata before destroying the segments, which removes the record locations of the segments
+    if (_tableUpsertMetadataManager != null) {
+      _tableUpsertMetadataManager.close();
+    }
     for (SegmentDataManager segmentDataManager : _segmentDataManagerMap.values()) {
       segmentDataManager.destroy();
     }
@@ -308,6 +322,11 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
 
         // Generates only one semaphore for every partitionId
         int partitionId = llcSegmentName.getPartitionId();
+        if (partitionUpsertMetadataManager != null) {
+          // The initial segment load of the partition is done when starting consuming it. Drop the segments restored
+          // from the snapshot but not added, which are replayed if added later.
+          partitionUpsertMetadataManager.removeUnclaimedSnapshotSegments(null);
+        }
         _partitionIdToSemaphoreMap.putIfAbsent(partitionId, new Semaphore(1));
         manager =
             new LLRealtimeSegmentDataManager(realtimeSegmentZKMetadata, tableConfig, this, _indexDir.getAbsolutePath(),
@@ -320,6 +339,36 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     }
   }
 
+  /**
+   * Returns the LLC segments of the given partition assigned to this server in the ideal state, or {@code null} if the
+   * ideal state cannot be read.
+   */
+  @Nullable
+  private Set<String> getAssignedSegments(int partitionId) {
+    if (_helixManager == null) {
+      return null;
+    }
+    IdealState idealState;
+    try {
+      idealState = HelixHelper.getTableIdealState(_helixManager, _tableNameWithType);
+    } catch (Exception e) {
+      _logger.warn("Caught exception while reading the ideal state for table: {}", _tableNameWithType, e);
+      return null;
+    }
+    if (idealState == null) {
+      return null;
+    }
+    Set<String> assignedSegments = new HashSet<>();
+    for (Map.Entry<String, Map<String, String>> entry : idealState.getRecord().getMapFields().entrySet()) {
+      String segmentName = entry.getKey();
+      if (entry.getValue().containsKey(_instanceId) && SegmentName.isLowLevelConsumerSegmentName(segmentName)
+          && new LLCSegmentName(segmentName).getPartitionId() == partitionId) {
+        assignedSegments.add(segmentName);
+      }
+    }
+    return assignedSegments;
+  }
+
   @Override
   public void addSegment(ImmutableSegment immutableSegment) {
     if (isUpsertEnabled()) {
@@ -365,8 +414,8 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
         return new RecordInfo(primaryKey, _docId++, timestamp);
       }
     };
-    ThreadSafeMutableRoaringBitmap validDocIds =
-        partitionUpsertMetadataManager.addSegment(segmentName, recordInfoIterator);
+    ThreadSafeMutableRoaringBitmap validDocIds = partitionUpsertMetadataManager
+        .addSegment(segmentName, immutableSegment.getSegmentMetadata().getCrc(), recordInfoIterator);
     immutableSegment.enableUpsert(partitionUpsertMetadataManager, validDocIds);
   }
 
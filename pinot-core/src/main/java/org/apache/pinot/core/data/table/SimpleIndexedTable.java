@@ -94,6 +94,19 @@ public class SimpleIndexedTable extends IndexedTable {
     return true;
   }
 
+  /**
+   * Merges all the records from the given table (before it is finished) into this table, trimming this table with the
+   * {@link TableResizer} whenever it reaches the trim threshold.
+   * <p>NOTE: The given table should not be used after the merge, as its records are reused by this table.
+   */
+  public void mergeUnfinishedTable(SimpleIndexedTable table) {
+    for (Map.Entry<Key, Record> entry : table._lookupMap.entrySet()) {
+      upsert(entry.getKey(), entry.getValue());
+    }
+    _numResizes += table._numResizes;
+    _resizeTimeMs += table._resizeTimeMs;
+  }
+
   private void resize(int trimToSize) {
     long startTime = System.currentTimeMillis();
     _lookupMap = _tableResizer.resizeRecordsMap(_lookupMap, trimToSize);
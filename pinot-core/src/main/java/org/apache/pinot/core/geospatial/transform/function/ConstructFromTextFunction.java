@@ -28,7 +28,6 @@ import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.BaseTransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -66,8 +65,8 @@ abstract class ConstructFromTextFunction extends BaseTransformFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new byte[projectionBlock.getNumDocs()][];
     }
     String[] argumentValues = _transformFunction.transformToStringValuesSV(projectionBlock);
     int length = projectionBlock.getNumDocs();
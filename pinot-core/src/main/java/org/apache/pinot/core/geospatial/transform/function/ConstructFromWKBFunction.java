@@ -25,7 +25,6 @@ import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.BaseTransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.utils.BytesUtils;
 import org.locationtech.jts.geom.Geometry;
@@ -67,8 +66,8 @@ abstract class ConstructFromWKBFunction extends BaseTransformFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new byte[projectionBlock.getNumDocs()][];
     }
     byte[][] argumentValues = _transformFunction.transformToBytesValuesSV(projectionBlock);
     for (int i = 0; i < projectionBlock.getNumDocs(); i++) {
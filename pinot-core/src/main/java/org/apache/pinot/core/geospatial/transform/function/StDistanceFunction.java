@@ -28,7 +28,6 @@ import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.BaseTransformFunction;
 import org.apache.pinot.core.operator.transform.function.LiteralTransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
@@ -90,8 +89,8 @@ public class StDistanceFunction extends BaseTransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new double[projectionBlock.getNumDocs()];
     }
     byte[][] firstValues = _firstArgument.transformToBytesValuesSV(projectionBlock);
     byte[][] secondValues = _secondArgument.transformToBytesValuesSV(projectionBlock);
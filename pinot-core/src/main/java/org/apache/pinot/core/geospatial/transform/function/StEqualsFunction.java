@@ -26,7 +26,6 @@ import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.BaseTransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.locationtech.jts.geom.Geometry;
 
@@ -73,8 +72,8 @@ public class StEqualsFunction extends BaseTransformFunction {
 
   @Override
   public int[] transformToIntValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new int[projectionBlock.getNumDocs()];
     }
     byte[][] firstValues = _firstArgument.transformToBytesValuesSV(projectionBlock);
     byte[][] secondValues = _secondArgument.transformToBytesValuesSV(projectionBlock);
@@ -25,7 +25,6 @@ import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.BaseTransformFunction;
 import org.apache.pinot.core.operator.transform.function.LiteralTransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,8 +76,8 @@ public class StPointFunction extends BaseTransformFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new byte[projectionBlock.getNumDocs()][];
     }
     double[] firstValues = _firstArgument.transformToDoubleValuesSV(projectionBlock);
     double[] secondValues = _secondArgument.transformToDoubleValuesSV(projectionBlock);
@@ -24,7 +24,6 @@ import org.apache.pinot.common.Utils;
 import org.apache.pinot.core.geospatial.GeometryUtils;
 import org.apache.pinot.core.geospatial.serde.GeometrySerializer;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Polygon;
@@ -49,8 +48,8 @@ public class StPolygonFunction extends ConstructFromTextFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new byte[projectionBlock.getNumDocs()][];
     }
     String[] argumentValues = _transformFunction.transformToStringValuesSV(projectionBlock);
     int length = projectionBlock.getNumDocs();
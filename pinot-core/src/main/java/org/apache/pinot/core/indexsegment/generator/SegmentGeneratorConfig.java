@@ -71,6 +71,7 @@ public class SegmentGeneratorConfig {
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
   private List<String> _textIndexCreationColumns = new ArrayList<>();
   private List<String> _fstIndexCreationColumns = new ArrayList<>();
+  private List<String> _jsonIndexCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _inputFilePath = null;
@@ -100,6 +101,7 @@ public class SegmentGeneratorConfig {
   private boolean _onHeap = false;
   private boolean _skipTimeValueCheck = false;
   private boolean _nullHandlingEnabled = false;
+  private int _indexingParallelism = 1;
 
   // constructed from FieldConfig
   private Map<String, Map<String, String>> _columnProperties = new HashMap<>();
@@ -155,6 +157,9 @@ public class SegmentGeneratorConfig {
       if (indexingConfig.getVarLengthDictionaryColumns() != null) {
         setVarLengthDictionaryColumns(indexingConfig.getVarLengthDictionaryColumns());
       }
+      if (indexingConfig.getJsonIndexColumns() != null) {
+        setJsonIndexCreationColumns(indexingConfig.getJsonIndexColumns());
+      }
       _segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
 
       // Star-tree configs
@@ -174,7 +179,18 @@ public class SegmentGeneratorConfig {
       List<FieldConfig> fieldConfigList = tableConfig.getFieldConfigList();
       if (fieldConfigList != null) {
         for (FieldConfig fieldConfig : fieldConfigList) {
-          _columnProperties.put(fieldConfig.getName(), fieldConfig.getProperties());
+          String columnName = fieldConfig.getName();
+          Map<String, String> properties = fieldConfig.getProperties();
+          _columnProperties.put(columnName, properties);
+
+          // Compression type configured in the field config overrides the one in the no-dictionary config
+          if (properties != null && _rawIndexCreationColumns.contains(columnName)) {
+            String compressionType = properties.get(FieldConfig.RAW_INDEX_COMPRESSION_TYPE);
+            if (compressionType != null) {
+              _rawIndexCompressionType
+                  .put(columnName, ChunkCompressorFactory.CompressionType.valueOf(compressionType.toUpperCase()));
+            }
+          }
         }
       }
 
@@ -290,6 +306,10 @@ public class SegmentGeneratorConfig {
     return _fstIndexCreationColumns;
   }
 
+  public List<String> getJsonIndexCreationColumns() {
+    return _jsonIndexCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -328,6 +348,12 @@ public class SegmentGeneratorConfig {
     }
   }
 
+  public void setJsonIndexCreationColumns(List<String> jsonIndexCreationColumns) {
+    if (jsonIndexCreationColumns != null) {
+      _jsonIndexCreationColumns.addAll(jsonIndexCreationColumns);
+    }
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -638,4 +664,17 @@ public class SegmentGeneratorConfig {
   public void setNullHandlingEnabled(boolean nullHandlingEnabled) {
     _nullHandlingEnabled = nullHandlingEnabled;
   }
+
+  public int getIndexingParallelism() {
+    return _indexingParallelism;
+  }
+
+  /**
+   * Sets the number of threads used to index the columns of the segment. When larger than 1, rows are buffered into
+   * chunks and the columns of each chunk are indexed in parallel. The same number of threads is used to build the
+   * star-trees of the segment.
+   */
+  public void setIndexingParallelism(int indexingParallelism) {
+    _indexingParallelism = indexingParallelism;
+  }
 }
@@ -49,6 +49,7 @@ import org.apache.pinot.core.realtime.impl.forward.FixedByteMVMutableForwardInde
 import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.forward.VarByteSVMutableForwardIndex;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeInvertedIndexReader;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeJsonIndexReader;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders;
 import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeLuceneTextIndexReader;
@@ -222,6 +223,7 @@ public class MutableSegmentImpl implements MutableSegment {
     Set<String> invertedIndexColumns = config.getInvertedIndexColumns();
     Set<String> textIndexColumns = config.getTextIndexColumns();
     Set<String> fstIndexColumns = config.getFSTIndexColumns();
+    Set<String> jsonIndexColumns = config.getJsonIndexColumns();
 
     int avgNumMultiValues = config.getAvgNumMultiValues();
 
@@ -324,6 +326,9 @@ public class MutableSegmentImpl implements MutableSegment {
         textIndex = null;
       }
 
+      // Json index
+      RealtimeJsonIndexReader jsonIndex = jsonIndexColumns.contains(column) ? new RealtimeJsonIndexReader() : null;
+
       // Null value vector
       MutableNullValueVector nullValueVector = _nullHandlingEnabled ? new MutableNullValueVector() : null;
 
@@ -331,7 +336,7 @@ public class MutableSegmentImpl implements MutableSegment {
       _indexContainerMap.put(column,
           new IndexContainer(fieldSpec, fstIndexColumns.contains(column),
               partitionFunction, partitions, new NumValuesInfo(), forwardIndex, dictionary,
-              invertedIndexReader, null, textIndex, null,
+              invertedIndexReader, null, textIndex, null, jsonIndex,
               null, nullValueVector));
     }
 
@@ -606,6 +611,12 @@ public class MutableSegmentImpl implements MutableSegment {
         if (textIndex != null) {
           textIndex.add((String) value);
         }
+
+        // Update json index
+        RealtimeJsonIndexReader jsonIndex = indexContainer._jsonIndex;
+        if (jsonIndex != null) {
+          jsonIndex.add((String) value);
+        }
       } else {
         // Multi-value column (always dictionary-encoded)
 
@@ -1040,6 +1051,7 @@ public class MutableSegmentImpl implements MutableSegment {
     final RealtimeInvertedIndexReader _invertedIndex;
     final InvertedIndexReader _rangeIndex;
     final RealtimeLuceneTextIndexReader _textIndex;
+    final RealtimeJsonIndexReader _jsonIndex;
     final BloomFilterReader _bloomFilter;
     final MutableNullValueVector _nullValueVector;
 
@@ -1058,7 +1070,7 @@ public class MutableSegmentImpl implements MutableSegment {
         NumValuesInfo numValuesInfo, MutableForwardIndex forwardIndex, @Nullable MutableDictionary dictionary,
         @Nullable RealtimeInvertedIndexReader invertedIndex, @Nullable InvertedIndexReader rangeIndex,
         @Nullable RealtimeLuceneTextIndexReader textIndex, @Nullable TextIndexReader fstIndex,
-        @Nullable BloomFilterReader bloomFilter,
+        @Nullable RealtimeJsonIndexReader jsonIndex, @Nullable BloomFilterReader bloomFilter,
         @Nullable MutableNullValueVector nullValueVector) {
       _fieldSpec = fieldSpec;
       _partitionFunction = partitionFunction;
@@ -1069,6 +1081,7 @@ public class MutableSegmentImpl implements MutableSegment {
       _invertedIndex = invertedIndex;
       _rangeIndex = rangeIndex;
       _textIndex = textIndex;
+      _jsonIndex = jsonIndex;
       _bloomFilter = bloomFilter;
       _nullValueVector = nullValueVector;
       _fstIndexEnabled = fstIndexEnabled;
@@ -1079,7 +1092,8 @@ public class MutableSegmentImpl implements MutableSegment {
       // generated.
       return new MutableDataSource(_fieldSpec, _numDocsIndexed, _numValuesInfo._numValues,
           _numValuesInfo._maxNumValuesPerMVEntry, _fstIndexEnabled, _partitionFunction, _partitions, _minValue,
-          _maxValue, _forwardIndex, _dictionary, _invertedIndex, _rangeIndex, _textIndex, null, _bloomFilter,
+          _maxValue, _forwardIndex, _dictionary, _invertedIndex, _rangeIndex, _textIndex, null, _jsonIndex,
+          _bloomFilter,
           _nullValueVector);
     }
 
@@ -1120,6 +1134,13 @@ public class MutableSegmentImpl implements MutableSegment {
           _logger.error("Caught exception while closing text index for column: {}, continuing with error", column, e);
         }
       }
+      if (_jsonIndex != null) {
+        try {
+          _jsonIndex.close();
+        } catch (Exception e) {
+          _logger.error("Caught exception while closing json index for column: {}, continuing with error", column, e);
+        }
+      }
       if (_bloomFilter != null) {
         try {
           _bloomFilter.close();
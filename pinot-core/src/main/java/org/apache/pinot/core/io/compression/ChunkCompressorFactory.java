@@ -28,8 +28,10 @@ public class ChunkCompressorFactory {
 
   }
 
+  // NOTE: The value of the compression type is stored in the header of the forward index, so new compression types
+  //       should always be appended to the end to keep the existing segments readable.
   public enum CompressionType {
-    PASS_THROUGH(0), SNAPPY(1);
+    PASS_THROUGH(0), SNAPPY(1), LZ4(2), ZSTANDARD(3);
 
     private final int _value;
 
@@ -49,6 +51,18 @@ public class ChunkCompressorFactory {
    * @return Compressor for the specified type.
    */
   public static ChunkCompressor getCompressor(CompressionType compressionType) {
+    return getCompressor(compressionType, ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Returns the chunk compressor for the specified name and compression level. The compression level is only
+   * applicable to {@link CompressionType#ZSTANDARD}, and is ignored for the other compression types.
+   *
+   * @param compressionType Type of compressor.
+   * @param compressionLevel Compression level
+   * @return Compressor for the specified type.
+   */
+  public static ChunkCompressor getCompressor(CompressionType compressionType, int compressionLevel) {
     switch (compressionType) {
 
       case PASS_THROUGH:
@@ -57,6 +71,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyCompressor();
 
+      case LZ4:
+        return new LZ4Compressor();
+
+      case ZSTANDARD:
+        return new ZstandardCompressor(compressionLevel);
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -76,6 +96,12 @@ public class ChunkCompressorFactory {
       case SNAPPY:
         return new SnappyDecompressor();
 
+      case LZ4:
+        return new LZ4Decompressor();
+
+      case ZSTANDARD:
+        return new ZstandardDecompressor();
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.io.compression;
+
+import com.github.luben.zstd.Zstd;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} using Zstandard. Zstandard gives better compression ratio than Snappy and
+ * LZ4 at the cost of slower compression, and the compression level can be tuned to trade speed for density.
+ * <p>NOTE: Zstandard only works on direct ByteBuffers.
+ */
+public class ZstandardCompressor implements ChunkCompressor {
+  public static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+  private final int _compressionLevel;
+
+  public ZstandardCompressor() {
+    this(DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  public ZstandardCompressor(int compressionLevel) {
+    _compressionLevel = compressionLevel;
+  }
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed)
+      throws IOException {
+    // NOTE: This method advances the position of the output ByteBuffer by the compressed size, and the position of the
+    //       input ByteBuffer to its limit.
+    Zstd.compress(outCompressed, inUncompressed, _compressionLevel);
+
+    // Make the output ByteBuffer ready for read.
+    outCompressed.flip();
+    return outCompressed.limit();
+  }
+}
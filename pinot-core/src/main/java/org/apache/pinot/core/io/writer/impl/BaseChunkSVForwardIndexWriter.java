@@ -28,6 +28,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import org.apache.pinot.core.io.compression.ChunkCompressor;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ZstandardCompressor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,9 +71,29 @@ public abstract class BaseChunkSVForwardIndexWriter implements Closeable {
   protected BaseChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
       int totalDocs, int numDocsPerChunk, int chunkSize, int sizeOfEntry, int version)
       throws FileNotFoundException {
+    this(file, compressionType, totalDocs, numDocsPerChunk, chunkSize, sizeOfEntry, version,
+        ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param file Data file to write into
+   * @param compressionType Type of compression
+   * @param totalDocs Total docs to write
+   * @param numDocsPerChunk Number of docs per data chunk
+   * @param chunkSize Size of chunk
+   * @param sizeOfEntry Size of entry (in bytes), max size for variable byte implementation.
+   * @param version version of File
+   * @param compressionLevel Compression level (only applicable to ZSTANDARD compression)
+   * @throws FileNotFoundException
+   */
+  protected BaseChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
+      int totalDocs, int numDocsPerChunk, int chunkSize, int sizeOfEntry, int version, int compressionLevel)
+      throws FileNotFoundException {
     Preconditions.checkArgument(version == DEFAULT_VERSION || version == CURRENT_VERSION);
     _chunkSize = chunkSize;
-    _chunkCompressor = ChunkCompressorFactory.getCompressor(compressionType);
+    _chunkCompressor = ChunkCompressorFactory.getCompressor(compressionType, compressionLevel);
     _headerEntryChunkOffsetSize = getHeaderEntryChunkOffsetSize(version);
     _dataOffset = writeHeader(compressionType, totalDocs, numDocsPerChunk, sizeOfEntry, version);
     _chunkBuffer = ByteBuffer.allocateDirect(chunkSize);
@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ZstandardCompressor;
 
 
 /**
@@ -69,8 +70,27 @@ public class FixedByteChunkSVForwardIndexWriter extends BaseChunkSVForwardIndexW
   public FixedByteChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
       int totalDocs, int numDocsPerChunk, int sizeOfEntry, int writerVersion)
       throws FileNotFoundException {
+    this(file, compressionType, totalDocs, numDocsPerChunk, sizeOfEntry, writerVersion,
+        ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param file File to write to.
+   * @param compressionType Type of compression to use.
+   * @param totalDocs Total number of docs to write.
+   * @param numDocsPerChunk Number of documents per chunk.
+   * @param sizeOfEntry Size of entry (in bytes)
+   * @param writerVersion writer format version
+   * @param compressionLevel Compression level (only applicable to ZSTANDARD compression)
+   * @throws FileNotFoundException Throws {@link FileNotFoundException} if the specified file is not found.
+   */
+  public FixedByteChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
+      int totalDocs, int numDocsPerChunk, int sizeOfEntry, int writerVersion, int compressionLevel)
+      throws FileNotFoundException {
     super(file, compressionType, totalDocs, numDocsPerChunk, (sizeOfEntry * numDocsPerChunk), sizeOfEntry,
-        writerVersion);
+        writerVersion, compressionLevel);
     _chunkDataOffset = 0;
   }
 
@@ -24,6 +24,7 @@ import java.io.IOException;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ZstandardCompressor;
 
 
 /**
@@ -73,9 +74,28 @@ public class VarByteChunkSVForwardIndexWriter extends BaseChunkSVForwardIndexWri
   public VarByteChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
       int totalDocs, int numDocsPerChunk, int lengthOfLongestEntry, int writerVersion)
       throws FileNotFoundException {
+    this(file, compressionType, totalDocs, numDocsPerChunk, lengthOfLongestEntry, writerVersion,
+        ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Constructor for the class.
+   *
+   * @param file File to write to.
+   * @param compressionType Type of compression to use.
+   * @param totalDocs Total number of docs to write.
+   * @param numDocsPerChunk Number of documents per chunk.
+   * @param lengthOfLongestEntry Length of longest entry (in bytes)
+   * @param writerVersion writer format version
+   * @param compressionLevel Compression level (only applicable to ZSTANDARD compression)
+   * @throws FileNotFoundException Throws {@link FileNotFoundException} if the specified file is not found.
+   */
+  public VarByteChunkSVForwardIndexWriter(File file, ChunkCompressorFactory.CompressionType compressionType,
+      int totalDocs, int numDocsPerChunk, int lengthOfLongestEntry, int writerVersion, int compressionLevel)
+      throws FileNotFoundException {
     super(file, compressionType, totalDocs, numDocsPerChunk,
         numDocsPerChunk * (CHUNK_HEADER_ENTRY_ROW_OFFSET_SIZE + lengthOfLongestEntry), // chunkSize
-        lengthOfLongestEntry, writerVersion);
+        lengthOfLongestEntry, writerVersion, compressionLevel);
 
     _chunkHeaderOffset = 0;
     _chunkHeaderSize = numDocsPerChunk * CHUNK_HEADER_ENTRY_ROW_OFFSET_SIZE;
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.operator;
 
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 
@@ -27,14 +28,20 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
   private static final String OPERATOR_NAME = "InstanceResponseOperator";
 
   private final Operator _operator;
+  private final int _dataTableVersion;
 
   public InstanceResponseOperator(Operator combinedOperator) {
+    this(combinedOperator, DataTableImplV2.VERSION);
+  }
+
+  public InstanceResponseOperator(Operator combinedOperator, int dataTableVersion) {
     _operator = combinedOperator;
+    _dataTableVersion = dataTableVersion;
   }
 
   @Override
   protected InstanceResponseBlock getNextBlock() {
-    return new InstanceResponseBlock((IntermediateResultsBlock) _operator.nextBlock());
+    return new InstanceResponseBlock((IntermediateResultsBlock) _operator.nextBlock(), _dataTableVersion);
   }
 
   @Override
@@ -268,30 +268,38 @@ public class IntermediateResultsBlock implements Block {
 
   public DataTable getDataTable()
       throws Exception {
+    return getDataTable(DataTableImplV2.VERSION);
+  }
+
+  /**
+   * Returns the data table built with the highest supported version up to the given version.
+   */
+  public DataTable getDataTable(int dataTableVersion)
+      throws Exception {
 
     if (_table != null) {
-      return getResultDataTable();
+      return getResultDataTable(dataTableVersion);
     }
 
     // TODO: remove all these ifs once every operator starts using {@link Table}
     if (_selectionResult != null) {
-      return getSelectionResultDataTable();
+      return getSelectionResultDataTable(dataTableVersion);
     }
 
     if (_aggregationResult != null) {
-      return getAggregationResultDataTable();
+      return getAggregationResultDataTable(dataTableVersion);
     }
 
     if (_combinedAggregationGroupByResult != null) {
-      return getAggregationGroupByResultDataTable();
+      return getAggregationGroupByResultDataTable(dataTableVersion);
     }
 
     return getMetadataDataTable();
   }
 
-  private DataTable getResultDataTable()
+  private DataTable getResultDataTable(int dataTableVersion)
       throws IOException {
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(_dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(_dataSchema, dataTableVersion);
 
     Iterator<Record> iterator = _table.iterator();
     ColumnDataType[] columnDataTypes = _dataSchema.getColumnDataTypes();
@@ -354,12 +362,13 @@ public class IntermediateResultsBlock implements Block {
     }
   }
 
-  private DataTable getSelectionResultDataTable()
+  private DataTable getSelectionResultDataTable(int dataTableVersion)
       throws Exception {
-    return attachMetadataToDataTable(SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _dataSchema));
+    return attachMetadataToDataTable(
+        SelectionOperatorUtils.getDataTableFromRows(_selectionResult, _dataSchema, dataTableVersion));
   }
 
-  private DataTable getAggregationResultDataTable()
+  private DataTable getAggregationResultDataTable(int dataTableVersion)
       throws Exception {
     // Extract result column name and type from each aggregation function
     int numAggregationFunctions = _aggregationFunctions.length;
@@ -372,7 +381,8 @@ public class IntermediateResultsBlock implements Block {
     }
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), dataTableVersion);
     dataTableBuilder.startRow();
     for (int i = 0; i < numAggregationFunctions; i++) {
       switch (columnDataTypes[i]) {
@@ -396,13 +406,14 @@ public class IntermediateResultsBlock implements Block {
     return attachMetadataToDataTable(dataTable);
   }
 
-  private DataTable getAggregationGroupByResultDataTable()
+  private DataTable getAggregationGroupByResultDataTable(int dataTableVersion)
       throws Exception {
     String[] columnNames = new String[]{"functionName", "GroupByResultMap"};
     ColumnDataType[] columnDataTypes = new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.OBJECT};
 
     // Build the data table.
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(new DataSchema(columnNames, columnDataTypes));
+    DataTableBuilder dataTableBuilder =
+        new DataTableBuilder(new DataSchema(columnNames, columnDataTypes), dataTableVersion);
     int numAggregationFunctions = _aggregationFunctions.length;
     for (int i = 0; i < numAggregationFunctions; i++) {
       dataTableBuilder.startRow();
@@ -26,6 +26,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
@@ -42,6 +43,9 @@ import org.slf4j.LoggerFactory;
  * <p>Combine operator uses multiple worker threads to process segments in parallel, and uses the main thread to merge
  * the results blocks from the processed segments. It can early-terminate the query to save the system resources if it
  * detects that the merged results can already satisfy the query, or the query is already errored out or timed out.
+ * <p>The operators are handed out to the worker threads dynamically through a shared cursor instead of a fixed stride,
+ * so that a thread drawing a few expensive segments does not hold back the segments that would otherwise be assigned
+ * to it. The operators should be ordered by the estimated cost (most expensive first) to get the best balance.
  */
 @SuppressWarnings("rawtypes")
 public abstract class BaseCombineOperator extends BaseOperator<IntermediateResultsBlock> {
@@ -67,6 +71,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
 
     // Use a BlockingQueue to store the per-segment result
     BlockingQueue<IntermediateResultsBlock> blockingQueue = new ArrayBlockingQueue<>(numOperators);
+    // Use an AtomicInteger as the shared cursor to assign the next operator to the first available thread
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
     // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
     // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
@@ -75,7 +81,6 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
 
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
-      int threadIndex = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
         @Override
         public void runJob() {
@@ -88,7 +93,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
               return;
             }
 
-            for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
               try {
                 IntermediateResultsBlock resultsBlock =
                     (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
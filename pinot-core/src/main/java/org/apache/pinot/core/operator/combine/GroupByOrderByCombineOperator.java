@@ -38,6 +38,7 @@ import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.Key;
 import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.Table;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
@@ -107,7 +108,6 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     int numAggregationFunctions = aggregationFunctions.length;
     assert _queryContext.getGroupByExpressions() != null;
     int numGroupByExpressions = _queryContext.getGroupByExpressions().size();
-    int numColumns = numGroupByExpressions + numAggregationFunctions;
     ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
 
     // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
@@ -168,54 +168,8 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
             // Merge aggregation group-by result.
             AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
             if (aggregationGroupByResult != null) {
-              if (numGroupByExpressions == 1) {
-                // Get converter function
-                Function converterFunction = getConverterFunction(_dataSchema.getColumnDataType(0));
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  Object convertedKey = converterFunction.apply(groupKey._stringKey);
-                  values[0] = convertedKey;
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                  }
-                  Key key = new Key(new Object[]{convertedKey});
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              } else {
-                // Get converter functions
-                Function[] converterFunctions = new Function[numGroupByExpressions];
-                for (int i = 0; i < numGroupByExpressions; i++) {
-                  converterFunctions[i] = getConverterFunction(_dataSchema.getColumnDataType(i));
-                }
-
-                // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-                Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-                while (groupKeyIterator.hasNext()) {
-                  Object[] values = new Object[numColumns];
-                  int columnIndex = 0;
-                  GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-                  String[] stringKeys = groupKey.getKeys();
-                  Object[] objectKeys = new Object[numGroupByExpressions];
-                  for (int i = 0; i < numGroupByExpressions; i++) {
-                    Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
-                    objectKeys[columnIndex] = convertedKey;
-                    values[columnIndex] = convertedKey;
-                    columnIndex++;
-                  }
-                  for (int i = 0; i < numAggregationFunctions; i++) {
-                    values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
-                    columnIndex++;
-                  }
-                  Key key = new Key(objectKeys);
-                  Record record = new Record(values);
-                  _indexedTable.upsert(key, record);
-                }
-              }
+              upsertAggregationGroupByResult(_indexedTable, aggregationGroupByResult, _dataSchema,
+                  numGroupByExpressions, numAggregationFunctions);
             }
           } catch (EarlyTerminationException e) {
             // Early-terminated because query times out or is already satisfied
@@ -274,7 +228,64 @@ public class GroupByOrderByCombineOperator extends BaseOperator<IntermediateResu
     }
   }
 
-  private Function<String, Object> getConverterFunction(DataSchema.ColumnDataType columnDataType) {
+  /**
+   * Upserts the given segment level {@link AggregationGroupByResult} into the given {@link Table}.
+   */
+  @SuppressWarnings("unchecked")
+  static void upsertAggregationGroupByResult(Table table, AggregationGroupByResult aggregationGroupByResult,
+      DataSchema dataSchema, int numGroupByExpressions, int numAggregationFunctions) {
+    int numColumns = numGroupByExpressions + numAggregationFunctions;
+    if (numGroupByExpressions == 1) {
+      // Get converter function
+      Function converterFunction = getConverterFunction(dataSchema.getColumnDataType(0));
+
+      // Iterate over the group-by keys, for each key, update the group-by result in the table
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        Object[] values = new Object[numColumns];
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        Object convertedKey = converterFunction.apply(groupKey._stringKey);
+        values[0] = convertedKey;
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          values[i + 1] = aggregationGroupByResult.getResultForKey(groupKey, i);
+        }
+        Key key = new Key(new Object[]{convertedKey});
+        Record record = new Record(values);
+        table.upsert(key, record);
+      }
+    } else {
+      // Get converter functions
+      Function[] converterFunctions = new Function[numGroupByExpressions];
+      for (int i = 0; i < numGroupByExpressions; i++) {
+        converterFunctions[i] = getConverterFunction(dataSchema.getColumnDataType(i));
+      }
+
+      // Iterate over the group-by keys, for each key, update the group-by result in the table
+      Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+      while (groupKeyIterator.hasNext()) {
+        Object[] values = new Object[numColumns];
+        int columnIndex = 0;
+        GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+        String[] stringKeys = groupKey.getKeys();
+        Object[] objectKeys = new Object[numGroupByExpressions];
+        for (int i = 0; i < numGroupByExpressions; i++) {
+          Object convertedKey = converterFunctions[i].apply(stringKeys[i]);
+          objectKeys[columnIndex] = convertedKey;
+          values[columnIndex] = convertedKey;
+          columnIndex++;
+        }
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          values[columnIndex] = aggregationGroupByResult.getResultForKey(groupKey, i);
+          columnIndex++;
+        }
+        Key key = new Key(objectKeys);
+        Record record = new Record(values);
+        table.upsert(key, record);
+      }
+    }
+  }
+
+  private static Function<String, Object> getConverterFunction(DataSchema.ColumnDataType columnDataType) {
     switch (columnDataType) {
       case INT:
         return Integer::valueOf;
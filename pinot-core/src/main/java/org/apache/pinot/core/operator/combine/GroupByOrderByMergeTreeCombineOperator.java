@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.data.table.SimpleIndexedTable;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.exception.EarlyTerminationException;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Combine operator for aggregation group-by queries with SQL semantic, which merges the results with a merge tree
+ * instead of a single shared {@link org.apache.pinot.core.data.table.ConcurrentIndexedTable}.
+ * <ul>
+ *   <li>
+ *     Each worker thread aggregates the segments it picks up into its own thread-local {@link SimpleIndexedTable},
+ *     without any locking or contention with the other threads
+ *   </li>
+ *   <li>
+ *     When a worker thread finishes, it pairs up its table with the table left by another finished thread, merges the
+ *     smaller one into the larger one, and keeps going until no table is left to pair with. The merges of different
+ *     pairs run in parallel, and the {@link org.apache.pinot.core.data.table.TableResizer} trims the table at each
+ *     level once it reaches the trim threshold
+ *   </li>
+ * </ul>
+ * <p>This combine mode is enabled with the query option {@code groupByMergeTree=true}.
+ */
+@SuppressWarnings("rawtypes")
+public class GroupByOrderByMergeTreeCombineOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GroupByOrderByMergeTreeCombineOperator.class);
+  private static final String OPERATOR_NAME = "GroupByOrderByMergeTreeCombineOperator";
+
+  private final List<Operator> _operators;
+  private final QueryContext _queryContext;
+  private final ExecutorService _executorService;
+  private final long _endTimeMs;
+  private final int _trimSize;
+  private final int _trimThreshold;
+
+  public GroupByOrderByMergeTreeCombineOperator(List<Operator> operators, QueryContext queryContext,
+      ExecutorService executorService, long endTimeMs, int trimThreshold) {
+    _operators = operators;
+    _queryContext = queryContext;
+    _executorService = executorService;
+    _endTimeMs = endTimeMs;
+    _trimSize = GroupByUtils.getTableCapacity(_queryContext);
+    _trimThreshold = trimThreshold;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
+    assert aggregationFunctions != null;
+    int numAggregationFunctions = aggregationFunctions.length;
+    assert _queryContext.getGroupByExpressions() != null;
+    int numGroupByExpressions = _queryContext.getGroupByExpressions().size();
+    ConcurrentLinkedQueue<ProcessingException> mergedProcessingExceptions = new ConcurrentLinkedQueue<>();
+
+    int numOperators = _operators.size();
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numOperators);
+
+    // Use an AtomicInteger as the shared cursor to assign the next operator to the first available thread
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
+    // Table left by a finished thread, waiting to be paired with the table from the next finished thread
+    AtomicReference<SimpleIndexedTable> pendingTable = new AtomicReference<>();
+    // Use a CountDownLatch to track if all threads are finished (including merging their tables) by the query timeout
+    CountDownLatch threadLatch = new CountDownLatch(numThreads);
+    // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
+    // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
+    // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
+    // behavior (even JVM crash) when processing queries against it.
+    Phaser phaser = new Phaser(1);
+
+    Future[] futures = new Future[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          try {
+            // Register the thread to the phaser
+            // NOTE: If the phaser is terminated (returning negative value) when trying to register the thread, that
+            //       means the query execution has finished, and the main thread has deregistered itself and returned
+            //       the result. Directly return as no execution result will be taken.
+            if (phaser.register() < 0) {
+              return;
+            }
+
+            // Aggregate the segments into the thread-local table
+            SimpleIndexedTable table = null;
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
+              try {
+                IntermediateResultsBlock resultsBlock =
+                    (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+                if (table == null) {
+                  table = new SimpleIndexedTable(resultsBlock.getDataSchema(), _queryContext, _trimSize,
+                      _trimThreshold);
+                }
+
+                // Merge processing exceptions.
+                List<ProcessingException> processingExceptionsToMerge = resultsBlock.getProcessingExceptions();
+                if (processingExceptionsToMerge != null) {
+                  mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+                }
+
+                // Merge aggregation group-by result.
+                AggregationGroupByResult aggregationGroupByResult = resultsBlock.getAggregationGroupByResult();
+                if (aggregationGroupByResult != null) {
+                  GroupByOrderByCombineOperator
+                      .upsertAggregationGroupByResult(table, aggregationGroupByResult, table.getDataSchema(),
+                          numGroupByExpressions, numAggregationFunctions);
+                }
+              } catch (EarlyTerminationException e) {
+                // Early-terminated by interruption (canceled by the main thread)
+                return;
+              } catch (Exception e) {
+                LOGGER.error("Caught exception while processing and combining group-by order-by for index: {}, "
+                    + "operator: {} (query: {})", operatorIndex, _operators.get(operatorIndex).getClass().getName(),
+                    _queryContext, e);
+                mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+              }
+            }
+
+            // Pair up the thread-local table with the tables left by the other threads until no table is left
+            // NOTE: If a merge fails, both tables involved are dropped and the failure is reported as a processing
+            //       exception, so that the merged result is never silently incomplete.
+            if (table != null) {
+              while (true) {
+                SimpleIndexedTable tableToMerge = pendingTable.getAndSet(null);
+                if (tableToMerge == null) {
+                  if (pendingTable.compareAndSet(null, table)) {
+                    break;
+                  }
+                } else {
+                  if (Thread.interrupted()) {
+                    throw new EarlyTerminationException();
+                  }
+                  // Merge the smaller table into the larger one
+                  if (tableToMerge.size() > table.size()) {
+                    tableToMerge.mergeUnfinishedTable(table);
+                    table = tableToMerge;
+                  } else {
+                    table.mergeUnfinishedTable(tableToMerge);
+                  }
+                }
+              }
+            }
+          } catch (EarlyTerminationException e) {
+            // Early-terminated by interruption (canceled by the main thread)
+          } catch (Exception e) {
+            LOGGER.error("Caught exception while merging group-by order-by tables (query: {})", _queryContext, e);
+            mergedProcessingExceptions.add(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
+          } finally {
+            // Always count down the latch so that the main thread does not wait until the query timeout on failures
+            threadLatch.countDown();
+            phaser.arriveAndDeregister();
+          }
+        }
+      });
+    }
+
+    try {
+      long timeoutMs = _endTimeMs - System.currentTimeMillis();
+      boolean opCompleted = threadLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
+      if (!opCompleted) {
+        // If this happens, the broker side should already timed out, just log the error and return
+        String errorMessage = String
+            .format("Timed out while combining group-by order-by results after %dms, queryContext = %s", timeoutMs,
+                _queryContext);
+        LOGGER.error(errorMessage);
+        return new IntermediateResultsBlock(new TimeoutException(errorMessage));
+      }
+
+      SimpleIndexedTable mergedTable = pendingTable.get();
+      if (mergedTable == null) {
+        // All the operators failed, directly return the exceptions
+        IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock();
+        mergedBlock.setProcessingExceptions(new ArrayList<>(mergedProcessingExceptions));
+        return mergedBlock;
+      }
+      mergedTable.finish(false);
+      IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(mergedTable);
+
+      // Set the processing exceptions.
+      if (!mergedProcessingExceptions.isEmpty()) {
+        mergedBlock.setProcessingExceptions(new ArrayList<>(mergedProcessingExceptions));
+      }
+
+      // Set the execution statistics.
+      CombineOperatorUtils.setExecutionStatistics(mergedBlock, _operators);
+      mergedBlock.setNumResizes(mergedTable.getNumResizes());
+      mergedBlock.setResizeTimeMs(mergedTable.getResizeTimeMs());
+
+      return mergedBlock;
+    } catch (Exception e) {
+      return new IntermediateResultsBlock(e);
+    } finally {
+      // Cancel all ongoing jobs
+      for (Future future : futures) {
+        if (!future.isDone()) {
+          future.cancel(true);
+        }
+      }
+      // Deregister the main thread and wait for all threads done
+      phaser.awaitAdvance(phaser.arriveAndDeregister());
+    }
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+}
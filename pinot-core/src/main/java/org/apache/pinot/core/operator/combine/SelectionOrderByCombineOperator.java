@@ -54,6 +54,7 @@ import org.apache.pinot.core.util.trace.TraceRunnable;
  *   <li>1. Sort all the segments by the column min/max value</li>
  *   <li>2. Keep processing segments until we get enough documents to fulfill the LIMIT and OFFSET requirement</li>
  *   <li>3. Skip processing the segments that cannot add values to the final result</li>
+ *   <li>4. Pass the boundary value to the segments processed so that the rows beyond it are skipped</li>
  * </ul>
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
@@ -220,8 +221,9 @@ public class SelectionOrderByCombineOperator extends BaseCombineOperator {
                 }
               }
 
-              // Process the segment
+              // Process the segment, and skip the rows beyond the boundary value within the segment
               try {
+                minMaxValueContext._operator.setBoundaryValue(boundaryValue);
                 IntermediateResultsBlock resultsBlock = minMaxValueContext._operator.nextBlock();
                 PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) resultsBlock.getSelectionResult();
                 if (selectionResult != null && selectionResult.size() == _numRowsToKeep) {
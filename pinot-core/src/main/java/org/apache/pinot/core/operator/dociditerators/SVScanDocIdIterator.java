@@ -30,9 +30,18 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>The column is scanned in blocks of consecutive documents: the values for a block are read from the forward index
+ * in bulk, then evaluated against the predicate in a tight loop, and the matching document ids are buffered. The block
+ * size starts from a single document and doubles up to {@link #MAX_BLOCK_SIZE} while the iterator keeps scanning
+ * sequentially, so that {@link #advance(int)} to sparse targets does not read values ahead when the target matches.
+ * <p>The number of entries scanned is tracked as if the documents are evaluated one by one, i.e. documents read ahead
+ * but not consumed yet are not counted.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
+  private static final int MIN_BLOCK_SIZE = 1;
+  private static final int MAX_BLOCK_SIZE = 256;
+
   private final PredicateEvaluator _predicateEvaluator;
   private final ForwardIndexReader _reader;
   // TODO: Figure out a way to close the reader context
@@ -40,10 +49,18 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
   private final ValueMatcher _valueMatcher;
+  private final int[] _docIdBuffer = new int[MAX_BLOCK_SIZE];
 
   private int _nextDocId = 0;
   private long _numEntriesScanned = 0L;
 
+  // Documents within [_nextDocId, _blockEndDocId) have been evaluated, and the matching ones are buffered within
+  // _docIdBuffer[_bufferIndex, _numBufferedDocs)
+  private int _blockEndDocId = 0;
+  private int _bufferIndex = 0;
+  private int _numBufferedDocs = 0;
+  private int _blockSize = MIN_BLOCK_SIZE;
+
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs) {
     _predicateEvaluator = predicateEvaluator;
     _reader = reader;
@@ -54,18 +71,35 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   @Override
   public int next() {
-    while (_nextDocId < _numDocs) {
-      int nextDocId = _nextDocId++;
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
+    while (true) {
+      if (_bufferIndex < _numBufferedDocs) {
+        int nextDocId = _docIdBuffer[_bufferIndex++];
+        _numEntriesScanned += nextDocId - _nextDocId + 1;
+        _nextDocId = nextDocId + 1;
         return nextDocId;
       }
+      _numEntriesScanned += _blockEndDocId - _nextDocId;
+      _nextDocId = _blockEndDocId;
+      if (_nextDocId >= _numDocs) {
+        return Constants.EOF;
+      }
+      scanNextBlock();
     }
-    return Constants.EOF;
   }
 
   @Override
   public int advance(int targetDocId) {
+    if (targetDocId < _nextDocId || targetDocId > _blockEndDocId) {
+      // Target is out of the current block, discard the buffered documents and restart with the minimum block size
+      _blockEndDocId = targetDocId;
+      _bufferIndex = 0;
+      _numBufferedDocs = 0;
+      _blockSize = MIN_BLOCK_SIZE;
+    } else {
+      while (_bufferIndex < _numBufferedDocs && _docIdBuffer[_bufferIndex] < targetDocId) {
+        _bufferIndex++;
+      }
+    }
     _nextDocId = targetDocId;
     return next();
   }
@@ -74,11 +108,24 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   public MutableRoaringBitmap applyAnd(ImmutableRoaringBitmap docIds) {
     MutableRoaringBitmap result = new MutableRoaringBitmap();
     IntIterator docIdIterator = docIds.getIntIterator();
-    int nextDocId;
-    while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        result.add(nextDocId);
+    int[] docIdBuffer = new int[MAX_BLOCK_SIZE];
+    boolean hasMoreDocs = true;
+    while (hasMoreDocs) {
+      int numDocs = 0;
+      while (numDocs < MAX_BLOCK_SIZE) {
+        int nextDocId;
+        if (!docIdIterator.hasNext() || (nextDocId = docIdIterator.next()) >= _numDocs) {
+          hasMoreDocs = false;
+          break;
+        }
+        docIdBuffer[numDocs++] = nextDocId;
+      }
+      if (numDocs > 0) {
+        _numEntriesScanned += numDocs;
+        int numMatchingDocs = _valueMatcher.matchValues(numDocs, docIdBuffer);
+        for (int i = 0; i < numMatchingDocs; i++) {
+          result.add(docIdBuffer[i]);
+        }
       }
     }
     return result;
@@ -89,6 +136,22 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return _numEntriesScanned;
   }
 
+  /**
+   * Evaluates the next block of documents starting from {@code _nextDocId}, and buffers the matching document ids.
+   */
+  private void scanNextBlock() {
+    int blockStartDocId = _nextDocId;
+    int blockEndDocId = Math.min(blockStartDocId + _blockSize, _numDocs);
+    int numDocs = blockEndDocId - blockStartDocId;
+    for (int i = 0; i < numDocs; i++) {
+      _docIdBuffer[i] = blockStartDocId + i;
+    }
+    _numBufferedDocs = _valueMatcher.matchValues(numDocs, _docIdBuffer);
+    _bufferIndex = 0;
+    _blockEndDocId = blockEndDocId;
+    _blockSize = Math.min(_blockSize << 1, MAX_BLOCK_SIZE);
+  }
+
   private ValueMatcher getValueMatcher() {
     if (_reader.isDictionaryEncoded()) {
       return new DictIdMatcher();
@@ -115,64 +178,97 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private interface ValueMatcher {
 
     /**
-     * Returns {@code true} if the value for the given document id matches the predicate, {@code false} Otherwise.
+     * Evaluates the values for the given document ids (at most {@link #MAX_BLOCK_SIZE}), compacts the matching document
+     * ids to the front of the array and returns the number of matching documents.
      */
-    boolean doesValueMatch(int docId);
+    int matchValues(int limit, int[] docIds);
   }
 
   private class DictIdMatcher implements ValueMatcher {
+    private final int[] _dictIdBuffer = new int[MAX_BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getDictId(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readDictIds(docIds, limit, _dictIdBuffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _dictIdBuffer);
     }
   }
 
   private class IntMatcher implements ValueMatcher {
+    private final int[] _valueBuffer = new int[MAX_BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getInt(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      for (int i = 0; i < limit; i++) {
+        _valueBuffer[i] = _reader.getInt(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
     }
   }
 
   private class LongMatcher implements ValueMatcher {
+    private final long[] _valueBuffer = new long[MAX_BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getLong(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      for (int i = 0; i < limit; i++) {
+        _valueBuffer[i] = _reader.getLong(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
     }
   }
 
   private class FloatMatcher implements ValueMatcher {
+    private final float[] _valueBuffer = new float[MAX_BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getFloat(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      for (int i = 0; i < limit; i++) {
+        _valueBuffer[i] = _reader.getFloat(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
     }
   }
 
   private class DoubleMatcher implements ValueMatcher {
+    private final double[] _valueBuffer = new double[MAX_BLOCK_SIZE];
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getDouble(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      for (int i = 0; i < limit; i++) {
+        _valueBuffer[i] = _reader.getDouble(docIds[i], _readerContext);
+      }
+      return _predicateEvaluator.applySV(limit, docIds, _valueBuffer);
     }
   }
 
   private class StringMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getString(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int docId = docIds[i];
+        if (_predicateEvaluator.applySV(_reader.getString(docId, _readerContext))) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
     }
   }
 
   private class BytesMatcher implements ValueMatcher {
 
     @Override
-    public boolean doesValueMatch(int docId) {
-      return _predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext));
+    public int matchValues(int limit, int[] docIds) {
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int docId = docIds[i];
+        if (_predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext))) {
+          docIds[numMatchingDocs++] = docId;
+        }
+      }
+      return numMatchingDocs;
     }
   }
 }
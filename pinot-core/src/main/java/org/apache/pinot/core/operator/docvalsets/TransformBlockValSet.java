@@ -23,7 +23,6 @@ import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec;
 
@@ -127,10 +126,10 @@ public class TransformBlockValSet implements BlockValSet {
 
   @Override
   public int[] getNumMVEntries() {
+    int numDocs = _projectionBlock.getNumDocs();
     if (_numMVEntries == null) {
-      _numMVEntries = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      _numMVEntries = new int[numDocs];
     }
-    int numDocs = _projectionBlock.getNumDocs();
     TransformResultMetadata resultMetadata = _transformFunction.getResultMetadata();
     if (resultMetadata.hasDictionary()) {
       int[][] dictionaryIds = getDictionaryIdsMV();
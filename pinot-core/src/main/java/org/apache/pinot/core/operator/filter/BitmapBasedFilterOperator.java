@@ -24,6 +24,7 @@ import org.apache.pinot.core.operator.blocks.EmptyFilterBlock;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.BitmapDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
@@ -71,15 +72,19 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
       return EmptyFilterBlock.getInstance();
     }
     if (numDictIds == 1) {
+      // The bitmap might be shared with other readers (e.g. the sealed bitmap of the real-time inverted index), so
+      // flip it into a new bitmap instead of modifying it in place
       ImmutableRoaringBitmap docIds = (ImmutableRoaringBitmap) _invertedIndexReader.getDocIds(dictIds[0]);
       if (_exclusive) {
-        if (docIds instanceof MutableRoaringBitmap) {
-          MutableRoaringBitmap mutableRoaringBitmap = (MutableRoaringBitmap) docIds;
-          mutableRoaringBitmap.flip(0L, _numDocs);
-          return new FilterBlock(new BitmapDocIdSet(mutableRoaringBitmap, _numDocs));
-        } else {
-          return new FilterBlock(new BitmapDocIdSet(ImmutableRoaringBitmap.flip(docIds, 0L, _numDocs), _numDocs));
-        }
+        return new FilterBlock(new BitmapDocIdSet(ImmutableRoaringBitmap.flip(docIds, 0L, _numDocs), _numDocs));
+      } else {
+        return new FilterBlock(new BitmapDocIdSet(docIds, _numDocs));
+      }
+    } else if (_invertedIndexReader instanceof BitmapInvertedIndexReader) {
+      // The union might be cached and shared across queries, so flip it into a new bitmap
+      ImmutableRoaringBitmap docIds = ((BitmapInvertedIndexReader) _invertedIndexReader).getUnionDocIds(dictIds);
+      if (_exclusive) {
+        return new FilterBlock(new BitmapDocIdSet(ImmutableRoaringBitmap.flip(docIds, 0L, _numDocs), _numDocs));
       } else {
         return new FilterBlock(new BitmapDocIdSet(docIds, _numDocs));
       }
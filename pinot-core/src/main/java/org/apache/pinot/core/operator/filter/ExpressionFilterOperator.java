@@ -28,6 +28,7 @@ import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.ExpressionFilterDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.operator.transform.function.TransformExpressionCompiler;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
@@ -43,6 +44,10 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
   private final PredicateEvaluator _predicateEvaluator;
 
   public ExpressionFilterOperator(IndexSegment segment, Predicate predicate, int numDocs) {
+    this(segment, predicate, numDocs, false);
+  }
+
+  public ExpressionFilterOperator(IndexSegment segment, Predicate predicate, int numDocs, boolean compileTransforms) {
     _numDocs = numDocs;
 
     _dataSourceMap = new HashMap<>();
@@ -53,7 +58,8 @@ public class ExpressionFilterOperator extends BaseFilterOperator {
       _dataSourceMap.put(column, segment.getDataSource(column));
     }
 
-    _transformFunction = TransformFunctionFactory.get(lhs, _dataSourceMap);
+    _transformFunction = compileTransforms ? TransformExpressionCompiler.compile(lhs, _dataSourceMap)
+        : TransformFunctionFactory.get(lhs, _dataSourceMap);
     _predicateEvaluator = PredicateEvaluatorProvider
         .getPredicateEvaluator(predicate, _transformFunction.getDictionary(),
             _transformFunction.getResultMetadata().getDataType());
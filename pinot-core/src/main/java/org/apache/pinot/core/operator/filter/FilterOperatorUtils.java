@@ -158,7 +158,7 @@ public class FilterOperatorUtils {
         if (filterOperator instanceof RangeIndexBasedFilterOperator) {
           return 2;
         }
-        if (filterOperator instanceof TextMatchFilterOperator) {
+        if (filterOperator instanceof TextMatchFilterOperator || filterOperator instanceof JsonMatchFilterOperator) {
           return 3;
         }
         if (filterOperator instanceof AndFilterOperator) {
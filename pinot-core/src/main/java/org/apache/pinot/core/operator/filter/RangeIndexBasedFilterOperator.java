@@ -108,8 +108,8 @@ public class RangeIndexBasedFilterOperator extends BaseFilterOperator {
     MutableRoaringBitmap docIds = ((ScanBasedDocIdIterator) scanBasedDocIdSet.iterator()).applyAnd(docIdsToScan);
 
     // Ranges in the middle of first and last range are fully matched
-    for (int rangeId = firstRangeId + 1; rangeId < lastRangeId; rangeId++) {
-      docIds.or(rangeIndexReader.getDocIds(rangeId));
+    if (lastRangeId - firstRangeId > 1) {
+      docIds.or(rangeIndexReader.getUnionDocIds(firstRangeId + 1, lastRangeId - 1));
     }
     return new FilterBlock(new BitmapDocIdSet(docIds, _numDocs) {
 
@@ -99,6 +99,18 @@ public class EqualsPredicateEvaluatorFactory {
       return _matchingDictId == dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int matchingDictId = _matchingDictId;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        if (values[i] == matchingDictId) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int[] getMatchingDictIds() {
       return _matchingDictIds;
@@ -146,6 +146,20 @@ public class RangePredicateEvaluatorFactory {
       return _startDictId <= dictId && _endDictId > dictId;
     }
 
+    @Override
+    public int applySV(int limit, int[] docIds, int[] values) {
+      int startDictId = _startDictId;
+      int endDictId = _endDictId;
+      int numMatchingDocs = 0;
+      for (int i = 0; i < limit; i++) {
+        int dictId = values[i];
+        if (startDictId <= dictId && endDictId > dictId) {
+          docIds[numMatchingDocs++] = docIds[i];
+        }
+      }
+      return numMatchingDocs;
+    }
+
     @Override
     public int getNumMatchingDictIds() {
       return _numMatchingDictIds;
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class provides the operator for a single segment backed by the
+ * {@link SegmentResultCache}.
+ * <ul>
+ *   <li>On cache hit, returns the cached results along with the cached execution statistics</li>
+ *   <li>On cache miss, executes the underlying operator and caches the results before returning them</li>
+ * </ul>
+ */
+@SuppressWarnings("rawtypes")
+public class SegmentResultCacheOperator extends BaseOperator<IntermediateResultsBlock> {
+  private static final String OPERATOR_NAME = "SegmentResultCacheOperator";
+
+  // For cache hit
+  private final AggregationFunction[] _aggregationFunctions;
+  private final SegmentResultCache.CachedResult _cachedResult;
+
+  // For cache miss
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _key;
+  private final Operator<IntermediateResultsBlock> _operator;
+
+  public SegmentResultCacheOperator(AggregationFunction[] aggregationFunctions,
+      SegmentResultCache.CachedResult cachedResult) {
+    _aggregationFunctions = aggregationFunctions;
+    _cachedResult = cachedResult;
+    _segmentResultCache = null;
+    _key = null;
+    _operator = null;
+  }
+
+  public SegmentResultCacheOperator(SegmentResultCache segmentResultCache, SegmentResultCache.Key key,
+      Operator<IntermediateResultsBlock> operator) {
+    _aggregationFunctions = null;
+    _cachedResult = null;
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+    _operator = operator;
+  }
+
+  @Override
+  protected IntermediateResultsBlock getNextBlock() {
+    if (_cachedResult != null) {
+      return new IntermediateResultsBlock(_aggregationFunctions, _cachedResult.getAggregationResult(), false);
+    }
+    IntermediateResultsBlock resultsBlock = _operator.nextBlock();
+    _segmentResultCache.put(_key, resultsBlock, _operator.getExecutionStatistics());
+    return resultsBlock;
+  }
+
+  @Override
+  public String getOperatorName() {
+    return OPERATOR_NAME;
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _cachedResult != null ? _cachedResult.getExecutionStatistics() : _operator.getExecutionStatistics();
+  }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.CommonConstants.Segment.BuiltInVirtualColumn;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.BlockValSet;
@@ -45,6 +46,7 @@ import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.OrderByExpressionContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.roaringbitmap.IntIterator;
@@ -68,8 +70,20 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  *     scanning and improve the query performance when most/all of the output expressions are not ordered (e.g. SELECT *
  *     FROM table ORDER BY col).
  *   </li>
+ *   <li>
+ *     When all the order-by expressions are single-value columns with sorted dictionary, the operator sorts the rows on
+ *     the dictionary ids instead of the values, and only reads the values from the dictionaries for the top rows. This
+ *     optimization avoids the value materialization and turns the comparisons into int comparisons, which can
+ *     significantly improve the performance when ordering on high cardinality STRING/BYTES columns.
+ *   </li>
  * </ul>
+ * <p>When the first order-by expression is single-valued, it is used as a dynamic filter: once a boundary value is
+ * known, either from the rows already collected for the query (see {@link #setBoundaryValue(Comparable)}) or from the
+ * local priority queue when it is full, the rows beyond the boundary value are skipped without being materialized. If
+ * the first order-by expression is a sorted column in ascending order, the documents are scanned in the order of the
+ * value, so the scan is terminated once the boundary value is reached.
  */
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final String OPERATOR_NAME = "SelectionOrderByOperator";
 
@@ -81,6 +95,13 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   private final TransformResultMetadata[] _orderByExpressionMetadata;
   private final int _numRowsToKeep;
   private final PriorityQueue<Object[]> _rows;
+  // Dictionaries for the order-by expressions when sorting on dictionary ids, null otherwise
+  private final Dictionary[] _orderByDictionaries;
+  private final boolean _firstOrderByExpressionSingleValue;
+  private final boolean _firstOrderByExpressionAsc;
+  private final boolean _scanInOrder;
+
+  private Comparable _boundaryValue;
 
   private int _numDocsScanned = 0;
   private long _numEntriesScannedPostFilter = 0;
@@ -103,6 +124,38 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     _numRowsToKeep = queryContext.getOffset() + queryContext.getLimit();
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         getComparator());
+    _orderByDictionaries = getOrderByDictionaries(indexSegment, _orderByExpressions, _orderByExpressionMetadata);
+
+    OrderByExpressionContext firstOrderByExpression = _orderByExpressions.get(0);
+    _firstOrderByExpressionSingleValue = _orderByExpressionMetadata[0].isSingleValue();
+    _firstOrderByExpressionAsc = firstOrderByExpression.isAsc();
+    ExpressionContext firstExpression = firstOrderByExpression.getExpression();
+    _scanInOrder = _firstOrderByExpressionSingleValue && _firstOrderByExpressionAsc
+        && firstExpression.getType() == ExpressionContext.Type.IDENTIFIER && indexSegment
+        .getDataSource(firstExpression.getIdentifier()).getDataSourceMetadata().isSorted();
+  }
+
+  /**
+   * Returns the dictionaries for the order-by expressions if all of them are single-value columns with sorted
+   * dictionary (so that the rows can be sorted on the dictionary ids), or {@code null} otherwise.
+   */
+  @Nullable
+  private static Dictionary[] getOrderByDictionaries(IndexSegment indexSegment,
+      List<OrderByExpressionContext> orderByExpressions, TransformResultMetadata[] orderByExpressionMetadata) {
+    int numOrderByExpressions = orderByExpressions.size();
+    Dictionary[] dictionaries = new Dictionary[numOrderByExpressions];
+    for (int i = 0; i < numOrderByExpressions; i++) {
+      ExpressionContext expression = orderByExpressions.get(i).getExpression();
+      if (expression.getType() != ExpressionContext.Type.IDENTIFIER || !orderByExpressionMetadata[i].isSingleValue()) {
+        return null;
+      }
+      Dictionary dictionary = indexSegment.getDataSource(expression.getIdentifier()).getDictionary();
+      if (dictionary == null || !dictionary.isSorted()) {
+        return null;
+      }
+      dictionaries[i] = dictionary;
+    }
+    return dictionaries;
   }
 
   private Comparator<Object[]> getComparator() {
@@ -166,12 +219,108 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     };
   }
 
+  private Comparator<int[]> getDictIdComparator() {
+    int numOrderByExpressions = _orderByExpressions.size();
+    // Use multiplier -1 or 1 to control ascending/descending order
+    int[] multipliers = new int[numOrderByExpressions];
+    for (int i = 0; i < numOrderByExpressions; i++) {
+      multipliers[i] = _orderByExpressions.get(i).isAsc() ? -1 : 1;
+    }
+
+    return (o1, o2) -> {
+      for (int i = 0; i < numOrderByExpressions; i++) {
+        int result = Integer.compare(o1[i], o2[i]);
+        if (result != 0) {
+          return result * multipliers[i];
+        }
+      }
+      return 0;
+    };
+  }
+
   public IndexSegment getIndexSegment() {
     return _indexSegment;
   }
 
+  /**
+   * Sets the boundary value of the first order-by expression from the rows already collected for the query (e.g. from
+   * the other segments). The rows beyond the boundary value cannot make the top rows, and will be skipped.
+   * <p>Should be called before {@link #nextBlock()}.
+   */
+  public void setBoundaryValue(@Nullable Comparable boundaryValue) {
+    _boundaryValue = boundaryValue;
+  }
+
+  /**
+   * Returns the current boundary value of the first order-by expression, which is the tighter one of the boundary value
+   * set from outside and the value of the last row in the priority queue (when the priority queue is full), or
+   * {@code null} if there is no boundary value yet.
+   */
+  @Nullable
+  private Comparable getBoundaryValue() {
+    if (!_firstOrderByExpressionSingleValue) {
+      return null;
+    }
+    Comparable boundaryValue = _boundaryValue;
+    if (_rows.size() == _numRowsToKeep) {
+      assert _rows.peek() != null;
+      Comparable localBoundaryValue = (Comparable) _rows.peek()[0];
+      if (boundaryValue == null || isBeyondBoundary(boundaryValue, localBoundaryValue)) {
+        boundaryValue = localBoundaryValue;
+      }
+    }
+    return boundaryValue;
+  }
+
+  /**
+   * Returns {@code true} if the row with the given first order-by value cannot make the top rows given the boundary
+   * value. Rows with the same value as the boundary value can only make the top rows when there are other order-by
+   * expressions to break the tie.
+   */
+  private boolean isBeyondBoundary(Comparable value, Comparable boundaryValue) {
+    int result = value.compareTo(boundaryValue);
+    if (result == 0) {
+      return _orderByExpressions.size() == 1;
+    }
+    return _firstOrderByExpressionAsc ? result > 0 : result < 0;
+  }
+
+  /**
+   * Returns the dictionary id boundary of the first order-by expression converted from the boundary value set from
+   * outside: rows with dictionary id larger than or equal to (ascending order) or smaller than or equal to (descending
+   * order) the boundary cannot make the top rows.
+   */
+  private int getDictIdBoundary() {
+    if (_boundaryValue == null) {
+      return _firstOrderByExpressionAsc ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    }
+    int index = _orderByDictionaries[0].insertionIndexOf(_boundaryValue.toString());
+    if (index >= 0) {
+      return getDictIdBoundary(index);
+    }
+    // The boundary value does not exist in the dictionary, the insertion point is the first dictionary id with value
+    // larger than the boundary value
+    int insertionPoint = -(index + 1);
+    return _firstOrderByExpressionAsc ? insertionPoint : insertionPoint - 1;
+  }
+
+  /**
+   * Returns the dictionary id boundary of the first order-by expression for the given boundary dictionary id. Rows with
+   * the same dictionary id as the boundary can only make the top rows when there are other order-by expressions to
+   * break the tie.
+   */
+  private int getDictIdBoundary(int boundaryDictId) {
+    if (_orderByExpressions.size() == 1) {
+      return boundaryDictId;
+    }
+    return _firstOrderByExpressionAsc ? boundaryDictId + 1 : boundaryDictId - 1;
+  }
+
   @Override
   protected IntermediateResultsBlock getNextBlock() {
+    if (_orderByDictionaries != null) {
+      return computeOrderedOnDictIds();
+    }
     if (_expressions.size() == _orderByExpressions.size()) {
       return computeAllOrdered();
     } else {
@@ -196,14 +345,40 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
       }
       RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = transformBlock.getNumDocs();
+      Comparable boundaryValue = getBoundaryValue();
+      boolean reachedBoundary = false;
       for (int i = 0; i < numDocsFetched; i++) {
+        if (boundaryValue != null) {
+          if (isBeyondBoundary((Comparable) blockValueFetcher.getValue(0, i), boundaryValue)) {
+            if (_scanInOrder) {
+              reachedBoundary = true;
+              break;
+            }
+            continue;
+          }
+        }
         SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+        if (boundaryValue == null && _rows.size() == _numRowsToKeep) {
+          boundaryValue = getBoundaryValue();
+        }
       }
       _numDocsScanned += numDocsFetched;
       _numEntriesScannedPostFilter += numDocsFetched * numColumnsProjected;
+      if (reachedBoundary) {
+        // The remaining documents are all beyond the boundary value
+        break;
+      }
     }
 
+    return getAllOrderedResultsBlock();
+  }
+
+  /**
+   * Helper method to create the results block when all the output expressions are ordered.
+   */
+  private IntermediateResultsBlock getAllOrderedResultsBlock() {
     // Create the data schema
+    int numExpressions = _expressions.size();
     String[] columnNames = new String[numExpressions];
     DataSchema.ColumnDataType[] columnDataTypes = new DataSchema.ColumnDataType[numExpressions];
     for (int i = 0; i < numExpressions; i++) {
@@ -236,18 +411,48 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
       blockValSets[numOrderByExpressions] = transformBlock.getBlockValueSet(BuiltInVirtualColumn.DOCID);
       RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
       int numDocsFetched = transformBlock.getNumDocs();
+      Comparable boundaryValue = getBoundaryValue();
+      boolean reachedBoundary = false;
       for (int i = 0; i < numDocsFetched; i++) {
+        if (boundaryValue != null) {
+          if (isBeyondBoundary((Comparable) blockValueFetcher.getValue(0, i), boundaryValue)) {
+            if (_scanInOrder) {
+              reachedBoundary = true;
+              break;
+            }
+            continue;
+          }
+        }
         // NOTE: We pre-allocate the complete row so that we can fill up the non-order-by output expression values later
         //       without creating extra rows or re-constructing the priority queue. We can change the values in-place
         //       because the comparator only compare the values for the order-by expressions.
         Object[] row = new Object[numExpressions];
         blockValueFetcher.getRow(i, row, 0);
         SelectionOperatorUtils.addToPriorityQueue(row, _rows, _numRowsToKeep);
+        if (boundaryValue == null && _rows.size() == _numRowsToKeep) {
+          boundaryValue = getBoundaryValue();
+        }
       }
       _numDocsScanned += numDocsFetched;
       _numEntriesScannedPostFilter += numDocsFetched * numColumnsProjected;
+      if (reachedBoundary) {
+        // The remaining documents are all beyond the boundary value
+        break;
+      }
     }
 
+    return getPartiallyOrderedResultsBlock();
+  }
+
+  /**
+   * Helper method to fetch the non-order-by expressions for the top rows and create the results block when not all the
+   * output expressions are ordered.
+   * <p>The document id of each row should be stored right after the order-by expression values.
+   */
+  private IntermediateResultsBlock getPartiallyOrderedResultsBlock() {
+    int numExpressions = _expressions.size();
+    int numOrderByExpressions = _orderByExpressions.size();
+
     // Copy the rows (shallow copy so that any modification will also be reflected to the priority queue) into a list,
     // and store the document ids into a bitmap
     int numRows = _rows.size();
@@ -279,7 +484,8 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
 
     // Fill the non-order-by expression values
     int numNonOrderByExpressions = nonOrderByExpressions.size();
-    blockValSets = new BlockValSet[numNonOrderByExpressions];
+    BlockValSet[] blockValSets = new BlockValSet[numNonOrderByExpressions];
+    TransformBlock transformBlock;
     int rowBaseId = 0;
     while ((transformBlock = transformOperator.nextBlock()) != null) {
       for (int i = 0; i < numNonOrderByExpressions; i++) {
@@ -316,6 +522,122 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     return new IntermediateResultsBlock(dataSchema, _rows);
   }
 
+  /**
+   * Helper method to compute the result when all the order-by expressions are single-value columns with sorted
+   * dictionary. The rows are sorted on the dictionary ids, and the values are read from the dictionaries only for the
+   * top rows.
+   */
+  private IntermediateResultsBlock computeOrderedOnDictIds() {
+    int numExpressions = _expressions.size();
+    int numOrderByExpressions = _orderByExpressions.size();
+    boolean allOrdered = numExpressions == numOrderByExpressions;
+
+    // Fetch the dictionary ids of the order-by expressions (and the docIds when not all the output expressions are
+    // ordered) and insert them into the priority queue
+    int rowSize = allOrdered ? numOrderByExpressions : numOrderByExpressions + 1;
+    Comparator<int[]> comparator = getDictIdComparator();
+    PriorityQueue<int[]> dictIdRows =
+        new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
+            comparator);
+    int[][] dictIdsArray = new int[numOrderByExpressions][];
+    int[] docIds = null;
+    int dictIdBoundary = getDictIdBoundary();
+    int[] row = new int[rowSize];
+    int numColumnsProjected = _transformOperator.getNumColumnsProjected();
+    TransformBlock transformBlock;
+    while ((transformBlock = _transformOperator.nextBlock()) != null) {
+      for (int i = 0; i < numOrderByExpressions; i++) {
+        ExpressionContext expression = _orderByExpressions.get(i).getExpression();
+        dictIdsArray[i] = transformBlock.getBlockValueSet(expression).getDictionaryIdsSV();
+      }
+      if (!allOrdered) {
+        docIds = transformBlock.getBlockValueSet(BuiltInVirtualColumn.DOCID).getIntValuesSV();
+      }
+      int numDocsFetched = transformBlock.getNumDocs();
+      boolean reachedBoundary = false;
+      for (int i = 0; i < numDocsFetched; i++) {
+        int firstDictId = dictIdsArray[0][i];
+        if (_firstOrderByExpressionAsc ? firstDictId >= dictIdBoundary : firstDictId <= dictIdBoundary) {
+          if (_scanInOrder) {
+            reachedBoundary = true;
+            break;
+          }
+          continue;
+        }
+        for (int j = 0; j < numOrderByExpressions; j++) {
+          row[j] = dictIdsArray[j][i];
+        }
+        if (!allOrdered) {
+          row[numOrderByExpressions] = docIds[i];
+        }
+        // NOTE: Reuse the row evicted from the priority queue to avoid allocating a new row for each document
+        if (dictIdRows.size() < _numRowsToKeep) {
+          dictIdRows.add(row);
+          row = new int[rowSize];
+        } else if (comparator.compare(dictIdRows.peek(), row) < 0) {
+          int[] evictedRow = dictIdRows.poll();
+          dictIdRows.offer(row);
+          row = evictedRow;
+        } else {
+          continue;
+        }
+        if (dictIdRows.size() == _numRowsToKeep) {
+          // Tighten the boundary with the last row in the priority queue
+          assert dictIdRows.peek() != null;
+          int localDictIdBoundary = getDictIdBoundary(dictIdRows.peek()[0]);
+          dictIdBoundary = _firstOrderByExpressionAsc ? Math.min(dictIdBoundary, localDictIdBoundary)
+              : Math.max(dictIdBoundary, localDictIdBoundary);
+        }
+      }
+      _numDocsScanned += numDocsFetched;
+      _numEntriesScannedPostFilter += numDocsFetched * numColumnsProjected;
+      if (reachedBoundary) {
+        // The remaining documents are all beyond the boundary value
+        break;
+      }
+    }
+
+    // Read the values of the order-by expressions from the dictionaries for the top rows
+    DataType[] dataTypes = new DataType[numOrderByExpressions];
+    for (int i = 0; i < numOrderByExpressions; i++) {
+      dataTypes[i] = _orderByExpressionMetadata[i].getDataType();
+    }
+    for (int[] dictIdRow : dictIdRows) {
+      Object[] valueRow = new Object[numExpressions];
+      for (int i = 0; i < numOrderByExpressions; i++) {
+        valueRow[i] = getValue(_orderByDictionaries[i], dataTypes[i], dictIdRow[i]);
+      }
+      if (!allOrdered) {
+        valueRow[numOrderByExpressions] = dictIdRow[numOrderByExpressions];
+      }
+      _rows.add(valueRow);
+    }
+
+    return allOrdered ? getAllOrderedResultsBlock() : getPartiallyOrderedResultsBlock();
+  }
+
+  /**
+   * Reads the value for the given dictionary id, in the same format as the values fetched from the transform block.
+   */
+  private static Object getValue(Dictionary dictionary, DataType dataType, int dictId) {
+    switch (dataType) {
+      case INT:
+        return dictionary.getIntValue(dictId);
+      case LONG:
+        return dictionary.getLongValue(dictId);
+      case FLOAT:
+        return dictionary.getFloatValue(dictId);
+      case DOUBLE:
+        return dictionary.getDoubleValue(dictId);
+      case STRING:
+        return dictionary.getStringValue(dictId);
+      case BYTES:
+        return new ByteArray(dictionary.getBytesValue(dictId));
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType);
+    }
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -29,6 +29,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.proto.Server;
 import org.apache.pinot.common.utils.DataSchema;
@@ -87,6 +88,8 @@ public class StreamingSelectionOnlyCombineOperator extends BaseOperator<Intermed
 
     // Use a BlockingQueue to store all the results blocks
     BlockingQueue<IntermediateResultsBlock> blockingQueue = new LinkedBlockingQueue<>();
+    // Use an AtomicInteger as the shared cursor to assign the next operator to the first available thread
+    AtomicInteger nextOperatorIndex = new AtomicInteger();
     // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
     // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
     // deleted/refreshed, the segment will be released after the main thread returns, which would lead to undefined
@@ -95,7 +98,6 @@ public class StreamingSelectionOnlyCombineOperator extends BaseOperator<Intermed
 
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
-      int threadIndex = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
         @Override
         public void runJob() {
@@ -109,7 +111,8 @@ public class StreamingSelectionOnlyCombineOperator extends BaseOperator<Intermed
             }
 
             int numRowsCollected = 0;
-            for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+            int operatorIndex;
+            while ((operatorIndex = nextOperatorIndex.getAndIncrement()) < numOperators) {
               Operator<IntermediateResultsBlock> operator = _operators.get(operatorIndex);
               try {
                 IntermediateResultsBlock resultsBlock;
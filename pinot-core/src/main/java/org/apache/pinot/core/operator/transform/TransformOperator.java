@@ -27,6 +27,7 @@ import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.operator.transform.function.TransformExpressionCompiler;
 import org.apache.pinot.core.operator.transform.function.TransformFunction;
 import org.apache.pinot.core.operator.transform.function.TransformFunctionFactory;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
@@ -50,10 +51,24 @@ public class TransformOperator extends BaseOperator<TransformBlock> {
    * @param expressions Collection of expressions to evaluate
    */
   public TransformOperator(ProjectionOperator projectionOperator, Collection<ExpressionContext> expressions) {
+    this(projectionOperator, expressions, false);
+  }
+
+  /**
+   * Constructor for the class
+   *
+   * @param projectionOperator Projection operator
+   * @param expressions Collection of expressions to evaluate
+   * @param compileTransforms Whether to compile the expressions with the {@link TransformExpressionCompiler}
+   */
+  public TransformOperator(ProjectionOperator projectionOperator, Collection<ExpressionContext> expressions,
+      boolean compileTransforms) {
     _projectionOperator = projectionOperator;
     _dataSourceMap = projectionOperator.getDataSourceMap();
     for (ExpressionContext expression : expressions) {
-      TransformFunction transformFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+      TransformFunction transformFunction =
+          compileTransforms ? TransformExpressionCompiler.compile(expression, _dataSourceMap)
+              : TransformFunctionFactory.get(expression, _dataSourceMap);
       _transformFunctionMap.put(expression, transformFunction);
     }
   }
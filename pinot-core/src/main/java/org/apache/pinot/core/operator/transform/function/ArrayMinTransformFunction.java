@@ -24,7 +24,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 
 
@@ -79,8 +78,8 @@ public class ArrayMinTransformFunction extends BaseTransformFunction {
     if (_argument.getResultMetadata().getDataType() != FieldSpec.DataType.INT) {
       return super.transformToIntValuesSV(projectionBlock);
     }
-    if (_intValuesSV == null) {
-      _intValuesSV = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intValuesSV == null || _intValuesSV.length < projectionBlock.getNumDocs()) {
+      _intValuesSV = new int[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     int[][] intValuesMV = _argument.transformToIntValuesMV(projectionBlock);
@@ -99,8 +98,8 @@ public class ArrayMinTransformFunction extends BaseTransformFunction {
     if (_argument.getResultMetadata().getDataType() != FieldSpec.DataType.LONG) {
       return super.transformToLongValuesSV(projectionBlock);
     }
-    if (_longValuesSV == null) {
-      _longValuesSV = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longValuesSV == null || _longValuesSV.length < projectionBlock.getNumDocs()) {
+      _longValuesSV = new long[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     long[][] longValuesMV = _argument.transformToLongValuesMV(projectionBlock);
@@ -119,8 +118,8 @@ public class ArrayMinTransformFunction extends BaseTransformFunction {
     if (_argument.getResultMetadata().getDataType() != FieldSpec.DataType.FLOAT) {
       return super.transformToFloatValuesSV(projectionBlock);
     }
-    if (_floatValuesSV == null) {
-      _floatValuesSV = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatValuesSV == null || _floatValuesSV.length < projectionBlock.getNumDocs()) {
+      _floatValuesSV = new float[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     float[][] floatValuesMV = _argument.transformToFloatValuesMV(projectionBlock);
@@ -139,8 +138,8 @@ public class ArrayMinTransformFunction extends BaseTransformFunction {
     if (_argument.getResultMetadata().getDataType() != FieldSpec.DataType.DOUBLE) {
       return super.transformToDoubleValuesSV(projectionBlock);
     }
-    if (_doubleValuesSV == null) {
-      _doubleValuesSV = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleValuesSV == null || _doubleValuesSV.length < projectionBlock.getNumDocs()) {
+      _doubleValuesSV = new double[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     double[][] doubleValuesMV = _argument.transformToDoubleValuesMV(projectionBlock);
@@ -159,8 +158,8 @@ public class ArrayMinTransformFunction extends BaseTransformFunction {
     if (_argument.getResultMetadata().getDataType() != FieldSpec.DataType.STRING) {
       return super.transformToStringValuesSV(projectionBlock);
     }
-    if (_stringValuesSV == null) {
-      _stringValuesSV = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringValuesSV == null || _stringValuesSV.length < projectionBlock.getNumDocs()) {
+      _stringValuesSV = new String[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     String[][] stringValuesMV = _argument.transformToStringValuesMV(projectionBlock);
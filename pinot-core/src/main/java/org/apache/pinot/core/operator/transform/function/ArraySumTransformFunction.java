@@ -23,7 +23,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 /**
@@ -71,8 +70,8 @@ public class ArraySumTransformFunction extends BaseTransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new double[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     double[][] doubleValuesMV = _argument.transformToDoubleValuesMV(projectionBlock);
@@ -22,7 +22,6 @@ import com.google.common.base.Preconditions;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.util.ArrayCopyUtils;
 
@@ -73,8 +72,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public int[] transformToIntValuesSV(ProjectionBlock projectionBlock) {
-    if (_intValuesSV == null) {
-      _intValuesSV = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intValuesSV == null || _intValuesSV.length < projectionBlock.getNumDocs()) {
+      _intValuesSV = new int[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -109,8 +108,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public long[] transformToLongValuesSV(ProjectionBlock projectionBlock) {
-    if (_longValuesSV == null) {
-      _longValuesSV = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longValuesSV == null || _longValuesSV.length < projectionBlock.getNumDocs()) {
+      _longValuesSV = new long[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -145,8 +144,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public float[] transformToFloatValuesSV(ProjectionBlock projectionBlock) {
-    if (_floatValuesSV == null) {
-      _floatValuesSV = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatValuesSV == null || _floatValuesSV.length < projectionBlock.getNumDocs()) {
+      _floatValuesSV = new float[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -181,8 +180,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_doubleValuesSV == null) {
-      _doubleValuesSV = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleValuesSV == null || _doubleValuesSV.length < projectionBlock.getNumDocs()) {
+      _doubleValuesSV = new double[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -217,8 +216,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public String[] transformToStringValuesSV(ProjectionBlock projectionBlock) {
-    if (_stringValuesSV == null) {
-      _stringValuesSV = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringValuesSV == null || _stringValuesSV.length < projectionBlock.getNumDocs()) {
+      _stringValuesSV = new String[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -256,8 +255,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_byteValuesSV == null) {
-      _byteValuesSV = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_byteValuesSV == null || _byteValuesSV.length < projectionBlock.getNumDocs()) {
+      _byteValuesSV = new byte[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -275,8 +274,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public int[][] transformToIntValuesMV(ProjectionBlock projectionBlock) {
-    if (_intValuesMV == null) {
-      _intValuesMV = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_intValuesMV == null || _intValuesMV.length < projectionBlock.getNumDocs()) {
+      _intValuesMV = new int[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -341,8 +340,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public long[][] transformToLongValuesMV(ProjectionBlock projectionBlock) {
-    if (_longValuesMV == null) {
-      _longValuesMV = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_longValuesMV == null || _longValuesMV.length < projectionBlock.getNumDocs()) {
+      _longValuesMV = new long[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -407,8 +406,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public float[][] transformToFloatValuesMV(ProjectionBlock projectionBlock) {
-    if (_floatValuesMV == null) {
-      _floatValuesMV = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_floatValuesMV == null || _floatValuesMV.length < projectionBlock.getNumDocs()) {
+      _floatValuesMV = new float[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -473,8 +472,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public double[][] transformToDoubleValuesMV(ProjectionBlock projectionBlock) {
-    if (_doubleValuesMV == null) {
-      _doubleValuesMV = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_doubleValuesMV == null || _doubleValuesMV.length < projectionBlock.getNumDocs()) {
+      _doubleValuesMV = new double[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -539,8 +538,8 @@ public abstract class BaseTransformFunction implements TransformFunction {
 
   @Override
   public String[][] transformToStringValuesMV(ProjectionBlock projectionBlock) {
-    if (_stringValuesMV == null) {
-      _stringValuesMV = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_stringValuesMV == null || _stringValuesMV.length < projectionBlock.getNumDocs()) {
+      _stringValuesMV = new String[projectionBlock.getNumDocs()][];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -25,7 +25,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.utils.ByteArray;
 
@@ -72,8 +71,8 @@ public abstract class BinaryOperatorTransformFunction extends BaseTransformFunct
   }
 
   protected void fillResultArray(ProjectionBlock projectionBlock) {
-    if (_results == null) {
-      _results = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_results == null || _results.length < projectionBlock.getNumDocs()) {
+      _results = new int[projectionBlock.getNumDocs()];
     }
     int length = projectionBlock.getNumDocs();
     switch (_leftDataType) {
@@ -26,7 +26,6 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.util.ArrayCopyUtils;
 import org.apache.pinot.spi.data.FieldSpec;
 
@@ -256,8 +255,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
    * @return
    */
   private int[] getSelectedArray(ProjectionBlock projectionBlock) {
-    if (_selectedResults == null) {
-      _selectedResults = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_selectedResults == null || _selectedResults.length < projectionBlock.getNumDocs()) {
+      _selectedResults = new int[projectionBlock.getNumDocs()];
     } else {
       Arrays.fill(_selectedResults, 0);
     }
@@ -279,8 +278,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
       return super.transformToIntValuesSV(projectionBlock);
     }
     int[] selected = getSelectedArray(projectionBlock);
-    if (_intResults == null) {
-      _intResults = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intResults == null || _intResults.length < projectionBlock.getNumDocs()) {
+      _intResults = new int[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _elseThenStatements.size(); i++) {
       TransformFunction transformFunction = _elseThenStatements.get(i);
@@ -301,8 +300,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
       return super.transformToLongValuesSV(projectionBlock);
     }
     int[] selected = getSelectedArray(projectionBlock);
-    if (_longResults == null) {
-      _longResults = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longResults == null || _longResults.length < projectionBlock.getNumDocs()) {
+      _longResults = new long[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _elseThenStatements.size(); i++) {
       TransformFunction transformFunction = _elseThenStatements.get(i);
@@ -331,8 +330,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
       return super.transformToFloatValuesSV(projectionBlock);
     }
     int[] selected = getSelectedArray(projectionBlock);
-    if (_floatResults == null) {
-      _floatResults = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatResults == null || _floatResults.length < projectionBlock.getNumDocs()) {
+      _floatResults = new float[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _elseThenStatements.size(); i++) {
       TransformFunction transformFunction = _elseThenStatements.get(i);
@@ -361,8 +360,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
       return super.transformToDoubleValuesSV(projectionBlock);
     }
     int[] selected = getSelectedArray(projectionBlock);
-    if (_doubleResults == null) {
-      _doubleResults = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleResults == null || _doubleResults.length < projectionBlock.getNumDocs()) {
+      _doubleResults = new double[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _elseThenStatements.size(); i++) {
       TransformFunction transformFunction = _elseThenStatements.get(i);
@@ -404,8 +403,8 @@ public class CaseTransformFunction extends BaseTransformFunction {
       return super.transformToStringValuesSV(projectionBlock);
     }
     int[] selected = getSelectedArray(projectionBlock);
-    if (_stringResults == null) {
-      _stringResults = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringResults == null || _stringResults.length < projectionBlock.getNumDocs()) {
+      _stringResults = new String[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _elseThenStatements.size(); i++) {
       TransformFunction transformFunction = _elseThenStatements.get(i);
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.function;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.blocks.ProjectionBlock;
+import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The <code>CompiledTransformFunction</code> class evaluates a transform expression tree compiled by the
+ * {@link TransformExpressionCompiler}. All the fused nodes are evaluated row by row within a single loop over the
+ * projection block, so no intermediate value array is materialized for them. The values of the nodes that are not
+ * fused (leaves) are fetched once per block from their regular transform functions.
+ * <p>The result metadata and the conversion to the other data types are identical to the interpreted transform
+ * function for the same expression.
+ */
+public class CompiledTransformFunction extends BaseTransformFunction {
+  private final TransformFunction _interpretedFunction;
+  private final TransformResultMetadata _resultMetadata;
+  private final Node _root;
+  private final LeafNode[] _leaves;
+
+  private int[] _intResults;
+  private double[] _doubleResults;
+
+  CompiledTransformFunction(TransformFunction interpretedFunction, Node root, LeafNode[] leaves) {
+    _interpretedFunction = interpretedFunction;
+    _resultMetadata = interpretedFunction.getResultMetadata();
+    _root = root;
+    _leaves = leaves;
+  }
+
+  @Override
+  public String getName() {
+    return _interpretedFunction.getName();
+  }
+
+  @Override
+  public void init(List<TransformFunction> arguments, Map<String, DataSource> dataSourceMap) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public TransformResultMetadata getResultMetadata() {
+    return _resultMetadata;
+  }
+
+  @Override
+  public int[] transformToIntValuesSV(ProjectionBlock projectionBlock) {
+    if (_resultMetadata.getDataType() != DataType.INT) {
+      return super.transformToIntValuesSV(projectionBlock);
+    }
+    int length = projectionBlock.getNumDocs();
+    if (_intResults == null || _intResults.length < length) {
+      _intResults = new int[length];
+    }
+    loadLeaves(projectionBlock);
+    for (int i = 0; i < length; i++) {
+      _intResults[i] = (int) _root.evaluate(i);
+    }
+    return _intResults;
+  }
+
+  @Override
+  public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
+    if (_resultMetadata.getDataType() != DataType.DOUBLE) {
+      return super.transformToDoubleValuesSV(projectionBlock);
+    }
+    int length = projectionBlock.getNumDocs();
+    if (_doubleResults == null || _doubleResults.length < length) {
+      _doubleResults = new double[length];
+    }
+    loadLeaves(projectionBlock);
+    for (int i = 0; i < length; i++) {
+      _doubleResults[i] = _root.evaluate(i);
+    }
+    return _doubleResults;
+  }
+
+  private void loadLeaves(ProjectionBlock projectionBlock) {
+    for (LeafNode leaf : _leaves) {
+      leaf.load(projectionBlock);
+    }
+  }
+
+  /**
+   * Node of the compiled expression tree, which evaluates the value of the expression for a single row.
+   */
+  static abstract class Node {
+    final Node[] _children;
+
+    Node(Node... children) {
+      _children = children;
+    }
+
+    abstract double evaluate(int docIndex);
+  }
+
+  /**
+   * Node reading the values from a transform function that is not fused. The values are loaded once per block.
+   */
+  static final class LeafNode extends Node {
+    final TransformFunction _transformFunction;
+    private double[] _values;
+
+    LeafNode(TransformFunction transformFunction) {
+      _transformFunction = transformFunction;
+    }
+
+    void load(ProjectionBlock projectionBlock) {
+      _values = _transformFunction.transformToDoubleValuesSV(projectionBlock);
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _values[docIndex];
+    }
+  }
+
+  /**
+   * Node returning a constant value.
+   */
+  static final class ConstantNode extends Node {
+    private final double _value;
+
+    ConstantNode(double value) {
+      _value = value;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _value;
+    }
+  }
+}
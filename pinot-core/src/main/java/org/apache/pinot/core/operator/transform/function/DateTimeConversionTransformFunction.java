@@ -30,7 +30,6 @@ import org.apache.pinot.core.operator.transform.transformer.datetime.EpochToEpoc
 import org.apache.pinot.core.operator.transform.transformer.datetime.EpochToSDFTransformer;
 import org.apache.pinot.core.operator.transform.transformer.datetime.SDFToEpochTransformer;
 import org.apache.pinot.core.operator.transform.transformer.datetime.SDFToSDFTransformer;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 /**
@@ -126,8 +125,8 @@ public class DateTimeConversionTransformFunction extends BaseTransformFunction {
   @Override
   public long[] transformToLongValuesSV(ProjectionBlock projectionBlock) {
     if (_resultMetadata == LONG_SV_NO_DICTIONARY_METADATA) {
-      if (_longOutputTimes == null) {
-        _longOutputTimes = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (_longOutputTimes == null || _longOutputTimes.length < projectionBlock.getNumDocs()) {
+        _longOutputTimes = new long[projectionBlock.getNumDocs()];
       }
 
       int length = projectionBlock.getNumDocs();
@@ -149,8 +148,8 @@ public class DateTimeConversionTransformFunction extends BaseTransformFunction {
   @Override
   public String[] transformToStringValuesSV(ProjectionBlock projectionBlock) {
     if (_resultMetadata == STRING_SV_NO_DICTIONARY_METADATA) {
-      if (_stringOutputTimes == null) {
-        _stringOutputTimes = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+      if (_stringOutputTimes == null || _stringOutputTimes.length < projectionBlock.getNumDocs()) {
+        _stringOutputTimes = new String[projectionBlock.getNumDocs()];
       }
 
       int length = projectionBlock.getNumDocs();
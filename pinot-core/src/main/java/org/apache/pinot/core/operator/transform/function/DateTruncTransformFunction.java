@@ -25,7 +25,6 @@ import java.util.concurrent.TimeUnit;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.joda.time.Chronology;
 import org.joda.time.DateTimeField;
 import org.joda.time.DateTimeFieldType;
@@ -159,8 +158,8 @@ public class DateTruncTransformFunction extends BaseTransformFunction {
 
   @Override
   public long[] transformToLongValuesSV(ProjectionBlock projectionBlock) {
-    if (_longOutputTimes == null) {
-      _longOutputTimes = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longOutputTimes == null || _longOutputTimes.length < projectionBlock.getNumDocs()) {
+      _longOutputTimes = new long[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -24,7 +24,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 public class DivisionTransformFunction extends BaseTransformFunction {
@@ -77,8 +76,8 @@ public class DivisionTransformFunction extends BaseTransformFunction {
   @SuppressWarnings("Duplicates")
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_quotients == null) {
-      _quotients = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_quotients == null || _quotients.length < projectionBlock.getNumDocs()) {
+      _quotients = new double[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -35,7 +35,6 @@ import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.data.function.GroovyFunctionEvaluator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.utils.JsonUtils;
 
@@ -223,8 +222,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public int[] transformToIntValuesSV(ProjectionBlock projectionBlock) {
-    if (_intResultSV == null) {
-      _intResultSV = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intResultSV == null || _intResultSV.length < projectionBlock.getNumDocs()) {
+      _intResultSV = new int[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -241,8 +240,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public int[][] transformToIntValuesMV(ProjectionBlock projectionBlock) {
-    if (_intResultMV == null) {
-      _intResultMV = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_intResultMV == null || _intResultMV.length < projectionBlock.getNumDocs()) {
+      _intResultMV = new int[projectionBlock.getNumDocs()][];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -266,8 +265,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_doubleResultSV == null) {
-      _doubleResultSV = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleResultSV == null || _doubleResultSV.length < projectionBlock.getNumDocs()) {
+      _doubleResultSV = new double[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -284,8 +283,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public double[][] transformToDoubleValuesMV(ProjectionBlock projectionBlock) {
-    if (_doubleResultMV == null) {
-      _doubleResultMV = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_doubleResultMV == null || _doubleResultMV.length < projectionBlock.getNumDocs()) {
+      _doubleResultMV = new double[projectionBlock.getNumDocs()][];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -309,8 +308,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public long[] transformToLongValuesSV(ProjectionBlock projectionBlock) {
-    if (_longResultSV == null) {
-      _longResultSV = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longResultSV == null || _longResultSV.length < projectionBlock.getNumDocs()) {
+      _longResultSV = new long[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -327,8 +326,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public long[][] transformToLongValuesMV(ProjectionBlock projectionBlock) {
-    if (_longResultMV == null) {
-      _longResultMV = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_longResultMV == null || _longResultMV.length < projectionBlock.getNumDocs()) {
+      _longResultMV = new long[projectionBlock.getNumDocs()][];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -352,8 +351,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public float[] transformToFloatValuesSV(ProjectionBlock projectionBlock) {
-    if (_floatResultSV == null) {
-      _floatResultSV = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatResultSV == null || _floatResultSV.length < projectionBlock.getNumDocs()) {
+      _floatResultSV = new float[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -370,8 +369,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public float[][] transformToFloatValuesMV(ProjectionBlock projectionBlock) {
-    if (_floatResultMV == null) {
-      _floatResultMV = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_floatResultMV == null || _floatResultMV.length < projectionBlock.getNumDocs()) {
+      _floatResultMV = new float[projectionBlock.getNumDocs()][];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -395,8 +394,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public String[] transformToStringValuesSV(ProjectionBlock projectionBlock) {
-    if (_stringResultSV == null) {
-      _stringResultSV = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringResultSV == null || _stringResultSV.length < projectionBlock.getNumDocs()) {
+      _stringResultSV = new String[projectionBlock.getNumDocs()];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
@@ -413,8 +412,8 @@ public class GroovyTransformFunction extends BaseTransformFunction {
 
   @Override
   public String[][] transformToStringValuesMV(ProjectionBlock projectionBlock) {
-    if (_stringResultMV == null) {
-      _stringResultMV = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_stringResultMV == null || _stringResultMV.length < projectionBlock.getNumDocs()) {
+      _stringResultMV = new String[projectionBlock.getNumDocs()][];
     }
     for (int i = 0; i < _numGroovyArgs; i++) {
       _sourceArrays[i] = _transformToValuesFunctions[i].apply(_groovyArguments[i], projectionBlock);
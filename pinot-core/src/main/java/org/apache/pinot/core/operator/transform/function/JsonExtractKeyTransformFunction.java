@@ -48,6 +48,9 @@ import org.apache.pinot.core.operator.transform.TransformResultMetadata;
  *
  */
 public class JsonExtractKeyTransformFunction extends BaseTransformFunction {
+  // TODO: Each query parses every json string again. Follow-up of the JSON index (which only serves the JSON_MATCH
+  //       filter): add an optional pre-parsed binary storage for the json column, and navigate the json path on it
+  //       without parsing the json string.
 
   public static final String FUNCTION_NAME = "jsonExtractKey";
   private static final Configuration JSON_PATH_KEY_CONFIG =
@@ -53,6 +53,9 @@ import org.apache.pinot.spi.utils.JsonUtils;
  *
  */
 public class JsonExtractScalarTransformFunction extends BaseTransformFunction {
+  // TODO: Each query parses every json string again. Follow-up of the JSON index (which only serves the JSON_MATCH
+  //       filter): add an optional pre-parsed binary storage for the json column, and navigate the json path on it
+  //       without parsing the json string.
 
   public static final String FUNCTION_NAME = "jsonExtractScalar";
   private static final Configuration LIST_RESPONSE_CONFIG =
@@ -26,7 +26,6 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.utils.BytesUtils;
@@ -102,8 +101,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public int[] transformToIntValuesSV(ProjectionBlock projectionBlock) {
-    if (_intResult == null) {
-      _intResult = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intResult == null || _intResult.length < projectionBlock.getNumDocs()) {
+      _intResult = new int[projectionBlock.getNumDocs()];
       Arrays.fill(_intResult, Integer.parseInt(_literal));
     }
     return _intResult;
@@ -111,8 +110,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public long[] transformToLongValuesSV(ProjectionBlock projectionBlock) {
-    if (_longResult == null) {
-      _longResult = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longResult == null || _longResult.length < projectionBlock.getNumDocs()) {
+      _longResult = new long[projectionBlock.getNumDocs()];
       Arrays.fill(_longResult, new BigDecimal(_literal).longValue());
     }
     return _longResult;
@@ -120,8 +119,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public float[] transformToFloatValuesSV(ProjectionBlock projectionBlock) {
-    if (_floatResult == null) {
-      _floatResult = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatResult == null || _floatResult.length < projectionBlock.getNumDocs()) {
+      _floatResult = new float[projectionBlock.getNumDocs()];
       Arrays.fill(_floatResult, new BigDecimal(_literal).floatValue());
     }
     return _floatResult;
@@ -129,8 +128,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_doubleResult == null) {
-      _doubleResult = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleResult == null || _doubleResult.length < projectionBlock.getNumDocs()) {
+      _doubleResult = new double[projectionBlock.getNumDocs()];
       Arrays.fill(_doubleResult, new BigDecimal(_literal).doubleValue());
     }
     return _doubleResult;
@@ -138,8 +137,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public String[] transformToStringValuesSV(ProjectionBlock projectionBlock) {
-    if (_stringResult == null) {
-      _stringResult = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringResult == null || _stringResult.length < projectionBlock.getNumDocs()) {
+      _stringResult = new String[projectionBlock.getNumDocs()];
       Arrays.fill(_stringResult, _literal);
     }
     return _stringResult;
@@ -147,8 +146,8 @@ public class LiteralTransformFunction implements TransformFunction {
 
   @Override
   public byte[][] transformToBytesValuesSV(ProjectionBlock projectionBlock) {
-    if (_bytesResult == null) {
-      _bytesResult = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_bytesResult == null || _bytesResult.length < projectionBlock.getNumDocs()) {
+      _bytesResult = new byte[projectionBlock.getNumDocs()][];
       Arrays.fill(_bytesResult, BytesUtils.toBytes(_literal));
     }
     return _bytesResult;
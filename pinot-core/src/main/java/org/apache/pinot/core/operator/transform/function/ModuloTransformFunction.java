@@ -24,7 +24,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 public class ModuloTransformFunction extends BaseTransformFunction {
@@ -77,8 +76,8 @@ public class ModuloTransformFunction extends BaseTransformFunction {
   @SuppressWarnings("Duplicates")
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_modulos == null) {
-      _modulos = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_modulos == null || _modulos.length < projectionBlock.getNumDocs()) {
+      _modulos = new double[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
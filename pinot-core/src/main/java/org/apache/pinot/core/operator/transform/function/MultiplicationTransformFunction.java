@@ -25,7 +25,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 public class MultiplicationTransformFunction extends BaseTransformFunction {
@@ -66,8 +65,8 @@ public class MultiplicationTransformFunction extends BaseTransformFunction {
 
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_products == null) {
-      _products = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_products == null || _products.length < projectionBlock.getNumDocs()) {
+      _products = new double[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.operator.transform.function;
 
 import com.google.common.base.Preconditions;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.ArrayUtils;
@@ -29,7 +30,6 @@ import org.apache.pinot.common.utils.PinotDataType;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 
 
@@ -77,6 +77,13 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     return _name;
   }
 
+  /**
+   * Returns the method invoked by this scalar function.
+   */
+  Method getMethod() {
+    return _functionInvoker.getMethod();
+  }
+
   @Override
   public void init(List<TransformFunction> arguments, Map<String, DataSource> dataSourceMap) {
     int numArguments = arguments.size();
@@ -121,8 +128,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.INT) {
       return super.transformToIntValuesSV(projectionBlock);
     }
-    if (_intResults == null) {
-      _intResults = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_intResults == null || _intResults.length < projectionBlock.getNumDocs()) {
+      _intResults = new int[projectionBlock.getNumDocs()];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -140,8 +147,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.LONG) {
       return super.transformToLongValuesSV(projectionBlock);
     }
-    if (_longResults == null) {
-      _longResults = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_longResults == null || _longResults.length < projectionBlock.getNumDocs()) {
+      _longResults = new long[projectionBlock.getNumDocs()];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -159,8 +166,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.FLOAT) {
       return super.transformToFloatValuesSV(projectionBlock);
     }
-    if (_floatResults == null) {
-      _floatResults = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_floatResults == null || _floatResults.length < projectionBlock.getNumDocs()) {
+      _floatResults = new float[projectionBlock.getNumDocs()];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -178,8 +185,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.DOUBLE) {
       return super.transformToDoubleValuesSV(projectionBlock);
     }
-    if (_doubleResults == null) {
-      _doubleResults = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_doubleResults == null || _doubleResults.length < projectionBlock.getNumDocs()) {
+      _doubleResults = new double[projectionBlock.getNumDocs()];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -197,8 +204,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.STRING) {
       return super.transformToStringValuesSV(projectionBlock);
     }
-    if (_stringResults == null) {
-      _stringResults = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_stringResults == null || _stringResults.length < projectionBlock.getNumDocs()) {
+      _stringResults = new String[projectionBlock.getNumDocs()];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -216,8 +223,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.BYTES) {
       return super.transformToBytesValuesSV(projectionBlock);
     }
-    if (_bytesResults == null) {
-      _bytesResults = new byte[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_bytesResults == null || _bytesResults.length < projectionBlock.getNumDocs()) {
+      _bytesResults = new byte[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -235,8 +242,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.INT) {
       return super.transformToIntValuesMV(projectionBlock);
     }
-    if (_intMVResults == null) {
-      _intMVResults = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_intMVResults == null || _intMVResults.length < projectionBlock.getNumDocs()) {
+      _intMVResults = new int[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -254,8 +261,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.LONG) {
       return super.transformToLongValuesMV(projectionBlock);
     }
-    if (_longMVResults == null) {
-      _longMVResults = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_longMVResults == null || _longMVResults.length < projectionBlock.getNumDocs()) {
+      _longMVResults = new long[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -273,8 +280,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.FLOAT) {
       return super.transformToFloatValuesMV(projectionBlock);
     }
-    if (_floatMVResults == null) {
-      _floatMVResults = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_floatMVResults == null || _floatMVResults.length < projectionBlock.getNumDocs()) {
+      _floatMVResults = new float[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -292,8 +299,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.DOUBLE) {
       return super.transformToDoubleValuesMV(projectionBlock);
     }
-    if (_doubleMVResults == null) {
-      _doubleMVResults = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_doubleMVResults == null || _doubleMVResults.length < projectionBlock.getNumDocs()) {
+      _doubleMVResults = new double[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -311,8 +318,8 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     if (_resultMetadata.getDataType() != DataType.STRING) {
       return super.transformToStringValuesMV(projectionBlock);
     }
-    if (_stringMVResults == null) {
-      _stringMVResults = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_stringMVResults == null || _stringMVResults.length < projectionBlock.getNumDocs()) {
+      _stringMVResults = new String[projectionBlock.getNumDocs()][];
     }
     getNonLiteralValues(projectionBlock);
     int length = projectionBlock.getNumDocs();
@@ -24,7 +24,6 @@ import java.util.Map;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 public class SubtractionTransformFunction extends BaseTransformFunction {
@@ -77,8 +76,8 @@ public class SubtractionTransformFunction extends BaseTransformFunction {
   @SuppressWarnings("Duplicates")
   @Override
   public double[] transformToDoubleValuesSV(ProjectionBlock projectionBlock) {
-    if (_differences == null) {
-      _differences = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL];
+    if (_differences == null || _differences.length < projectionBlock.getNumDocs()) {
+      _differences = new double[projectionBlock.getNumDocs()];
     }
 
     int length = projectionBlock.getNumDocs();
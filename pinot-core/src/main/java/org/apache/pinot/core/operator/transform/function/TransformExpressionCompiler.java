@@ -0,0 +1,609 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.function;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.PinotDataType;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.operator.transform.function.CompiledTransformFunction.ConstantNode;
+import org.apache.pinot.core.operator.transform.function.CompiledTransformFunction.LeafNode;
+import org.apache.pinot.core.operator.transform.function.CompiledTransformFunction.Node;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FunctionContext;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The <code>TransformExpressionCompiler</code> class compiles a transform expression into a
+ * {@link CompiledTransformFunction}, which evaluates the whole expression tree within a single loop over the projection
+ * block instead of materializing one value array per node of the tree.
+ * <p>The following nodes are fused into the compiled tree:
+ * <ul>
+ *   <li>Arithmetic functions: ADD, SUB, MULT, DIV, MOD</li>
+ *   <li>Single parameter math functions: ABS, CEIL, EXP, FLOOR, LN, SQRT</li>
+ *   <li>Comparisons (=, !=, &gt;, &gt;=, &lt;, &lt;=) on INT, FLOAT and DOUBLE values and on numeric literals</li>
+ *   <li>Logical operators: AND, OR</li>
+ *   <li>CASE-WHEN with DOUBLE result</li>
+ *   <li>Static scalar functions with only <code>double</code> parameters and <code>double</code> result</li>
+ * </ul>
+ * A node is fused only when the fused evaluation produces exactly the same result as the interpreted transform
+ * function (e.g. comparisons on LONG or STRING values are not fused). All the other nodes are evaluated by their
+ * interpreted transform functions, and their values are read by the compiled tree.
+ * <p>The compiler is opt-in per query with the <code>compileTransforms</code> query option (see
+ * <code>BenchmarkTransformExpressionCompiler</code> in pinot-perf).
+ */
+public class TransformExpressionCompiler {
+  private static final Map<Class<? extends TransformFunction>, DoubleUnaryOperator> MATH_OPERATORS = new HashMap<>();
+
+  static {
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.AbsTransformFunction.class, Math::abs);
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.CeilTransformFunction.class, Math::ceil);
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.ExpTransformFunction.class, Math::exp);
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.FloorTransformFunction.class, Math::floor);
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.LnTransformFunction.class, Math::log);
+    MATH_OPERATORS.put(SingleParamMathTransformFunction.SqrtTransformFunction.class, Math::sqrt);
+  }
+
+  private final Map<String, DataSource> _dataSourceMap;
+  private final Map<ExpressionContext, LeafNode> _leafMap = new HashMap<>();
+
+  private TransformExpressionCompiler(Map<String, DataSource> dataSourceMap) {
+    _dataSourceMap = dataSourceMap;
+  }
+
+  /**
+   * Returns the transform function for the given expression. The expression is compiled when its root and at least
+   * one of its children can be fused, or when its root is a scalar function that can be fused; otherwise the
+   * interpreted transform function is returned.
+   *
+   * @param expression Transform expression
+   * @param dataSourceMap Map from column name to column data source
+   * @return Transform function
+   */
+  public static TransformFunction compile(ExpressionContext expression, Map<String, DataSource> dataSourceMap) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return TransformFunctionFactory.get(expression, dataSourceMap);
+    }
+    CompiledExpression root = new TransformExpressionCompiler(dataSourceMap).compileExpression(expression);
+    Node rootNode = root._node;
+    if (rootNode == null || !shouldCompile(rootNode)) {
+      return root._transformFunction;
+    }
+    Set<LeafNode> leaves = new LinkedHashSet<>();
+    collectLeaves(rootNode, leaves);
+    return new CompiledTransformFunction(root._transformFunction, rootNode, leaves.toArray(new LeafNode[0]));
+  }
+
+  private static boolean shouldCompile(Node rootNode) {
+    if (rootNode instanceof ScalarNode) {
+      return true;
+    }
+    for (Node child : rootNode._children) {
+      if (!(child instanceof LeafNode) && !(child instanceof ConstantNode)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void collectLeaves(Node node, Set<LeafNode> leaves) {
+    if (node instanceof LeafNode) {
+      leaves.add((LeafNode) node);
+    } else {
+      for (Node child : node._children) {
+        collectLeaves(child, leaves);
+      }
+    }
+  }
+
+  /**
+   * Builds the interpreted transform function for the expression bottom-up (same as the
+   * {@link TransformFunctionFactory}), and fuses the node when possible.
+   */
+  private CompiledExpression compileExpression(ExpressionContext expression) {
+    if (expression.getType() != ExpressionContext.Type.FUNCTION) {
+      return new CompiledExpression(expression, TransformFunctionFactory.get(expression, _dataSourceMap), null);
+    }
+    FunctionContext function = expression.getFunction();
+    List<ExpressionContext> arguments = function.getArguments();
+    int numArguments = arguments.size();
+    List<CompiledExpression> compiledArguments = new ArrayList<>(numArguments);
+    List<TransformFunction> transformFunctionArguments = new ArrayList<>(numArguments);
+    for (ExpressionContext argument : arguments) {
+      CompiledExpression compiledArgument = compileExpression(argument);
+      compiledArguments.add(compiledArgument);
+      transformFunctionArguments.add(compiledArgument._transformFunction);
+    }
+    TransformFunction transformFunction =
+        TransformFunctionFactory.get(function, transformFunctionArguments, _dataSourceMap);
+    return new CompiledExpression(expression, transformFunction, fuse(transformFunction, compiledArguments));
+  }
+
+  @Nullable
+  private Node fuse(TransformFunction transformFunction, List<CompiledExpression> arguments) {
+    if (transformFunction instanceof AdditionTransformFunction) {
+      double literalSum = 0;
+      List<Node> children = new ArrayList<>(arguments.size());
+      for (CompiledExpression argument : arguments) {
+        if (argument.isLiteral()) {
+          literalSum += Double.parseDouble(argument.getLiteral());
+        } else {
+          children.add(toNode(argument));
+        }
+      }
+      return new AdditionNode(literalSum, children.toArray(new Node[0]));
+    }
+    if (transformFunction instanceof MultiplicationTransformFunction) {
+      double literalProduct = 1.0;
+      List<Node> children = new ArrayList<>(arguments.size());
+      for (CompiledExpression argument : arguments) {
+        if (argument.isLiteral()) {
+          literalProduct *= Double.parseDouble(argument.getLiteral());
+        } else {
+          children.add(toNode(argument));
+        }
+      }
+      return new MultiplicationNode(literalProduct, children.toArray(new Node[0]));
+    }
+    if (transformFunction instanceof SubtractionTransformFunction) {
+      return new SubtractionNode(toArithmeticNode(arguments.get(0)), toArithmeticNode(arguments.get(1)));
+    }
+    if (transformFunction instanceof DivisionTransformFunction) {
+      return new DivisionNode(toArithmeticNode(arguments.get(0)), toArithmeticNode(arguments.get(1)));
+    }
+    if (transformFunction instanceof ModuloTransformFunction) {
+      return new ModuloNode(toArithmeticNode(arguments.get(0)), toArithmeticNode(arguments.get(1)));
+    }
+    DoubleUnaryOperator mathOperator = MATH_OPERATORS.get(transformFunction.getClass());
+    if (mathOperator != null) {
+      return new MathNode(mathOperator, toNode(arguments.get(0)));
+    }
+    if (transformFunction instanceof BinaryOperatorTransformFunction) {
+      return fuseComparison((BinaryOperatorTransformFunction) transformFunction, arguments.get(0), arguments.get(1));
+    }
+    if (transformFunction instanceof LogicalOperatorTransformFunction) {
+      return fuseLogicalOperator((LogicalOperatorTransformFunction) transformFunction, arguments);
+    }
+    if (transformFunction instanceof CaseTransformFunction) {
+      return fuseCase((CaseTransformFunction) transformFunction, arguments);
+    }
+    if (transformFunction instanceof ScalarTransformFunctionWrapper) {
+      return fuseScalarFunction((ScalarTransformFunctionWrapper) transformFunction, arguments);
+    }
+    return null;
+  }
+
+  /**
+   * Comparisons are fused only for the type combinations compared as doubles by the interpreted function (INT-FLOAT
+   * is compared as floats, and LONG values are compared as longs or BigDecimals), or against a numeric literal that is
+   * exactly representable as a double.
+   */
+  @Nullable
+  private Node fuseComparison(BinaryOperatorTransformFunction transformFunction, CompiledExpression left,
+      CompiledExpression right) {
+    boolean isLeftLiteral = left.isLiteral();
+    boolean isRightLiteral = right.isLiteral();
+    if (isLeftLiteral && isRightLiteral) {
+      return null;
+    }
+    if (isLeftLiteral || isRightLiteral) {
+      CompiledExpression value = isLeftLiteral ? right : left;
+      if (!isSingleValueOfType(value, DataType.INT, DataType.FLOAT, DataType.DOUBLE)) {
+        return null;
+      }
+      // Literal is compared as BigDecimal
+      BigDecimal literal;
+      try {
+        literal = new BigDecimal(isLeftLiteral ? left.getLiteral() : right.getLiteral());
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      double literalValue = literal.doubleValue();
+      if (!Double.isFinite(literalValue) || new BigDecimal(literalValue).compareTo(literal) != 0) {
+        return null;
+      }
+      // Values are converted to BigDecimal via their string representation, which might not be exact for large values
+      int equalResult = BigDecimal.valueOf(literalValue).compareTo(literal);
+      return new LiteralComparisonNode(transformFunction, toNode(value), literalValue, equalResult, isLeftLiteral);
+    }
+    if (!isSingleValueOfType(left, DataType.INT, DataType.FLOAT, DataType.DOUBLE) || !isSingleValueOfType(right,
+        DataType.INT, DataType.FLOAT, DataType.DOUBLE)) {
+      return null;
+    }
+    if (left.getDataType() == DataType.INT && right.getDataType() == DataType.FLOAT) {
+      return null;
+    }
+    return new ComparisonNode(transformFunction, toNode(left), toNode(right));
+  }
+
+  @Nullable
+  private Node fuseLogicalOperator(LogicalOperatorTransformFunction transformFunction,
+      List<CompiledExpression> arguments) {
+    int numArguments = arguments.size();
+    Node[] children = new Node[numArguments];
+    for (int i = 0; i < numArguments; i++) {
+      CompiledExpression argument = arguments.get(i);
+      if (!isSingleValueOfType(argument, DataType.INT, DataType.FLOAT, DataType.DOUBLE)) {
+        return null;
+      }
+      children[i] = toNode(argument);
+    }
+    return new LogicalOperatorNode(transformFunction, children);
+  }
+
+  @Nullable
+  private Node fuseCase(CaseTransformFunction transformFunction, List<CompiledExpression> arguments) {
+    if (transformFunction.getResultMetadata().getDataType() != DataType.DOUBLE) {
+      return null;
+    }
+    int numWhenStatements = arguments.size() / 2;
+    Node[] whenNodes = new Node[numWhenStatements];
+    Node[] thenNodes = new Node[numWhenStatements];
+    for (int i = 0; i < numWhenStatements; i++) {
+      CompiledExpression whenStatement = arguments.get(i);
+      if (!isSingleValueOfType(whenStatement, DataType.INT, DataType.FLOAT, DataType.DOUBLE)) {
+        return null;
+      }
+      whenNodes[i] = toNode(whenStatement);
+      CompiledExpression thenExpression = arguments.get(numWhenStatements + i);
+      if (!isSingleValueOfType(thenExpression, DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE)) {
+        return null;
+      }
+      thenNodes[i] = toNode(thenExpression);
+    }
+    CompiledExpression elseExpression = arguments.get(2 * numWhenStatements);
+    if (!isSingleValueOfType(elseExpression, DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE)) {
+      return null;
+    }
+    return new CaseNode(whenNodes, thenNodes, toNode(elseExpression));
+  }
+
+  @Nullable
+  private Node fuseScalarFunction(ScalarTransformFunctionWrapper transformFunction,
+      List<CompiledExpression> arguments) {
+    Method method = transformFunction.getMethod();
+    if (!Modifier.isStatic(method.getModifiers()) || method.getReturnType() != double.class) {
+      return null;
+    }
+    int numArguments = arguments.size();
+    if (numArguments == 0) {
+      return null;
+    }
+    for (Class<?> parameterClass : method.getParameterTypes()) {
+      if (parameterClass != double.class) {
+        return null;
+      }
+    }
+    MethodHandle methodHandle;
+    try {
+      methodHandle = MethodHandles.lookup().unreflect(method).asSpreader(double[].class, numArguments);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+    Node[] children = new Node[numArguments];
+    for (int i = 0; i < numArguments; i++) {
+      CompiledExpression argument = arguments.get(i);
+      if (argument.isLiteral()) {
+        children[i] =
+            new ConstantNode((Double) PinotDataType.DOUBLE.convert(argument.getLiteral(), PinotDataType.STRING));
+      } else {
+        if (!argument._transformFunction.getResultMetadata().isSingleValue()) {
+          return null;
+        }
+        children[i] = toNode(argument);
+      }
+    }
+    return new ScalarNode(method, methodHandle, children);
+  }
+
+  private Node toArithmeticNode(CompiledExpression argument) {
+    if (argument.isLiteral()) {
+      return new ConstantNode(Double.parseDouble(argument.getLiteral()));
+    } else {
+      return toNode(argument);
+    }
+  }
+
+  /**
+   * Returns the fused node for the argument, or a leaf node (shared among the identical expressions) reading the values
+   * of the interpreted transform function if the argument is not fused.
+   */
+  private Node toNode(CompiledExpression argument) {
+    if (argument._node != null) {
+      return argument._node;
+    }
+    return _leafMap.computeIfAbsent(argument._expression, k -> new LeafNode(argument._transformFunction));
+  }
+
+  private static boolean isSingleValueOfType(CompiledExpression argument, DataType... dataTypes) {
+    if (argument.isLiteral()) {
+      return false;
+    }
+    TransformResultMetadata resultMetadata = argument._transformFunction.getResultMetadata();
+    return resultMetadata.isSingleValue() && Arrays.asList(dataTypes).contains(resultMetadata.getDataType());
+  }
+
+  private static class CompiledExpression {
+    final ExpressionContext _expression;
+    final TransformFunction _transformFunction;
+    final Node _node;
+
+    CompiledExpression(ExpressionContext expression, TransformFunction transformFunction, @Nullable Node node) {
+      _expression = expression;
+      _transformFunction = transformFunction;
+      _node = node;
+    }
+
+    boolean isLiteral() {
+      return _transformFunction instanceof LiteralTransformFunction;
+    }
+
+    String getLiteral() {
+      return ((LiteralTransformFunction) _transformFunction).getLiteral();
+    }
+
+    DataType getDataType() {
+      return _transformFunction.getResultMetadata().getDataType();
+    }
+  }
+
+  private static final class AdditionNode extends Node {
+    private final double _literalSum;
+
+    AdditionNode(double literalSum, Node[] children) {
+      super(children);
+      _literalSum = literalSum;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      double sum = _literalSum;
+      for (Node child : _children) {
+        sum += child.evaluate(docIndex);
+      }
+      return sum;
+    }
+  }
+
+  private static final class MultiplicationNode extends Node {
+    private final double _literalProduct;
+
+    MultiplicationNode(double literalProduct, Node[] children) {
+      super(children);
+      _literalProduct = literalProduct;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      double product = _literalProduct;
+      for (Node child : _children) {
+        product *= child.evaluate(docIndex);
+      }
+      return product;
+    }
+  }
+
+  private static final class SubtractionNode extends Node {
+    private final Node _first;
+    private final Node _second;
+
+    SubtractionNode(Node first, Node second) {
+      super(first, second);
+      _first = first;
+      _second = second;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _first.evaluate(docIndex) - _second.evaluate(docIndex);
+    }
+  }
+
+  private static final class DivisionNode extends Node {
+    private final Node _first;
+    private final Node _second;
+
+    DivisionNode(Node first, Node second) {
+      super(first, second);
+      _first = first;
+      _second = second;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _first.evaluate(docIndex) / _second.evaluate(docIndex);
+    }
+  }
+
+  private static final class ModuloNode extends Node {
+    private final Node _first;
+    private final Node _second;
+
+    ModuloNode(Node first, Node second) {
+      super(first, second);
+      _first = first;
+      _second = second;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _first.evaluate(docIndex) % _second.evaluate(docIndex);
+    }
+  }
+
+  private static final class MathNode extends Node {
+    private final DoubleUnaryOperator _operator;
+    private final Node _argument;
+
+    MathNode(DoubleUnaryOperator operator, Node argument) {
+      super(argument);
+      _operator = operator;
+      _argument = argument;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _operator.applyAsDouble(_argument.evaluate(docIndex));
+    }
+  }
+
+  private static final class ComparisonNode extends Node {
+    private final BinaryOperatorTransformFunction _transformFunction;
+    private final Node _left;
+    private final Node _right;
+
+    ComparisonNode(BinaryOperatorTransformFunction transformFunction, Node left, Node right) {
+      super(left, right);
+      _transformFunction = transformFunction;
+      _left = left;
+      _right = right;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      return _transformFunction
+          .getBinaryFuncResult(Double.compare(_left.evaluate(docIndex), _right.evaluate(docIndex)));
+    }
+  }
+
+  private static final class LiteralComparisonNode extends Node {
+    private final BinaryOperatorTransformFunction _transformFunction;
+    private final Node _value;
+    private final double _literal;
+    private final int _equalResult;
+    private final boolean _isLiteralOnLeft;
+
+    LiteralComparisonNode(BinaryOperatorTransformFunction transformFunction, Node value, double literal,
+        int equalResult, boolean isLiteralOnLeft) {
+      super(value);
+      _transformFunction = transformFunction;
+      _value = value;
+      _literal = literal;
+      _equalResult = equalResult;
+      _isLiteralOnLeft = isLiteralOnLeft;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      double value = _value.evaluate(docIndex);
+      // NaN and infinity cannot be converted to BigDecimal
+      if (!Double.isFinite(value)) {
+        return 0;
+      }
+      int result = value < _literal ? -1 : (value > _literal ? 1 : _equalResult);
+      return _transformFunction.getBinaryFuncResult(_isLiteralOnLeft ? -result : result);
+    }
+  }
+
+  private static final class LogicalOperatorNode extends Node {
+    private final LogicalOperatorTransformFunction _transformFunction;
+
+    LogicalOperatorNode(LogicalOperatorTransformFunction transformFunction, Node[] children) {
+      super(children);
+      _transformFunction = transformFunction;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      int result = (int) _children[0].evaluate(docIndex);
+      for (int i = 1; i < _children.length; i++) {
+        result = _transformFunction.getLogicalFuncResult(result, (int) _children[i].evaluate(docIndex));
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Only the THEN/ELSE expression selected by the WHEN statements is evaluated for each row.
+   */
+  private static final class CaseNode extends Node {
+    private final Node[] _whenNodes;
+    private final Node[] _thenNodes;
+    private final Node _elseNode;
+
+    CaseNode(Node[] whenNodes, Node[] thenNodes, Node elseNode) {
+      super(concat(whenNodes, thenNodes, elseNode));
+      _whenNodes = whenNodes;
+      _thenNodes = thenNodes;
+      _elseNode = elseNode;
+    }
+
+    private static Node[] concat(Node[] whenNodes, Node[] thenNodes, Node elseNode) {
+      int numWhenStatements = whenNodes.length;
+      Node[] children = Arrays.copyOf(whenNodes, 2 * numWhenStatements + 1);
+      System.arraycopy(thenNodes, 0, children, numWhenStatements, numWhenStatements);
+      children[2 * numWhenStatements] = elseNode;
+      return children;
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      for (int i = 0; i < _whenNodes.length; i++) {
+        if ((int) _whenNodes[i].evaluate(docIndex) == 1) {
+          return _thenNodes[i].evaluate(docIndex);
+        }
+      }
+      return _elseNode.evaluate(docIndex);
+    }
+  }
+
+  /**
+   * Invokes the scalar function via a method handle on primitive doubles instead of reflection on boxed values.
+   */
+  private static final class ScalarNode extends Node {
+    private final Method _method;
+    private final MethodHandle _methodHandle;
+    private final double[] _arguments;
+
+    ScalarNode(Method method, MethodHandle methodHandle, Node[] children) {
+      super(children);
+      _method = method;
+      _methodHandle = methodHandle;
+      _arguments = new double[children.length];
+    }
+
+    @Override
+    double evaluate(int docIndex) {
+      for (int i = 0; i < _arguments.length; i++) {
+        _arguments[i] = _children[i].evaluate(docIndex);
+      }
+      try {
+        return (double) _methodHandle.invokeExact(_arguments);
+      } catch (Throwable t) {
+        throw new IllegalStateException(
+            "Caught exception while invoking method: " + _method + " with arguments: " + Arrays.toString(_arguments),
+            t);
+      }
+    }
+  }
+}
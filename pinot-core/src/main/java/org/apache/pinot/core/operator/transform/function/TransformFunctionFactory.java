@@ -173,40 +173,12 @@ public class TransformFunctionFactory {
     switch (expression.getType()) {
       case FUNCTION:
         FunctionContext function = expression.getFunction();
-        String functionName = canonicalize(function.getFunctionName());
         List<ExpressionContext> arguments = function.getArguments();
-        int numArguments = arguments.size();
-
-        TransformFunction transformFunction;
-        Class<? extends TransformFunction> transformFunctionClass = TRANSFORM_FUNCTION_MAP.get(functionName);
-        if (transformFunctionClass != null) {
-          // Transform function
-          try {
-            transformFunction = transformFunctionClass.newInstance();
-          } catch (Exception e) {
-            throw new RuntimeException("Caught exception while constructing transform function: " + functionName, e);
-          }
-        } else {
-          // Scalar function
-          FunctionInfo functionInfo = FunctionRegistry.getFunctionInfo(functionName, numArguments);
-          if (functionInfo == null) {
-            throw new BadQueryRequestException(
-                String.format("Unsupported function: %s with %d parameters", functionName, numArguments));
-          }
-          transformFunction = new ScalarTransformFunctionWrapper(functionInfo);
-        }
-
-        List<TransformFunction> transformFunctionArguments = new ArrayList<>(numArguments);
+        List<TransformFunction> transformFunctionArguments = new ArrayList<>(arguments.size());
         for (ExpressionContext argument : arguments) {
           transformFunctionArguments.add(TransformFunctionFactory.get(argument, dataSourceMap));
         }
-        try {
-          transformFunction.init(transformFunctionArguments, dataSourceMap);
-        } catch (Exception e) {
-          throw new BadQueryRequestException("Caught exception while initializing transform function: " + functionName,
-              e);
-        }
-        return transformFunction;
+        return get(function, transformFunctionArguments, dataSourceMap);
       case IDENTIFIER:
         String columnName = expression.getIdentifier();
         return new IdentifierTransformFunction(columnName, dataSourceMap.get(columnName));
@@ -217,6 +189,47 @@ public class TransformFunctionFactory {
     }
   }
 
+  /**
+   * Returns an instance of transform function for the given function with the already constructed arguments.
+   *
+   * @param function Transform function
+   * @param arguments Transform functions for the arguments
+   * @param dataSourceMap Map from column name to column data source
+   * @return Transform function
+   */
+  static TransformFunction get(FunctionContext function, List<TransformFunction> arguments,
+      Map<String, DataSource> dataSourceMap) {
+    String functionName = canonicalize(function.getFunctionName());
+    int numArguments = arguments.size();
+
+    TransformFunction transformFunction;
+    Class<? extends TransformFunction> transformFunctionClass = TRANSFORM_FUNCTION_MAP.get(functionName);
+    if (transformFunctionClass != null) {
+      // Transform function
+      try {
+        transformFunction = transformFunctionClass.newInstance();
+      } catch (Exception e) {
+        throw new RuntimeException("Caught exception while constructing transform function: " + functionName, e);
+      }
+    } else {
+      // Scalar function
+      FunctionInfo functionInfo = FunctionRegistry.getFunctionInfo(functionName, numArguments);
+      if (functionInfo == null) {
+        throw new BadQueryRequestException(
+            String.format("Unsupported function: %s with %d parameters", functionName, numArguments));
+      }
+      transformFunction = new ScalarTransformFunctionWrapper(functionInfo);
+    }
+
+    try {
+      transformFunction.init(arguments, dataSourceMap);
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Caught exception while initializing transform function: " + functionName,
+          e);
+    }
+    return transformFunction;
+  }
+
   private static String canonicalize(String functionName) {
     return StringUtils.remove(functionName, '_').toLowerCase();
   }
@@ -43,7 +43,6 @@ import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
@@ -118,10 +117,12 @@ public class ValueInTransformFunction extends BaseTransformFunction {
           _dictIdSet.add(dictId);
         }
       }
-      _dictIds = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
     }
     int[][] unFilteredDictIds = _mainTransformFunction.transformToDictIdsMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
+    if (_dictIds == null || _dictIds.length < length) {
+      _dictIds = new int[length][];
+    }
     for (int i = 0; i < length; i++) {
       _dictIds[i] = filterInts(_dictIdSet, unFilteredDictIds[i]);
     }
@@ -139,10 +140,12 @@ public class ValueInTransformFunction extends BaseTransformFunction {
       for (String inValue : _stringValueSet) {
         _intValueSet.add(Integer.parseInt(inValue));
       }
-      _intValues = new int[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
     }
     int[][] unFilteredIntValues = _mainTransformFunction.transformToIntValuesMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
+    if (_intValues == null || _intValues.length < length) {
+      _intValues = new int[length][];
+    }
     for (int i = 0; i < length; i++) {
       _intValues[i] = filterInts(_intValueSet, unFilteredIntValues[i]);
     }
@@ -160,10 +163,12 @@ public class ValueInTransformFunction extends BaseTransformFunction {
       for (String inValue : _stringValueSet) {
         _longValueSet.add(Long.parseLong(inValue));
       }
-      _longValues = new long[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
     }
     long[][] unFilteredLongValues = _mainTransformFunction.transformToLongValuesMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
+    if (_longValues == null || _longValues.length < length) {
+      _longValues = new long[length][];
+    }
     for (int i = 0; i < length; i++) {
       _longValues[i] = filterLongs(_longValueSet, unFilteredLongValues[i]);
     }
@@ -181,10 +186,12 @@ public class ValueInTransformFunction extends BaseTransformFunction {
       for (String inValue : _stringValueSet) {
         _floatValueSet.add(Float.parseFloat(inValue));
       }
-      _floatValues = new float[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
     }
     float[][] unFilteredFloatValues = _mainTransformFunction.transformToFloatValuesMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
+    if (_floatValues == null || _floatValues.length < length) {
+      _floatValues = new float[length][];
+    }
     for (int i = 0; i < length; i++) {
       _floatValues[i] = filterFloats(_floatValueSet, unFilteredFloatValues[i]);
     }
@@ -202,10 +209,12 @@ public class ValueInTransformFunction extends BaseTransformFunction {
       for (String inValue : _stringValueSet) {
         _doubleValueSet.add(Double.parseDouble(inValue));
       }
-      _doubleValues = new double[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
     }
     double[][] unFilteredDoubleValues = _mainTransformFunction.transformToDoubleValuesMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
+    if (_doubleValues == null || _doubleValues.length < length) {
+      _doubleValues = new double[length][];
+    }
     for (int i = 0; i < length; i++) {
       _doubleValues[i] = filterDoubles(_doubleValueSet, unFilteredDoubleValues[i]);
     }
@@ -218,8 +227,8 @@ public class ValueInTransformFunction extends BaseTransformFunction {
       return super.transformToStringValuesMV(projectionBlock);
     }
 
-    if (_stringValues == null) {
-      _stringValues = new String[DocIdSetPlanNode.MAX_DOC_PER_CALL][];
+    if (_stringValues == null || _stringValues.length < projectionBlock.getNumDocs()) {
+      _stringValues = new String[projectionBlock.getNumDocs()][];
     }
     String[][] unFilteredStringValues = _mainTransformFunction.transformToStringValuesMV(projectionBlock);
     int length = projectionBlock.getNumDocs();
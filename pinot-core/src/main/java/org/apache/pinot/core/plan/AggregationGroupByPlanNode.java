@@ -74,7 +74,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
               _transformPlanNode = null;
               _starTreeTransformPlanNode =
                   new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, _groupByExpressions,
-                      predicateEvaluatorsMap, queryContext.getDebugOptions());
+                      predicateEvaluatorsMap, queryContext);
               return;
             }
           }
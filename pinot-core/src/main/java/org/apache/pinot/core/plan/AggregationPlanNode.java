@@ -64,7 +64,7 @@ public class AggregationPlanNode implements PlanNode {
               _transformPlanNode = null;
               _starTreeTransformPlanNode =
                   new StarTreeTransformPlanNode(starTreeV2, aggregationFunctionColumnPairs, null,
-                      predicateEvaluatorsMap, queryContext.getDebugOptions());
+                      predicateEvaluatorsMap, queryContext);
               return;
             }
           }
@@ -34,6 +34,7 @@ import org.apache.pinot.core.operator.combine.AggregationOnlyCombineOperator;
 import org.apache.pinot.core.operator.combine.DistinctCombineOperator;
 import org.apache.pinot.core.operator.combine.GroupByCombineOperator;
 import org.apache.pinot.core.operator.combine.GroupByOrderByCombineOperator;
+import org.apache.pinot.core.operator.combine.GroupByOrderByMergeTreeCombineOperator;
 import org.apache.pinot.core.operator.combine.SelectionOnlyCombineOperator;
 import org.apache.pinot.core.operator.combine.SelectionOrderByCombineOperator;
 import org.apache.pinot.core.operator.streaming.StreamingSelectionOnlyCombineOperator;
@@ -181,6 +182,10 @@ public class CombinePlanNode implements PlanNode {
         // Aggregation group-by
         QueryOptions queryOptions = new QueryOptions(_queryContext.getQueryOptions());
         if (queryOptions.isGroupByModeSQL()) {
+          if (queryOptions.isGroupByMergeTree()) {
+            return new GroupByOrderByMergeTreeCombineOperator(operators, _queryContext, _executorService, _endTimeMs,
+                _groupByTrimThreshold);
+          }
           return new GroupByOrderByCombineOperator(operators, _queryContext, _executorService, _endTimeMs,
               _groupByTrimThreshold);
         }
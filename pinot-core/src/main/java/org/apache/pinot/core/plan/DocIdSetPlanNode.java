@@ -19,13 +19,36 @@
 package org.apache.pinot.core.plan;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 
 
 public class DocIdSetPlanNode implements PlanNode {
+  /**
+   * Upper bound of the number of documents per block. All the reusable per-thread buffers are sized to this bound.
+   */
   public static int MAX_DOC_PER_CALL = 10000;
+  /**
+   * Lower bound of the number of documents per block returned by {@link #getMaxDocPerCall(Collection, int)}.
+   */
+  public static final int MIN_DOC_PER_CALL = 2000;
+  /**
+   * Default target size of the values fetched for all the projected columns of a block, sized to stay in the CPU cache.
+   * Can be overridden with the query option {@code targetBlockSizeBytes}.
+   */
+  public static final int DEFAULT_TARGET_BLOCK_SIZE_BYTES = 512 * 1024;
+
+  // Estimated size of the STRING/BYTES values (including the object reference)
+  private static final int ESTIMATED_VAR_BYTE_VALUE_SIZE = 32;
+  // Cap of the number of values per multi-valued entry used in the estimation
+  private static final int MAX_ESTIMATED_NUM_VALUES_PER_MV_ENTRY = 16;
 
   private final FilterPlanNode _filterPlanNode;
   private final int _maxDocPerCall;
@@ -40,4 +63,75 @@ public class DocIdSetPlanNode implements PlanNode {
   public DocIdSetOperator run() {
     return new DocIdSetOperator(_filterPlanNode.run(), _maxDocPerCall);
   }
+
+  /**
+   * Returns the number of documents per block for the given projection columns of the segment with the default target
+   * block size.
+   */
+  public static int getMaxDocPerCall(IndexSegment indexSegment, Set<String> projectionColumns) {
+    return getMaxDocPerCall(indexSegment, projectionColumns, DEFAULT_TARGET_BLOCK_SIZE_BYTES);
+  }
+
+  /**
+   * Returns the number of documents per block for the given projection columns of the segment.
+   */
+  public static int getMaxDocPerCall(IndexSegment indexSegment, Set<String> projectionColumns,
+      int targetBlockSizeBytes) {
+    List<DataSource> dataSources = new ArrayList<>(projectionColumns.size());
+    for (String column : projectionColumns) {
+      DataSource dataSource = indexSegment.getDataSource(column);
+      if (dataSource != null) {
+        dataSources.add(dataSource);
+      }
+    }
+    return getMaxDocPerCall(dataSources, targetBlockSizeBytes);
+  }
+
+  /**
+   * Returns the number of documents per block for the given projected data sources, which is derived from the estimated
+   * number of bytes fetched per document so that the values of a block fit in the target block size. Wide projections
+   * (e.g. selection on many STRING columns) get smaller blocks to keep the working set in cache, down to
+   * {@link #MIN_DOC_PER_CALL}. The block size never exceeds {@link #MAX_DOC_PER_CALL}, which all the reusable buffers
+   * are sized to.
+   */
+  public static int getMaxDocPerCall(Collection<DataSource> dataSources, int targetBlockSizeBytes) {
+    int bytesPerDoc = 0;
+    for (DataSource dataSource : dataSources) {
+      bytesPerDoc += getEstimatedBytesPerDoc(dataSource);
+    }
+    if (bytesPerDoc == 0) {
+      return MAX_DOC_PER_CALL;
+    }
+    return Math.max(Math.min(targetBlockSizeBytes / bytesPerDoc, MAX_DOC_PER_CALL), MIN_DOC_PER_CALL);
+  }
+
+  private static int getEstimatedBytesPerDoc(DataSource dataSource) {
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    int valueSize;
+    switch (dataSourceMetadata.getDataType()) {
+      case INT:
+      case FLOAT:
+        valueSize = Integer.BYTES;
+        break;
+      case LONG:
+      case DOUBLE:
+        valueSize = Long.BYTES;
+        break;
+      default:
+        valueSize = ESTIMATED_VAR_BYTE_VALUE_SIZE;
+        break;
+    }
+    if (dataSource.getDictionary() != null) {
+      // Dictionary ids are fetched in addition to the values
+      valueSize += Integer.BYTES;
+    }
+    if (dataSourceMetadata.isSingleValue()) {
+      return valueSize;
+    } else {
+      int numValuesPerEntry = Math.max(Math.min(dataSourceMetadata.getMaxNumValuesPerMVEntry(),
+          MAX_ESTIMATED_NUM_VALUES_PER_MV_ENTRY), 1);
+      // Number of values is fetched in addition to the values
+      return valueSize * numValuesPerEntry + Integer.BYTES;
+    }
+  }
 }
@@ -18,18 +18,25 @@
  */
 package org.apache.pinot.core.plan;
 
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.operator.InstanceResponseOperator;
 
 
 public class InstanceResponsePlanNode implements PlanNode {
   private final CombinePlanNode _combinePlanNode;
+  private final int _dataTableVersion;
 
   public InstanceResponsePlanNode(CombinePlanNode combinePlanNode) {
+    this(combinePlanNode, DataTableImplV2.VERSION);
+  }
+
+  public InstanceResponsePlanNode(CombinePlanNode combinePlanNode, int dataTableVersion) {
     _combinePlanNode = combinePlanNode;
+    _dataTableVersion = dataTableVersion;
   }
 
   @Override
   public InstanceResponseOperator run() {
-    return new InstanceResponseOperator(_combinePlanNode.run());
+    return new InstanceResponseOperator(_combinePlanNode.run(), _dataTableVersion);
   }
 }
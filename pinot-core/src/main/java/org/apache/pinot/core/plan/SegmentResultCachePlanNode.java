@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.function.Supplier;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SegmentResultCacheOperator;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The <code>SegmentResultCachePlanNode</code> class provides the execution plan for a single segment with the
+ * {@link SegmentResultCache} consulted first. The underlying plan node is only made and run on cache miss.
+ */
+@SuppressWarnings("rawtypes")
+public class SegmentResultCachePlanNode implements PlanNode {
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _key;
+  private final AggregationFunction[] _aggregationFunctions;
+  private final Supplier<PlanNode> _planNodeSupplier;
+
+  public SegmentResultCachePlanNode(SegmentResultCache segmentResultCache, SegmentResultCache.Key key,
+      QueryContext queryContext, Supplier<PlanNode> planNodeSupplier) {
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+    _aggregationFunctions = queryContext.getAggregationFunctions();
+    _planNodeSupplier = planNodeSupplier;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public SegmentResultCacheOperator run() {
+    SegmentResultCache.CachedResult cachedResult = _segmentResultCache.get(_key);
+    if (cachedResult != null) {
+      return new SegmentResultCacheOperator(_aggregationFunctions, cachedResult);
+    } else {
+      Operator<IntermediateResultsBlock> operator = (Operator<IntermediateResultsBlock>) _planNodeSupplier.get().run();
+      return new SegmentResultCacheOperator(_segmentResultCache, _key, operator);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.QueryOptions;
 
 
 /**
@@ -33,22 +34,30 @@ import org.apache.pinot.core.query.request.context.QueryContext;
 public class TransformPlanNode implements PlanNode {
   private final Collection<ExpressionContext> _expressions;
   private final ProjectionPlanNode _projectionPlanNode;
+  private final boolean _compileTransforms;
 
   public TransformPlanNode(IndexSegment indexSegment, QueryContext queryContext,
       Collection<ExpressionContext> expressions, int maxDocsPerCall) {
     _expressions = expressions;
+    QueryOptions queryOptions = new QueryOptions(queryContext.getQueryOptions());
+    _compileTransforms = queryOptions.isCompileTransforms();
     Set<String> projectionColumns = new HashSet<>();
     for (ExpressionContext expression : expressions) {
       expression.getColumns(projectionColumns);
     }
     // NOTE: Skip creating DocIdSetPlanNode when maxDocsPerCall is 0 (for selection query with LIMIT 0).
-    DocIdSetPlanNode docIdSetPlanNode =
-        maxDocsPerCall > 0 ? new DocIdSetPlanNode(indexSegment, queryContext, maxDocsPerCall) : null;
+    DocIdSetPlanNode docIdSetPlanNode = null;
+    if (maxDocsPerCall > 0) {
+      // Adapt the block size to the width of the projected columns
+      int numDocsPerCall = Math.min(maxDocsPerCall,
+          DocIdSetPlanNode.getMaxDocPerCall(indexSegment, projectionColumns, queryOptions.getTargetBlockSizeBytes()));
+      docIdSetPlanNode = new DocIdSetPlanNode(indexSegment, queryContext, numDocsPerCall);
+    }
     _projectionPlanNode = new ProjectionPlanNode(indexSegment, projectionColumns, docIdSetPlanNode);
   }
 
   @Override
   public TransformOperator run() {
-    return new TransformOperator(_projectionPlanNode.run(), _expressions);
+    return new TransformOperator(_projectionPlanNode.run(), _expressions, _compileTransforms);
   }
 }
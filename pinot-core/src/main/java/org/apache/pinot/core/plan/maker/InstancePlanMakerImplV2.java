@@ -22,8 +22,10 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.common.proto.Server;
 import org.apache.pinot.core.indexsegment.IndexSegment;
@@ -38,9 +40,11 @@ import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.MetadataBasedAggregationPlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.FunctionContext;
@@ -72,12 +76,15 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private final int _numGroupsLimit;
   // Used for SQL GROUP BY (server combine)
   private final int _groupByTrimThreshold;
+  // Optional cache for the per-segment results of the immutable segments
+  private final SegmentResultCache _segmentResultCache;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
     _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
     _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
     _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+    _segmentResultCache = null;
   }
 
   @VisibleForTesting
@@ -85,6 +92,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
     _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+    _segmentResultCache = null;
   }
 
   /**
@@ -97,6 +105,18 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * @param queryExecutorConfig Query executor configuration
    */
   public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig) {
+    this(queryExecutorConfig, null);
+  }
+
+  /**
+   * Constructor with an optional {@link SegmentResultCache} to be consulted before executing the query on each
+   * segment.
+   *
+   * @param queryExecutorConfig Query executor configuration
+   * @param segmentResultCache Optional segment result cache
+   */
+  public InstancePlanMakerImplV2(QueryExecutorConfig queryExecutorConfig,
+      @Nullable SegmentResultCache segmentResultCache) {
     _maxInitialResultHolderCapacity = queryExecutorConfig.getConfig()
         .getProperty(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY, DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _numGroupsLimit = queryExecutorConfig.getConfig().getProperty(NUM_GROUPS_LIMIT, DEFAULT_NUM_GROUPS_LIMIT);
@@ -105,21 +125,33 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    _segmentResultCache = segmentResultCache;
+    LOGGER.info(
+        "Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, segment result cache: {}",
+        _maxInitialResultHolderCapacity, _numGroupsLimit, segmentResultCache != null ? "enabled" : "disabled");
   }
 
   @Override
   public Plan makeInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, long endTimeMs) {
     List<PlanNode> planNodes = new ArrayList<>(indexSegments.size());
-    for (IndexSegment indexSegment : indexSegments) {
-      planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
+    for (IndexSegment indexSegment : sortSegmentsByEstimatedCost(indexSegments)) {
+      SegmentResultCache.Key segmentResultCacheKey =
+          _segmentResultCache != null ? SegmentResultCache.getKey(indexSegment, queryContext) : null;
+      if (segmentResultCacheKey != null) {
+        // Only make the segment plan node on cache miss
+        planNodes.add(new SegmentResultCachePlanNode(_segmentResultCache, segmentResultCacheKey, queryContext,
+            () -> makeSegmentPlanNode(indexSegment, queryContext)));
+      } else {
+        planNodes.add(makeSegmentPlanNode(indexSegment, queryContext));
+      }
     }
     CombinePlanNode combinePlanNode =
         new CombinePlanNode(planNodes, queryContext, executorService, endTimeMs, _numGroupsLimit, null,
             _groupByTrimThreshold);
-    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode));
+    // Build the data table with the version negotiated by the broker
+    int dataTableVersion = new QueryOptions(queryContext.getQueryOptions()).getDataTableVersion();
+    return new GlobalPlanImplV0(new InstanceResponsePlanNode(combinePlanNode, dataTableVersion));
   }
 
   @Override
@@ -162,7 +194,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public Plan makeStreamingInstancePlan(List<IndexSegment> indexSegments, QueryContext queryContext,
       ExecutorService executorService, StreamObserver<Server.ServerResponse> streamObserver, long endTimeMs) {
     List<PlanNode> planNodes = new ArrayList<>(indexSegments.size());
-    for (IndexSegment indexSegment : indexSegments) {
+    for (IndexSegment indexSegment : sortSegmentsByEstimatedCost(indexSegments)) {
       planNodes.add(makeStreamingSegmentPlanNode(indexSegment, queryContext));
     }
     CombinePlanNode combinePlanNode =
@@ -181,6 +213,31 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
   }
 
+  /**
+   * Returns a copy of the given segments sorted by the estimated cost of processing them in descending order.
+   * <p>The combine operator hands out the segments to the worker threads in order, so scheduling the most expensive
+   * segments first prevents a large segment picked up at the end of the query from becoming the straggler.
+   * <p>The cost is estimated with the total number of documents in the segment.
+   * <p>NOTE: The number of documents of a consuming segment keeps growing while the query is being planned, so read it
+   *          once per segment before sorting. Reading it inside the comparator can break the comparator contract.
+   */
+  @VisibleForTesting
+  static List<IndexSegment> sortSegmentsByEstimatedCost(List<IndexSegment> indexSegments) {
+    int numSegments = indexSegments.size();
+    int[] numDocs = new int[numSegments];
+    Integer[] segmentIds = new Integer[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      numDocs[i] = indexSegments.get(i).getSegmentMetadata().getTotalDocs();
+      segmentIds[i] = i;
+    }
+    Arrays.sort(segmentIds, (i1, i2) -> Integer.compare(numDocs[i2], numDocs[i1]));
+    List<IndexSegment> sortedIndexSegments = new ArrayList<>(numSegments);
+    for (int segmentId : segmentIds) {
+      sortedIndexSegments.add(indexSegments.get(segmentId));
+    }
+    return sortedIndexSegments;
+  }
+
   /**
    * Returns {@code true} if the given aggregation-only without filter QueryContext can be solved with segment metadata,
    * {@code false} otherwise.
@@ -18,19 +18,15 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2IntMap;
-import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.query.aggregation.groupby.utils.IntArrayGroupIdMap;
+import org.apache.pinot.core.query.aggregation.groupby.utils.IntGroupIdMap;
+import org.apache.pinot.core.query.aggregation.groupby.utils.LongGroupIdMap;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 
@@ -57,6 +53,10 @@ import org.apache.pinot.core.segment.index.readers.Dictionary;
  *     dictionary ids of all the group-by columns and map them onto contiguous group ids. (ARRAY_MAP_BASED)
  *   </li>
  * </ul>
+ * <p>The map based raw key holders use the allocation-free open addressing maps ({@link IntGroupIdMap},
+ * {@link LongGroupIdMap} and {@link IntArrayGroupIdMap}), where the raw keys are stored in primitive arrays indexed by
+ * the group id (ARRAY_MAP_BASED stores the dictionary ids of all the group-by columns inline in a contiguous int slab),
+ * so that no object is allocated per group, and the maps grow incrementally without the rehash pause.
  * <p>All the logic is maintained internally, and to the outside world, the group ids are always int type, and are
  * bounded by the number of groups limit (globalGroupIdUpperBound is always smaller or equal to numGroupsLimit).
  */
@@ -108,35 +108,38 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
       _isSingleValueColumn[i] = transformOperator.getResultMetadata(groupByExpression).isSingleValue();
     }
+    // NOTE: The map based raw key holders reuse the thread-local cached maps to avoid allocating the maps for each
+    //       segment. Do not reuse the cached map if it was used for too many groups to release the memory.
     if (longOverflow) {
       _globalGroupIdUpperBound = numGroupsLimit;
-      Object mapInternal = mapBasedRawKeyHolders.computeIfAbsent(ArrayMapBasedHolder.class.getName(),
-          o -> new ArrayMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
-      _rawKeyHolder = new ArrayMapBasedHolder(mapInternal);
-      if (((Object2IntOpenHashMap) mapInternal).size() > MAX_CACHING_MAP_SIZE) {
-        mapBasedRawKeyHolders
-            .put(ArrayMapBasedHolder.class.getName(), new ArrayMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
+      IntArrayGroupIdMap rawKeyToGroupIdMap =
+          (IntArrayGroupIdMap) mapBasedRawKeyHolders.get(ArrayMapBasedHolder.class.getName());
+      if (rawKeyToGroupIdMap == null || rawKeyToGroupIdMap.size() > MAX_CACHING_MAP_SIZE
+          || rawKeyToGroupIdMap.getKeyLength() != _numGroupByExpressions) {
+        rawKeyToGroupIdMap = new IntArrayGroupIdMap(_numGroupByExpressions, INITIAL_MAP_SIZE);
+        mapBasedRawKeyHolders.put(ArrayMapBasedHolder.class.getName(), rawKeyToGroupIdMap);
       }
+      _rawKeyHolder = new ArrayMapBasedHolder(rawKeyToGroupIdMap);
     } else {
       if (cardinalityProduct > Integer.MAX_VALUE) {
         _globalGroupIdUpperBound = numGroupsLimit;
-        Object mapInternal = mapBasedRawKeyHolders.computeIfAbsent(LongMapBasedHolder.class.getName(),
-            o -> new LongMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
-        _rawKeyHolder = new LongMapBasedHolder(mapInternal);
-        if (((Long2IntOpenHashMap) mapInternal).size() > MAX_CACHING_MAP_SIZE) {
-          mapBasedRawKeyHolders
-              .put(ArrayMapBasedHolder.class.getName(), new ArrayMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
+        LongGroupIdMap rawKeyToGroupIdMap =
+            (LongGroupIdMap) mapBasedRawKeyHolders.get(LongMapBasedHolder.class.getName());
+        if (rawKeyToGroupIdMap == null || rawKeyToGroupIdMap.size() > MAX_CACHING_MAP_SIZE) {
+          rawKeyToGroupIdMap = new LongGroupIdMap(INITIAL_MAP_SIZE);
+          mapBasedRawKeyHolders.put(LongMapBasedHolder.class.getName(), rawKeyToGroupIdMap);
         }
+        _rawKeyHolder = new LongMapBasedHolder(rawKeyToGroupIdMap);
       } else {
         _globalGroupIdUpperBound = Math.min((int) cardinalityProduct, numGroupsLimit);
         if (cardinalityProduct > arrayBasedThreshold) {
-          Object mapInternal = mapBasedRawKeyHolders.computeIfAbsent(IntMapBasedHolder.class.getName(),
-              o -> new IntMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
-          _rawKeyHolder = new IntMapBasedHolder(mapInternal);
-          if (((Int2IntOpenHashMap) mapInternal).size() > MAX_CACHING_MAP_SIZE) {
-            mapBasedRawKeyHolders
-                .put(ArrayMapBasedHolder.class.getName(), new ArrayMapBasedHolder(INITIAL_MAP_SIZE).getInternal());
+          IntGroupIdMap rawKeyToGroupIdMap =
+              (IntGroupIdMap) mapBasedRawKeyHolders.get(IntMapBasedHolder.class.getName());
+          if (rawKeyToGroupIdMap == null || rawKeyToGroupIdMap.size() > MAX_CACHING_MAP_SIZE) {
+            rawKeyToGroupIdMap = new IntGroupIdMap(INITIAL_MAP_SIZE);
+            mapBasedRawKeyHolders.put(IntMapBasedHolder.class.getName(), rawKeyToGroupIdMap);
           }
+          _rawKeyHolder = new IntMapBasedHolder(rawKeyToGroupIdMap);
         } else {
           _rawKeyHolder = new ArrayBasedHolder();
         }
@@ -284,17 +287,10 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   }
 
   private class IntMapBasedHolder implements RawKeyHolder {
-    private final Int2IntOpenHashMap _rawKeyToGroupIdMap;
+    private final IntGroupIdMap _rawKeyToGroupIdMap;
 
-    private int _numGroups = 0;
-
-    public IntMapBasedHolder(int initialSize) {
-      _rawKeyToGroupIdMap = new Int2IntOpenHashMap(initialSize);
-      _rawKeyToGroupIdMap.defaultReturnValue(INVALID_ID);
-    }
-
-    public IntMapBasedHolder(Object hashMap) {
-      _rawKeyToGroupIdMap = (Int2IntOpenHashMap) hashMap;
+    public IntMapBasedHolder(IntGroupIdMap rawKeyToGroupIdMap) {
+      _rawKeyToGroupIdMap = rawKeyToGroupIdMap;
       _rawKeyToGroupIdMap.clear();
     }
 
@@ -324,9 +320,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     private int getGroupId(int rawKey) {
       int groupId = _rawKeyToGroupIdMap.get(rawKey);
       if (groupId == INVALID_ID) {
-        if (_numGroups < _globalGroupIdUpperBound) {
-          groupId = _numGroups;
-          _rawKeyToGroupIdMap.put(rawKey, _numGroups++);
+        if (_rawKeyToGroupIdMap.size() < _globalGroupIdUpperBound) {
+          groupId = _rawKeyToGroupIdMap.put(rawKey);
         }
       }
       return groupId;
@@ -334,7 +329,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
     @Override
     public int getGroupIdUpperBound() {
-      return _numGroups;
+      return _rawKeyToGroupIdMap.size();
     }
 
     @Override
@@ -345,19 +340,23 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     @Override
     public Iterator<GroupKey> iterator() {
       return new Iterator<GroupKey>() {
-        private final ObjectIterator<Int2IntMap.Entry> _iterator = _rawKeyToGroupIdMap.int2IntEntrySet().fastIterator();
+        private final int _numGroups = _rawKeyToGroupIdMap.size();
         private final GroupKey _groupKey = new GroupKey();
+        private int _currentGroupId;
 
         @Override
         public boolean hasNext() {
-          return _iterator.hasNext();
+          return _currentGroupId < _numGroups;
         }
 
         @Override
         public GroupKey next() {
-          Int2IntMap.Entry entry = _iterator.next();
-          _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getIntKey());
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _groupKey._groupId = _currentGroupId;
+          _groupKey._stringKey = getGroupKey(_rawKeyToGroupIdMap.getKey(_currentGroupId));
+          _currentGroupId++;
           return _groupKey;
         }
 
@@ -472,17 +471,10 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   }
 
   private class LongMapBasedHolder implements RawKeyHolder {
-    private final Long2IntOpenHashMap _rawKeyToGroupIdMap;
-
-    private int _numGroups = 0;
-
-    public LongMapBasedHolder(int initialSize) {
-      _rawKeyToGroupIdMap = new Long2IntOpenHashMap(initialSize);
-      _rawKeyToGroupIdMap.defaultReturnValue(INVALID_ID);
-    }
+    private final LongGroupIdMap _rawKeyToGroupIdMap;
 
-    public LongMapBasedHolder(Object rawKeyToGroupIdMap) {
-      _rawKeyToGroupIdMap = (Long2IntOpenHashMap) rawKeyToGroupIdMap;
+    public LongMapBasedHolder(LongGroupIdMap rawKeyToGroupIdMap) {
+      _rawKeyToGroupIdMap = rawKeyToGroupIdMap;
       _rawKeyToGroupIdMap.clear();
     }
 
@@ -513,9 +505,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     private int getGroupId(long rawKey) {
       int groupId = _rawKeyToGroupIdMap.get(rawKey);
       if (groupId == INVALID_ID) {
-        if (_numGroups < _globalGroupIdUpperBound) {
-          groupId = _numGroups;
-          _rawKeyToGroupIdMap.put(rawKey, _numGroups++);
+        if (_rawKeyToGroupIdMap.size() < _globalGroupIdUpperBound) {
+          groupId = _rawKeyToGroupIdMap.put(rawKey);
         }
       }
       return groupId;
@@ -523,7 +514,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
     @Override
     public int getGroupIdUpperBound() {
-      return _numGroups;
+      return _rawKeyToGroupIdMap.size();
     }
 
     @Override
@@ -534,20 +525,23 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     @Override
     public Iterator<GroupKey> iterator() {
       return new Iterator<GroupKey>() {
-        private final ObjectIterator<Long2IntMap.Entry> _iterator =
-            _rawKeyToGroupIdMap.long2IntEntrySet().fastIterator();
+        private final int _numGroups = _rawKeyToGroupIdMap.size();
         private final GroupKey _groupKey = new GroupKey();
+        private int _currentGroupId;
 
         @Override
         public boolean hasNext() {
-          return _iterator.hasNext();
+          return _currentGroupId < _numGroups;
         }
 
         @Override
         public GroupKey next() {
-          Long2IntMap.Entry entry = _iterator.next();
-          _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getLongKey());
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _groupKey._groupId = _currentGroupId;
+          _groupKey._stringKey = getGroupKey(_rawKeyToGroupIdMap.getKey(_currentGroupId));
+          _currentGroupId++;
           return _groupKey;
         }
 
@@ -652,35 +646,29 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   }
 
   private class ArrayMapBasedHolder implements RawKeyHolder {
-    private final Object2IntOpenHashMap<IntArray> _rawKeyToGroupIdMap;
+    private final IntArrayGroupIdMap _rawKeyToGroupIdMap;
+    // Reusable buffer for the raw key of the single-value case
+    private final int[] _rawKey = new int[_numGroupByExpressions];
 
-    private int _numGroups = 0;
-
-    public ArrayMapBasedHolder(int initialSize) {
-      _rawKeyToGroupIdMap = new Object2IntOpenHashMap<>(initialSize);
-      _rawKeyToGroupIdMap.defaultReturnValue(INVALID_ID);
-    }
-
-    public ArrayMapBasedHolder(Object rawKeyToGroupIdMap) {
-      _rawKeyToGroupIdMap = (Object2IntOpenHashMap<IntArray>) rawKeyToGroupIdMap;
+    public ArrayMapBasedHolder(IntArrayGroupIdMap rawKeyToGroupIdMap) {
+      _rawKeyToGroupIdMap = rawKeyToGroupIdMap;
       _rawKeyToGroupIdMap.clear();
     }
 
     @Override
     public void processSingleValue(int numDocs, int[] outGroupIds) {
       for (int i = 0; i < numDocs; i++) {
-        int[] dictIds = new int[_numGroupByExpressions];
         for (int j = 0; j < _numGroupByExpressions; j++) {
-          dictIds[j] = _singleValueDictIds[j][i];
+          _rawKey[j] = _singleValueDictIds[j][i];
         }
-        outGroupIds[i] = getGroupId(new IntArray(dictIds));
+        outGroupIds[i] = getGroupId(_rawKey);
       }
     }
 
     @Override
     public void processMultiValue(int numDocs, int[][] outGroupIds) {
       for (int i = 0; i < numDocs; i++) {
-        IntArray[] rawKeys = getIntArrayRawKeys(i);
+        int[][] rawKeys = getIntArrayRawKeys(i);
         int length = rawKeys.length;
         int[] groupIds = new int[length];
         for (int j = 0; j < length; j++) {
@@ -690,12 +678,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       }
     }
 
-    private int getGroupId(IntArray rawKey) {
-      int groupId = _rawKeyToGroupIdMap.getInt(rawKey);
+    private int getGroupId(int[] rawKey) {
+      int groupId = _rawKeyToGroupIdMap.get(rawKey);
       if (groupId == INVALID_ID) {
-        if (_numGroups < _globalGroupIdUpperBound) {
-          groupId = _numGroups;
-          _rawKeyToGroupIdMap.put(rawKey, _numGroups++);
+        if (_rawKeyToGroupIdMap.size() < _globalGroupIdUpperBound) {
+          groupId = _rawKeyToGroupIdMap.put(rawKey);
         }
       }
       return groupId;
@@ -703,7 +690,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
     @Override
     public int getGroupIdUpperBound() {
-      return _numGroups;
+      return _rawKeyToGroupIdMap.size();
     }
 
     @Override
@@ -714,20 +701,23 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     @Override
     public Iterator<GroupKey> iterator() {
       return new Iterator<GroupKey>() {
-        private final ObjectIterator<Object2IntMap.Entry<IntArray>> _iterator =
-            _rawKeyToGroupIdMap.object2IntEntrySet().fastIterator();
+        private final int _numGroups = _rawKeyToGroupIdMap.size();
         private final GroupKey _groupKey = new GroupKey();
+        private int _currentGroupId;
 
         @Override
         public boolean hasNext() {
-          return _iterator.hasNext();
+          return _currentGroupId < _numGroups;
         }
 
         @Override
         public GroupKey next() {
-          Object2IntMap.Entry<IntArray> entry = _iterator.next();
-          _groupKey._groupId = entry.getIntValue();
-          _groupKey._stringKey = getGroupKey(entry.getKey());
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          _groupKey._groupId = _currentGroupId;
+          _groupKey._stringKey = getGroupKey(_rawKeyToGroupIdMap, _currentGroupId);
+          _currentGroupId++;
           return _groupKey;
         }
 
@@ -743,11 +733,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
    * Helper method to calculate raw keys that can fit into integer for the given index.
    *
    * @param index Index in block
-   * @return Array of IntArray raw keys
+   * @return Array of int array raw keys
    */
   @SuppressWarnings("Duplicates")
-  private IntArray[] getIntArrayRawKeys(int index) {
-    IntArray[] rawKeys = null;
+  private int[][] getIntArrayRawKeys(int index) {
+    int[][] rawKeys = null;
 
     // Before having to transform to array, use single value raw key for better performance
     int[] dictIds = new int[_numGroupByExpressions];
@@ -758,8 +748,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
         if (rawKeys == null) {
           dictIds[i] = dictId;
         } else {
-          for (IntArray rawKey : rawKeys) {
-            rawKey._elements[i] = dictId;
+          for (int[] rawKey : rawKeys) {
+            rawKey[i] = dictId;
           }
         }
       } else {
@@ -772,27 +762,27 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
           if (rawKeys == null) {
             dictIds[i] = dictId;
           } else {
-            for (IntArray rawKey : rawKeys) {
-              rawKey._elements[i] = dictId;
+            for (int[] rawKey : rawKeys) {
+              rawKey[i] = dictId;
             }
           }
         } else {
           if (rawKeys == null) {
-            rawKeys = new IntArray[numValues];
+            rawKeys = new int[numValues][];
             for (int j = 0; j < numValues; j++) {
               int dictId = multiValueDictIds[j];
-              rawKeys[j] = new IntArray(dictIds.clone());
-              rawKeys[j]._elements[i] = dictId;
+              rawKeys[j] = dictIds.clone();
+              rawKeys[j][i] = dictId;
             }
           } else {
             int currentLength = rawKeys.length;
             int newLength = currentLength * numValues;
-            IntArray[] newRawKeys = new IntArray[newLength];
+            int[][] newRawKeys = new int[newLength][];
             System.arraycopy(rawKeys, 0, newRawKeys, 0, currentLength);
             for (int j = 1; j < numValues; j++) {
               int offset = j * currentLength;
               for (int k = 0; k < currentLength; k++) {
-                newRawKeys[offset + k] = new IntArray(rawKeys[k]._elements.clone());
+                newRawKeys[offset + k] = rawKeys[k].clone();
               }
             }
             for (int j = 0; j < numValues; j++) {
@@ -800,7 +790,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
               int dictId = multiValueDictIds[j];
               int endOffset = startOffset + currentLength;
               for (int k = startOffset; k < endOffset; k++) {
-                newRawKeys[k]._elements[i] = dictId;
+                newRawKeys[k][i] = dictId;
               }
             }
             rawKeys = newRawKeys;
@@ -810,60 +800,26 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     }
 
     if (rawKeys == null) {
-      return new IntArray[]{new IntArray(dictIds)};
+      return new int[][]{dictIds};
     } else {
       return rawKeys;
     }
   }
 
   /**
-   * Helper method to get group key from raw key.
+   * Helper method to get group key from the raw key stored in the given map.
    *
-   * @param rawKey IntArray raw key
+   * @param rawKeyToGroupIdMap Map from int array raw key to group id
+   * @param groupId Group id
    * @return String group key
    */
-  private String getGroupKey(IntArray rawKey) {
-    StringBuilder groupKeyBuilder = new StringBuilder(_dictionaries[0].getStringValue(rawKey._elements[0]));
+  private String getGroupKey(IntArrayGroupIdMap rawKeyToGroupIdMap, int groupId) {
+    StringBuilder groupKeyBuilder =
+        new StringBuilder(_dictionaries[0].getStringValue(rawKeyToGroupIdMap.getKeyElement(groupId, 0)));
     for (int i = 1; i < _numGroupByExpressions; i++) {
       groupKeyBuilder.append(GroupKeyGenerator.DELIMITER);
-      groupKeyBuilder.append(_dictionaries[i].getStringValue(rawKey._elements[i]));
+      groupKeyBuilder.append(_dictionaries[i].getStringValue(rawKeyToGroupIdMap.getKeyElement(groupId, i)));
     }
     return groupKeyBuilder.toString();
   }
-
-  /**
-   * Drop un-necessary checks for highest performance.
-   */
-  @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
-  private static class IntArray {
-    public int[] _elements;
-
-    public IntArray(int[] elements) {
-      _elements = elements;
-    }
-
-    @Override
-    public int hashCode() {
-      int result = 1;
-      for (int element : _elements) {
-        result = 31 * result + element;
-      }
-      return result;
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      int[] that = ((IntArray) obj)._elements;
-      int length = _elements.length;
-      if (length != that.length) {
-        return false;
-      }
-      for (int i = 0; i < length; i++) {
-        if (_elements[i] != that[i]) {
-          return false;
-        }
-      }
-      return true;
-    }
-  }
 }
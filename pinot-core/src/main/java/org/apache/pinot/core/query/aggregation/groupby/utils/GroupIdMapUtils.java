@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby.utils;
+
+/**
+ * Utility methods shared by the open addressing group id maps ({@link IntGroupIdMap}, {@link LongGroupIdMap} and
+ * {@link IntArrayGroupIdMap}).
+ */
+public class GroupIdMapUtils {
+  private GroupIdMapUtils() {
+  }
+
+  // Number of slots in the old hash table to migrate on each put while the incremental resize is in progress
+  // NOTE: The hash table grows when it is half full, and the new hash table can take the same number of new groups
+  //       before the next resize. Migrating 4 slots per put guarantees the migration finishes within (capacity / 4)
+  //       puts, well before the next resize.
+  static final int NUM_SLOTS_TO_MIGRATE_PER_PUT = 4;
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  /**
+   * Returns the power of 2 hash table capacity that can hold the given number of groups with load factor 0.5.
+   */
+  static int getHashTableCapacity(int numGroups) {
+    long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1, (long) numGroups) * 2 - 1) << 1);
+    return (int) Math.min(capacity, MAX_CAPACITY);
+  }
+
+  /**
+   * Returns the hash of the given int key with the bits mixed, so that the sequential raw keys are spread over the hash
+   * table.
+   */
+  static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Returns the hash of the given long key with the bits mixed, so that the sequential raw keys are spread over the hash
+   * table.
+   */
+  static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby.utils;
+
+import java.util.Arrays;
+
+
+/**
+ * Allocation-free open addressing (linear probing) hash map from fixed length int array raw keys (e.g. dictionary ids
+ * of multiple group-by columns) to contiguous group ids.
+ * <p>The keys are stored inline in a contiguous int slab indexed by the group id (key of group id {@code i} is stored
+ * from index {@code i * keyLength}), and the hash table only stores the group ids (plus 1 so that 0 can be used as the
+ * empty slot), so that no object is allocated when adding a new group, and the caller can reuse the same int array to
+ * look up the keys.
+ * <p>Same as {@link IntGroupIdMap}, the hash table grows incrementally to avoid the long rehash pause.
+ */
+@SuppressWarnings("Duplicates")
+public class IntArrayGroupIdMap {
+  public static final int INVALID_ID = -1;
+
+  private final int _keyLength;
+  private int[] _keys;
+  private int[] _hashes;
+  private int _numGroups;
+
+  private int[] _slots;
+  private int _mask;
+  private int _resizeThreshold;
+
+  // Old hash table to be migrated into the new hash table incrementally
+  private int[] _oldSlots;
+  private int _oldMask;
+  private int _numOldSlotsMigrated;
+
+  public IntArrayGroupIdMap(int keyLength, int initialCapacity) {
+    _keyLength = keyLength;
+    int capacity = GroupIdMapUtils.getHashTableCapacity(initialCapacity);
+    int maxNumGroups = capacity >>> 1;
+    _keys = new int[maxNumGroups * keyLength];
+    _hashes = new int[maxNumGroups];
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+    _resizeThreshold = maxNumGroups;
+  }
+
+  public int getKeyLength() {
+    return _keyLength;
+  }
+
+  /**
+   * Returns the group id for the given key, or {@link #INVALID_ID} if the key does not exist.
+   */
+  public int get(int[] key) {
+    int hash = hash(key);
+    int groupId = get(_slots, _mask, hash, key);
+    if (groupId == INVALID_ID && _oldSlots != null) {
+      groupId = get(_oldSlots, _oldMask, hash, key);
+    }
+    return groupId;
+  }
+
+  private int get(int[] slots, int mask, int hash, int[] key) {
+    int slot = hash & mask;
+    int value;
+    while ((value = slots[slot]) != 0) {
+      int groupId = value - 1;
+      if (_hashes[groupId] == hash && keyEquals(groupId, key)) {
+        return groupId;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return INVALID_ID;
+  }
+
+  private boolean keyEquals(int groupId, int[] key) {
+    int offset = groupId * _keyLength;
+    for (int i = 0; i < _keyLength; i++) {
+      if (_keys[offset + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the given key (should not exist in the map) and returns the new group id assigned to it. The key is copied
+   * into the map, so the given array can be reused by the caller.
+   */
+  public int put(int[] key) {
+    if (_oldSlots != null) {
+      migrateOldSlots(GroupIdMapUtils.NUM_SLOTS_TO_MIGRATE_PER_PUT);
+    }
+    if (_numGroups == _resizeThreshold) {
+      resize();
+    }
+    int groupId = _numGroups++;
+    if (groupId == _hashes.length) {
+      _keys = Arrays.copyOf(_keys, _keys.length << 1);
+      _hashes = Arrays.copyOf(_hashes, groupId << 1);
+    }
+    System.arraycopy(key, 0, _keys, groupId * _keyLength, _keyLength);
+    int hash = hash(key);
+    _hashes[groupId] = hash;
+    insert(_slots, _mask, hash, groupId);
+    return groupId;
+  }
+
+  private int hash(int[] key) {
+    int hash = 1;
+    for (int i = 0; i < _keyLength; i++) {
+      hash = 31 * hash + key[i];
+    }
+    return GroupIdMapUtils.hash(hash);
+  }
+
+  private static void insert(int[] slots, int mask, int hash, int groupId) {
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = groupId + 1;
+  }
+
+  private void resize() {
+    if (_oldSlots != null) {
+      migrateOldSlots(_oldSlots.length);
+    }
+    _oldSlots = _slots;
+    _oldMask = _mask;
+    _numOldSlotsMigrated = 0;
+    int capacity = _slots.length << 1;
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+    _resizeThreshold = capacity >>> 1;
+  }
+
+  private void migrateOldSlots(int maxNumSlotsToMigrate) {
+    int endIndex = Math.min(_numOldSlotsMigrated + maxNumSlotsToMigrate, _oldSlots.length);
+    for (int i = _numOldSlotsMigrated; i < endIndex; i++) {
+      int value = _oldSlots[i];
+      if (value != 0) {
+        insert(_slots, _mask, _hashes[value - 1], value - 1);
+      }
+    }
+    _numOldSlotsMigrated = endIndex;
+    if (endIndex == _oldSlots.length) {
+      _oldSlots = null;
+    }
+  }
+
+  /**
+   * Returns the element at the given index of the key for the given group id.
+   */
+  public int getKeyElement(int groupId, int index) {
+    return _keys[groupId * _keyLength + index];
+  }
+
+  /**
+   * Returns the number of groups in the map. The group ids are contiguous from 0 to the number of groups (exclusive).
+   */
+  public int size() {
+    return _numGroups;
+  }
+
+  /**
+   * Removes all the groups from the map while keeping the allocated memory, so that the map can be reused.
+   */
+  public void clear() {
+    if (_numGroups > 0) {
+      Arrays.fill(_slots, 0);
+      _oldSlots = null;
+      _numGroups = 0;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby.utils;
+
+import java.util.Arrays;
+
+
+/**
+ * Allocation-free open addressing (linear probing) hash map from long raw keys to contiguous group ids.
+ * <p>The keys are stored in an array indexed by the group id, and the hash table only stores the group ids (plus 1 so
+ * that 0 can be used as the empty slot), so that no object is allocated when adding a new group.
+ * <p>When the hash table needs to grow, instead of rehashing all the keys at once, the old hash table is kept and its
+ * slots are migrated into the new hash table incrementally on each following put, so that there is no long rehash pause
+ * when the number of groups is large. Lookups check both hash tables while the migration is in progress.
+ */
+@SuppressWarnings("Duplicates")
+public class LongGroupIdMap {
+  public static final int INVALID_ID = -1;
+
+  private long[] _keys;
+  private int _numGroups;
+
+  private int[] _slots;
+  private int _mask;
+  private int _resizeThreshold;
+
+  // Old hash table to be migrated into the new hash table incrementally
+  private int[] _oldSlots;
+  private int _oldMask;
+  private int _numOldSlotsMigrated;
+
+  public LongGroupIdMap(int initialCapacity) {
+    int capacity = GroupIdMapUtils.getHashTableCapacity(initialCapacity);
+    _keys = new long[capacity >>> 1];
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+    _resizeThreshold = capacity >>> 1;
+  }
+
+  /**
+   * Returns the group id for the given key, or {@link #INVALID_ID} if the key does not exist.
+   */
+  public int get(long key) {
+    int hash = GroupIdMapUtils.hash(key);
+    int groupId = get(_slots, _mask, hash, key);
+    if (groupId == INVALID_ID && _oldSlots != null) {
+      groupId = get(_oldSlots, _oldMask, hash, key);
+    }
+    return groupId;
+  }
+
+  private int get(int[] slots, int mask, int hash, long key) {
+    int slot = hash & mask;
+    int value;
+    while ((value = slots[slot]) != 0) {
+      if (_keys[value - 1] == key) {
+        return value - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return INVALID_ID;
+  }
+
+  /**
+   * Adds the given key (should not exist in the map) and returns the new group id assigned to it.
+   */
+  public int put(long key) {
+    if (_oldSlots != null) {
+      migrateOldSlots(GroupIdMapUtils.NUM_SLOTS_TO_MIGRATE_PER_PUT);
+    }
+    if (_numGroups == _resizeThreshold) {
+      resize();
+    }
+    int groupId = _numGroups++;
+    if (groupId == _keys.length) {
+      _keys = Arrays.copyOf(_keys, groupId << 1);
+    }
+    _keys[groupId] = key;
+    insert(_slots, _mask, GroupIdMapUtils.hash(key), groupId);
+    return groupId;
+  }
+
+  private static void insert(int[] slots, int mask, int hash, int groupId) {
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = groupId + 1;
+  }
+
+  private void resize() {
+    if (_oldSlots != null) {
+      migrateOldSlots(_oldSlots.length);
+    }
+    _oldSlots = _slots;
+    _oldMask = _mask;
+    _numOldSlotsMigrated = 0;
+    int capacity = _slots.length << 1;
+    _slots = new int[capacity];
+    _mask = capacity - 1;
+    _resizeThreshold = capacity >>> 1;
+  }
+
+  private void migrateOldSlots(int maxNumSlotsToMigrate) {
+    int endIndex = Math.min(_numOldSlotsMigrated + maxNumSlotsToMigrate, _oldSlots.length);
+    for (int i = _numOldSlotsMigrated; i < endIndex; i++) {
+      int value = _oldSlots[i];
+      if (value != 0) {
+        insert(_slots, _mask, GroupIdMapUtils.hash(_keys[value - 1]), value - 1);
+      }
+    }
+    _numOldSlotsMigrated = endIndex;
+    if (endIndex == _oldSlots.length) {
+      _oldSlots = null;
+    }
+  }
+
+  /**
+   * Returns the key for the given group id.
+   */
+  public long getKey(int groupId) {
+    return _keys[groupId];
+  }
+
+  /**
+   * Returns the number of groups in the map. The group ids are contiguous from 0 to the number of groups (exclusive).
+   */
+  public int size() {
+    return _numGroups;
+  }
+
+  /**
+   * Removes all the groups from the map while keeping the allocated memory, so that the map can be reused.
+   */
+  public void clear() {
+    if (_numGroups > 0) {
+      Arrays.fill(_slots, 0);
+      _oldSlots = null;
+      _numGroups = 0;
+    }
+  }
+}
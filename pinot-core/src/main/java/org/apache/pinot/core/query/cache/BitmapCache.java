@@ -0,0 +1,292 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code BitmapCache} is the server-wide cache for the posting lists read from the immutable bitmap based indexes
+ * (inverted index and range index), and the unions of the posting lists for the hot IN predicates and range buckets.
+ * <p>The entries are keyed by the index reader (one per segment and column) and the ids of the posting lists, and are
+ * invalidated when the index reader is closed. The keys are tracked per index reader so that the invalidation does not
+ * scan the whole cache. The cached bitmaps are shared across queries and must not be modified.
+ * <p>The cache is bounded by the estimated heap size of the entries in bytes. The posting lists are memory-mapped, so
+ * only their on-heap wrappers are counted; the unions are on-heap bitmaps and counted with their full size. Entries
+ * are evicted in (per cache segment) LRU order, and a new entry is admitted into a full cache only if it has been
+ * requested before within the recent history tracked by a count-min sketch, so that one-off lookups from ad-hoc queries
+ * do not evict the hot entries. NOTE: this is a simple frequency threshold, not TinyLFU: the candidate is not compared
+ * with the eviction victim because the Guava cache does not expose it.
+ */
+@ThreadSafe
+public class BitmapCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(BitmapCache.class);
+
+  // set as pinot.server.query.executor.bitmap.cache.enabled
+  public static final String ENABLE_BITMAP_CACHE = "bitmap.cache.enabled";
+  public static final boolean DEFAULT_ENABLE_BITMAP_CACHE = true;
+  // set as pinot.server.query.executor.bitmap.cache.max.size.bytes
+  public static final String BITMAP_CACHE_MAX_SIZE_BYTES = "bitmap.cache.max.size.bytes";
+  public static final long DEFAULT_BITMAP_CACHE_MAX_SIZE_BYTES = 128 * 1024 * 1024L;
+  // set as pinot.server.query.executor.bitmap.cache.concurrency.level
+  // Number of cache segments, each with its own lock, size bound (max size divided by the concurrency level) and LRU
+  // order. A single segment gives a global size bound and LRU order, but serializes all the lookups on one lock.
+  public static final String BITMAP_CACHE_CONCURRENCY_LEVEL = "bitmap.cache.concurrency.level";
+  public static final int DEFAULT_BITMAP_CACHE_CONCURRENCY_LEVEL = 4;
+
+  // Estimated object overhead of the key, the bitmap wrapper and the cache entry
+  private static final int ENTRY_OVERHEAD_BYTES = 256;
+  // Minimum frequency for a new entry to be admitted into a full cache
+  private static final int ADMISSION_FREQUENCY = 2;
+
+  private static volatile BitmapCache _instance;
+
+  private final long _maxSizeInBytes;
+  private final Cache<Key, ImmutableRoaringBitmap> _cache;
+  private final AtomicLong _sizeInBytes = new AtomicLong();
+  private final FrequencySketch _frequencySketch;
+  // Keys of the cached entries for each index reader, so that the entries can be invalidated without scanning the cache
+  private final Map<Object, Set<Key>> _keysMap = new ConcurrentHashMap<>();
+
+  public BitmapCache(long maxSizeInBytes, int concurrencyLevel, ServerMetrics serverMetrics) {
+    _maxSizeInBytes = maxSizeInBytes;
+    // NOTE: Entries larger than the per-segment size bound are evicted immediately
+    _cache = CacheBuilder.newBuilder().concurrencyLevel(concurrencyLevel).maximumWeight(maxSizeInBytes).weigher(
+        (Key key, ImmutableRoaringBitmap value) -> getSizeInBytes(key, value)).removalListener(notification -> {
+      Key key = notification.getKey();
+      _sizeInBytes.addAndGet(-getSizeInBytes(key, notification.getValue()));
+      // The key is still cached when the value is replaced
+      if (notification.getCause() != RemovalCause.REPLACED) {
+        Set<Key> keys = _keysMap.get(key._indexReader);
+        if (keys != null) {
+          keys.remove(key);
+        }
+      }
+      if (notification.wasEvicted()) {
+        serverMetrics.addMeteredGlobalValue(ServerMeter.BITMAP_CACHE_EVICTIONS, 1);
+      }
+    }).recordStats().build();
+    _frequencySketch = new FrequencySketch(
+        (int) Math.min(maxSizeInBytes / ENTRY_OVERHEAD_BYTES, FrequencySketch.MAX_EXPECTED_NUM_ENTRIES));
+    serverMetrics.addCallbackGaugeIfNeeded(ServerGauge.BITMAP_CACHE_SIZE_BYTES.getGaugeName(), () -> {
+      BitmapCache instance = _instance;
+      return instance != null ? instance._sizeInBytes.get() : 0L;
+    });
+    serverMetrics.addCallbackGaugeIfNeeded(ServerGauge.BITMAP_CACHE_HIT_RATIO_PERCENT.getGaugeName(), () -> {
+      BitmapCache instance = _instance;
+      return instance != null ? Math.round(instance._cache.stats().hitRate() * 100) : 0L;
+    });
+    LOGGER.info("Initialized bitmap cache with max size: {} bytes", maxSizeInBytes);
+  }
+
+  /**
+   * Initializes the server-wide bitmap cache. Should be called once when the server starts.
+   */
+  public static void init(long maxSizeInBytes, int concurrencyLevel, ServerMetrics serverMetrics) {
+    _instance = new BitmapCache(maxSizeInBytes, concurrencyLevel, serverMetrics);
+  }
+
+  /**
+   * Returns the server-wide bitmap cache, or {@code null} if it is not initialized (disabled).
+   */
+  @Nullable
+  public static BitmapCache getInstance() {
+    return _instance;
+  }
+
+  /**
+   * Returns the posting list with the given id from the given index reader, loads it with the given loader if it is not
+   * cached.
+   */
+  public ImmutableRoaringBitmap getPostingList(Object indexReader, int id,
+      IntFunction<ImmutableRoaringBitmap> loader) {
+    Key key = new Key(indexReader, id, null);
+    ImmutableRoaringBitmap bitmap = _cache.getIfPresent(key);
+    if (bitmap == null) {
+      bitmap = loader.apply(id);
+      admit(key, bitmap);
+    }
+    return bitmap;
+  }
+
+  /**
+   * Returns the union of the posting lists identified by the given ids from the given index reader, computes it with
+   * the given loader if it is not cached. The meaning of the ids is defined by the index reader.
+   */
+  public ImmutableRoaringBitmap getUnion(Object indexReader, int[] ids, Supplier<MutableRoaringBitmap> loader) {
+    Key key = new Key(indexReader, -1, ids);
+    ImmutableRoaringBitmap bitmap = _cache.getIfPresent(key);
+    if (bitmap == null) {
+      MutableRoaringBitmap union = loader.get();
+      union.runOptimize();
+      admit(key, union);
+      bitmap = union;
+    }
+    return bitmap;
+  }
+
+  /**
+   * Removes all the entries for the given index reader. Should be called when the index reader is closed.
+   * <p>NOTE: An entry added concurrently with the invalidation might be left in the cache, where it is never looked up
+   * again and ages out.
+   */
+  public void invalidate(Object indexReader) {
+    Set<Key> keys = _keysMap.remove(indexReader);
+    if (keys != null) {
+      _cache.invalidateAll(keys);
+    }
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  public long getSizeInBytes() {
+    return _sizeInBytes.get();
+  }
+
+  private void admit(Key key, ImmutableRoaringBitmap bitmap) {
+    int frequency = _frequencySketch.incrementAndGet(key._hashCode);
+    long sizeInBytes = getSizeInBytes(key, bitmap);
+    if (frequency >= ADMISSION_FREQUENCY || _sizeInBytes.get() + sizeInBytes <= _maxSizeInBytes) {
+      _sizeInBytes.addAndGet(sizeInBytes);
+      _keysMap.computeIfAbsent(key._indexReader, k -> ConcurrentHashMap.newKeySet()).add(key);
+      _cache.put(key, bitmap);
+    }
+  }
+
+  private static int getSizeInBytes(Key key, ImmutableRoaringBitmap bitmap) {
+    int sizeInBytes = ENTRY_OVERHEAD_BYTES;
+    if (key._ids != null) {
+      sizeInBytes += key._ids.length * Integer.BYTES;
+    }
+    if (bitmap instanceof MutableRoaringBitmap) {
+      sizeInBytes += bitmap.getSizeInBytes();
+    }
+    return sizeInBytes;
+  }
+
+  private static final class Key {
+    private final Object _indexReader;
+    private final int _id;
+    private final int[] _ids;
+    private final int _hashCode;
+
+    private Key(Object indexReader, int id, @Nullable int[] ids) {
+      _indexReader = indexReader;
+      _id = id;
+      _ids = ids;
+      _hashCode = 31 * (31 * System.identityHashCode(indexReader) + id) + Arrays.hashCode(ids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _indexReader == that._indexReader && _id == that._id && Arrays
+          .equals(_ids, that._ids);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  /**
+   * Count-min sketch with 4 rows of 4-bit counters packed into longs, which estimates the access frequency of the keys
+   * in the recent history. All the counters are halved after a number of increments proportional to the width so that
+   * the stale frequencies age out. Concurrent updates are not synchronized, and lost updates are acceptable for the
+   * admission decision.
+   */
+  private static final class FrequencySketch {
+    static final int MIN_EXPECTED_NUM_ENTRIES = 1 << 10;
+    static final int MAX_EXPECTED_NUM_ENTRIES = 1 << 20;
+    private static final int NUM_ROWS = 4;
+    private static final long MAX_COUNT = 15L;
+    private static final long[] SEEDS = {0x97cb3127L, 0xab9f9b3dL, 0xc2b2ae35L, 0x5bd1e995L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] _table;
+    private final int _tableMask;
+    private final int _sampleSize;
+    private int _numIncrements;
+
+    FrequencySketch(int expectedNumEntries) {
+      int numLongs = Integer.highestOneBit(Math.max(expectedNumEntries, MIN_EXPECTED_NUM_ENTRIES) - 1) << 1;
+      _table = new long[numLongs];
+      _tableMask = numLongs - 1;
+      _sampleSize = 10 * numLongs;
+    }
+
+    /**
+     * Increments the frequency of the given hash and returns the estimated frequency after the increment.
+     */
+    int incrementAndGet(int hash) {
+      long minCount = MAX_COUNT;
+      for (int i = 0; i < NUM_ROWS; i++) {
+        long rowHash = (hash + SEEDS[i]) * SEEDS[i];
+        rowHash += rowHash >>> 32;
+        int index = (int) rowHash & _tableMask;
+        // Each row uses a distinct quarter of the 16 counters in the long
+        int shift = ((i << 2) + (int) ((rowHash >>> 40) & 3)) << 2;
+        long count = (_table[index] >>> shift) & MAX_COUNT;
+        if (count < MAX_COUNT) {
+          _table[index] += 1L << shift;
+          count++;
+        }
+        minCount = Math.min(minCount, count);
+      }
+      if (++_numIncrements >= _sampleSize) {
+        reset();
+      }
+      return (int) minCount;
+    }
+
+    private void reset() {
+      _numIncrements = 0;
+      for (int i = 0; i < _table.length; i++) {
+        _table[i] = (_table[i] >>> 1) & RESET_MASK;
+      }
+    }
+  }
+}
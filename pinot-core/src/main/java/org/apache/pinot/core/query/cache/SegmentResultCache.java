@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentResultCache} caches the per-segment results of the aggregation-only queries on the immutable
+ * segments.
+ * <p>The cache key contains the segment name, the segment CRC (so that a refreshed segment never hits the results of
+ * the previous version) and the parts of the query that can affect the per-segment results (select expressions and
+ * filter). Query options such as the timeout are not part of the key.
+ * <p>The aggregation results are merged in-place by the combine operator, so the mutable intermediate results are
+ * stored in the serialized format, and deserialized into new objects for each hit. The cache is bounded by the
+ * estimated size of the entries in bytes, and entries are evicted in LRU order.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentResultCache.class);
+
+  // set as pinot.server.query.executor.segment.result.cache.enabled
+  public static final String ENABLE_SEGMENT_RESULT_CACHE = "segment.result.cache.enabled";
+  public static final boolean DEFAULT_ENABLE_SEGMENT_RESULT_CACHE = false;
+  // set as pinot.server.query.executor.segment.result.cache.max.size.bytes
+  public static final String SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES = "segment.result.cache.max.size.bytes";
+  public static final long DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES = 64 * 1024 * 1024L;
+
+  // Estimated size of the query and the object overhead of the cache entry
+  private static final int ENTRY_OVERHEAD_BYTES = 512;
+  // Estimated object overhead for each aggregation result
+  private static final int RESULT_OVERHEAD_BYTES = 32;
+  // Object type for the immutable values stored as is
+  private static final int IMMUTABLE_VALUE = -1;
+
+  private final Cache<Key, CachedResult> _cache;
+  private final ServerMetrics _serverMetrics;
+
+  public SegmentResultCache(long maxSizeInBytes, ServerMetrics serverMetrics) {
+    _serverMetrics = serverMetrics;
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeInBytes)
+        .weigher((Key key, CachedResult value) -> key._estimatedSizeInBytes + value._estimatedSizeInBytes)
+        .removalListener(notification -> {
+          if (notification.wasEvicted()) {
+            _serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_RESULT_CACHE_EVICTIONS, 1);
+          }
+        }).build();
+    LOGGER.info("Initialized segment result cache with max size: {} bytes", maxSizeInBytes);
+  }
+
+  /**
+   * Returns the cache key for the given segment and query, or {@code null} if the result is not cacheable.
+   * <p>Only the results of the aggregation-only queries on the immutable segments without valid doc index (upsert) are
+   * cacheable.
+   */
+  @Nullable
+  public static Key getKey(IndexSegment indexSegment, QueryContext queryContext) {
+    if (!(indexSegment instanceof ImmutableSegment) || indexSegment.getValidDocIndex() != null) {
+      return null;
+    }
+    if (!QueryContextUtils.isAggregationQuery(queryContext) || queryContext.getGroupByExpressions() != null) {
+      return null;
+    }
+    String crc = indexSegment.getSegmentMetadata().getCrc();
+    if (crc == null) {
+      return null;
+    }
+    return new Key(queryContext.getTableName(), indexSegment.getSegmentName(), crc,
+        queryContext.getSelectExpressions(), queryContext.getFilter());
+  }
+
+  /**
+   * Returns the cached result for the given key, or {@code null} if it does not exist.
+   */
+  @Nullable
+  public CachedResult get(Key key) {
+    CachedResult cachedResult = _cache.getIfPresent(key);
+    if (cachedResult != null) {
+      _serverMetrics.addMeteredTableValue(key._tableNameWithType, ServerMeter.SEGMENT_RESULT_CACHE_HITS, 1);
+    } else {
+      _serverMetrics.addMeteredTableValue(key._tableNameWithType, ServerMeter.SEGMENT_RESULT_CACHE_MISSES, 1);
+    }
+    return cachedResult;
+  }
+
+  /**
+   * Caches the aggregation results in the given results block along with the execution statistics of the operator.
+   * <p>NOTE: This method should be called before the results block is merged because the merge can modify the results
+   *          in-place.
+   */
+  public void put(Key key, IntermediateResultsBlock resultsBlock, ExecutionStatistics executionStatistics) {
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    if (resultsBlock.getProcessingExceptions() != null || aggregationResult == null) {
+      return;
+    }
+    int numResults = aggregationResult.size();
+    int[] objectTypes = new int[numResults];
+    Object[] values = new Object[numResults];
+    int estimatedSizeInBytes = 0;
+    try {
+      for (int i = 0; i < numResults; i++) {
+        Object result = aggregationResult.get(i);
+        estimatedSizeInBytes += RESULT_OVERHEAD_BYTES;
+        if (result instanceof Long || result instanceof Double || result instanceof BigDecimal) {
+          objectTypes[i] = IMMUTABLE_VALUE;
+          values[i] = result;
+        } else if (result instanceof String) {
+          objectTypes[i] = IMMUTABLE_VALUE;
+          values[i] = result;
+          estimatedSizeInBytes += 2 * ((String) result).length();
+        } else {
+          ObjectSerDeUtils.ObjectType objectType = ObjectSerDeUtils.ObjectType.getObjectType(result);
+          byte[] bytes = ObjectSerDeUtils.serialize(result, objectType);
+          objectTypes[i] = objectType.getValue();
+          values[i] = bytes;
+          estimatedSizeInBytes += bytes.length;
+        }
+      }
+    } catch (Exception e) {
+      LOGGER.warn("Caught exception while serializing the results for segment: {}, skipping caching the results",
+          key._segmentName, e);
+      return;
+    }
+    _cache.put(key, new CachedResult(objectTypes, values, executionStatistics, estimatedSizeInBytes));
+  }
+
+  public long size() {
+    return _cache.size();
+  }
+
+  public static final class CachedResult {
+    private final int[] _objectTypes;
+    private final Object[] _values;
+    private final ExecutionStatistics _executionStatistics;
+    private final int _estimatedSizeInBytes;
+
+    private CachedResult(int[] objectTypes, Object[] values, ExecutionStatistics executionStatistics,
+        int estimatedSizeInBytes) {
+      _objectTypes = objectTypes;
+      _values = values;
+      _executionStatistics = executionStatistics;
+      _estimatedSizeInBytes = estimatedSizeInBytes;
+    }
+
+    /**
+     * Returns a new copy of the aggregation results, which can be modified by the caller.
+     */
+    public List<Object> getAggregationResult() {
+      int numResults = _values.length;
+      List<Object> aggregationResult = new ArrayList<>(numResults);
+      for (int i = 0; i < numResults; i++) {
+        if (_objectTypes[i] == IMMUTABLE_VALUE) {
+          aggregationResult.add(_values[i]);
+        } else {
+          aggregationResult.add(ObjectSerDeUtils.deserialize((byte[]) _values[i], _objectTypes[i]));
+        }
+      }
+      return aggregationResult;
+    }
+
+    /**
+     * Returns the execution statistics of the operator that computed the results.
+     */
+    public ExecutionStatistics getExecutionStatistics() {
+      return _executionStatistics;
+    }
+  }
+
+  public static final class Key {
+    private final String _tableNameWithType;
+    private final String _segmentName;
+    private final String _crc;
+    private final List<ExpressionContext> _selectExpressions;
+    private final FilterContext _filter;
+    private final int _hashCode;
+    private final int _estimatedSizeInBytes;
+
+    private Key(String tableNameWithType, String segmentName, String crc, List<ExpressionContext> selectExpressions,
+        @Nullable FilterContext filter) {
+      _tableNameWithType = tableNameWithType;
+      _segmentName = segmentName;
+      _crc = crc;
+      _selectExpressions = selectExpressions;
+      _filter = filter;
+      _hashCode = Objects.hash(tableNameWithType, segmentName, crc, selectExpressions, filter);
+      _estimatedSizeInBytes = ENTRY_OVERHEAD_BYTES + 2 * (segmentName.length() + crc.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return _hashCode == that._hashCode && _segmentName.equals(that._segmentName) && _crc.equals(that._crc)
+          && _tableNameWithType.equals(that._tableNameWithType) && _selectExpressions.equals(that._selectExpressions)
+          && Objects.equals(_filter, that._filter);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -48,6 +48,8 @@ import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.plan.maker.PlanMaker;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.cache.BitmapCache;
+import org.apache.pinot.core.query.cache.SegmentResultCache;
 import org.apache.pinot.core.query.config.QueryExecutorConfig;
 import org.apache.pinot.core.query.exception.BadQueryRequestException;
 import org.apache.pinot.core.query.pruner.SegmentPrunerService;
@@ -91,8 +93,24 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     LOGGER.info("Default timeout for query executor : {}", _defaultTimeOutMs);
     LOGGER.info("Trying to build SegmentPrunerService");
     _segmentPrunerService = new SegmentPrunerService(queryExecutorConfig.getPrunerConfig());
+    SegmentResultCache segmentResultCache = null;
+    if (config.getProperty(SegmentResultCache.ENABLE_SEGMENT_RESULT_CACHE,
+        SegmentResultCache.DEFAULT_ENABLE_SEGMENT_RESULT_CACHE)) {
+      LOGGER.info("Trying to build SegmentResultCache");
+      long maxSizeInBytes = config.getProperty(SegmentResultCache.SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES,
+          SegmentResultCache.DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES);
+      segmentResultCache = new SegmentResultCache(maxSizeInBytes, serverMetrics);
+    }
+    if (config.getProperty(BitmapCache.ENABLE_BITMAP_CACHE, BitmapCache.DEFAULT_ENABLE_BITMAP_CACHE)) {
+      LOGGER.info("Trying to build BitmapCache");
+      long maxSizeInBytes =
+          config.getProperty(BitmapCache.BITMAP_CACHE_MAX_SIZE_BYTES, BitmapCache.DEFAULT_BITMAP_CACHE_MAX_SIZE_BYTES);
+      int concurrencyLevel = config.getProperty(BitmapCache.BITMAP_CACHE_CONCURRENCY_LEVEL,
+          BitmapCache.DEFAULT_BITMAP_CACHE_CONCURRENCY_LEVEL);
+      BitmapCache.init(maxSizeInBytes, concurrencyLevel, serverMetrics);
+    }
     LOGGER.info("Trying to build QueryPlanMaker");
-    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig);
+    _planMaker = new InstancePlanMakerImplV2(queryExecutorConfig, segmentResultCache);
     LOGGER.info("Trying to build QueryExecutorTimer");
   }
 
@@ -74,33 +74,54 @@ public class AggregationDataTableReducer implements DataTableReducer {
     }
 
     // Merge results from all data tables
-    int numAggregationFunctions = _aggregationFunctions.length;
-    Object[] intermediateResults = new Object[numAggregationFunctions];
+    Object[] intermediateResults = new Object[_aggregationFunctions.length];
     for (DataTable dataTable : dataTableMap.values()) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        Object intermediateResultToMerge;
-        ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
-        switch (columnDataType) {
-          case LONG:
-            intermediateResultToMerge = dataTable.getLong(0, i);
-            break;
-          case DOUBLE:
-            intermediateResultToMerge = dataTable.getDouble(0, i);
-            break;
-          case OBJECT:
-            intermediateResultToMerge = dataTable.getObject(0, i);
-            break;
-          default:
-            throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
-        }
-        Object mergedIntermediateResult = intermediateResults[i];
-        if (mergedIntermediateResult == null) {
-          intermediateResults[i] = intermediateResultToMerge;
-        } else {
-          intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
-        }
+      mergeDataTable(intermediateResults, dataTable, dataSchema);
+    }
+    setResults(intermediateResults, dataSchema, brokerResponseNative);
+  }
+
+  @Override
+  public StreamingReducer getStreamingReducer(DataTableReducerContext reducerContext) {
+    return new StreamingAggregationReducer();
+  }
+
+  /**
+   * Merges the intermediate results from the data table into the given intermediate results (in-place).
+   */
+  private void mergeDataTable(Object[] intermediateResults, DataTable dataTable, DataSchema dataSchema) {
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Object intermediateResultToMerge;
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+      switch (columnDataType) {
+        case LONG:
+          intermediateResultToMerge = dataTable.getLong(0, i);
+          break;
+        case DOUBLE:
+          intermediateResultToMerge = dataTable.getDouble(0, i);
+          break;
+        case OBJECT:
+          intermediateResultToMerge = dataTable.getObject(0, i);
+          break;
+        default:
+          throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
+      }
+      Object mergedIntermediateResult = intermediateResults[i];
+      if (mergedIntermediateResult == null) {
+        intermediateResults[i] = intermediateResultToMerge;
+      } else {
+        intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
       }
     }
+  }
+
+  /**
+   * Extracts the final results from the merged intermediate results and sets them into the broker response.
+   */
+  private void setResults(Object[] intermediateResults, DataSchema dataSchema,
+      BrokerResponseNative brokerResponseNative) {
+    int numAggregationFunctions = _aggregationFunctions.length;
     Serializable[] finalResults = new Serializable[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
       finalResults[i] = AggregationFunctionUtils
@@ -159,4 +180,23 @@ public class AggregationDataTableReducer implements DataTableReducer {
     }
     return new DataSchema(columnNames, columnDataTypes);
   }
+
+  /**
+   * Streaming reducer which merges the intermediate results of each data table as it arrives. Each data table is read
+   * with its own data schema.
+   */
+  private class StreamingAggregationReducer implements StreamingReducer {
+    final Object[] _intermediateResults = new Object[_aggregationFunctions.length];
+
+    @Override
+    public void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+      mergeDataTable(_intermediateResults, dataTable, dataTable.getDataSchema());
+    }
+
+    @Override
+    public void setResults(String tableName, DataSchema dataSchema, BrokerResponseNative brokerResponseNative,
+        BrokerMetrics brokerMetrics) {
+      AggregationDataTableReducer.this.setResults(_intermediateResults, dataSchema, brokerResponseNative);
+    }
+  }
 }
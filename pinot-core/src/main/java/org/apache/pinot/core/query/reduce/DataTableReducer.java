@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.reduce;
 
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.utils.DataSchema;
@@ -42,4 +43,14 @@ public interface DataTableReducer {
    */
   void reduceAndSetResults(String tableName, DataSchema dataSchema, Map<ServerRoutingInstance, DataTable> dataTableMap,
       BrokerResponseNative brokerResponseNative, DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics);
+
+  /**
+   * Returns a reducer to reduce the data tables incrementally as they arrive, or {@code null} if the query does not
+   * support streaming reduce.
+   * @param reducerContext DataTableReducer context
+   */
+  @Nullable
+  default StreamingReducer getStreamingReducer(DataTableReducerContext reducerContext) {
+    return null;
+  }
 }
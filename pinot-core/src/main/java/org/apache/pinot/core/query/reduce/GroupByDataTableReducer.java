@@ -29,6 +29,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
@@ -103,7 +104,6 @@ public class GroupByDataTableReducer implements DataTableReducer {
       Map<ServerRoutingInstance, DataTable> dataTableMap, BrokerResponseNative brokerResponseNative,
       DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics) {
     assert dataSchema != null;
-    int resultSize = 0;
     Collection<DataTable> dataTables = dataTableMap.values();
 
     // For group by, PQL behavior is different than the SQL behavior. In the PQL way,
@@ -126,13 +126,12 @@ public class GroupByDataTableReducer implements DataTableReducer {
         // This is the primary SQL compliant group by
 
         try {
-          setSQLGroupByInResultTable(brokerResponseNative, dataSchema, dataTables, reducerContext, tableName,
-              brokerMetrics);
+          setSQLGroupByInResultTable(brokerResponseNative, dataSchema,
+              getIndexedTable(dataSchema, dataTables, reducerContext), tableName, brokerMetrics);
         } catch (TimeoutException e) {
           brokerResponseNative.getProcessingExceptions()
               .add(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
         }
-        resultSize = brokerResponseNative.getResultTable().getRows().size();
       } else {
         // 2. groupByMode = sql, responseFormat = pql
         // This mode will invoke SQL style group by execution, but present results in PQL way
@@ -140,15 +139,12 @@ public class GroupByDataTableReducer implements DataTableReducer {
         // w/o having to forcefully move to a new result type
 
         try {
-          setSQLGroupByInAggregationResults(brokerResponseNative, dataSchema, dataTables, reducerContext);
+          setSQLGroupByInAggregationResults(brokerResponseNative, dataSchema,
+              !dataTables.isEmpty() ? getIndexedTable(dataSchema, dataTables, reducerContext) : null);
         } catch (TimeoutException e) {
           brokerResponseNative.getProcessingExceptions()
               .add(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
         }
-
-        if (!brokerResponseNative.getAggregationResults().isEmpty()) {
-          resultSize = brokerResponseNative.getAggregationResults().get(0).getGroupByResult().size();
-        }
       }
     } else {
 
@@ -161,18 +157,39 @@ public class GroupByDataTableReducer implements DataTableReducer {
       // This is the primary PQL compliant group by
 
       setGroupByResults(brokerResponseNative, dataTables);
+    }
 
-      if (_responseFormatSql) {
-        resultSize = brokerResponseNative.getResultTable().getRows().size();
-      } else {
-        // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the same.
-        // Thus, we can just emit the one from the 1st result.
-        if (!brokerResponseNative.getAggregationResults().isEmpty()) {
-          resultSize = brokerResponseNative.getAggregationResults().get(0).getGroupByResult().size();
-        }
+    updateGroupBySize(tableName, brokerResponseNative, brokerMetrics);
+  }
+
+  /**
+   * Returns a streaming reducer for SQL group-by mode, where the data tables are upserted into an {@link IndexedTable}
+   * as they arrive, or {@code null} for PQL group-by mode.
+   */
+  @Override
+  public StreamingReducer getStreamingReducer(DataTableReducerContext reducerContext) {
+    return _groupByModeSql ? new StreamingGroupByReducer(reducerContext) : null;
+  }
+
+  /**
+   * Updates the group-by size metric with the number of groups in the results.
+   */
+  private void updateGroupBySize(String tableName, BrokerResponseNative brokerResponseNative,
+      BrokerMetrics brokerMetrics) {
+    int resultSize = 0;
+    if (_responseFormatSql) {
+      ResultTable resultTable = brokerResponseNative.getResultTable();
+      if (resultTable != null) {
+        resultSize = resultTable.getRows().size();
+      }
+    } else {
+      // We emit the group by size when the result isn't empty. All the sizes among group-by results should be the same.
+      // Thus, we can just emit the one from the 1st result.
+      List<AggregationResult> aggregationResults = brokerResponseNative.getAggregationResults();
+      if (aggregationResults != null && !aggregationResults.isEmpty()) {
+        resultSize = aggregationResults.get(0).getGroupByResult().size();
       }
     }
-
     if (brokerMetrics != null && resultSize > 0) {
       brokerMetrics.addMeteredTableValue(tableName, BrokerMeter.GROUP_BY_SIZE, resultSize);
     }
@@ -182,17 +199,12 @@ public class GroupByDataTableReducer implements DataTableReducer {
    * Extract group by order by results and set into {@link ResultTable}
    * @param brokerResponseNative broker response
    * @param dataSchema data schema
-   * @param dataTables Collection of data tables
-   * @param reducerContext DataTableReducer context
+   * @param indexedTable finished indexed table with all the data tables reduced
    * @param rawTableName table name
    * @param brokerMetrics broker metrics (meters)
-   * @throws TimeoutException If unable complete within timeout.
    */
   private void setSQLGroupByInResultTable(BrokerResponseNative brokerResponseNative, DataSchema dataSchema,
-      Collection<DataTable> dataTables, DataTableReducerContext reducerContext, String rawTableName,
-      BrokerMetrics brokerMetrics)
-      throws TimeoutException {
-    IndexedTable indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
+      IndexedTable indexedTable, String rawTableName, BrokerMetrics brokerMetrics) {
     if (brokerMetrics != null) {
       brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NUM_RESIZES, indexedTable.getNumResizes());
       brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESIZE_TIME_MS, indexedTable.getResizeTimeMs());
@@ -317,36 +329,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
 
             try {
               for (int rowId = 0; rowId < numRows; rowId++) {
-                Object[] values = new Object[_numColumns];
-                for (int colId = 0; colId < _numColumns; colId++) {
-                  switch (columnDataTypes[colId]) {
-                    case INT:
-                      values[colId] = dataTable.getInt(rowId, colId);
-                      break;
-                    case LONG:
-                      values[colId] = dataTable.getLong(rowId, colId);
-                      break;
-                    case FLOAT:
-                      values[colId] = dataTable.getFloat(rowId, colId);
-                      break;
-                    case DOUBLE:
-                      values[colId] = dataTable.getDouble(rowId, colId);
-                      break;
-                    case STRING:
-                      values[colId] = dataTable.getString(rowId, colId);
-                      break;
-                    case BYTES:
-                      values[colId] = dataTable.getBytes(rowId, colId);
-                      break;
-                    case OBJECT:
-                      values[colId] = dataTable.getObject(rowId, colId);
-                      break;
-                    // Add other aggregation intermediate result / group-by column type supports here
-                    default:
-                      throw new IllegalStateException();
-                  }
-                }
-                indexedTable.upsert(new Record(values));
+                indexedTable.upsert(getRecord(dataTable, rowId, columnDataTypes));
               }
             } finally {
               countDownLatch.countDown();
@@ -372,6 +355,42 @@ public class GroupByDataTableReducer implements DataTableReducer {
     return indexedTable;
   }
 
+  /**
+   * Helper method to read the record for the given row from the data table.
+   */
+  private Record getRecord(DataTable dataTable, int rowId, ColumnDataType[] columnDataTypes) {
+    Object[] values = new Object[_numColumns];
+    for (int colId = 0; colId < _numColumns; colId++) {
+      switch (columnDataTypes[colId]) {
+        case INT:
+          values[colId] = dataTable.getInt(rowId, colId);
+          break;
+        case LONG:
+          values[colId] = dataTable.getLong(rowId, colId);
+          break;
+        case FLOAT:
+          values[colId] = dataTable.getFloat(rowId, colId);
+          break;
+        case DOUBLE:
+          values[colId] = dataTable.getDouble(rowId, colId);
+          break;
+        case STRING:
+          values[colId] = dataTable.getString(rowId, colId);
+          break;
+        case BYTES:
+          values[colId] = dataTable.getBytes(rowId, colId);
+          break;
+        case OBJECT:
+          values[colId] = dataTable.getObject(rowId, colId);
+          break;
+        // Add other aggregation intermediate result / group-by column type supports here
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    return new Record(values);
+  }
+
   /**
    * Computes the number of reduce threads to use per query.
    * <ul>
@@ -397,13 +416,10 @@ public class GroupByDataTableReducer implements DataTableReducer {
    * There will be 1 aggregation result per aggregation. The group by keys will be the same across all aggregations
    * @param brokerResponseNative broker response
    * @param dataSchema data schema
-   * @param dataTables Collection of data tables
-   * @param reducerContext DataTableReducer context
-   * @throws TimeoutException If unable to complete within the timeout.
+   * @param indexedTable finished indexed table with all the data tables reduced, or {@code null} if no data table
    */
   private void setSQLGroupByInAggregationResults(BrokerResponseNative brokerResponseNative, DataSchema dataSchema,
-      Collection<DataTable> dataTables, DataTableReducerContext reducerContext)
-      throws TimeoutException {
+      @Nullable IndexedTable indexedTable) {
 
     List<String> groupByColumns = new ArrayList<>(_numGroupByExpressions);
     int idx = 0;
@@ -420,9 +436,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
       idx++;
     }
 
-    if (!dataTables.isEmpty()) {
-      IndexedTable indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
-
+    if (indexedTable != null) {
       int limit = _queryContext.getLimit();
       Iterator<Record> sortedIterator = indexedTable.iterator();
       int numRows = 0;
@@ -615,4 +629,72 @@ public class GroupByDataTableReducer implements DataTableReducer {
     }
     return convertedResultMap;
   }
+
+  /**
+   * Streaming reducer for SQL group-by mode, which upserts the records of each data table into the indexed table as it
+   * arrives. The indexed table is trimmed the same way as the one used to reduce all data tables at once, so the number
+   * of groups kept is bounded by the trim threshold. Each data table is read with its own data schema.
+   * <p>When multiple reduce threads are allowed per query, the data tables are upserted concurrently into a concurrent
+   * indexed table.
+   */
+  private class StreamingGroupByReducer implements StreamingReducer {
+    final DataTableReducerContext _reducerContext;
+    final int _maxNumReduceThreads;
+    volatile IndexedTable _indexedTable;
+
+    StreamingGroupByReducer(DataTableReducerContext reducerContext) {
+      _reducerContext = reducerContext;
+      _maxNumReduceThreads = Math.max(1, reducerContext.getMaxReduceThreadsPerQuery());
+    }
+
+    @Override
+    public int getMaxNumReduceThreads() {
+      return _maxNumReduceThreads;
+    }
+
+    @Override
+    public void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+      DataSchema dataSchema = dataTable.getDataSchema();
+      IndexedTable indexedTable = getOrCreateIndexedTable(dataSchema);
+      ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+      int numRows = dataTable.getNumberOfRows();
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        indexedTable.upsert(getRecord(dataTable, rowId, columnDataTypes));
+      }
+    }
+
+    private IndexedTable getOrCreateIndexedTable(DataSchema dataSchema) {
+      IndexedTable indexedTable = _indexedTable;
+      if (indexedTable != null) {
+        return indexedTable;
+      }
+      synchronized (this) {
+        if (_indexedTable == null) {
+          int trimSize = GroupByUtils.getTableCapacity(_queryContext);
+          int trimThreshold = _reducerContext.getGroupByTrimThreshold();
+          if (_maxNumReduceThreads == 1) {
+            _indexedTable = new SimpleIndexedTable(dataSchema, _queryContext, trimSize, trimThreshold);
+          } else if (trimThreshold >= GroupByOrderByCombineOperator.MAX_TRIM_THRESHOLD) {
+            _indexedTable = new UnboundedConcurrentIndexedTable(dataSchema, _queryContext, trimSize, trimThreshold);
+          } else {
+            _indexedTable = new ConcurrentIndexedTable(dataSchema, _queryContext, trimSize, trimThreshold);
+          }
+        }
+        return _indexedTable;
+      }
+    }
+
+    @Override
+    public void setResults(String tableName, DataSchema dataSchema, BrokerResponseNative brokerResponseNative,
+        BrokerMetrics brokerMetrics) {
+      IndexedTable indexedTable = _indexedTable;
+      indexedTable.finish(true);
+      if (_responseFormatSql) {
+        setSQLGroupByInResultTable(brokerResponseNative, dataSchema, indexedTable, tableName, brokerMetrics);
+      } else {
+        setSQLGroupByInAggregationResults(brokerResponseNative, dataSchema, indexedTable);
+      }
+      updateGroupBySize(tableName, brokerResponseNative, brokerMetrics);
+    }
+  }
 }
@@ -82,17 +82,7 @@ public class SelectionDataTableReducer implements DataTableReducer {
       // For data table map with more than one data tables, remove conflicting data tables
       if (dataTableMap.size() > 1) {
         List<ServerRoutingInstance> droppedServers = removeConflictingResponses(dataSchema, dataTableMap);
-        if (!droppedServers.isEmpty()) {
-          String errorMessage = QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
-              + " from servers: " + droppedServers + " got dropped due to data schema inconsistency.";
-          LOGGER.warn(errorMessage);
-          if (brokerMetrics != null) {
-            brokerMetrics.addMeteredTableValue(TableNameBuilder.extractRawTableName(tableName),
-                BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
-          }
-          brokerResponseNative
-              .addToExceptions(new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
-        }
+        addDroppedServersException(tableName, droppedServers, brokerResponseNative, brokerMetrics);
       }
 
       int limit = _queryContext.getLimit();
@@ -100,11 +90,7 @@ public class SelectionDataTableReducer implements DataTableReducer {
         // Selection order-by
         SelectionOperatorService selectionService = new SelectionOperatorService(_queryContext, dataSchema);
         selectionService.reduceWithOrdering(dataTableMap.values());
-        if (_responseFormatSql) {
-          brokerResponseNative.setResultTable(selectionService.renderResultTableWithOrdering());
-        } else {
-          brokerResponseNative.setSelectionResults(selectionService.renderSelectionResultsWithOrdering(_preserveType));
-        }
+        setResultsWithOrdering(selectionService, brokerResponseNative);
       } else {
         // Selection only
         List<String> selectionColumns =
@@ -121,6 +107,46 @@ public class SelectionDataTableReducer implements DataTableReducer {
     }
   }
 
+  /**
+   * Returns a streaming reducer for selection order-by queries, where the rows of each data table are added into the
+   * priority queue as it arrives, or {@code null} for selection only queries.
+   */
+  @Override
+  public StreamingReducer getStreamingReducer(DataTableReducerContext reducerContext) {
+    if (_queryContext.getLimit() > 0 && _queryContext.getOrderByExpressions() != null) {
+      return new StreamingSelectionOrderByReducer();
+    } else {
+      return null;
+    }
+  }
+
+  private void setResultsWithOrdering(SelectionOperatorService selectionService,
+      BrokerResponseNative brokerResponseNative) {
+    if (_responseFormatSql) {
+      brokerResponseNative.setResultTable(selectionService.renderResultTableWithOrdering());
+    } else {
+      brokerResponseNative.setSelectionResults(selectionService.renderSelectionResultsWithOrdering(_preserveType));
+    }
+  }
+
+  /**
+   * Adds the exception for the servers whose responses got dropped due to data schema inconsistency, if any.
+   */
+  private static void addDroppedServersException(String tableName, List<ServerRoutingInstance> droppedServers,
+      BrokerResponseNative brokerResponseNative, BrokerMetrics brokerMetrics) {
+    if (!droppedServers.isEmpty()) {
+      String errorMessage = QueryException.MERGE_RESPONSE_ERROR.getMessage() + ": responses for table: " + tableName
+          + " from servers: " + droppedServers + " got dropped due to data schema inconsistency.";
+      LOGGER.warn(errorMessage);
+      if (brokerMetrics != null) {
+        brokerMetrics.addMeteredTableValue(TableNameBuilder.extractRawTableName(tableName),
+            BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1L);
+      }
+      brokerResponseNative
+          .addToExceptions(new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
+    }
+  }
+
   /**
    * Given a data schema, remove data tables that are not compatible with this data schema.
    * <p>Upgrade the data schema passed in to cover all remaining data schemas.
@@ -146,4 +172,39 @@ public class SelectionDataTableReducer implements DataTableReducer {
     }
     return droppedServers;
   }
+
+  /**
+   * Streaming reducer for selection order-by queries, which adds the rows of each data table into the priority queue
+   * as it arrives. The data schema of the first data table is upgraded in-place to cover the following ones, and the
+   * data tables not compatible with it are dropped.
+   */
+  private class StreamingSelectionOrderByReducer implements StreamingReducer {
+    final List<ServerRoutingInstance> _droppedServers = new ArrayList<>();
+    DataSchema _dataSchema;
+    SelectionOperatorService _selectionService;
+
+    @Override
+    public void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+      DataSchema dataSchemaToCompare = dataTable.getDataSchema();
+      if (_selectionService == null) {
+        // NOTE: Clone the data schema because it is shared with the selection service and upgraded in-place
+        _dataSchema = dataSchemaToCompare.clone();
+        _selectionService = new SelectionOperatorService(_queryContext, _dataSchema);
+      } else {
+        if (!_dataSchema.isTypeCompatibleWith(dataSchemaToCompare)) {
+          _droppedServers.add(serverRoutingInstance);
+          return;
+        }
+        _dataSchema.upgradeToCover(dataSchemaToCompare);
+      }
+      _selectionService.reduceWithOrdering(Collections.singletonList(dataTable));
+    }
+
+    @Override
+    public void setResults(String tableName, DataSchema dataSchema, BrokerResponseNative brokerResponseNative,
+        BrokerMetrics brokerMetrics) {
+      addDroppedServersException(tableName, _droppedServers, brokerResponseNative, brokerMetrics);
+      setResultsWithOrdering(_selectionService, brokerResponseNative);
+    }
+  }
 }
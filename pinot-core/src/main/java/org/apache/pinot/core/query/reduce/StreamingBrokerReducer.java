@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.HashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.transport.DataTableConsumer;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code StreamingBrokerReducer} reduces the data tables into the {@link BrokerResponseNative} incrementally as
+ * they are received from the servers, instead of keeping all the data tables until all servers responded and then
+ * reducing them at once as {@link BrokerReduceService#reduceOnDataTable} does. The data tables are released right after
+ * they are reduced, and the reduce work overlaps with waiting for the slower servers.
+ * <p>The data tables are queued by {@link #consume(ServerRoutingInstance, DataTable)} (invoked from the Netty threads)
+ * and reduced on the broker reduce executor, with up to {@link StreamingReducer#getMaxNumReduceThreads()} threads per
+ * query.
+ * <p>Call {@link #seal(BrokerMetrics)} after the query is done to get the broker response, which waits for the queued
+ * data tables to be reduced until the reduce timeout. Data tables received after the reducer is sealed (e.g. from
+ * servers responding after the query timed out) are ignored.
+ */
+@ThreadSafe
+public class StreamingBrokerReducer implements DataTableConsumer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamingBrokerReducer.class);
+
+  private final BrokerRequest _brokerRequest;
+  private final QueryContext _queryContext;
+  private final DataTableReducer _dataTableReducer;
+  private final StreamingReducer _streamingReducer;
+  private final DataTableReducerContext _reducerContext;
+  private final ExecutionStatsAggregator _executionStatsAggregator;
+  private final ExecutorService _executorService;
+  private final int _maxNumReduceThreads;
+  private final long _reduceEndTimeMs;
+  private final Queue<ServerDataTable> _dataTableQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger _numReduceThreads = new AtomicInteger();
+
+  // Cache a data schema from data tables (try to cache one with data rows associated with it).
+  private DataSchema _cachedDataSchema;
+  private int _numDataTablesReceived;
+  private int _numDataTablesProcessed;
+  private int _numDataTablesReduced;
+  private QueryProcessingException _reduceException;
+  private boolean _sealed;
+  // Set when the reducer is sealed before all the data tables received are processed
+  private volatile boolean _timedOut;
+
+  StreamingBrokerReducer(BrokerRequest brokerRequest, QueryContext queryContext, DataTableReducer dataTableReducer,
+      StreamingReducer streamingReducer, DataTableReducerContext reducerContext) {
+    _brokerRequest = brokerRequest;
+    _queryContext = queryContext;
+    _dataTableReducer = dataTableReducer;
+    _streamingReducer = streamingReducer;
+    _reducerContext = reducerContext;
+    _executionStatsAggregator = new ExecutionStatsAggregator(brokerRequest.isEnableTrace());
+    _executorService = reducerContext.getExecutorService();
+    _maxNumReduceThreads = Math.max(1, streamingReducer.getMaxNumReduceThreads());
+    _reduceEndTimeMs = System.currentTimeMillis() + reducerContext.getReduceTimeOutMs();
+  }
+
+  /**
+   * Queues the data table to be reduced on the broker reduce executor. Does not block on the reduce work.
+   */
+  @Override
+  public void consume(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    synchronized (this) {
+      if (_sealed) {
+        return;
+      }
+      _numDataTablesReceived++;
+    }
+    _dataTableQueue.add(new ServerDataTable(serverRoutingInstance, dataTable));
+    tryStartReduceThread();
+  }
+
+  /**
+   * Starts a reduce thread on the executor if the number of running reduce threads is below the limit.
+   */
+  private void tryStartReduceThread() {
+    while (true) {
+      int numReduceThreads = _numReduceThreads.get();
+      if (numReduceThreads >= _maxNumReduceThreads) {
+        return;
+      }
+      if (_numReduceThreads.compareAndSet(numReduceThreads, numReduceThreads + 1)) {
+        _executorService.submit(new TraceRunnable() {
+          @Override
+          public void runJob() {
+            reduceQueuedDataTables();
+          }
+        });
+        return;
+      }
+    }
+  }
+
+  private void reduceQueuedDataTables() {
+    while (true) {
+      ServerDataTable serverDataTable;
+      while ((serverDataTable = _dataTableQueue.poll()) != null) {
+        reduce(serverDataTable._serverRoutingInstance, serverDataTable._dataTable);
+      }
+      _numReduceThreads.decrementAndGet();
+      // NOTE: Re-check the queue because a data table might be queued after the last poll but before the decrement, in
+      //       which case no reduce thread is started for it.
+      if (_dataTableQueue.isEmpty()) {
+        return;
+      }
+      int numReduceThreads = _numReduceThreads.get();
+      if (numReduceThreads >= _maxNumReduceThreads || !_numReduceThreads
+          .compareAndSet(numReduceThreads, numReduceThreads + 1)) {
+        return;
+      }
+    }
+  }
+
+  private void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+    try {
+      if (_timedOut) {
+        return;
+      }
+      DataSchema dataSchema = dataTable.getDataSchema();
+      synchronized (this) {
+        _executionStatsAggregator.aggregate(serverRoutingInstance, dataTable);
+        if (dataSchema == null) {
+          return;
+        }
+        if (dataTable.getNumberOfRows() == 0) {
+          if (_cachedDataSchema == null) {
+            _cachedDataSchema = dataSchema;
+          }
+          return;
+        }
+        _cachedDataSchema = dataSchema;
+      }
+      try {
+        _streamingReducer.reduce(serverRoutingInstance, dataTable);
+        synchronized (this) {
+          _numDataTablesReduced++;
+        }
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while reducing data table from server: {}", serverRoutingInstance, e);
+        synchronized (this) {
+          if (_reduceException == null) {
+            _reduceException = new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE,
+                QueryException.getTruncatedStackTrace(e));
+          }
+        }
+      }
+    } finally {
+      synchronized (this) {
+        _numDataTablesProcessed++;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Seals the reducer, waits for the data tables received to be reduced until the reduce timeout, and returns the
+   * broker response. If the reduce times out, the broker response contains the execution statistics of the data tables
+   * processed so far and the timeout exception, but no results.
+   */
+  public synchronized BrokerResponseNative seal(@Nullable BrokerMetrics brokerMetrics) {
+    _sealed = true;
+    if (_numDataTablesReceived == 0) {
+      // Empty response.
+      return BrokerResponseNative.empty();
+    }
+    try {
+      long remainingTimeMs;
+      while (_numDataTablesProcessed < _numDataTablesReceived
+          && (remainingTimeMs = _reduceEndTimeMs - System.currentTimeMillis()) > 0) {
+        wait(remainingTimeMs);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (_numDataTablesProcessed < _numDataTablesReceived) {
+      _timedOut = true;
+    }
+
+    BrokerResponseNative brokerResponseNative = new BrokerResponseNative();
+    String rawTableName = TableNameBuilder.extractRawTableName(_brokerRequest.getQuerySource().getTableName());
+    _executionStatsAggregator.setStats(rawTableName, brokerResponseNative, brokerMetrics);
+    if (_timedOut) {
+      // NOTE: The reduce threads might still be working on the streaming reducer, so do not read the results from it
+      brokerResponseNative.addToExceptions(new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE,
+          "Timed out in broker reduce phase."));
+      return brokerResponseNative;
+    }
+    if (_reduceException != null) {
+      brokerResponseNative.addToExceptions(_reduceException);
+    }
+
+    // NOTE: When there is no cached data schema, that means all servers encountered exception. In such case, return the
+    //       response with metadata only.
+    if (_cachedDataSchema == null) {
+      return brokerResponseNative;
+    }
+
+    if (_numDataTablesReduced > 0) {
+      _streamingReducer.setResults(rawTableName, _cachedDataSchema, brokerResponseNative, brokerMetrics);
+    } else {
+      // No data rows received, construct the empty results from the cached data schema
+      _dataTableReducer.reduceAndSetResults(rawTableName, _cachedDataSchema, new HashMap<>(), brokerResponseNative,
+          _reducerContext, brokerMetrics);
+    }
+    BrokerReduceService.updateAlias(_queryContext, brokerResponseNative);
+    return brokerResponseNative;
+  }
+
+  private static class ServerDataTable {
+    final ServerRoutingInstance _serverRoutingInstance;
+    final DataTable _dataTable;
+
+    ServerDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+      _serverRoutingInstance = serverRoutingInstance;
+      _dataTable = dataTable;
+    }
+  }
+}
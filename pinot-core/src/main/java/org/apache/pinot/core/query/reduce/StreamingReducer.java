@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+
+
+/**
+ * Interface for reducers that fold each data table into the running results as it arrives, so that the data table can
+ * be released right away instead of being kept until all servers responded.
+ * <p>{@link #reduce(ServerRoutingInstance, DataTable)} is invoked from the broker reduce threads, by up to
+ * {@link #getMaxNumReduceThreads()} threads concurrently. {@link #setResults} is invoked after all the reduce calls
+ * returned.
+ */
+public interface StreamingReducer {
+
+  /**
+   * Returns the max number of threads that can invoke {@link #reduce(ServerRoutingInstance, DataTable)} concurrently.
+   * Defaults to 1 for reducers that are not thread-safe.
+   */
+  default int getMaxNumReduceThreads() {
+    return 1;
+  }
+
+  /**
+   * Reduces a data table with data rows into the running results.
+   * @param serverRoutingInstance server the data table is received from
+   * @param dataTable data table with data rows
+   */
+  void reduce(ServerRoutingInstance serverRoutingInstance, DataTable dataTable);
+
+  /**
+   * Sets the reduced results into the BrokerResponseNative. Invoked once after at least one data table is reduced.
+   * @param tableName table name
+   * @param dataSchema schema from broker reduce service
+   * @param brokerResponseNative broker response
+   * @param brokerMetrics broker metrics
+   */
+  void setResults(String tableName, DataSchema dataSchema, BrokerResponseNative brokerResponseNative,
+      BrokerMetrics brokerMetrics);
+}
@@ -37,6 +37,7 @@ import org.apache.pinot.common.response.broker.SelectionResults;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.query.request.context.ExpressionContext;
 import org.apache.pinot.core.query.request.context.OrderByExpressionContext;
@@ -235,9 +236,19 @@ public class SelectionOperatorUtils {
    */
   public static DataTable getDataTableFromRows(Collection<Object[]> rows, DataSchema dataSchema)
       throws Exception {
+    return getDataTableFromRows(rows, dataSchema, DataTableImplV2.VERSION);
+  }
+
+  /**
+   * Same as {@link #getDataTableFromRows(Collection, DataSchema)}, but builds the data table with the highest supported
+   * version up to the given version.
+   */
+  public static DataTable getDataTableFromRows(Collection<Object[]> rows, DataSchema dataSchema,
+      int dataTableVersion)
+      throws Exception {
     int numColumns = dataSchema.size();
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, dataTableVersion);
     for (Object[] row : rows) {
       dataTableBuilder.startRow();
       for (int i = 0; i < numColumns; i++) {
@@ -56,11 +56,21 @@ public class RealtimeSegmentConverter {
   private final List<String> _noDictionaryColumns;
   private final List<String> _varLengthDictionaryColumns;
   private final boolean _nullHandlingEnabled;
+  private final int _indexingParallelism;
 
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, TableConfig tableConfig, String segmentName, String sortedColumn,
       List<String> invertedIndexColumns, List<String> textIndexColumns, List<String> fstIndexColumns,
       List<String> noDictionaryColumns, List<String> varLengthDictionaryColumns, boolean nullHandlingEnabled) {
+    this(realtimeSegment, outputPath, schema, tableName, tableConfig, segmentName, sortedColumn, invertedIndexColumns,
+        textIndexColumns, fstIndexColumns, noDictionaryColumns, varLengthDictionaryColumns, nullHandlingEnabled, 1);
+  }
+
+  public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
+      String tableName, TableConfig tableConfig, String segmentName, String sortedColumn,
+      List<String> invertedIndexColumns, List<String> textIndexColumns, List<String> fstIndexColumns,
+      List<String> noDictionaryColumns, List<String> varLengthDictionaryColumns, boolean nullHandlingEnabled,
+      int indexingParallelism) {
     _realtimeSegmentImpl = realtimeSegment;
     _outputPath = outputPath;
     _invertedIndexColumns = new ArrayList<>(invertedIndexColumns);
@@ -77,6 +87,7 @@ public class RealtimeSegmentConverter {
     _nullHandlingEnabled = nullHandlingEnabled;
     _textIndexColumns = textIndexColumns;
     _fstIndexColumns = fstIndexColumns;
+    _indexingParallelism = indexingParallelism;
   }
 
   public void build(@Nullable SegmentVersion segmentVersion, ServerMetrics serverMetrics)
@@ -122,6 +133,7 @@ public class RealtimeSegmentConverter {
     SegmentPartitionConfig segmentPartitionConfig = _realtimeSegmentImpl.getSegmentPartitionConfig();
     genConfig.setSegmentPartitionConfig(segmentPartitionConfig);
     genConfig.setNullHandlingEnabled(_nullHandlingEnabled);
+    genConfig.setIndexingParallelism(_indexingParallelism);
     final SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
     RealtimeSegmentSegmentCreationDataSource dataSource =
         new RealtimeSegmentSegmentCreationDataSource(_realtimeSegmentImpl, reader, _dataSchema);
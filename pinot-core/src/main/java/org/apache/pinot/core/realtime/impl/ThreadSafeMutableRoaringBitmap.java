@@ -18,26 +18,48 @@
  */
 package org.apache.pinot.core.realtime.impl;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Helper wrapper class for {@link MutableRoaringBitmap} to make it thread-safe.
+ * <p>Besides the copy returned by {@link #getMutableRoaringBitmap()}, the readers can get a read-only snapshot of the
+ * bitmap via {@link #getSnapshot()}. The snapshot is shared by all the readers until the bitmap is modified, and is
+ * rebuilt outside of the lock from the previous snapshot plus the changes applied after it, so that the writers are not
+ * blocked by the O(n) copy.
  */
 public class ThreadSafeMutableRoaringBitmap {
+  // Max number of changes tracked after the last snapshot before falling back to copy the whole bitmap
+  private static final int MAX_NUM_PENDING_CHANGES = 1 << 16;
+
   private final MutableRoaringBitmap _mutableRoaringBitmap;
+  // Changes applied to the bitmap after the last snapshot, where the removed doc ids are stored as ~docId
+  private final IntArrayList _pendingChanges = new IntArrayList();
+
+  // Last built snapshot (guarded by the lock), or null if the pending changes overflowed
+  private MutableRoaringBitmap _lastSnapshot;
+  // Read-only snapshot of the bitmap shared by the readers, reset to null when the bitmap is modified
+  private volatile ImmutableRoaringBitmap _snapshot;
 
   public ThreadSafeMutableRoaringBitmap() {
     _mutableRoaringBitmap = new MutableRoaringBitmap();
+    _lastSnapshot = new MutableRoaringBitmap();
+    _snapshot = _lastSnapshot;
   }
 
   public ThreadSafeMutableRoaringBitmap(int firstDocId) {
     _mutableRoaringBitmap = new MutableRoaringBitmap();
     _mutableRoaringBitmap.add(firstDocId);
+    _lastSnapshot = new MutableRoaringBitmap();
+    _pendingChanges.add(firstDocId);
   }
 
   public synchronized void add(int docId) {
-    _mutableRoaringBitmap.add(docId);
+    if (_mutableRoaringBitmap.checkedAdd(docId)) {
+      recordChange(docId);
+    }
   }
 
   public synchronized boolean contains(int docId) {
@@ -45,10 +67,81 @@ public class ThreadSafeMutableRoaringBitmap {
   }
 
   public synchronized void remove(int docId) {
-    _mutableRoaringBitmap.remove(docId);
+    if (_mutableRoaringBitmap.checkedRemove(docId)) {
+      recordChange(~docId);
+    }
+  }
+
+  public synchronized boolean isEmpty() {
+    return _mutableRoaringBitmap.isEmpty();
   }
 
   public synchronized MutableRoaringBitmap getMutableRoaringBitmap() {
     return _mutableRoaringBitmap.clone();
   }
+
+  /**
+   * Returns a consistent read-only snapshot of the bitmap. The same snapshot is returned until the bitmap is modified.
+   * <p>The lock is only held to collect the changes applied after the last snapshot, and the copy is made outside of the
+   * lock. The whole bitmap is copied under the lock only when more than {@link #MAX_NUM_PENDING_CHANGES} changes are
+   * applied between two snapshots, which amortizes the cost across the modifications.
+   * <p>NOTE: The returned snapshot is shared among the readers and should not be modified.
+   */
+  public ImmutableRoaringBitmap getSnapshot() {
+    ImmutableRoaringBitmap snapshot = _snapshot;
+    if (snapshot != null) {
+      return snapshot;
+    }
+    MutableRoaringBitmap lastSnapshot;
+    int[] pendingChanges;
+    synchronized (this) {
+      snapshot = _snapshot;
+      if (snapshot != null) {
+        return snapshot;
+      }
+      lastSnapshot = _lastSnapshot;
+      if (lastSnapshot == null) {
+        MutableRoaringBitmap newSnapshot = _mutableRoaringBitmap.clone();
+        _lastSnapshot = newSnapshot;
+        _pendingChanges.clear();
+        _snapshot = newSnapshot;
+        return newSnapshot;
+      }
+      pendingChanges = _pendingChanges.toIntArray();
+    }
+
+    // Apply the pending changes on a copy of the last snapshot outside of the lock
+    MutableRoaringBitmap newSnapshot = lastSnapshot.clone();
+    for (int change : pendingChanges) {
+      if (change >= 0) {
+        newSnapshot.add(change);
+      } else {
+        newSnapshot.remove(~change);
+      }
+    }
+
+    synchronized (this) {
+      // Only publish the new snapshot if no other snapshot is published and the pending changes did not overflow
+      if (_lastSnapshot == lastSnapshot) {
+        _lastSnapshot = newSnapshot;
+        _pendingChanges.removeElements(0, pendingChanges.length);
+        if (_pendingChanges.isEmpty()) {
+          _snapshot = newSnapshot;
+        }
+      }
+    }
+    return newSnapshot;
+  }
+
+  private void recordChange(int change) {
+    _snapshot = null;
+    if (_lastSnapshot != null) {
+      if (_pendingChanges.size() < MAX_NUM_PENDING_CHANGES) {
+        _pendingChanges.add(change);
+      } else {
+        _lastSnapshot = null;
+        _pendingChanges.clear();
+      }
+    }
+  }
 }
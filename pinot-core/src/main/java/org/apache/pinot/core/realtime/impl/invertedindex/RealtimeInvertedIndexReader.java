@@ -18,65 +18,59 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import java.util.Arrays;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
- * <p>This class is thread-safe for single writer multiple readers.
+ * <p>This class is thread-safe for single writer multiple readers, and is lock-free. The document ids for each
+ * dictionary id are stored in a {@link RealtimePostingList}, and the writer publishes the posting list array before
+ * publishing the number of posting lists.
  */
 public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private static final int INITIAL_NUM_POSTING_LISTS = 16;
 
-  public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  private volatile RealtimePostingList[] _postingLists = new RealtimePostingList[INITIAL_NUM_POSTING_LISTS];
+  private volatile int _numPostingLists;
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
    */
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
+    int numPostingLists = _numPostingLists;
+    if (numPostingLists == dictId) {
+      // Posting list for the dictionary id does not exist, add a new posting list
+      RealtimePostingList[] postingLists = _postingLists;
+      if (numPostingLists == postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, numPostingLists * 2);
+        _postingLists = postingLists;
       }
+      postingLists[numPostingLists] = new RealtimePostingList(docId);
+      _numPostingLists = numPostingLists + 1;
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).add(docId);
+      // Posting list for the dictionary id already exists, add document id into the posting list
+      _postingLists[dictId].add(docId);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>NOTE: The returned bitmap might be shared with other readers, and should not be modified.
+   */
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the posting list size (not equal).
+    // NOTE: Read the number of posting lists before reading the array so that the array contains all the published
+    //       posting lists.
+    if (_numPostingLists <= dictId) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    return _postingLists[dictId].getDocIds();
   }
 
   @Override
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pinot.core.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.json.BaseJsonIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Real-time json index reader which allows adding json documents on the fly.
+ * <p>The documents are flattened the same way as {@link OnHeapJsonIndexCreator}. This class is thread-safe for single
+ * writer multiple readers, where the document ids for each posting key are stored in a lock-free
+ * {@link RealtimePostingList}.
+ */
+public class RealtimeJsonIndexReader extends BaseJsonIndexReader {
+  private final Map<String, RealtimePostingList> _postingListMap = new ConcurrentHashMap<>();
+  private volatile int _numDocs;
+
+  /**
+   * Adds the next json document.
+   */
+  public void add(String jsonString) {
+    int docId = _numDocs;
+    for (String postingKey : OnHeapJsonIndexCreator.getPostingKeys(jsonString)) {
+      RealtimePostingList postingList = _postingListMap.get(postingKey);
+      if (postingList == null) {
+        _postingListMap.put(postingKey, new RealtimePostingList(docId));
+      } else {
+        postingList.add(docId);
+      }
+    }
+    _numDocs = docId + 1;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>NOTE: The returned bitmap might be shared with other readers, and should not be modified.
+   */
+  @Override
+  protected ImmutableRoaringBitmap getDocIds(String postingKey) {
+    RealtimePostingList postingList = _postingListMap.get(postingKey);
+    return postingList != null ? postingList.getDocIds() : new MutableRoaringBitmap();
+  }
+
+  @Override
+  protected int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  public void close() {
+  }
+}
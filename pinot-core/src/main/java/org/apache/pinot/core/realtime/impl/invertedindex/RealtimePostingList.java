@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl.invertedindex;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Lock-free posting list (sorted document ids) for the real-time indexes, which is thread-safe for single writer
+ * multiple readers:
+ * <ul>
+ *   <li>
+ *     The document ids are stored as an immutable sealed bitmap plus an append-only int array (tail) for the recently
+ *     added document ids. Because the documents are indexed in the order of the document id, the tail is always sorted
+ *     and all the document ids in it are larger than the ones in the sealed bitmap.
+ *   </li>
+ *   <li>
+ *     The writer publishes the tail array before publishing the tail size, and the readers only read the values within
+ *     the published size, so that the readers always get a consistent view without locking.
+ *   </li>
+ *   <li>
+ *     Once the tail is full, the writer compacts it into a new sealed bitmap and publishes it along with an empty tail.
+ *     The sealed bitmap is never modified after being published, so it is shared by all the readers, and only the tail
+ *     is converted on each read.
+ *   </li>
+ * </ul>
+ */
+class RealtimePostingList {
+  private static final int INITIAL_TAIL_CAPACITY = 4;
+  // Size of the tail to be compacted into the sealed bitmap, which bounds the document ids converted on each read
+  private static final int MAX_TAIL_SIZE = 1024;
+
+  private volatile Chunk _chunk;
+  // Only accessed by the writer
+  private int _lastDocId;
+
+  RealtimePostingList(int firstDocId) {
+    Chunk chunk = new Chunk(null, new int[INITIAL_TAIL_CAPACITY]);
+    chunk._tail[0] = firstDocId;
+    chunk._tailSize = 1;
+    _chunk = chunk;
+    _lastDocId = firstDocId;
+  }
+
+  /**
+   * Appends the document id. Should only be called by the writer.
+   */
+  void add(int docId) {
+    // Skip the duplicate document id (e.g. same value appears multiple times in a multi-value entry)
+    if (_lastDocId == docId) {
+      return;
+    }
+    _lastDocId = docId;
+    Chunk chunk = _chunk;
+    int tailSize = chunk._tailSize;
+    int[] tail = chunk._tail;
+    if (tailSize == tail.length) {
+      if (tailSize == MAX_TAIL_SIZE) {
+        // Compact the full tail into a new sealed bitmap, and publish it along with a new tail
+        MutableRoaringBitmap sealedBitmap =
+            chunk._sealedBitmap != null ? chunk._sealedBitmap.clone() : new MutableRoaringBitmap();
+        sealedBitmap.addN(tail, 0, tailSize);
+        sealedBitmap.runOptimize();
+        chunk = new Chunk(sealedBitmap, new int[MAX_TAIL_SIZE]);
+        _chunk = chunk;
+        tail = chunk._tail;
+        tailSize = 0;
+      } else {
+        tail = Arrays.copyOf(tail, tailSize * 2);
+        chunk._tail = tail;
+      }
+    }
+    tail[tailSize] = docId;
+    chunk._tailSize = tailSize + 1;
+  }
+
+  /**
+   * Returns the document ids added so far.
+   * <p>NOTE: The returned bitmap might be shared with other readers, and should not be modified.
+   */
+  MutableRoaringBitmap getDocIds() {
+    // NOTE: Read the tail size before reading the tail so that the tail contains all the published document ids.
+    Chunk chunk = _chunk;
+    int tailSize = chunk._tailSize;
+    int[] tail = chunk._tail;
+    MutableRoaringBitmap sealedBitmap = chunk._sealedBitmap;
+    if (sealedBitmap == null) {
+      MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+      bitmap.addN(tail, 0, tailSize);
+      return bitmap;
+    }
+    if (tailSize == 0) {
+      return sealedBitmap;
+    }
+    MutableRoaringBitmap bitmap = sealedBitmap.clone();
+    bitmap.addN(tail, 0, tailSize);
+    return bitmap;
+  }
+
+  /**
+   * The sealed bitmap (never modified once published) and the tail appended after it.
+   */
+  private static class Chunk {
+    final MutableRoaringBitmap _sealedBitmap;
+    volatile int[] _tail;
+    volatile int _tailSize;
+
+    Chunk(@Nullable MutableRoaringBitmap sealedBitmap, int[] tail) {
+      _sealedBitmap = sealedBitmap;
+      _tail = tail;
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.pinot.core.segment.creator;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.pinot.spi.data.Schema;
@@ -53,6 +54,17 @@ public interface SegmentCreator extends Closeable {
    */
   void indexRow(GenericRow row);
 
+  /**
+   * Adds a batch of rows to the index, in the order of the list.
+   *
+   * @param rows The rows to index.
+   */
+  default void indexRows(List<GenericRow> rows) {
+    for (GenericRow row : rows) {
+      indexRow(row);
+    }
+  }
+
   /**
    * Sets the name of the segment.
    *
@@ -23,23 +23,33 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.utils.FileUtils;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.data.partition.PartitionFunction;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ZstandardCompressor;
 import org.apache.pinot.core.io.util.PinotDataBitSet;
 import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
 import org.apache.pinot.core.segment.creator.ColumnIndexCreationInfo;
 import org.apache.pinot.core.segment.creator.DictionaryBasedInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.ForwardIndexCreator;
+import org.apache.pinot.core.segment.creator.JsonIndexCreator;
 import org.apache.pinot.core.segment.creator.SegmentCreator;
 import org.apache.pinot.core.segment.creator.SegmentIndexCreationInfo;
 import org.apache.pinot.core.segment.creator.TextIndexCreator;
@@ -51,6 +61,7 @@ import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueUnsortedForward
 import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.text.LuceneFSTIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.core.segment.creator.impl.text.LuceneTextIndexCreator;
@@ -90,6 +101,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, DictionaryBasedInvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
   private Map<String, TextIndexCreator> _textIndexCreatorMap = new HashMap<>();
   private Map<String, TextIndexCreator> _fstIndexCreatorMap = new HashMap<>();
+  private Map<String, JsonIndexCreator> _jsonIndexCreatorMap = new HashMap<>();
   private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
@@ -101,6 +113,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
   private final Set<String> _textIndexColumns = new HashSet<>();
   private final Set<String> _fstIndexColumns = new HashSet<>();
+  private final Set<String> _jsonIndexColumns = new HashSet<>();
+  // Thread pool to index the columns in parallel, null when the indexing parallelism is 1
+  private ExecutorService _indexingExecutorService;
 
   @Override
   public void init(SegmentGeneratorConfig segmentCreationSpec, SegmentIndexCreationInfo segmentIndexCreationInfo,
@@ -120,6 +135,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     this.schema = schema;
     this.totalDocs = segmentIndexCreationInfo.getTotalDocs();
 
+    int indexingParallelism = config.getIndexingParallelism();
+    if (indexingParallelism > 1) {
+      _indexingExecutorService =
+          Executors.newFixedThreadPool(indexingParallelism, new NamedThreadFactory("segment-column-indexing"));
+    }
+
     Collection<FieldSpec> fieldSpecs = schema.getAllFieldSpecs();
     Set<String> invertedIndexColumns = new HashSet<>();
     for (String columnName : config.getInvertedIndexCreationColumns()) {
@@ -140,6 +161,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       _fstIndexColumns.add(columnName);
     }
 
+    for (String columnName : config.getJsonIndexCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create json index for column: %s because it is not in schema", columnName);
+      _jsonIndexColumns.add(columnName);
+    }
+
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
       // Ignore virtual columns
@@ -213,9 +240,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         boolean deriveNumDocsPerChunk =
             shouldDeriveNumDocsPerChunk(columnName, segmentCreationSpec.getColumnProperties());
         int writerVersion = rawIndexWriterVersion(columnName, segmentCreationSpec.getColumnProperties());
+        int compressionLevel = rawIndexCompressionLevel(columnName, segmentCreationSpec.getColumnProperties());
         _forwardIndexCreatorMap.put(columnName,
             getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, fieldSpec.getDataType(), totalDocs,
-                indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion));
+                indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion, compressionLevel));
       }
 
       if (_textIndexColumns.contains(columnName)) {
@@ -239,6 +267,14 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             (String[]) indexCreationInfo.getSortedUniqueElementsArray()));
       }
 
+      if (_jsonIndexColumns.contains(columnName)) {
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "Json index is currently only supported on single-value columns");
+        Preconditions.checkState(fieldSpec.getDataType() == DataType.STRING,
+            "Json index is currently only supported on STRING type columns");
+        _jsonIndexCreatorMap.put(columnName, new OnHeapJsonIndexCreator(_indexDir, columnName));
+      }
+
       _nullHandlingEnabled = config.isNullHandlingEnabled();
       if (_nullHandlingEnabled) {
         // Initialize Null value vector map
@@ -269,6 +305,16 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     return BaseChunkSVForwardIndexWriter.DEFAULT_VERSION;
   }
 
+  public static int rawIndexCompressionLevel(String columnName, Map<String, Map<String, String>> columnProperties) {
+    if (columnProperties != null && columnProperties.get(columnName) != null) {
+      String compressionLevel = columnProperties.get(columnName).get(FieldConfig.RAW_INDEX_COMPRESSION_LEVEL);
+      if (compressionLevel != null) {
+        return Integer.parseInt(compressionLevel);
+      }
+    }
+    return ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL;
+  }
+
   /**
    * Helper method that returns compression type to use based on segment creation spec and field type.
    * <ul>
@@ -331,89 +377,133 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
   @Override
   public void indexRow(GenericRow row) {
+    for (Map.Entry<String, ForwardIndexCreator> entry : _forwardIndexCreatorMap.entrySet()) {
+      indexColumn(entry.getKey(), entry.getValue(), row, docIdCounter);
+    }
+    docIdCounter++;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>When the indexing parallelism is larger than 1, the columns are indexed in parallel, where each column (and all
+   * the index creators of the column) is handled by a single thread in the order of the rows.
+   */
+  @Override
+  public void indexRows(List<GenericRow> rows) {
+    if (_indexingExecutorService == null) {
+      SegmentCreator.super.indexRows(rows);
+      return;
+    }
+    int startDocId = docIdCounter;
+    List<Future<?>> futures = new ArrayList<>(_forwardIndexCreatorMap.size());
     for (Map.Entry<String, ForwardIndexCreator> entry : _forwardIndexCreatorMap.entrySet()) {
       String columnName = entry.getKey();
       ForwardIndexCreator forwardIndexCreator = entry.getValue();
-
-      Object columnValueToIndex = row.getValue(columnName);
-      if (columnValueToIndex == null) {
-        throw new RuntimeException("Null value for column:" + columnName);
+      futures.add(_indexingExecutorService.submit(() -> {
+        int docId = startDocId;
+        for (GenericRow row : rows) {
+          indexColumn(columnName, forwardIndexCreator, row, docId++);
+        }
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while indexing rows", e);
+    } catch (ExecutionException e) {
+      for (Future<?> future : futures) {
+        future.cancel(true);
       }
+      Utils.rethrowException(e.getCause());
+    }
+    docIdCounter += rows.size();
+  }
+
+  private void indexColumn(String columnName, ForwardIndexCreator forwardIndexCreator, GenericRow row, int docId) {
+    Object columnValueToIndex = row.getValue(columnName);
+    if (columnValueToIndex == null) {
+      throw new RuntimeException("Null value for column:" + columnName);
+    }
 
-      boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
-      SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
 
-      if (isSingleValue) {
-        // SV column
-        // text-index enabled SV column
-        if (_textIndexColumns.contains(columnName)) {
-          _textIndexCreatorMap.get(columnName).add((String) columnValueToIndex);
+    if (isSingleValue) {
+      // SV column
+      // text-index enabled SV column
+      if (_textIndexColumns.contains(columnName)) {
+        _textIndexCreatorMap.get(columnName).add((String) columnValueToIndex);
+      }
+      // json-index enabled SV column
+      JsonIndexCreator jsonIndexCreator = _jsonIndexCreatorMap.get(columnName);
+      if (jsonIndexCreator != null) {
+        jsonIndexCreator.add((String) columnValueToIndex);
+      }
+      if (dictionaryCreator != null) {
+        // dictionary encoded SV column
+        // get dictID from dictionary
+        int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
+        // store the docID -> dictID mapping in forward index
+        forwardIndexCreator.putDictId(dictId);
+        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+        if (invertedIndexCreator != null) {
+          // if inverted index enabled during segment creation,
+          // then store dictID -> docID mapping in inverted index
+          invertedIndexCreator.add(dictId);
         }
-        if (dictionaryCreator != null) {
-          // dictionary encoded SV column
-          // get dictID from dictionary
-          int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
-          // store the docID -> dictID mapping in forward index
-          forwardIndexCreator.putDictId(dictId);
-          DictionaryBasedInvertedIndexCreator invertedIndexCreator =
-                  _invertedIndexCreatorMap.get(columnName);
-          if (invertedIndexCreator != null) {
-            // if inverted index enabled during segment creation,
-            // then store dictID -> docID mapping in inverted index
-            invertedIndexCreator.add(dictId);
-          }
-        } else {
-          // non-dictionary encoded SV column
-          // store the docId -> raw value mapping in forward index
-          if (_textIndexColumns.contains(columnName) && !shouldStoreRawValueForTextIndex(columnName)) {
-            // for text index on raw columns, check the config to determine if actual raw value should
-            // be stored or not
-            columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
-            if (columnValueToIndex == null) {
-              columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
-            }
-          }
-          switch (forwardIndexCreator.getValueType()) {
-            case INT:
-              forwardIndexCreator.putInt((int) columnValueToIndex);
-              break;
-            case LONG:
-              forwardIndexCreator.putLong((long) columnValueToIndex);
-              break;
-            case FLOAT:
-              forwardIndexCreator.putFloat((float) columnValueToIndex);
-              break;
-            case DOUBLE:
-              forwardIndexCreator.putDouble((double) columnValueToIndex);
-              break;
-            case STRING:
-              forwardIndexCreator.putString((String) columnValueToIndex);
-              break;
-            case BYTES:
-              forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
-              break;
-            default:
-              throw new IllegalStateException();
+      } else {
+        // non-dictionary encoded SV column
+        // store the docId -> raw value mapping in forward index
+        if (_textIndexColumns.contains(columnName) && !shouldStoreRawValueForTextIndex(columnName)) {
+          // for text index on raw columns, check the config to determine if actual raw value should
+          // be stored or not
+          columnValueToIndex = _columnProperties.get(columnName).get(FieldConfig.TEXT_INDEX_RAW_VALUE);
+          if (columnValueToIndex == null) {
+            columnValueToIndex = FieldConfig.TEXT_INDEX_DEFAULT_RAW_VALUE;
           }
         }
-      } else {
-        // MV column (always dictionary encoded)
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        forwardIndexCreator.putDictIdMV(dictIds);
-        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-        if (invertedIndexCreator != null) {
-          invertedIndexCreator.add(dictIds, dictIds.length);
+        switch (forwardIndexCreator.getValueType()) {
+          case INT:
+            forwardIndexCreator.putInt((int) columnValueToIndex);
+            break;
+          case LONG:
+            forwardIndexCreator.putLong((long) columnValueToIndex);
+            break;
+          case FLOAT:
+            forwardIndexCreator.putFloat((float) columnValueToIndex);
+            break;
+          case DOUBLE:
+            forwardIndexCreator.putDouble((double) columnValueToIndex);
+            break;
+          case STRING:
+            forwardIndexCreator.putString((String) columnValueToIndex);
+            break;
+          case BYTES:
+            forwardIndexCreator.putBytes((byte[]) columnValueToIndex);
+            break;
+          default:
+            throw new IllegalStateException();
         }
       }
+    } else {
+      // MV column (always dictionary encoded)
+      int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+      forwardIndexCreator.putDictIdMV(dictIds);
+      DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+      if (invertedIndexCreator != null) {
+        invertedIndexCreator.add(dictIds, dictIds.length);
+      }
+    }
 
-      if (_nullHandlingEnabled) {
-        // If row has null value for given column name, add to null value vector
-        if (row.isNullValue(columnName)) {
-          _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
-        }
+    if (_nullHandlingEnabled) {
+      // If row has null value for given column name, add to null value vector
+      if (row.isNullValue(columnName)) {
+        _nullValueVectorCreatorMap.get(columnName).setNull(docId);
       }
     }
-    docIdCounter++;
   }
 
   private boolean shouldStoreRawValueForTextIndex(String column) {
@@ -447,6 +537,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (TextIndexCreator fstIndexCreator : _fstIndexCreatorMap.values()) {
       fstIndexCreator.seal();
     }
+    for (JsonIndexCreator jsonIndexCreator : _jsonIndexCreatorMap.values()) {
+      jsonIndexCreator.seal();
+    }
     for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
       nullValueVectorCreator.seal();
     }
@@ -656,17 +749,39 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       ChunkCompressorFactory.CompressionType compressionType, String column, DataType dataType, int totalDocs,
       int lengthOfLongestEntry, boolean deriveNumDocsPerChunk, int writerVersion)
       throws IOException {
+    return getRawIndexCreatorForColumn(file, compressionType, column, dataType, totalDocs, lengthOfLongestEntry,
+        deriveNumDocsPerChunk, writerVersion, ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  /**
+   * Helper method to build the raw index creator for the column.
+   * Assumes that column to be indexed is single valued.
+   *
+   * @param file Output index file
+   * @param column Column name
+   * @param totalDocs Total number of documents to index
+   * @param lengthOfLongestEntry Length of longest entry
+   * @param deriveNumDocsPerChunk true if varbyte writer should auto-derive the number of rows per chunk
+   * @param writerVersion version to use for the raw index writer
+   * @param compressionLevel compression level (only applicable to ZSTANDARD compression)
+   * @return raw index creator
+   * @throws IOException
+   */
+  public static ForwardIndexCreator getRawIndexCreatorForColumn(File file,
+      ChunkCompressorFactory.CompressionType compressionType, String column, DataType dataType, int totalDocs,
+      int lengthOfLongestEntry, boolean deriveNumDocsPerChunk, int writerVersion, int compressionLevel)
+      throws IOException {
     switch (dataType) {
       case INT:
       case LONG:
       case FLOAT:
       case DOUBLE:
         return new SingleValueFixedByteRawIndexCreator(file, compressionType, column, totalDocs, dataType,
-            writerVersion);
+            writerVersion, compressionLevel);
       case STRING:
       case BYTES:
         return new SingleValueVarByteRawIndexCreator(file, compressionType, column, totalDocs, dataType,
-            lengthOfLongestEntry, deriveNumDocsPerChunk, writerVersion);
+            lengthOfLongestEntry, deriveNumDocsPerChunk, writerVersion, compressionLevel);
       default:
         throw new UnsupportedOperationException("Data type not supported for raw indexing: " + dataType);
     }
@@ -675,8 +790,11 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void close()
       throws IOException {
+    if (_indexingExecutorService != null) {
+      _indexingExecutorService.shutdownNow();
+    }
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
-            _textIndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
+            _textIndexCreatorMap.values(), _jsonIndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
   }
 }
@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -73,6 +74,8 @@ import org.slf4j.LoggerFactory;
 // TODO: Check resource leaks
 public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDriver {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentIndexCreationDriverImpl.class);
+  // Number of rows buffered before indexing them with multiple threads
+  private static final int PARALLEL_INDEXING_CHUNK_SIZE = 10_000;
 
   private SegmentGeneratorConfig config;
   private RecordReader recordReader;
@@ -89,6 +92,8 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
   private long totalRecordReadTime = 0;
   private long totalIndexTime = 0;
   private long totalStatsCollectorTime = 0;
+  // Buffer of the rows to be indexed in parallel, null when indexing row by row
+  private List<GenericRow> _rowBuffer;
 
   @Override
   public void init(SegmentGeneratorConfig config)
@@ -191,13 +196,24 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
 
       // Build the index
       recordReader.rewind();
-      LOGGER.info("Start building IndexCreator!");
+      int indexingParallelism = config.getIndexingParallelism();
+      if (indexingParallelism > 1) {
+        LOGGER.info("Start building IndexCreator with indexing parallelism: {}", indexingParallelism);
+        _rowBuffer = new ArrayList<>(PARALLEL_INDEXING_CHUNK_SIZE);
+      } else {
+        LOGGER.info("Start building IndexCreator!");
+      }
       GenericRow reuse = new GenericRow();
       while (recordReader.hasNext()) {
         long recordReadStartTime = System.currentTimeMillis();
         long recordReadStopTime;
         long indexStopTime;
-        reuse.clear();
+        // NOTE: Rows cannot be reused when they are buffered
+        if (_rowBuffer != null) {
+          reuse = new GenericRow();
+        } else {
+          reuse.clear();
+        }
         GenericRow decodedRow = recordReader.next(reuse);
         if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
           recordReadStopTime = System.currentTimeMillis();
@@ -208,7 +224,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
             recordReadStopTime = System.currentTimeMillis();
             totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
             if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
-              indexCreator.indexRow(transformedRow);
+              indexRow(transformedRow);
               indexStopTime = System.currentTimeMillis();
               totalIndexTime += (indexStopTime - recordReadStopTime);
             }
@@ -218,12 +234,17 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
           recordReadStopTime = System.currentTimeMillis();
           totalRecordReadTime += (recordReadStopTime - recordReadStartTime);
           if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
-            indexCreator.indexRow(transformedRow);
+            indexRow(transformedRow);
             indexStopTime = System.currentTimeMillis();
             totalIndexTime += (indexStopTime - recordReadStopTime);
           }
         }
       }
+      if (_rowBuffer != null) {
+        long indexStartTime = System.currentTimeMillis();
+        flushRowBuffer();
+        totalIndexTime += System.currentTimeMillis() - indexStartTime;
+      }
     } catch (Exception e) {
       indexCreator.close();
       throw e;
@@ -235,6 +256,24 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     handlePostCreation();
   }
 
+  private void indexRow(GenericRow row) {
+    if (_rowBuffer != null) {
+      _rowBuffer.add(row);
+      if (_rowBuffer.size() == PARALLEL_INDEXING_CHUNK_SIZE) {
+        flushRowBuffer();
+      }
+    } else {
+      indexCreator.indexRow(row);
+    }
+  }
+
+  private void flushRowBuffer() {
+    if (!_rowBuffer.isEmpty()) {
+      indexCreator.indexRows(_rowBuffer);
+      _rowBuffer.clear();
+    }
+  }
+
   private void handlePostCreation()
       throws Exception {
     ColumnStatistics timeColumnStatistics = segmentStats.getColumnProfileFor(config.getTimeColumnName());
@@ -307,6 +346,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       try (
           MultipleTreesBuilder builder = new MultipleTreesBuilder(starTreeIndexConfigs, enableDefaultStarTree, indexDir,
               buildMode)) {
+        builder.setParallelism(config.getIndexingParallelism());
         builder.build();
       }
     }
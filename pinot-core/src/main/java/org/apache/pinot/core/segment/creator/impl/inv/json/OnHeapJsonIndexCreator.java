@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.inv.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.core.io.util.VarLengthBytesValueReaderWriter;
+import org.apache.pinot.core.segment.creator.JsonIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Implementation of {@link JsonIndexCreator} that uses on-heap memory.
+ * <p>Each json document is flattened into a set of posting keys:
+ * <ul>
+ *   <li>Object fields are addressed by joining the field names with '.', e.g. {@code a.b}</li>
+ *   <li>Array elements are addressed with '[*]', e.g. {@code a.c[*]}</li>
+ *   <li>Every non-null path gets a posting key for the path itself (key existence)</li>
+ *   <li>Every leaf value gets a posting key of path + {@link #KEY_VALUE_SEPARATOR} + value</li>
+ * </ul>
+ * Documents that are not valid json are indexed without any posting key.
+ * <p>Index file layout (big-endian):
+ * <ul>
+ *   <li>Header: version (int), number of documents (int), number of keys (int), max key length (int), dictionary
+ *   length (long)</li>
+ *   <li>Dictionary: sorted posting keys stored with {@link VarLengthBytesValueReaderWriter}</li>
+ *   <li>Inverted index: bitmap offsets and bitmaps for each posting key, compatible with
+ *   {@link org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader}</li>
+ * </ul>
+ */
+public class OnHeapJsonIndexCreator implements JsonIndexCreator {
+  public static final int VERSION = 1;
+  public static final int HEADER_LENGTH = 4 * Integer.BYTES + Long.BYTES;
+  public static final char KEY_VALUE_SEPARATOR = '\0';
+  public static final String ARRAY_ELEMENT_SUFFIX = "[*]";
+
+  private final File _jsonIndexFile;
+  private final Map<String, RoaringBitmap> _postingListMap = new HashMap<>();
+  private int _nextDocId;
+
+  public OnHeapJsonIndexCreator(File indexDir, String columnName) {
+    _jsonIndexFile = new File(indexDir, columnName + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+  }
+
+  @Override
+  public void add(String jsonString) {
+    for (String postingKey : getPostingKeys(jsonString)) {
+      _postingListMap.computeIfAbsent(postingKey, k -> new RoaringBitmap()).add(_nextDocId);
+    }
+    _nextDocId++;
+  }
+
+  @Override
+  public void seal()
+      throws IOException {
+    String[] keys = _postingListMap.keySet().toArray(new String[0]);
+    Arrays.sort(keys);
+    int numKeys = keys.length;
+    byte[][] keyBytes = new byte[numKeys][];
+    RoaringBitmap[] bitmaps = new RoaringBitmap[numKeys];
+    int maxKeyLength = 0;
+    long invertedIndexLength = (long) (numKeys + 1) * Integer.BYTES;
+    for (int i = 0; i < numKeys; i++) {
+      keyBytes[i] = StringUtil.encodeUtf8(keys[i]);
+      maxKeyLength = Math.max(maxKeyLength, keyBytes[i].length);
+      RoaringBitmap bitmap = _postingListMap.get(keys[i]);
+      bitmap.runOptimize();
+      bitmaps[i] = bitmap;
+      invertedIndexLength += bitmap.serializedSizeInBytes();
+    }
+    Preconditions.checkState(invertedIndexLength < Integer.MAX_VALUE,
+        "Json index inverted index size: %s exceeds 2GB limit for file: %s", invertedIndexLength, _jsonIndexFile);
+    long dictionaryLength = VarLengthBytesValueReaderWriter.getRequiredSize(keyBytes);
+    long invertedIndexOffset = HEADER_LENGTH + dictionaryLength;
+
+    // Backward-compatible: index file is always big-endian
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer
+        .mapFile(_jsonIndexFile, false, 0, invertedIndexOffset + invertedIndexLength, ByteOrder.BIG_ENDIAN,
+            getClass().getSimpleName())) {
+      dataBuffer.putInt(0, VERSION);
+      dataBuffer.putInt(Integer.BYTES, _nextDocId);
+      dataBuffer.putInt(2 * Integer.BYTES, numKeys);
+      dataBuffer.putInt(3 * Integer.BYTES, maxKeyLength);
+      dataBuffer.putLong(4 * Integer.BYTES, dictionaryLength);
+
+      try (VarLengthBytesValueReaderWriter ignored = new VarLengthBytesValueReaderWriter(
+          dataBuffer.view(HEADER_LENGTH, invertedIndexOffset), keyBytes)) {
+        // Dictionary is written in the constructor
+      }
+
+      int bitmapOffset = (numKeys + 1) * Integer.BYTES;
+      for (int i = 0; i < numKeys; i++) {
+        dataBuffer.putInt(invertedIndexOffset + (long) i * Integer.BYTES, bitmapOffset);
+        byte[] bitmapBytes = new byte[bitmaps[i].serializedSizeInBytes()];
+        bitmaps[i].serialize(ByteBuffer.wrap(bitmapBytes));
+        dataBuffer.readFrom(invertedIndexOffset + bitmapOffset, bitmapBytes);
+        bitmapOffset += bitmapBytes.length;
+      }
+      dataBuffer.putInt(invertedIndexOffset + (long) numKeys * Integer.BYTES, bitmapOffset);
+    } catch (Exception e) {
+      FileUtils.deleteQuietly(_jsonIndexFile);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+
+  /**
+   * Flattens the given json document into the posting keys to be indexed. Returns an empty set if the document is not
+   * valid json.
+   */
+  public static Set<String> getPostingKeys(String jsonString) {
+    JsonNode jsonNode;
+    try {
+      jsonNode = JsonUtils.stringToJsonNode(jsonString);
+    } catch (Exception e) {
+      return Collections.emptySet();
+    }
+    Set<String> postingKeys = new HashSet<>();
+    addPostingKeys(jsonNode, "", postingKeys);
+    return postingKeys;
+  }
+
+  private static void addPostingKeys(JsonNode jsonNode, String path, Set<String> postingKeys) {
+    if (jsonNode.isNull() || jsonNode.isMissingNode()) {
+      return;
+    }
+    if (!path.isEmpty()) {
+      postingKeys.add(path);
+    }
+    if (jsonNode.isObject()) {
+      Iterator<Map.Entry<String, JsonNode>> fields = jsonNode.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        String fieldPath = path.isEmpty() ? field.getKey() : path + '.' + field.getKey();
+        addPostingKeys(field.getValue(), fieldPath, postingKeys);
+      }
+    } else if (jsonNode.isArray()) {
+      String elementPath = path + ARRAY_ELEMENT_SUFFIX;
+      for (JsonNode element : jsonNode) {
+        addPostingKeys(element, elementPath, postingKeys);
+      }
+    } else {
+      postingKeys.add(path + KEY_VALUE_SEPARATOR + jsonNode.asText());
+    }
+  }
+}
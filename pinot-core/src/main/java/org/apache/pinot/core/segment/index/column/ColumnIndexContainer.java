@@ -23,6 +23,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
 
@@ -57,6 +58,11 @@ public interface ColumnIndexContainer extends Closeable {
    */
   TextIndexReader getFSTIndex();
 
+  /**
+   * Returns the json index for the column, or {@code null} if it does not exist.
+   */
+  JsonIndexReader getJsonIndex();
+
   /**
    * Returns the dictionary for the column, or {@code null} if it does not exist.
    */
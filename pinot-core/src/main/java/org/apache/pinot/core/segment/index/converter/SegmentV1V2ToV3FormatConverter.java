@@ -154,6 +154,8 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
           }
           // Copies FST index if there is one available.
           copyExistingFSTIndex(v2DataReader, v3DataWriter, column);
+          // Copies json index if there is one available.
+          copyExistingJsonIndex(v2DataReader, v3DataWriter, column);
         }
 
         // inverted indexes are intentionally stored at the end of the single file
@@ -207,6 +209,13 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     }
   }
 
+  private void copyExistingJsonIndex(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column)
+      throws IOException {
+    if (reader.hasIndexFor(column, ColumnIndexType.JSON_INDEX)) {
+      readCopyBuffers(reader, writer, column, ColumnIndexType.JSON_INDEX);
+    }
+  }
+
   private void readCopyBuffers(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column,
       ColumnIndexType indexType)
       throws IOException {
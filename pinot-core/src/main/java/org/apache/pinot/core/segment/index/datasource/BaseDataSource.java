@@ -25,6 +25,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
 import org.apache.pinot.core.segment.index.readers.LuceneFSTIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
 import org.apache.pinot.core.segment.index.readers.TextIndexReader;
@@ -38,6 +39,7 @@ public abstract class BaseDataSource implements DataSource {
   private final InvertedIndexReader<?> _rangeIndex;
   private final TextIndexReader _textIndex;
   private final TextIndexReader _fstIndex;
+  private final JsonIndexReader _jsonIndex;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReader _nullValueVector;
 
@@ -46,6 +48,7 @@ public abstract class BaseDataSource implements DataSource {
                         @Nullable InvertedIndexReader<?> rangeIndex,
                         @Nullable TextIndexReader textIndex,
                         @Nullable TextIndexReader fstIndex,
+                        @Nullable JsonIndexReader jsonIndex,
                         @Nullable BloomFilterReader bloomFilter,
                         @Nullable NullValueVectorReader nullValueVector) {
     _dataSourceMetadata = dataSourceMetadata;
@@ -55,6 +58,7 @@ public abstract class BaseDataSource implements DataSource {
     _rangeIndex = rangeIndex;
     _textIndex = textIndex;
     _fstIndex = fstIndex;
+    _jsonIndex = jsonIndex;
     _bloomFilter = bloomFilter;
     _nullValueVector = nullValueVector;
   }
@@ -99,6 +103,12 @@ public abstract class BaseDataSource implements DataSource {
     return _textIndex;
   }
 
+  @Nullable
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return _jsonIndex;
+  }
+
   @Nullable
   @Override
   public BloomFilterReader getBloomFilter() {
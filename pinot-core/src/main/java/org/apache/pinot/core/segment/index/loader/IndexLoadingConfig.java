@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.data.manager.config.InstanceDataManagerConfig;
@@ -50,6 +51,7 @@ public class IndexLoadingConfig {
   private Set<String> _textIndexColumns = new HashSet<>();
   private Set<String> _fstIndexColumns = new HashSet<>();
   private Set<String> _rangeIndexColumns = new HashSet<>();
+  private Set<String> _jsonIndexColumns = new HashSet<>();
   private Set<String> _noDictionaryColumns = new HashSet<>(); // TODO: replace this by _noDictionaryConfig.
   private Map<String, String> _noDictionaryConfig = new HashMap<>();
   private Set<String> _varLengthDictionaryColumns = new HashSet<>();
@@ -67,6 +69,8 @@ public class IndexLoadingConfig {
   private boolean _isDirectRealtimeOffHeapAllocation;
   private boolean _enableSplitCommitEndWithMetadata;
   private String _segmentStoreURI;
+  private int _realtimeSegmentBuildParallelism = 1;
+  private ExecutorService _indexBuildingExecutor;
 
   // constructed from FieldConfig
   private Map<String, Map<String, String>> _columnProperties = new HashMap<>();
@@ -98,6 +102,11 @@ public class IndexLoadingConfig {
       _rangeIndexColumns.addAll(rangeIndexColumns);
     }
 
+    List<String> jsonIndexColumns = indexingConfig.getJsonIndexColumns();
+    if (jsonIndexColumns != null) {
+      _jsonIndexColumns.addAll(jsonIndexColumns);
+    }
+
     List<String> bloomFilterColumns = indexingConfig.getBloomFilterColumns();
     if (bloomFilterColumns != null) {
       for (String bloomFilterColumn : bloomFilterColumns) {
@@ -209,6 +218,7 @@ public class IndexLoadingConfig {
     }
     _enableSplitCommitEndWithMetadata = instanceDataManagerConfig.isEnableSplitCommitEndWithMetadata();
     _segmentStoreURI = instanceDataManagerConfig.getConfig().getProperty(SEGMENT_STORE_URI);
+    _realtimeSegmentBuildParallelism = instanceDataManagerConfig.getRealtimeSegmentBuildParallelism();
   }
 
   /**
@@ -240,6 +250,10 @@ public class IndexLoadingConfig {
     return _rangeIndexColumns;
   }
 
+  public Set<String> getJsonIndexColumns() {
+    return _jsonIndexColumns;
+  }
+
   public Map<String, Map<String, String>> getColumnProperties() {
     return _columnProperties;
   }
@@ -282,6 +296,14 @@ public class IndexLoadingConfig {
     _rangeIndexColumns = rangeIndexColumns;
   }
 
+  /**
+   * For tests only.
+   */
+  @VisibleForTesting
+  public void setJsonIndexColumns(Set<String> jsonIndexColumns) {
+    _jsonIndexColumns = jsonIndexColumns;
+  }
+
   /**
    * Used directly from text search unit test code since the test code
    * doesn't really have a table config and is directly testing the
@@ -364,6 +386,10 @@ public class IndexLoadingConfig {
     return _isRealtimeOffHeapAllocation;
   }
 
+  public int getRealtimeSegmentBuildParallelism() {
+    return _realtimeSegmentBuildParallelism;
+  }
+
   public boolean isDirectRealtimeOffHeapAllocation() {
     return _isDirectRealtimeOffHeapAllocation;
   }
@@ -386,4 +412,17 @@ public class IndexLoadingConfig {
   public int getRealtimeAvgMultiValueCount() {
     return _realtimeAvgMultiValueCount;
   }
+
+  /**
+   * Returns the server level executor used to build the missing indexes of the columns in parallel, or {@code null} if
+   * the indexes should be built sequentially on the segment loading thread.
+   */
+  @Nullable
+  public ExecutorService getIndexBuildingExecutor() {
+    return _indexBuildingExecutor;
+  }
+
+  public void setIndexBuildingExecutor(@Nullable ExecutorService indexBuildingExecutor) {
+    _indexBuildingExecutor = indexBuildingExecutor;
+  }
 }
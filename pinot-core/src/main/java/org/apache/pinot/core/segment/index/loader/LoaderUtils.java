@@ -22,8 +22,13 @@ import com.google.common.base.Preconditions;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.utils.CommonConstants;
@@ -59,6 +64,57 @@ public class LoaderUtils {
     FileUtils.forceDelete(indexFile);
   }
 
+  /**
+   * Runs the given index creation task for each of the columns. When an executor service is provided, the tasks are
+   * submitted to it and this method blocks until all of them finish; otherwise they are run sequentially on the
+   * caller thread.
+   * <p>NOTE: The tasks run concurrently with each other, so the access to the shared segment writer inside the task
+   * must be synchronized on the writer.
+   */
+  public static <T> void createIndexes(Collection<T> columns, @Nullable ExecutorService executorService,
+      IndexCreationTask<T> task)
+      throws Exception {
+    if (executorService == null || columns.size() <= 1) {
+      for (T column : columns) {
+        task.createIndex(column);
+      }
+      return;
+    }
+    List<Future<?>> futures = new ArrayList<>(columns.size());
+    for (T column : columns) {
+      futures.add(executorService.submit(() -> {
+        task.createIndex(column);
+        return null;
+      }));
+    }
+    // Wait for all the tasks to finish before surfacing the failure so that no task still accesses the segment writer
+    // after it is closed
+    Exception exception = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (exception == null) {
+          exception = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        } else {
+          exception.addSuppressed(cause);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Creates the index for a single column.
+   */
+  public interface IndexCreationTask<T> {
+    void createIndex(T column)
+        throws Exception;
+  }
+
   /**
    * Get string list from segment properties.
    * <p>
@@ -19,7 +19,10 @@
 package org.apache.pinot.core.segment.index.loader;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
@@ -31,16 +34,20 @@ import org.apache.pinot.core.segment.index.loader.columnminmaxvalue.ColumnMinMax
 import org.apache.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandler;
 import org.apache.pinot.core.segment.index.loader.defaultcolumn.DefaultColumnHandlerFactory;
 import org.apache.pinot.core.segment.index.loader.invertedindex.InvertedIndexHandler;
+import org.apache.pinot.core.segment.index.loader.invertedindex.JsonIndexHandler;
 import org.apache.pinot.core.segment.index.loader.invertedindex.LuceneFSTIndexHandler;
 import org.apache.pinot.core.segment.index.loader.invertedindex.RangeIndexHandler;
 import org.apache.pinot.core.segment.index.loader.invertedindex.TextIndexHandler;
+import org.apache.pinot.core.segment.index.metadata.ColumnMetadata;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
 import org.apache.pinot.core.segment.store.SegmentDirectory;
 import org.apache.pinot.core.startree.StarTreeBuilderUtils;
 import org.apache.pinot.core.startree.StarTreeUtils;
 import org.apache.pinot.core.startree.v2.StarTreeV2Metadata;
 import org.apache.pinot.core.startree.v2.builder.MultipleTreesBuilder;
 import org.apache.pinot.core.startree.v2.builder.StarTreeV2BuilderConfig;
+import org.apache.pinot.spi.config.table.BloomFilterConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +61,8 @@ import org.slf4j.LoggerFactory;
  *   <li>Use {@link DefaultColumnHandler} to update auto-generated default columns</li>
  *   <li>Use {@link ColumnMinMaxValueGenerator} to add min/max value to column metadata</li>
  * </ul>
+ * <p>The inverted indexes, range indexes and bloom filters of different columns are built in parallel when the index
+ * loading config provides an index building executor.
  */
 public class SegmentPreProcessor implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreProcessor.class);
@@ -114,6 +123,11 @@ public class SegmentPreProcessor implements AutoCloseable {
           new RangeIndexHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
       rangeIndexHandler.createRangeIndices();
 
+      // Create column json indices according to the index config.
+      JsonIndexHandler jsonIndexHandler =
+          new JsonIndexHandler(_indexDir, _segmentMetadata, _indexLoadingConfig, segmentWriter);
+      jsonIndexHandler.createJsonIndices();
+
       Set<String> textIndexColumns = _indexLoadingConfig.getTextIndexColumns();
       if (textIndexColumns.size() > 0) {
         TextIndexHandler textIndexHandler =
@@ -185,4 +199,63 @@ public class SegmentPreProcessor implements AutoCloseable {
       throws Exception {
     _segmentDirectory.close();
   }
+
+  /**
+   * Removes the inverted indexes, range indexes and bloom filters that do not exist in the segment yet from the given
+   * index loading config, and returns whether any index is removed. Loading the segment with the modified config
+   * brings it online without building these indexes, and the filters on the affected columns are solved by scanning
+   * until the segment is reloaded with the original config.
+   * <p>NOTE: JSON indexes are never removed because JSON_MATCH filters cannot be solved without the index.
+   */
+  public static boolean removeMissingIndexes(File indexDir, IndexLoadingConfig indexLoadingConfig)
+      throws Exception {
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(indexDir);
+    if (segmentMetadata.getTotalDocs() == 0) {
+      return false;
+    }
+    boolean removed = false;
+    try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata,
+        ReadMode.mmap); SegmentDirectory.Reader segmentReader = segmentDirectory.createReader()) {
+      Set<String> invertedIndexColumns = new HashSet<>();
+      for (String column : indexLoadingConfig.getInvertedIndexColumns()) {
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+        if (columnMetadata == null || columnMetadata.isSorted() || !columnMetadata.hasDictionary() || segmentReader
+            .hasIndexFor(column, ColumnIndexType.INVERTED_INDEX)) {
+          invertedIndexColumns.add(column);
+        }
+      }
+      if (invertedIndexColumns.size() != indexLoadingConfig.getInvertedIndexColumns().size()) {
+        indexLoadingConfig.setInvertedIndexColumns(invertedIndexColumns);
+        removed = true;
+      }
+
+      Set<String> rangeIndexColumns = new HashSet<>();
+      for (String column : indexLoadingConfig.getRangeIndexColumns()) {
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+        if (columnMetadata == null || columnMetadata.isSorted() || segmentReader
+            .hasIndexFor(column, ColumnIndexType.RANGE_INDEX)) {
+          rangeIndexColumns.add(column);
+        }
+      }
+      if (rangeIndexColumns.size() != indexLoadingConfig.getRangeIndexColumns().size()) {
+        indexLoadingConfig.setRangeIndexColumns(rangeIndexColumns);
+        removed = true;
+      }
+
+      Map<String, BloomFilterConfig> bloomFilterConfigs = new HashMap<>();
+      for (Map.Entry<String, BloomFilterConfig> entry : indexLoadingConfig.getBloomFilterConfigs().entrySet()) {
+        String column = entry.getKey();
+        ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
+        if (columnMetadata == null || !columnMetadata.hasDictionary() || segmentReader
+            .hasIndexFor(column, ColumnIndexType.BLOOM_FILTER)) {
+          bloomFilterConfigs.put(column, entry.getValue());
+        }
+      }
+      if (bloomFilterConfigs.size() != indexLoadingConfig.getBloomFilterConfigs().size()) {
+        indexLoadingConfig.setBloomFilterConfigs(bloomFilterConfigs);
+        removed = true;
+      }
+    }
+    return removed;
+  }
 }
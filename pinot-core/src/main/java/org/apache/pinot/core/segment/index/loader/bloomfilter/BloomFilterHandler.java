@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.BloomFilterCreator;
@@ -58,6 +59,7 @@ public class BloomFilterHandler {
   private final SegmentVersion _segmentVersion;
   private final Map<String, BloomFilterConfig> _bloomFilterConfigs;
   private final Set<ColumnMetadata> _bloomFilterColumns = new HashSet<>();
+  private final ExecutorService _indexBuildingExecutor;
 
   public BloomFilterHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
       SegmentDirectory.Writer segmentWriter) {
@@ -66,10 +68,12 @@ public class BloomFilterHandler {
     _segmentName = segmentMetadata.getName();
     _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
     _bloomFilterConfigs = indexLoadingConfig.getBloomFilterConfigs();
+    _indexBuildingExecutor = indexLoadingConfig.getIndexBuildingExecutor();
 
     for (String column : _bloomFilterConfigs.keySet()) {
       ColumnMetadata columnMetadata = segmentMetadata.getColumnMetadataFor(column);
-      if (columnMetadata != null) {
+      // TODO: Support raw index
+      if (columnMetadata != null && columnMetadata.hasDictionary()) {
         _bloomFilterColumns.add(columnMetadata);
       }
     }
@@ -77,12 +81,7 @@ public class BloomFilterHandler {
 
   public void createBloomFilters()
       throws Exception {
-    for (ColumnMetadata columnMetadata : _bloomFilterColumns) {
-      if (columnMetadata.hasDictionary()) {
-        createBloomFilterForColumn(columnMetadata);
-      }
-      // TODO: Support raw index
-    }
+    LoaderUtils.createIndexes(_bloomFilterColumns, _indexBuildingExecutor, this::createBloomFilterForColumn);
   }
 
   private void createBloomFilterForColumn(ColumnMetadata columnMetadata)
@@ -94,7 +93,11 @@ public class BloomFilterHandler {
 
     if (!bloomFilterFileInProgress.exists()) {
       // Marker file does not exist, which means last run ended normally.
-      if (_segmentWriter.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER)) {
+      boolean hasBloomFilter;
+      synchronized (_segmentWriter) {
+        hasBloomFilter = _segmentWriter.hasIndexFor(columnName, ColumnIndexType.BLOOM_FILTER);
+      }
+      if (hasBloomFilter) {
         // Skip creating bloom filter index if already exists.
         LOGGER.info("Found bloom filter for segment: {}, column: {}", _segmentName, columnName);
         return;
@@ -124,7 +127,9 @@ public class BloomFilterHandler {
 
     // For v3, write the generated bloom filter file into the single file and remove it.
     if (_segmentVersion == SegmentVersion.v3) {
-      LoaderUtils.writeIndexToV3Format(_segmentWriter, columnName, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+      synchronized (_segmentWriter) {
+        LoaderUtils.writeIndexToV3Format(_segmentWriter, columnName, bloomFilterFile, ColumnIndexType.BLOOM_FILTER);
+      }
     }
 
     // Delete the marker file.
@@ -135,8 +140,10 @@ public class BloomFilterHandler {
   private BaseImmutableDictionary getDictionaryReader(ColumnMetadata columnMetadata,
       SegmentDirectory.Writer segmentWriter)
       throws IOException {
-    PinotDataBuffer dictionaryBuffer =
-        segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.DICTIONARY);
+    PinotDataBuffer dictionaryBuffer;
+    synchronized (segmentWriter) {
+      dictionaryBuffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.DICTIONARY);
+    }
     int cardinality = columnMetadata.getCardinality();
     DataType dataType = columnMetadata.getDataType();
     switch (dataType) {
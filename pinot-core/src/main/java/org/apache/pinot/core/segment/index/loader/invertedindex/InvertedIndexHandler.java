@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
@@ -50,6 +51,7 @@ public class InvertedIndexHandler {
   private final String _segmentName;
   private final SegmentVersion _segmentVersion;
   private final Set<ColumnMetadata> _invertedIndexColumns = new HashSet<>();
+  private final ExecutorService _indexBuildingExecutor;
 
   public InvertedIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
       SegmentDirectory.Writer segmentWriter) {
@@ -57,6 +59,7 @@ public class InvertedIndexHandler {
     _segmentWriter = segmentWriter;
     _segmentName = segmentMetadata.getName();
     _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+    _indexBuildingExecutor = indexLoadingConfig.getIndexBuildingExecutor();
 
     // Only create inverted index on dictionary-encoded unsorted columns
     for (String column : indexLoadingConfig.getInvertedIndexColumns()) {
@@ -68,10 +71,8 @@ public class InvertedIndexHandler {
   }
 
   public void createInvertedIndices()
-      throws IOException {
-    for (ColumnMetadata columnMetadata : _invertedIndexColumns) {
-      createInvertedIndexForColumn(columnMetadata);
-    }
+      throws Exception {
+    LoaderUtils.createIndexes(_invertedIndexColumns, _indexBuildingExecutor, this::createInvertedIndexForColumn);
   }
 
   private void createInvertedIndexForColumn(ColumnMetadata columnMetadata)
@@ -84,7 +85,11 @@ public class InvertedIndexHandler {
     if (!inProgress.exists()) {
       // Marker file does not exist, which means last run ended normally.
 
-      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.INVERTED_INDEX)) {
+      boolean hasInvertedIndex;
+      synchronized (_segmentWriter) {
+        hasInvertedIndex = _segmentWriter.hasIndexFor(column, ColumnIndexType.INVERTED_INDEX);
+      }
+      if (hasInvertedIndex) {
         // Skip creating inverted index if already exists.
 
         LOGGER.info("Found inverted index for segment: {}, column: {}", _segmentName, column);
@@ -128,7 +133,9 @@ public class InvertedIndexHandler {
 
     // For v3, write the generated inverted index file into the single file and remove it.
     if (_segmentVersion == SegmentVersion.v3) {
-      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, invertedIndexFile, ColumnIndexType.INVERTED_INDEX);
+      synchronized (_segmentWriter) {
+        LoaderUtils.writeIndexToV3Format(_segmentWriter, column, invertedIndexFile, ColumnIndexType.INVERTED_INDEX);
+      }
     }
 
     // Delete the marker file.
@@ -140,7 +147,10 @@ public class InvertedIndexHandler {
   private ForwardIndexReader<?> getForwardIndexReader(ColumnMetadata columnMetadata,
       SegmentDirectory.Writer segmentWriter)
       throws IOException {
-    PinotDataBuffer buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    PinotDataBuffer buffer;
+    synchronized (segmentWriter) {
+      buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    }
     int numRows = columnMetadata.getTotalDocs();
     int numBitsPerValue = columnMetadata.getBitsPerElement();
     if (columnMetadata.isSingleValue()) {
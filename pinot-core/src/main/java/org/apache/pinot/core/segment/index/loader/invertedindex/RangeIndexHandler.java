@@ -22,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
@@ -52,6 +53,7 @@ public class RangeIndexHandler {
   private final String _segmentName;
   private final SegmentVersion _segmentVersion;
   private final Set<ColumnMetadata> _rangeIndexColumns = new HashSet<>();
+  private final ExecutorService _indexBuildingExecutor;
 
   public RangeIndexHandler(File indexDir, SegmentMetadataImpl segmentMetadata, IndexLoadingConfig indexLoadingConfig,
       SegmentDirectory.Writer segmentWriter) {
@@ -59,6 +61,7 @@ public class RangeIndexHandler {
     _segmentWriter = segmentWriter;
     _segmentName = segmentMetadata.getName();
     _segmentVersion = SegmentVersion.valueOf(segmentMetadata.getVersion());
+    _indexBuildingExecutor = indexLoadingConfig.getIndexBuildingExecutor();
 
     // Only create range index on dictionary-encoded unsorted columns
     for (String column : indexLoadingConfig.getRangeIndexColumns()) {
@@ -70,10 +73,8 @@ public class RangeIndexHandler {
   }
 
   public void createRangeIndices()
-      throws IOException {
-    for (ColumnMetadata columnMetadata : _rangeIndexColumns) {
-      createRangeIndexForColumn(columnMetadata);
-    }
+      throws Exception {
+    LoaderUtils.createIndexes(_rangeIndexColumns, _indexBuildingExecutor, this::createRangeIndexForColumn);
   }
 
   private void createRangeIndexForColumn(ColumnMetadata columnMetadata)
@@ -85,7 +86,11 @@ public class RangeIndexHandler {
     if (!inProgress.exists()) {
       // Marker file does not exist, which means last run ended normally.
 
-      if (_segmentWriter.hasIndexFor(column, ColumnIndexType.RANGE_INDEX)) {
+      boolean hasRangeIndex;
+      synchronized (_segmentWriter) {
+        hasRangeIndex = _segmentWriter.hasIndexFor(column, ColumnIndexType.RANGE_INDEX);
+      }
+      if (hasRangeIndex) {
         // Skip creating range index if already exists.
 
         LOGGER.info("Found range index for segment: {}, column: {}", _segmentName, column);
@@ -111,7 +116,9 @@ public class RangeIndexHandler {
 
     // For v3, write the generated range index file into the single file and remove it.
     if (_segmentVersion == SegmentVersion.v3) {
-      LoaderUtils.writeIndexToV3Format(_segmentWriter, column, rangeIndexFile, ColumnIndexType.RANGE_INDEX);
+      synchronized (_segmentWriter) {
+        LoaderUtils.writeIndexToV3Format(_segmentWriter, column, rangeIndexFile, ColumnIndexType.RANGE_INDEX);
+      }
     }
 
     // Delete the marker file.
@@ -220,7 +227,10 @@ public class RangeIndexHandler {
   private ForwardIndexReader<?> getForwardIndexReader(ColumnMetadata columnMetadata,
       SegmentDirectory.Writer segmentWriter)
       throws IOException {
-    PinotDataBuffer buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    PinotDataBuffer buffer;
+    synchronized (segmentWriter) {
+      buffer = segmentWriter.getIndexFor(columnMetadata.getColumnName(), ColumnIndexType.FORWARD_INDEX);
+    }
     int numRows = columnMetadata.getTotalDocs();
     int numBitsPerValue = columnMetadata.getBitsPerElement();
     if (columnMetadata.isSingleValue()) {
@@ -19,9 +19,11 @@
 package org.apache.pinot.core.segment.index.readers;
 
 import com.google.common.base.Preconditions;
-import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import org.apache.pinot.core.query.cache.BitmapCache;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,8 +34,6 @@ public class BitmapInvertedIndexReader implements InvertedIndexReader<ImmutableR
   private final PinotDataBuffer _dataBuffer;
   private final int _numBitmaps;
 
-  private volatile SoftReference<SoftReference<ImmutableRoaringBitmap>[]> _bitmaps;
-
   /**
    * Constructs an inverted index with the specified size.
    * @param dataBuffer data buffer for the inverted index.
@@ -53,42 +53,44 @@ public class BitmapInvertedIndexReader implements InvertedIndexReader<ImmutableR
 
   /**
    * {@inheritDoc}
+   * <p>NOTE: The returned bitmap might be shared across queries via the {@link BitmapCache}, and must not be modified.
    */
   @Override
   public ImmutableRoaringBitmap getDocIds(int dictId) {
-    SoftReference<ImmutableRoaringBitmap>[] bitmapArrayReference = null;
-    // Return the bitmap if it's still on heap
-    if (_bitmaps != null) {
-      bitmapArrayReference = _bitmaps.get();
-      if (bitmapArrayReference != null) {
-        SoftReference<ImmutableRoaringBitmap> bitmapReference = bitmapArrayReference[dictId];
-        if (bitmapReference != null) {
-          ImmutableRoaringBitmap value = bitmapReference.get();
-          if (value != null) {
-            return value;
-          }
-        }
-      } else {
-        bitmapArrayReference = new SoftReference[_numBitmaps];
-        _bitmaps = new SoftReference<SoftReference<ImmutableRoaringBitmap>[]>(bitmapArrayReference);
-      }
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      return bitmapCache.getPostingList(this, dictId, this::buildRoaringBitmapForIndex);
+    } else {
+      return buildRoaringBitmapForIndex(dictId);
+    }
+  }
+
+  /**
+   * Returns the union of the posting lists for the given dictionary ids. The returned bitmap might be shared across
+   * queries via the {@link BitmapCache}, and must not be modified.
+   */
+  public ImmutableRoaringBitmap getUnionDocIds(int[] dictIds) {
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      // Sort a copy of the dictionary ids so that the same set of values always maps to the same cache entry
+      int[] sortedDictIds = dictIds.clone();
+      Arrays.sort(sortedDictIds);
+      return bitmapCache.getUnion(this, sortedDictIds, () -> buildUnion(sortedDictIds));
     } else {
-      bitmapArrayReference = new SoftReference[_numBitmaps];
-      _bitmaps = new SoftReference<SoftReference<ImmutableRoaringBitmap>[]>(bitmapArrayReference);
+      return buildUnion(dictIds);
     }
-    synchronized (this) {
-      ImmutableRoaringBitmap value;
-      if (bitmapArrayReference[dictId] == null || bitmapArrayReference[dictId].get() == null) {
-        value = buildRoaringBitmapForIndex(dictId);
-        bitmapArrayReference[dictId] = new SoftReference<ImmutableRoaringBitmap>(value);
-      } else {
-        value = bitmapArrayReference[dictId].get();
-      }
-      return value;
+  }
+
+  private MutableRoaringBitmap buildUnion(int[] dictIds) {
+    int numDictIds = dictIds.length;
+    ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[numDictIds];
+    for (int i = 0; i < numDictIds; i++) {
+      bitmaps[i] = buildRoaringBitmapForIndex(dictIds[i]);
     }
+    return ImmutableRoaringBitmap.or(bitmaps);
   }
 
-  private synchronized ImmutableRoaringBitmap buildRoaringBitmapForIndex(final int index) {
+  private ImmutableRoaringBitmap buildRoaringBitmapForIndex(int index) {
     int currentOffset = getOffset(index);
     int bufferLength = getOffset(index + 1) - currentOffset;
     return new ImmutableRoaringBitmap(_dataBuffer.toDirectByteBuffer(currentOffset, bufferLength));
@@ -100,6 +102,10 @@ public class BitmapInvertedIndexReader implements InvertedIndexReader<ImmutableR
 
   @Override
   public void close() {
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      bitmapCache.invalidate(this);
+    }
     // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
     // caller is responsible of closing the PinotDataBuffer.
   }
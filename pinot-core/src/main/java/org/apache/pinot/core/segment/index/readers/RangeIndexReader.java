@@ -20,11 +20,12 @@ package org.apache.pinot.core.segment.index.readers;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
+import org.apache.pinot.core.query.cache.BitmapCache;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +40,6 @@ public class RangeIndexReader implements InvertedIndexReader<ImmutableRoaringBit
   private final Number[] _rangeStartArray;
   private final Number _lastRangeEnd;
 
-  private volatile SoftReference<SoftReference<ImmutableRoaringBitmap>[]> _bitmaps;
-
   public RangeIndexReader(PinotDataBuffer dataBuffer) {
     _dataBuffer = dataBuffer;
     long offset = 0;
@@ -106,42 +105,42 @@ public class RangeIndexReader implements InvertedIndexReader<ImmutableRoaringBit
 
   /**
    * {@inheritDoc}
+   * <p>NOTE: The returned bitmap might be shared across queries via the {@link BitmapCache}, and must not be modified.
    */
   @Override
   public ImmutableRoaringBitmap getDocIds(int rangeId) {
-    SoftReference<ImmutableRoaringBitmap>[] bitmapArrayReference = null;
-    // Return the bitmap if it's still on heap
-    if (_bitmaps != null) {
-      bitmapArrayReference = _bitmaps.get();
-      if (bitmapArrayReference != null) {
-        SoftReference<ImmutableRoaringBitmap> bitmapReference = bitmapArrayReference[rangeId];
-        if (bitmapReference != null) {
-          ImmutableRoaringBitmap value = bitmapReference.get();
-          if (value != null) {
-            return value;
-          }
-        }
-      } else {
-        bitmapArrayReference = new SoftReference[_numRanges];
-        _bitmaps = new SoftReference<SoftReference<ImmutableRoaringBitmap>[]>(bitmapArrayReference);
-      }
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      return bitmapCache.getPostingList(this, rangeId, this::buildRoaringBitmapForIndex);
     } else {
-      bitmapArrayReference = new SoftReference[_numRanges];
-      _bitmaps = new SoftReference<SoftReference<ImmutableRoaringBitmap>[]>(bitmapArrayReference);
+      return buildRoaringBitmapForIndex(rangeId);
     }
-    synchronized (this) {
-      ImmutableRoaringBitmap value;
-      if (bitmapArrayReference[rangeId] == null || bitmapArrayReference[rangeId].get() == null) {
-        value = buildRoaringBitmapForIndex(rangeId);
-        bitmapArrayReference[rangeId] = new SoftReference<ImmutableRoaringBitmap>(value);
-      } else {
-        value = bitmapArrayReference[rangeId].get();
-      }
-      return value;
+  }
+
+  /**
+   * Returns the union of the posting lists for the ranges from {@code firstRangeId} to {@code lastRangeId} (both
+   * inclusive). The returned bitmap might be shared across queries via the {@link BitmapCache}, and must not be
+   * modified.
+   */
+  public ImmutableRoaringBitmap getUnionDocIds(int firstRangeId, int lastRangeId) {
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      return bitmapCache
+          .getUnion(this, new int[]{firstRangeId, lastRangeId}, () -> buildUnion(firstRangeId, lastRangeId));
+    } else {
+      return buildUnion(firstRangeId, lastRangeId);
+    }
+  }
+
+  private MutableRoaringBitmap buildUnion(int firstRangeId, int lastRangeId) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    for (int rangeId = firstRangeId; rangeId <= lastRangeId; rangeId++) {
+      docIds.or(buildRoaringBitmapForIndex(rangeId));
     }
+    return docIds;
   }
 
-  private synchronized ImmutableRoaringBitmap buildRoaringBitmapForIndex(final int rangeId) {
+  private ImmutableRoaringBitmap buildRoaringBitmapForIndex(int rangeId) {
     final long currentOffset = getOffset(rangeId);
     final long nextOffset = getOffset(rangeId + 1);
     final int bufferLength = (int) (nextOffset - currentOffset);
@@ -211,6 +210,10 @@ public class RangeIndexReader implements InvertedIndexReader<ImmutableRoaringBit
 
   @Override
   public void close() {
+    BitmapCache bitmapCache = BitmapCache.getInstance();
+    if (bitmapCache != null) {
+      bitmapCache.invalidate(this);
+    }
     // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
     // caller is responsible of closing the PinotDataBuffer.
   }
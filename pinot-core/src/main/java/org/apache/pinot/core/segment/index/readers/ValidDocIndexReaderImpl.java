@@ -31,6 +31,6 @@ public class ValidDocIndexReaderImpl implements ValidDocIndexReader {
 
   @Override
   public ImmutableRoaringBitmap getValidDocBitmap() {
-    return _validDocBitmap.getMutableRoaringBitmap();
+    return _validDocBitmap.getSnapshot();
   }
 }
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.json;
+
+import java.util.List;
+import org.apache.pinot.core.query.exception.BadQueryRequestException;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.InPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.NotInPredicate;
+import org.apache.pinot.core.query.request.context.predicate.Predicate;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Base implementation of {@link JsonIndexReader} which evaluates the json match filter on top of the posting lists
+ * generated by {@link OnHeapJsonIndexCreator}.
+ * <p>The filter string is a SQL filter expression where the identifiers are the flattened json paths (quote the paths
+ * with special characters, e.g. {@code "a.c[*]"}), and the literals are the json values. Supported predicates are
+ * EQ, NOT_EQ, IN, NOT_IN, IS_NULL and IS_NOT_NULL, which can be combined with AND and OR. NOT_EQ and NOT_IN only
+ * match the documents where the path exists. Predicates are evaluated per document, so predicates on different
+ * elements of the same array can match the same document.
+ */
+public abstract class BaseJsonIndexReader implements JsonIndexReader {
+
+  @Override
+  public MutableRoaringBitmap getMatchingDocIds(String filterString) {
+    FilterContext filter;
+    try {
+      filter = QueryContextConverterUtils.getFilter(CalciteSqlParser.compileToExpression(filterString));
+    } catch (Exception e) {
+      throw new BadQueryRequestException("Invalid json match filter: " + filterString, e);
+    }
+    return getMatchingDocIds(filter);
+  }
+
+  /**
+   * Returns the document ids for the given posting key, or an empty bitmap if the key does not exist.
+   */
+  protected abstract ImmutableRoaringBitmap getDocIds(String postingKey);
+
+  /**
+   * Returns the number of documents in the index.
+   */
+  protected abstract int getNumDocs();
+
+  private MutableRoaringBitmap getMatchingDocIds(FilterContext filter) {
+    switch (filter.getType()) {
+      case AND:
+        List<FilterContext> children = filter.getChildren();
+        MutableRoaringBitmap matchingDocIds = getMatchingDocIds(children.get(0));
+        int numChildren = children.size();
+        for (int i = 1; i < numChildren && !matchingDocIds.isEmpty(); i++) {
+          matchingDocIds.and(getMatchingDocIds(children.get(i)));
+        }
+        return matchingDocIds;
+      case OR:
+        children = filter.getChildren();
+        matchingDocIds = getMatchingDocIds(children.get(0));
+        numChildren = children.size();
+        for (int i = 1; i < numChildren; i++) {
+          matchingDocIds.or(getMatchingDocIds(children.get(i)));
+        }
+        return matchingDocIds;
+      case PREDICATE:
+        return getMatchingDocIds(filter.getPredicate());
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private MutableRoaringBitmap getMatchingDocIds(Predicate predicate) {
+    ExpressionContext lhs = predicate.getLhs();
+    if (lhs.getType() != ExpressionContext.Type.IDENTIFIER) {
+      throw new BadQueryRequestException(
+          "Json match filter only supports json path on the left-hand side, got: " + lhs);
+    }
+    String path = lhs.getIdentifier();
+    switch (predicate.getType()) {
+      case EQ:
+        return getDocIds(getPostingKey(path, ((EqPredicate) predicate).getValue())).toMutableRoaringBitmap();
+      case NOT_EQ:
+        return ImmutableRoaringBitmap
+            .andNot(getDocIds(path), getDocIds(getPostingKey(path, ((NotEqPredicate) predicate).getValue())));
+      case IN:
+        return getDocIds(path, ((InPredicate) predicate).getValues());
+      case NOT_IN:
+        return ImmutableRoaringBitmap
+            .andNot(getDocIds(path), getDocIds(path, ((NotInPredicate) predicate).getValues()));
+      case IS_NULL:
+        MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+        docIds.add(0L, getNumDocs());
+        docIds.andNot(getDocIds(path));
+        return docIds;
+      case IS_NOT_NULL:
+        return getDocIds(path).toMutableRoaringBitmap();
+      default:
+        throw new BadQueryRequestException(
+            "Unsupported predicate type: " + predicate.getType() + " in json match filter");
+    }
+  }
+
+  private MutableRoaringBitmap getDocIds(String path, List<String> values) {
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    for (String value : values) {
+      docIds.or(getDocIds(getPostingKey(path, value)));
+    }
+    return docIds;
+  }
+
+  private static String getPostingKey(String path, String value) {
+    return path + OnHeapJsonIndexCreator.KEY_VALUE_SEPARATOR + value;
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers.json;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import org.apache.pinot.core.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.BitmapInvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Reader for the json index generated by {@link OnHeapJsonIndexCreator}.
+ */
+public class ImmutableJsonIndexReader extends BaseJsonIndexReader {
+  private final int _numDocs;
+  private final StringDictionary _dictionary;
+  private final BitmapInvertedIndexReader _invertedIndex;
+
+  public ImmutableJsonIndexReader(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == OnHeapJsonIndexCreator.VERSION, "Unsupported json index version: %s", version);
+    _numDocs = dataBuffer.getInt(Integer.BYTES);
+    int numKeys = dataBuffer.getInt(2 * Integer.BYTES);
+    int maxKeyLength = dataBuffer.getInt(3 * Integer.BYTES);
+    long dictionaryLength = dataBuffer.getLong(4 * Integer.BYTES);
+    long invertedIndexOffset = OnHeapJsonIndexCreator.HEADER_LENGTH + dictionaryLength;
+    _dictionary =
+        new StringDictionary(dataBuffer.view(OnHeapJsonIndexCreator.HEADER_LENGTH, invertedIndexOffset), numKeys,
+            maxKeyLength, (byte) 0);
+    _invertedIndex = new BitmapInvertedIndexReader(dataBuffer.view(invertedIndexOffset, dataBuffer.size()), numKeys);
+  }
+
+  @Override
+  protected ImmutableRoaringBitmap getDocIds(String postingKey) {
+    int dictId = _dictionary.indexOf(postingKey);
+    return dictId >= 0 ? _invertedIndex.getDocIds(dictId) : new MutableRoaringBitmap();
+  }
+
+  @Override
+  protected int getNumDocs() {
+    return _numDocs;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+    _dictionary.close();
+    _invertedIndex.close();
+  }
+}
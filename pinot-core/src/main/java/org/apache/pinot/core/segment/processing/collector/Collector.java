@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.segment.processing.collector;
 
+import java.io.Closeable;
 import java.util.Iterator;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
@@ -25,7 +26,7 @@ import org.apache.pinot.spi.data.readers.GenericRow;
 /**
  * Collects and stores GenericRows
  */
-public interface Collector {
+public interface Collector extends Closeable {
 
   /**
    * Collects the given GenericRow and stores it
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.segment.processing.collector;
 
+import java.io.File;
 import org.apache.pinot.spi.data.Schema;
 
 
@@ -43,17 +44,18 @@ public final class CollectorFactory {
   }
 
   /**
-   * Construct a Collector from the given CollectorConfig and schema
+   * Construct a Collector from the given CollectorConfig and schema, which keeps the collected rows in memory-mapped
+   * files under the given working directory
    */
-  public static Collector getCollector(CollectorConfig collectorConfig, Schema pinotSchema) {
+  public static Collector getCollector(CollectorConfig collectorConfig, Schema pinotSchema, File workingDir) {
     Collector collector = null;
     switch (collectorConfig.getCollectorType()) {
 
       case ROLLUP:
-        collector = new RollupCollector(collectorConfig, pinotSchema);
+        collector = new RollupCollector(collectorConfig, pinotSchema, workingDir);
         break;
       case CONCAT:
-        collector = new ConcatCollector(collectorConfig, pinotSchema);
+        collector = new ConcatCollector(collectorConfig, pinotSchema, workingDir);
         break;
     }
     return collector;
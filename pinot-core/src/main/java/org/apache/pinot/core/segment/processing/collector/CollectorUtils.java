@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.processing.collector;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.io.writer.impl.MmapMemoryManager;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+
+
+/**
+ * Helper methods shared by the collectors to keep the collected rows off heap, in memory-mapped files under the
+ * working directory of the caller.
+ */
+class CollectorUtils {
+  private CollectorUtils() {
+  }
+
+  /**
+   * Returns the field specs of the non-virtual columns in the schema, which are the columns stored by the collectors.
+   */
+  static List<FieldSpec> getStoredFieldSpecs(Schema schema) {
+    List<FieldSpec> fieldSpecs = new ArrayList<>();
+    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
+      if (!fieldSpec.isVirtualColumn()) {
+        fieldSpecs.add(fieldSpec);
+      }
+    }
+    return fieldSpecs;
+  }
+
+  /**
+   * Creates a directory under the given working directory for the memory-mapped files of the given collector.
+   */
+  static File createTempDir(File workingDir, Collector collector) {
+    File tempDir = new File(workingDir, collector.getClass().getSimpleName() + "_" + UUID.randomUUID());
+    Preconditions.checkState(tempDir.mkdirs(), "Failed to create temporary directory: %s", tempDir);
+    return tempDir;
+  }
+
+  /**
+   * Creates a memory manager which allocates memory from memory-mapped files under the given directory.
+   */
+  static PinotDataBufferMemoryManager createMemoryManager(File tempDir) {
+    return new MmapMemoryManager(tempDir.getPath(), tempDir.getName());
+  }
+
+  /**
+   * Closes the given closeables in order, for use in methods which cannot throw IOException.
+   */
+  static void closeUnchecked(Closeable... closeables) {
+    try {
+      for (Closeable closeable : closeables) {
+        closeable.close();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
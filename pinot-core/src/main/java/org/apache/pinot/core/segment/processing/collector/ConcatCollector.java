@@ -18,50 +18,102 @@
  */
 package org.apache.pinot.core.segment.processing.collector;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.realtime.impl.dictionary.OffHeapMutableBytesStore;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
 /**
  * A Collector implementation for collecting and concatenating all incoming rows
+ * <p>The rows are serialized with the {@link GenericRowSerializer} and stored off heap in memory-mapped files, so that
+ * the collection does not grow the heap. When sorting is configured, only the sort order values are loaded on heap to
+ * sort the row ids.
  */
 public class ConcatCollector implements Collector {
-  private final List<GenericRow> _collection = new ArrayList<>();
+  private static final String ALLOCATION_CONTEXT = "concatCollector";
+
+  private final GenericRowSerializer _serializer;
   private final GenericRowSorter _sorter;
+  private final File _tempDir;
+
+  private PinotDataBufferMemoryManager _memoryManager;
+  private OffHeapMutableBytesStore _rowStore;
 
-  public ConcatCollector(CollectorConfig collectorConfig, Schema schema) {
+  public ConcatCollector(CollectorConfig collectorConfig, Schema schema, File workingDir) {
+    _serializer = new GenericRowSerializer(CollectorUtils.getStoredFieldSpecs(schema));
     List<String> sortOrder = collectorConfig.getSortOrder();
     if (CollectionUtils.isNotEmpty(sortOrder)) {
       _sorter = new GenericRowSorter(sortOrder, schema);
     } else {
       _sorter = null;
     }
+    _tempDir = CollectorUtils.createTempDir(workingDir, this);
+    initRowStore();
+  }
+
+  private void initRowStore() {
+    _memoryManager = CollectorUtils.createMemoryManager(_tempDir);
+    _rowStore = new OffHeapMutableBytesStore(_memoryManager, ALLOCATION_CONTEXT);
   }
 
   @Override
   public void collect(GenericRow genericRow) {
-    _collection.add(genericRow);
+    _rowStore.add(_serializer.serialize(genericRow));
   }
 
   @Override
   public Iterator<GenericRow> iterator() {
+    int numRows = _rowStore.getNumValues();
+    int[] sortedRowIds;
     if (_sorter != null) {
-      _sorter.sort(_collection);
+      GenericRow reuse = new GenericRow();
+      sortedRowIds = _sorter.sort(numRows, rowId -> _serializer.deserialize(_rowStore.get(rowId), reuse));
+    } else {
+      sortedRowIds = null;
     }
-    return _collection.iterator();
+    return new Iterator<GenericRow>() {
+      private int _nextIndex = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _nextIndex < numRows;
+      }
+
+      @Override
+      public GenericRow next() {
+        int rowId = sortedRowIds != null ? sortedRowIds[_nextIndex] : _nextIndex;
+        _nextIndex++;
+        return _serializer.deserialize(_rowStore.get(rowId), new GenericRow());
+      }
+    };
   }
 
   @Override
   public int size() {
-    return _collection.size();
+    return _rowStore.getNumValues();
   }
 
   @Override
   public void reset() {
-    _collection.clear();
+    CollectorUtils.closeUnchecked(_rowStore, _memoryManager);
+    initRowStore();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      _rowStore.close();
+      _memoryManager.close();
+    } finally {
+      FileUtils.deleteQuietly(_tempDir);
+    }
   }
 }
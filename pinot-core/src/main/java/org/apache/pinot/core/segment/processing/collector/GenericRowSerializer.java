@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.processing.collector;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.StringUtils;
+
+
+/**
+ * Serializer for the values of a GenericRow into a compact binary format, and back.
+ * <p>The serialized bytes start with a null bitmap of one bit per field, where the bit is set if the value (or the
+ * multi-value array) is {@code null}. Then the non-null values are written in the order of the given field specs,
+ * without any field name or type information:
+ * <ul>
+ *   <li>INT/FLOAT: 4 bytes</li>
+ *   <li>LONG/DOUBLE: 8 bytes</li>
+ *   <li>STRING: number of bytes (int) followed by the UTF-8 encoded bytes, same as how strings are stored in the
+ *   segment</li>
+ *   <li>BYTES: number of bytes (int) followed by the bytes</li>
+ *   <li>Multi-value: number of values (int) followed by the values</li>
+ * </ul>
+ * <p>Two rows with equal values always serialize into equal bytes, so the serialized bytes can be used as a key.
+ */
+public class GenericRowSerializer {
+  private final int _numFields;
+  private final String[] _fieldNames;
+  private final DataType[] _dataTypes;
+  private final boolean[] _isSingleValueFields;
+  private final int _nullBitmapSize;
+
+  public GenericRowSerializer(List<FieldSpec> fieldSpecs) {
+    _numFields = fieldSpecs.size();
+    _fieldNames = new String[_numFields];
+    _dataTypes = new DataType[_numFields];
+    _isSingleValueFields = new boolean[_numFields];
+    for (int i = 0; i < _numFields; i++) {
+      FieldSpec fieldSpec = fieldSpecs.get(i);
+      _fieldNames[i] = fieldSpec.getName();
+      _dataTypes[i] = fieldSpec.getDataType();
+      _isSingleValueFields[i] = fieldSpec.isSingleValueField();
+    }
+    _nullBitmapSize = (_numFields + Byte.SIZE - 1) / Byte.SIZE;
+  }
+
+  /**
+   * Serializes the values of the given row into a byte array.
+   */
+  public byte[] serialize(GenericRow row) {
+    // Encode the STRING values into UTF-8 bytes while computing the size, so that they are encoded only once
+    Object[] fieldValues = new Object[_numFields];
+    int numBytes = _nullBitmapSize;
+    for (int i = 0; i < _numFields; i++) {
+      Object value = row.getValue(_fieldNames[i]);
+      if (value == null) {
+        continue;
+      }
+      boolean isString = _dataTypes[i] == DataType.STRING;
+      if (_isSingleValueFields[i]) {
+        if (isString) {
+          value = StringUtils.encodeUtf8((String) value);
+        }
+        numBytes += getNumBytes(_dataTypes[i], value);
+      } else {
+        Object[] values = (Object[]) value;
+        int numValues = values.length;
+        if (isString) {
+          Object[] encodedValues = new Object[numValues];
+          for (int j = 0; j < numValues; j++) {
+            encodedValues[j] = StringUtils.encodeUtf8((String) values[j]);
+          }
+          values = encodedValues;
+          value = encodedValues;
+        }
+        numBytes += Integer.BYTES;
+        for (Object singleValue : values) {
+          numBytes += getNumBytes(_dataTypes[i], singleValue);
+        }
+      }
+      fieldValues[i] = value;
+    }
+
+    byte[] bytes = new byte[numBytes];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.position(_nullBitmapSize);
+    for (int i = 0; i < _numFields; i++) {
+      Object value = fieldValues[i];
+      if (value == null) {
+        bytes[i / Byte.SIZE] |= 1 << (i % Byte.SIZE);
+        continue;
+      }
+      if (_isSingleValueFields[i]) {
+        writeValue(byteBuffer, _dataTypes[i], value);
+      } else {
+        Object[] values = (Object[]) value;
+        byteBuffer.putInt(values.length);
+        for (Object singleValue : values) {
+          writeValue(byteBuffer, _dataTypes[i], singleValue);
+        }
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Deserializes the values from the given byte array into the given row, and returns the row.
+   */
+  public GenericRow deserialize(byte[] bytes, GenericRow reuse) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.position(_nullBitmapSize);
+    for (int i = 0; i < _numFields; i++) {
+      if ((bytes[i / Byte.SIZE] & (1 << (i % Byte.SIZE))) != 0) {
+        reuse.putValue(_fieldNames[i], null);
+        continue;
+      }
+      if (_isSingleValueFields[i]) {
+        reuse.putValue(_fieldNames[i], readValue(byteBuffer, _dataTypes[i]));
+      } else {
+        int numValues = byteBuffer.getInt();
+        Object[] values = new Object[numValues];
+        for (int j = 0; j < numValues; j++) {
+          values[j] = readValue(byteBuffer, _dataTypes[i]);
+        }
+        reuse.putValue(_fieldNames[i], values);
+      }
+    }
+    return reuse;
+  }
+
+  /**
+   * Returns the number of bytes to serialize the given value, where STRING value is already encoded into UTF-8 bytes.
+   */
+  private static int getNumBytes(DataType dataType, Object value) {
+    switch (dataType) {
+      case INT:
+        return Integer.BYTES;
+      case LONG:
+        return Long.BYTES;
+      case FLOAT:
+        return Float.BYTES;
+      case DOUBLE:
+        return Double.BYTES;
+      case STRING:
+      case BYTES:
+        return Integer.BYTES + ((byte[]) value).length;
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType);
+    }
+  }
+
+  /**
+   * Writes the given value into the byte buffer, where STRING value is already encoded into UTF-8 bytes.
+   */
+  private static void writeValue(ByteBuffer byteBuffer, DataType dataType, Object value) {
+    switch (dataType) {
+      case INT:
+        byteBuffer.putInt(((Number) value).intValue());
+        break;
+      case LONG:
+        byteBuffer.putLong(((Number) value).longValue());
+        break;
+      case FLOAT:
+        byteBuffer.putFloat(((Number) value).floatValue());
+        break;
+      case DOUBLE:
+        byteBuffer.putDouble(((Number) value).doubleValue());
+        break;
+      case STRING:
+      case BYTES:
+        byte[] bytesValue = (byte[]) value;
+        byteBuffer.putInt(bytesValue.length);
+        byteBuffer.put(bytesValue);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType);
+    }
+  }
+
+  private static Object readValue(ByteBuffer byteBuffer, DataType dataType) {
+    switch (dataType) {
+      case INT:
+        return byteBuffer.getInt();
+      case LONG:
+        return byteBuffer.getLong();
+      case FLOAT:
+        return byteBuffer.getFloat();
+      case DOUBLE:
+        return byteBuffer.getDouble();
+      case STRING:
+        int length = byteBuffer.getInt();
+        int position = byteBuffer.position();
+        byteBuffer.position(position + length);
+        return StringUtils.decodeUtf8(byteBuffer.array(), position, length);
+      case BYTES:
+        byte[] bytesValue = new byte[byteBuffer.getInt()];
+        byteBuffer.get(bytesValue);
+        return bytesValue;
+      default:
+        throw new IllegalStateException("Unsupported data type: " + dataType);
+    }
+  }
+}
@@ -19,8 +19,10 @@
 package org.apache.pinot.core.segment.processing.collector;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntFunction;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -32,47 +34,27 @@ import org.apache.pinot.spi.utils.ByteArray;
  */
 public class GenericRowSorter {
 
+  private final int _sortOrderSize;
+  private final String[] _sortColumns;
+  private final FieldSpec.DataType[] _dataTypes;
   private final Comparator<GenericRow> _genericRowComparator;
 
   public GenericRowSorter(List<String> sortOrder, Schema schema) {
-    int sortOrderSize = sortOrder.size();
-    FieldSpec.DataType[] dataTypes = new FieldSpec.DataType[sortOrderSize];
-    for (int i = 0; i < sortOrderSize; i++) {
+    _sortOrderSize = sortOrder.size();
+    _sortColumns = new String[_sortOrderSize];
+    _dataTypes = new FieldSpec.DataType[_sortOrderSize];
+    for (int i = 0; i < _sortOrderSize; i++) {
       String column = sortOrder.get(i);
       FieldSpec fieldSpec = schema.getFieldSpecFor(column);
       Preconditions.checkState(fieldSpec != null, "Column in sort order: %s does not exist in schema", column);
       Preconditions.checkState(fieldSpec.isSingleValueField(), "Cannot use multi value column: %s for sorting", column);
-      dataTypes[i] = fieldSpec.getDataType();
+      _sortColumns[i] = column;
+      _dataTypes[i] = fieldSpec.getDataType();
     }
     _genericRowComparator = (o1, o2) -> {
-      for (int i = 0; i < sortOrderSize; i++) {
-        String column = sortOrder.get(i);
-        FieldSpec.DataType dataType = dataTypes[i];
-        Object value1 = o1.getValue(column);
-        Object value2 = o2.getValue(column);
-        int result;
-        switch (dataType) {
-          case INT:
-            result = Integer.compare((int) value1, (int) value2);
-            break;
-          case LONG:
-            result = Long.compare((long) value1, (long) value2);
-            break;
-          case FLOAT:
-            result = Float.compare((float) value1, (float) value2);
-            break;
-          case DOUBLE:
-            result = Double.compare((double) value1, (double) value2);
-            break;
-          case STRING:
-            result = ((String) value1).compareTo((String) value2);
-            break;
-          case BYTES:
-            result = ByteArray.compare((byte[]) value1, (byte[]) value2);
-            break;
-          default:
-            throw new IllegalStateException("Cannot sort on column with dataType " + dataType);
-        }
+      for (int i = 0; i < _sortOrderSize; i++) {
+        String column = _sortColumns[i];
+        int result = compare(_dataTypes[i], o1.getValue(column), o2.getValue(column));
         if (result != 0) {
           return result;
         }
@@ -81,10 +63,63 @@ public class GenericRowSorter {
     };
   }
 
+  private static int compare(FieldSpec.DataType dataType, Object value1, Object value2) {
+    switch (dataType) {
+      case INT:
+        return Integer.compare((int) value1, (int) value2);
+      case LONG:
+        return Long.compare((long) value1, (long) value2);
+      case FLOAT:
+        return Float.compare((float) value1, (float) value2);
+      case DOUBLE:
+        return Double.compare((double) value1, (double) value2);
+      case STRING:
+        return ((String) value1).compareTo((String) value2);
+      case BYTES:
+        return ByteArray.compare((byte[]) value1, (byte[]) value2);
+      default:
+        throw new IllegalStateException("Cannot sort on column with dataType " + dataType);
+    }
+  }
+
   /**
    * Sorts the given list of GenericRow
    */
   public void sort(List<GenericRow> rows) {
     rows.sort(_genericRowComparator);
   }
+
+  /**
+   * Sorts the given number of rows, which are read through the given row reader, and returns the row ids in sorted
+   * order.
+   * <p>Only the values of the sort order columns are kept on heap while sorting, so that the rows can stay in an
+   * off-heap store. The sort is stable, same as {@link #sort(List)}.
+   */
+  public int[] sort(int numRows, IntFunction<GenericRow> rowReader) {
+    Object[][] sortValues = new Object[numRows][];
+    for (int i = 0; i < numRows; i++) {
+      GenericRow row = rowReader.apply(i);
+      Object[] values = new Object[_sortOrderSize];
+      for (int j = 0; j < _sortOrderSize; j++) {
+        values[j] = row.getValue(_sortColumns[j]);
+      }
+      sortValues[i] = values;
+    }
+    int[] rowIds = new int[numRows];
+    for (int i = 0; i < numRows; i++) {
+      rowIds[i] = i;
+    }
+    IntArrays.mergeSort(rowIds, (rowId1, rowId2) -> {
+      Object[] values1 = sortValues[rowId1];
+      Object[] values2 = sortValues[rowId2];
+      for (int i = 0; i < _sortOrderSize; i++) {
+        int result = compare(_dataTypes[i], values1[i], values2[i]);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    });
+    return rowIds;
+  }
 }
@@ -18,14 +18,20 @@
  */
 package org.apache.pinot.core.segment.processing.collector;
 
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.io.readerwriter.PinotDataBufferMemoryManager;
+import org.apache.pinot.core.realtime.impl.dictionary.BytesOffHeapMutableDictionary;
+import org.apache.pinot.core.realtime.impl.dictionary.OffHeapMutableBytesStore;
+import org.apache.pinot.core.realtime.impl.forward.FixedByteSVMutableForwardIndex;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
@@ -34,56 +40,65 @@ import org.apache.pinot.spi.data.readers.GenericRow;
 /**
  * A Collector that rolls up the incoming records on unique dimensions + time columns, based on provided aggregation types for metrics.
  * By default will use the SUM aggregation on metrics.
+ * <p>The rollup is done off heap, in memory-mapped files: the dimension + time values of each row are serialized with
+ * the {@link GenericRowSerializer} into a key, which is looked up in an off-heap hash table to get the group id, and
+ * the metric values of the group are aggregated in place in fixed-width off-heap buffers indexed by the group id.
+ * <p>BYTES metrics are not supported by the value aggregators. Same as the on-heap rollup, the value of the first row
+ * is kept for each group, and the aggregation fails when another row of the same group is collected.
  */
 public class RollupCollector implements Collector {
+  private static final String ALLOCATION_CONTEXT = "rollupCollector";
+  private static final int ESTIMATED_NUM_GROUPS = 10_000;
+  private static final int MAX_OVERFLOW_HASH_SIZE = 1_000;
+  private static final int ESTIMATED_AVG_KEY_SIZE = 64;
+  private static final int NUM_GROUPS_PER_CHUNK = 100_000;
 
-  private final Map<Record, GenericRow> _collection = new HashMap<>();
+  private final GenericRowSerializer _keySerializer;
   private final GenericRowSorter _sorter;
+  private final File _tempDir;
 
-  private final int _keySize;
   private final int _valueSize;
-  private final String[] _keyColumns;
   private final String[] _valueColumns;
+  private final FieldSpec.DataType[] _valueDataTypes;
   private final ValueAggregator[] _valueAggregators;
 
-  public RollupCollector(CollectorConfig collectorConfig, Schema schema) {
-    int keySize = 0;
-    int valueSize = 0;
-    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
-      if (!fieldSpec.isVirtualColumn()) {
-        if (fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC) {
-          valueSize ++;
-        } else {
-          keySize ++;
-        }
+  private PinotDataBufferMemoryManager _memoryManager;
+  private BytesOffHeapMutableDictionary _keyToGroupIdMap;
+  // Value buffer for each numeric metric, null for BYTES metric
+  private FixedByteSVMutableForwardIndex[] _valueBuffers;
+  // Value store for each BYTES metric (appended once per group), null for numeric metric
+  private OffHeapMutableBytesStore[] _bytesValueStores;
+  private int _numGroups;
+
+  public RollupCollector(CollectorConfig collectorConfig, Schema schema, File workingDir) {
+    List<FieldSpec> keyFieldSpecs = new ArrayList<>();
+    List<FieldSpec> valueFieldSpecs = new ArrayList<>();
+    for (FieldSpec fieldSpec : CollectorUtils.getStoredFieldSpecs(schema)) {
+      if (fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC) {
+        valueFieldSpecs.add(fieldSpec);
+      } else {
+        keyFieldSpecs.add(fieldSpec);
       }
     }
-    _keySize = keySize;
-    _valueSize = valueSize;
-    _keyColumns = new String[_keySize];
+    _keySerializer = new GenericRowSerializer(keyFieldSpecs);
+    _valueSize = valueFieldSpecs.size();
     _valueColumns = new String[_valueSize];
+    _valueDataTypes = new FieldSpec.DataType[_valueSize];
     _valueAggregators = new ValueAggregator[_valueSize];
 
     Map<String, ValueAggregatorFactory.ValueAggregatorType> aggregatorTypeMap = collectorConfig.getAggregatorTypeMap();
     if (aggregatorTypeMap == null) {
       aggregatorTypeMap = Collections.emptyMap();
     }
-    int valIdx = 0;
-    int keyIdx = 0;
-    for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
-      if (!fieldSpec.isVirtualColumn()) {
-        String name = fieldSpec.getName();
-        if (fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC) {
-          _valueColumns[valIdx] = name;
-          ValueAggregatorFactory.ValueAggregatorType aggregatorType =
-              aggregatorTypeMap.getOrDefault(name, ValueAggregatorFactory.ValueAggregatorType.SUM);
-          _valueAggregators[valIdx] =
-              ValueAggregatorFactory.getValueAggregator(aggregatorType.toString(), fieldSpec.getDataType());
-          valIdx++;
-        } else {
-          _keyColumns[keyIdx++] = name;
-        }
-      }
+    for (int i = 0; i < _valueSize; i++) {
+      FieldSpec fieldSpec = valueFieldSpecs.get(i);
+      String name = fieldSpec.getName();
+      _valueColumns[i] = name;
+      _valueDataTypes[i] = fieldSpec.getDataType();
+      ValueAggregatorFactory.ValueAggregatorType aggregatorType =
+          aggregatorTypeMap.getOrDefault(name, ValueAggregatorFactory.ValueAggregatorType.SUM);
+      _valueAggregators[i] =
+          ValueAggregatorFactory.getValueAggregator(aggregatorType.toString(), fieldSpec.getDataType());
     }
 
     List<String> sortOrder = collectorConfig.getSortOrder();
@@ -92,6 +107,27 @@ public class RollupCollector implements Collector {
     } else {
       _sorter = null;
     }
+    _tempDir = CollectorUtils.createTempDir(workingDir, this);
+    initGroupStore();
+  }
+
+  private void initGroupStore() {
+    _memoryManager = CollectorUtils.createMemoryManager(_tempDir);
+    _keyToGroupIdMap =
+        new BytesOffHeapMutableDictionary(ESTIMATED_NUM_GROUPS, MAX_OVERFLOW_HASH_SIZE, _memoryManager,
+            ALLOCATION_CONTEXT, ESTIMATED_AVG_KEY_SIZE);
+    _valueBuffers = new FixedByteSVMutableForwardIndex[_valueSize];
+    _bytesValueStores = new OffHeapMutableBytesStore[_valueSize];
+    for (int i = 0; i < _valueSize; i++) {
+      if (_valueDataTypes[i] == FieldSpec.DataType.BYTES) {
+        _bytesValueStores[i] = new OffHeapMutableBytesStore(_memoryManager, ALLOCATION_CONTEXT);
+      } else {
+        _valueBuffers[i] =
+            new FixedByteSVMutableForwardIndex(false, _valueDataTypes[i], NUM_GROUPS_PER_CHUNK, _memoryManager,
+                ALLOCATION_CONTEXT);
+      }
+    }
+    _numGroups = 0;
   }
 
   /**
@@ -99,67 +135,130 @@ public class RollupCollector implements Collector {
    */
   @Override
   public void collect(GenericRow genericRow) {
-    Object[] key = new Object[_keySize];
-    for (int i = 0; i < _keySize; i++) {
-      key[i] = genericRow.getValue(_keyColumns[i]);
-    }
-    Record keyRecord = new Record(key);
-    GenericRow prev = _collection.get(keyRecord);
-    if (prev == null) {
-      _collection.put(keyRecord, genericRow);
+    int groupId = _keyToGroupIdMap.index(_keySerializer.serialize(genericRow));
+    if (groupId == _numGroups) {
+      for (int i = 0; i < _valueSize; i++) {
+        setValue(i, groupId, genericRow.getValue(_valueColumns[i]));
+      }
+      _numGroups++;
     } else {
       for (int i = 0; i < _valueSize; i++) {
-        String valueColumn = _valueColumns[i];
-        Object aggregate = _valueAggregators[i].aggregate(prev.getValue(valueColumn), genericRow.getValue(valueColumn));
-        prev.putValue(valueColumn, aggregate);
+        Object aggregate = _valueAggregators[i].aggregate(getValue(i, groupId), genericRow.getValue(_valueColumns[i]));
+        setValue(i, groupId, aggregate);
       }
     }
   }
 
+  private Object getValue(int valueIndex, int groupId) {
+    FixedByteSVMutableForwardIndex valueBuffer = _valueBuffers[valueIndex];
+    switch (_valueDataTypes[valueIndex]) {
+      case INT:
+        return valueBuffer.getInt(groupId);
+      case LONG:
+        return valueBuffer.getLong(groupId);
+      case FLOAT:
+        return valueBuffer.getFloat(groupId);
+      case DOUBLE:
+        return valueBuffer.getDouble(groupId);
+      case BYTES:
+        return _bytesValueStores[valueIndex].get(groupId);
+      default:
+        throw new IllegalStateException("Unsupported metric type: " + _valueDataTypes[valueIndex]);
+    }
+  }
+
+  private void setValue(int valueIndex, int groupId, Object value) {
+    FixedByteSVMutableForwardIndex valueBuffer = _valueBuffers[valueIndex];
+    switch (_valueDataTypes[valueIndex]) {
+      case INT:
+        valueBuffer.setInt(groupId, ((Number) value).intValue());
+        break;
+      case LONG:
+        valueBuffer.setLong(groupId, ((Number) value).longValue());
+        break;
+      case FLOAT:
+        valueBuffer.setFloat(groupId, ((Number) value).floatValue());
+        break;
+      case DOUBLE:
+        valueBuffer.setDouble(groupId, ((Number) value).doubleValue());
+        break;
+      case BYTES:
+        // BYTES value can only be set once for each group because the value store is append-only
+        OffHeapMutableBytesStore bytesValueStore = _bytesValueStores[valueIndex];
+        Preconditions.checkState(bytesValueStore.getNumValues() == groupId, "Cannot aggregate BYTES metric: %s",
+            _valueColumns[valueIndex]);
+        bytesValueStore.add((byte[]) value);
+        break;
+      default:
+        throw new IllegalStateException("Unsupported metric type: " + _valueDataTypes[valueIndex]);
+    }
+  }
+
+  private GenericRow readGroup(int groupId, GenericRow reuse) {
+    _keySerializer.deserialize(_keyToGroupIdMap.get(groupId), reuse);
+    for (int i = 0; i < _valueSize; i++) {
+      reuse.putValue(_valueColumns[i], getValue(i, groupId));
+    }
+    return reuse;
+  }
+
   @Override
   public Iterator<GenericRow> iterator() {
-    Iterator<GenericRow> iterator;
+    int numGroups = _numGroups;
+    int[] sortedGroupIds;
     if (_sorter != null) {
-      List<GenericRow> sortedRows = new ArrayList<>(_collection.values());
-      _sorter.sort(sortedRows);
-      iterator = sortedRows.iterator();
+      GenericRow reuse = new GenericRow();
+      sortedGroupIds = _sorter.sort(numGroups, groupId -> readGroup(groupId, reuse));
     } else {
-      iterator = _collection.values().iterator();
+      sortedGroupIds = null;
     }
-    return iterator;
+    return new Iterator<GenericRow>() {
+      private int _nextIndex = 0;
+
+      @Override
+      public boolean hasNext() {
+        return _nextIndex < numGroups;
+      }
+
+      @Override
+      public GenericRow next() {
+        int groupId = sortedGroupIds != null ? sortedGroupIds[_nextIndex] : _nextIndex;
+        _nextIndex++;
+        return readGroup(groupId, new GenericRow());
+      }
+    };
   }
 
   @Override
   public int size() {
-    return _collection.size();
+    return _numGroups;
   }
 
   @Override
   public void reset() {
-    _collection.clear();
+    closeGroupStore();
+    initGroupStore();
   }
 
-  /**
-   * A representation for the keys of the generic row
-   * Note that the dimensions can have multi-value columns, and hence the equals and hashCode need deep array operations
-   */
-  private static class Record {
-    private final Object[] _keyParts;
-
-    public Record(Object[] keyParts) {
-      _keyParts = keyParts;
-    }
-
-    // NOTE: Not check class for performance concern
-    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
-    @Override
-    public boolean equals(Object o) {
-      return Arrays.deepEquals(_keyParts, ((Record) o)._keyParts);
+  private void closeGroupStore() {
+    CollectorUtils.closeUnchecked(_keyToGroupIdMap);
+    for (int i = 0; i < _valueSize; i++) {
+      if (_valueBuffers[i] != null) {
+        CollectorUtils.closeUnchecked(_valueBuffers[i]);
+      } else {
+        CollectorUtils.closeUnchecked(_bytesValueStores[i]);
+      }
     }
+    CollectorUtils.closeUnchecked(_memoryManager);
+  }
 
-    @Override
-    public int hashCode() {
-      return Arrays.deepHashCode(_keyParts);
+  @Override
+  public void close()
+      throws IOException {
+    try {
+      closeGroupStore();
+    } finally {
+      FileUtils.deleteQuietly(_tempDir);
     }
   }
 }
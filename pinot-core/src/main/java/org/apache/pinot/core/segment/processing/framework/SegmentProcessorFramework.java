@@ -57,6 +57,7 @@ public class SegmentProcessorFramework {
   private final File _mapperInputDir;
   private final File _mapperOutputDir;
   private final File _reducerOutputDir;
+  private final File _reducerWorkingDir;
 
   /**
    * Initializes the Segment Processor framework with input segments, output path and processing config
@@ -98,6 +99,10 @@ public class SegmentProcessorFramework {
     Preconditions
         .checkState(_reducerOutputDir.mkdirs(), "Failed to create reducer output directory: %s for SegmentProcessor",
             _reducerOutputDir);
+    _reducerWorkingDir = new File(_baseDir, "reducer_working");
+    Preconditions
+        .checkState(_reducerWorkingDir.mkdirs(), "Failed to create reducer working directory: %s for SegmentProcessor",
+            _reducerWorkingDir);
   }
 
   /**
@@ -154,9 +159,13 @@ public class SegmentProcessorFramework {
       SegmentReducerConfig reducerConfig =
           new SegmentReducerConfig(_pinotSchema, _segmentProcessorConfig.getCollectorConfig(),
               _segmentProcessorConfig.getSegmentConfig().getMaxNumRecordsPerSegment());
-      SegmentReducer reducer = new SegmentReducer(partDir.getName(), partDir, reducerConfig, _reducerOutputDir);
-      reducer.reduce();
-      reducer.cleanup();
+      SegmentReducer reducer =
+          new SegmentReducer(partDir.getName(), partDir, reducerConfig, _reducerOutputDir, _reducerWorkingDir);
+      try {
+        reducer.reduce();
+      } finally {
+        reducer.cleanup();
+      }
     }
 
     // Check for reducer output files
@@ -57,15 +57,18 @@ public class SegmentReducer {
   private final Collector _collector;
   private final int _numRecordsPerPart;
 
+  /**
+   * @param reducerWorkingDir directory for the memory-mapped files of the collector, which should already exist
+   */
   public SegmentReducer(String reducerId, File reducerInputDir, SegmentReducerConfig reducerConfig,
-      File reducerOutputDir) {
+      File reducerOutputDir, File reducerWorkingDir) {
     _reducerInputDir = reducerInputDir;
     _reducerOutputDir = reducerOutputDir;
 
     _reducerId = reducerId;
     _pinotSchema = reducerConfig.getPinotSchema();
     _avroSchema = SegmentProcessorUtils.convertPinotSchemaToAvroSchema(_pinotSchema);
-    _collector = CollectorFactory.getCollector(reducerConfig.getCollectorConfig(), _pinotSchema);
+    _collector = CollectorFactory.getCollector(reducerConfig.getCollectorConfig(), _pinotSchema, reducerWorkingDir);
     _numRecordsPerPart = reducerConfig.getNumRecordsPerPart();
     LOGGER.info("Initialized reducer with id: {}, input dir: {}, output dir: {}, collector: {}, numRecordsPerPart: {}",
         _reducerId, _reducerInputDir, _reducerOutputDir, _collector.getClass(), _numRecordsPerPart);
@@ -89,7 +92,6 @@ public class SegmentReducer {
         GenericRow next = avroRecordReader.next();
 
         // Aggregations
-        // TODO: Off-heap based implementation for aggregation/sorting
         _collector.collect(next);
 
         // Reached max records per part file. Flush
@@ -128,6 +130,8 @@ public class SegmentReducer {
   /**
    * Cleans up reducer state
    */
-  public void cleanup() {
+  public void cleanup()
+      throws IOException {
+    _collector.close();
   }
 }
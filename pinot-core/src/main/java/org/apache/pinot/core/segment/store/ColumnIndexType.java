@@ -26,7 +26,8 @@ public enum ColumnIndexType {
   NULLVALUE_VECTOR("nullvalue_vector"),
   TEXT_INDEX("text_index"),
   FST_INDEX("fst_index"),
-  RANGE_INDEX("range_index");
+  RANGE_INDEX("range_index"),
+  JSON_INDEX("json_index");
 
   private final String indexName;
 
@@ -35,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.apache.pinot.core.segment.creator.impl.V1Constants.Indexes.FST_INDEX_FILE_EXTENSION;
+import static org.apache.pinot.core.segment.creator.impl.V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION;
 
 
 class FilePerIndexDirectory extends ColumnIndexDirectory {
@@ -142,6 +143,9 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
       case FST_INDEX:
         filename = column + FST_INDEX_FILE_EXTENSION;
         break;
+      case JSON_INDEX:
+        filename = column + JSON_INDEX_FILE_EXTENSION;
+        break;
       default:
         throw new UnsupportedOperationException("Unknown index type: " + indexType.toString());
     }
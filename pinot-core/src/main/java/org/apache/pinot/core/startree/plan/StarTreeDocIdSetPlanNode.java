@@ -24,22 +24,23 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
-import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 
 
 public class StarTreeDocIdSetPlanNode implements PlanNode {
   private final StarTreeFilterPlanNode _starTreeFilterPlanNode;
+  private final int _maxDocPerCall;
 
   public StarTreeDocIdSetPlanNode(StarTreeV2 starTreeV2, Map<String, List<PredicateEvaluator>> predicateEvaluatorsMap,
-      @Nullable Set<String> groupByColumns, @Nullable Map<String, String> debugOptions) {
+      @Nullable Set<String> groupByColumns, @Nullable Map<String, String> debugOptions, int maxDocPerCall) {
     _starTreeFilterPlanNode =
         new StarTreeFilterPlanNode(starTreeV2, predicateEvaluatorsMap, groupByColumns, debugOptions);
+    _maxDocPerCall = maxDocPerCall;
   }
 
   @Override
   public DocIdSetOperator run() {
-    return new DocIdSetOperator(_starTreeFilterPlanNode.run(), DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    return new DocIdSetOperator(_starTreeFilterPlanNode.run(), _maxDocPerCall);
   }
 }
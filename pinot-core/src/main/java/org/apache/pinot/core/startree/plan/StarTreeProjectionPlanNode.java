@@ -26,6 +26,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.startree.v2.StarTreeV2;
 
@@ -36,13 +37,15 @@ public class StarTreeProjectionPlanNode implements PlanNode {
 
   public StarTreeProjectionPlanNode(StarTreeV2 starTreeV2, Set<String> projectionColumns,
       Map<String, List<PredicateEvaluator>> predicateEvaluatorsMap, @Nullable Set<String> groupByColumns,
-      @Nullable Map<String, String> debugOptions) {
+      @Nullable Map<String, String> debugOptions, int targetBlockSizeBytes) {
     _dataSourceMap = new HashMap<>();
     for (String projectionColumn : projectionColumns) {
       _dataSourceMap.put(projectionColumn, starTreeV2.getDataSource(projectionColumn));
     }
+    // Adapt the block size to the width of the projected columns
+    int maxDocPerCall = DocIdSetPlanNode.getMaxDocPerCall(_dataSourceMap.values(), targetBlockSizeBytes);
     _starTreeDocIdSetPlanNode =
-        new StarTreeDocIdSetPlanNode(starTreeV2, predicateEvaluatorsMap, groupByColumns, debugOptions);
+        new StarTreeDocIdSetPlanNode(starTreeV2, predicateEvaluatorsMap, groupByColumns, debugOptions, maxDocPerCall);
   }
 
   @Override
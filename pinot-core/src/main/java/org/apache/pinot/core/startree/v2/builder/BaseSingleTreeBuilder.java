@@ -60,6 +60,8 @@ import static org.apache.pinot.core.startree.v2.StarTreeV2Constants.STAR_TREE_IN
 @SuppressWarnings({"rawtypes", "unchecked"})
 abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseSingleTreeBuilder.class);
+  // Minimum number of records to sort with multiple threads when parallel sort is enabled
+  private static final int MIN_RECORDS_FOR_PARALLEL_SORT = 100_000;
 
   final StarTreeV2BuilderConfig _builderConfig;
   final File _outputDir;
@@ -80,6 +82,7 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
   final PinotSegmentColumnReader[] _metricReaders;
 
   final int _maxLeafRecords;
+  final boolean _parallelSort;
 
   final TreeNode _rootNode = getNewNode();
 
@@ -106,9 +109,10 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
    * @param outputDir Directory to store the index files
    * @param segment Index segment
    * @param metadataProperties Segment metadata properties
+   * @param parallelSort Whether to sort the records with multiple threads
    */
   BaseSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
-      Configuration metadataProperties) {
+      Configuration metadataProperties, boolean parallelSort) {
     _builderConfig = builderConfig;
     _outputDir = outputDir;
     _segment = segment;
@@ -154,6 +158,14 @@ abstract class BaseSingleTreeBuilder implements SingleTreeBuilder {
     }
 
     _maxLeafRecords = builderConfig.getMaxLeafRecords();
+    _parallelSort = parallelSort;
+  }
+
+  /**
+   * Returns whether to sort the given number of records with multiple threads.
+   */
+  boolean useParallelSort(int numRecords) {
+    return _parallelSort && numRecords >= MIN_RECORDS_FOR_PARALLEL_SORT;
   }
 
   /**
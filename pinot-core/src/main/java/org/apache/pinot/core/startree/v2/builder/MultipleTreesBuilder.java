@@ -24,14 +24,21 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
@@ -55,9 +62,12 @@ import org.slf4j.LoggerFactory;
  * given {@link BuildMode} ({@code ON_HEAP} or {@code OFF_HEAP}).
  * <p>The indexes for all star-trees will be stored in a single index file, and there will be an extra index map file to
  * mark the offset and size of each index in the index file.
+ * <p>With parallelism configured, independent star-trees are built concurrently as long as the estimated memory usage
+ * fits into the memory budget, and the records of a star-tree built alone are sorted with fork-join.
  */
 public class MultipleTreesBuilder implements Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(MultipleTreesBuilder.class);
+  public static final long DEFAULT_MAX_MEMORY_BYTES = 1024L * 1024 * 1024;
 
   private final List<StarTreeV2BuilderConfig> _builderConfigs;
   private final BuildMode _buildMode;
@@ -65,6 +75,9 @@ public class MultipleTreesBuilder implements Closeable {
   private final PropertiesConfiguration _metadataProperties;
   private final ImmutableSegment _segment;
 
+  private int _parallelism = 1;
+  private long _maxMemoryBytes = DEFAULT_MAX_MEMORY_BYTES;
+
   public enum BuildMode {
     ON_HEAP, OFF_HEAP
   }
@@ -116,6 +129,21 @@ public class MultipleTreesBuilder implements Closeable {
     }
   }
 
+  /**
+   * Sets the number of threads used to build the star-trees, 1 by default.
+   */
+  public void setParallelism(int parallelism) {
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Sets the memory budget for building star-trees concurrently. The number of star-trees built at the same time is
+   * reduced (down to building them one at a time) so that their estimated memory usage fits into the budget.
+   */
+  public void setMaxMemoryBytes(long maxMemoryBytes) {
+    _maxMemoryBytes = maxMemoryBytes;
+  }
+
   /**
    * Builds the star-trees.
    */
@@ -131,17 +159,24 @@ public class MultipleTreesBuilder implements Closeable {
       File starTreeIndexDir = new File(_segmentDirectory, StarTreeV2Constants.STAR_TREE_TEMP_DIR);
       FileUtils.forceMkdir(starTreeIndexDir);
       _metadataProperties.addProperty(MetadataKey.STAR_TREE_COUNT, numStarTrees);
-      List<Map<IndexKey, IndexValue>> indexMaps = new ArrayList<>(numStarTrees);
+      List<Map<IndexKey, IndexValue>> indexMaps;
 
       // Build all star-trees
-      for (int i = 0; i < numStarTrees; i++) {
-        StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
-        Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
-        try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, starTreeIndexDir, _segment,
-            metadataProperties, _buildMode)) {
-          singleTreeBuilder.build();
+      int numThreads = getNumTreesToBuildInParallel();
+      if (numThreads > 1) {
+        indexMaps = buildInParallel(indexCombiner, starTreeIndexDir, numThreads);
+      } else {
+        indexMaps = new ArrayList<>(numStarTrees);
+        boolean parallelSort = _parallelism > 1;
+        for (int i = 0; i < numStarTrees; i++) {
+          StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+          Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
+          try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, starTreeIndexDir, _segment,
+              metadataProperties, _buildMode, parallelSort)) {
+            singleTreeBuilder.build();
+          }
+          indexMaps.add(indexCombiner.combine(builderConfig, starTreeIndexDir));
         }
-        indexMaps.add(indexCombiner.combine(builderConfig, starTreeIndexDir));
       }
 
       // Save the metadata and index maps to the disk
@@ -158,13 +193,99 @@ public class MultipleTreesBuilder implements Closeable {
     LOGGER.info("Finished building {} star-trees in {}ms", numStarTrees, System.currentTimeMillis() - startTime);
   }
 
+  /**
+   * Returns the number of star-trees to build at the same time, bounded by the parallelism, the number of star-trees
+   * and the memory budget.
+   */
+  private int getNumTreesToBuildInParallel() {
+    int numTrees = Math.min(_parallelism, _builderConfigs.size());
+    if (numTrees <= 1) {
+      return 1;
+    }
+    int numDocs = _segment.getSegmentMetadata().getTotalDocs();
+    long maxMemoryBytesPerTree = 1;
+    for (StarTreeV2BuilderConfig builderConfig : _builderConfigs) {
+      maxMemoryBytesPerTree = Math.max(maxMemoryBytesPerTree, estimateMemoryBytes(builderConfig, numDocs));
+    }
+    long numTreesWithinBudget = _maxMemoryBytes / maxMemoryBytesPerTree;
+    if (numTreesWithinBudget < numTrees) {
+      LOGGER.info("Building {} star-trees in parallel instead of {} to fit into memory budget: {} bytes",
+          Math.max(numTreesWithinBudget, 1), numTrees, _maxMemoryBytes);
+      return (int) Math.max(numTreesWithinBudget, 1);
+    }
+    return numTrees;
+  }
+
+  /**
+   * Estimates the memory used to build a star-tree, which is dominated by the sorted records of the segment (dimension
+   * dictionary ids, metric values and the sorted document ids).
+   */
+  private static long estimateMemoryBytes(StarTreeV2BuilderConfig builderConfig, int numDocs) {
+    int numDimensions = builderConfig.getDimensionsSplitOrder().size();
+    int numMetrics = builderConfig.getFunctionColumnPairs().size();
+    return (long) numDocs * ((numDimensions + 1) * Integer.BYTES + numMetrics * Long.BYTES);
+  }
+
+  /**
+   * Builds the star-trees concurrently, each into its own temporary directory with its own metadata properties, then
+   * combines the indexes and metadata in the order of the builder configs so that the result is the same as building
+   * them sequentially.
+   */
+  private List<Map<IndexKey, IndexValue>> buildInParallel(StarTreeIndexCombiner indexCombiner, File starTreeIndexDir,
+      int numThreads)
+      throws Exception {
+    int numStarTrees = _builderConfigs.size();
+    LOGGER.info("Building {} star-trees with {} threads", numStarTrees, numThreads);
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(numThreads, new NamedThreadFactory("star-tree-builder"));
+    try {
+      List<Future<Configuration>> futures = new ArrayList<>(numStarTrees);
+      for (int i = 0; i < numStarTrees; i++) {
+        StarTreeV2BuilderConfig builderConfig = _builderConfigs.get(i);
+        File treeIndexDir = new File(starTreeIndexDir, Integer.toString(i));
+        futures.add(executorService.submit(() -> {
+          FileUtils.forceMkdir(treeIndexDir);
+          Configuration metadataProperties = new PropertiesConfiguration();
+          try (SingleTreeBuilder singleTreeBuilder = getSingleTreeBuilder(builderConfig, treeIndexDir, _segment,
+              metadataProperties, _buildMode, false)) {
+            singleTreeBuilder.build();
+          }
+          return metadataProperties;
+        }));
+      }
+
+      List<Map<IndexKey, IndexValue>> indexMaps = new ArrayList<>(numStarTrees);
+      for (int i = 0; i < numStarTrees; i++) {
+        Configuration treeMetadataProperties;
+        try {
+          treeMetadataProperties = futures.get(i).get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          throw cause instanceof Exception ? (Exception) cause : e;
+        }
+        Configuration metadataProperties = _metadataProperties.subset(MetadataKey.getStarTreePrefix(i));
+        Iterator<String> keys = treeMetadataProperties.getKeys();
+        while (keys.hasNext()) {
+          String key = keys.next();
+          metadataProperties.setProperty(key, treeMetadataProperties.getProperty(key));
+        }
+        indexMaps.add(indexCombiner.combine(_builderConfigs.get(i), new File(starTreeIndexDir, Integer.toString(i))));
+      }
+      return indexMaps;
+    } finally {
+      // Wait for the running builders to finish before the temporary directory gets removed
+      executorService.shutdownNow();
+      executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+  }
+
   private static SingleTreeBuilder getSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir,
-      ImmutableSegment segment, Configuration metadataProperties, BuildMode buildMode)
+      ImmutableSegment segment, Configuration metadataProperties, BuildMode buildMode, boolean parallelSort)
       throws FileNotFoundException {
     if (buildMode == BuildMode.ON_HEAP) {
-      return new OnHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties);
+      return new OnHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties, parallelSort);
     } else {
-      return new OffHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties);
+      return new OffHeapSingleTreeBuilder(builderConfig, outputDir, segment, metadataProperties, parallelSort);
     }
   }
 
@@ -19,6 +19,8 @@
 package org.apache.pinot.core.startree.v2.builder;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.Swapper;
+import it.unimi.dsi.fastutil.ints.IntComparator;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -66,7 +68,23 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
   public OffHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
       Configuration metadataProperties)
       throws FileNotFoundException {
-    super(builderConfig, outputDir, segment, metadataProperties);
+    this(builderConfig, outputDir, segment, metadataProperties, false);
+  }
+
+  /**
+   * Constructor for the off-heap single star-tree builder.
+   *
+   * @param builderConfig Builder config
+   * @param outputDir Directory to store the index files
+   * @param segment Index segment
+   * @param metadataProperties Segment metadata properties
+   * @param parallelSort Whether to sort the records with multiple threads
+   * @throws FileNotFoundException
+   */
+  public OffHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
+      Configuration metadataProperties, boolean parallelSort)
+      throws FileNotFoundException {
+    super(builderConfig, outputDir, segment, metadataProperties, parallelSort);
     _segmentRecordFile = new File(_outputDir, SEGMENT_RECORD_FILE_NAME);
     Preconditions
         .checkState(!_segmentRecordFile.exists(), "Segment record file: " + _segmentRecordFile + " already exists");
@@ -216,7 +234,7 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
           offset += Integer.BYTES;
         }
       }
-      it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, (i1, i2) -> {
+      IntComparator comparator = (i1, i2) -> {
         long offset1 = (long) sortedDocIds[i1] * _numDimensions * Integer.BYTES;
         long offset2 = (long) sortedDocIds[i2] * _numDimensions * Integer.BYTES;
         for (int i = 0; i < _numDimensions; i++) {
@@ -227,11 +245,8 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
           }
         }
         return 0;
-      }, (i1, i2) -> {
-        int temp = sortedDocIds[i1];
-        sortedDocIds[i1] = sortedDocIds[i2];
-        sortedDocIds[i2] = temp;
-      });
+      };
+      sortDocIds(sortedDocIds, comparator);
     } finally {
       dataBuffer.close();
       if (_segmentRecordFile.exists()) {
@@ -279,7 +294,7 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     for (int i = 0; i < numDocs; i++) {
       sortedDocIds[i] = startDocId + i;
     }
-    it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, (i1, i2) -> {
+    IntComparator comparator = (i1, i2) -> {
       long offset1 = _starTreeRecordOffsets.get(sortedDocIds[i1]);
       long offset2 = _starTreeRecordOffsets.get(sortedDocIds[i2]);
       for (int i = dimensionId + 1; i < _numDimensions; i++) {
@@ -290,11 +305,8 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
         }
       }
       return 0;
-    }, (i1, i2) -> {
-      int temp = sortedDocIds[i1];
-      sortedDocIds[i1] = sortedDocIds[i2];
-      sortedDocIds[i2] = temp;
-    });
+    };
+    sortDocIds(sortedDocIds, comparator);
 
     // Create an iterator for aggregated records
     return new Iterator<Record>() {
@@ -340,6 +352,24 @@ public class OffHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     };
   }
 
+  /**
+   * Sorts the document ids with the given comparator on the positions of the array. Uses fork-join to sort different
+   * partitions of the array in parallel when parallel sort is enabled and there are enough records.
+   */
+  private void sortDocIds(int[] sortedDocIds, IntComparator comparator) {
+    int numDocs = sortedDocIds.length;
+    Swapper swapper = (i1, i2) -> {
+      int temp = sortedDocIds[i1];
+      sortedDocIds[i1] = sortedDocIds[i2];
+      sortedDocIds[i2] = temp;
+    };
+    if (useParallelSort(numDocs)) {
+      it.unimi.dsi.fastutil.Arrays.parallelQuickSort(0, numDocs, comparator, swapper);
+    } else {
+      it.unimi.dsi.fastutil.Arrays.quickSort(0, numDocs, comparator, swapper);
+    }
+  }
+
   @Override
   public void close()
       throws IOException {
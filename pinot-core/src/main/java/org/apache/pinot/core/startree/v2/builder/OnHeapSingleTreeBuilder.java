@@ -21,6 +21,7 @@ package org.apache.pinot.core.startree.v2.builder;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import org.apache.commons.configuration.Configuration;
@@ -45,7 +46,21 @@ public class OnHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
    */
   public OnHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
       Configuration metadataProperties) {
-    super(builderConfig, outputDir, segment, metadataProperties);
+    this(builderConfig, outputDir, segment, metadataProperties, false);
+  }
+
+  /**
+   * Constructor for the on-heap single star-tree builder.
+   *
+   * @param builderConfig Builder config
+   * @param outputDir Directory to store the index files
+   * @param segment Index segment
+   * @param metadataProperties Segment metadata properties
+   * @param parallelSort Whether to sort the records with multiple threads
+   */
+  public OnHeapSingleTreeBuilder(StarTreeV2BuilderConfig builderConfig, File outputDir, ImmutableSegment segment,
+      Configuration metadataProperties, boolean parallelSort) {
+    super(builderConfig, outputDir, segment, metadataProperties, parallelSort);
   }
 
   @Override
@@ -69,14 +84,19 @@ public class OnHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     for (int i = 0; i < numDocs; i++) {
       records[i] = getSegmentRecord(i);
     }
-    Arrays.sort(records, (o1, o2) -> {
+    Comparator<Record> comparator = (o1, o2) -> {
       for (int i = 0; i < _numDimensions; i++) {
         if (o1._dimensions[i] != o2._dimensions[i]) {
           return o1._dimensions[i] - o2._dimensions[i];
         }
       }
       return 0;
-    });
+    };
+    if (useParallelSort(numDocs)) {
+      Arrays.parallelSort(records, comparator);
+    } else {
+      Arrays.sort(records, comparator);
+    }
     return new Iterator<Record>() {
       boolean _hasNext = true;
       Record _currentRecord = records[0];
@@ -112,14 +132,19 @@ public class OnHeapSingleTreeBuilder extends BaseSingleTreeBuilder {
     for (int i = 0; i < numDocs; i++) {
       records[i] = getStarTreeRecord(startDocId + i);
     }
-    Arrays.sort(records, (o1, o2) -> {
+    Comparator<Record> comparator = (o1, o2) -> {
       for (int i = dimensionId + 1; i < _numDimensions; i++) {
         if (o1._dimensions[i] != o2._dimensions[i]) {
           return o1._dimensions[i] - o2._dimensions[i];
         }
       }
       return 0;
-    });
+    };
+    if (useParallelSort(numDocs)) {
+      Arrays.parallelSort(records, comparator);
+    } else {
+      Arrays.sort(records, comparator);
+    }
     return new Iterator<Record>() {
       boolean _hasNext = true;
       Record _currentRecord = records[0];
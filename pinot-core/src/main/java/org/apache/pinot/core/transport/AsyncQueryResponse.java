@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.utils.DataTable;
 
@@ -38,11 +42,15 @@ public class AsyncQueryResponse {
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
   private final long _maxEndTimeMs;
+  private final DataTableConsumer _dataTableConsumer;
+  // Scheduled hedges and request ids of the hedged requests sent, to be cleaned up when the query is done
+  private final List<ScheduledFuture<?>> _scheduledHedges = new CopyOnWriteArrayList<>();
+  private final List<Long> _hedgedRequestIds = new CopyOnWriteArrayList<>();
 
   private volatile Exception _brokerRequestSendException;
 
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
-      long startTimeMs, long timeoutMs) {
+      long startTimeMs, long timeoutMs, @Nullable DataTableConsumer dataTableConsumer) {
     _queryRouter = queryRouter;
     _requestId = requestId;
     int numServersQueried = serversQueried.size();
@@ -52,6 +60,7 @@ public class AsyncQueryResponse {
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _dataTableConsumer = dataTableConsumer;
   }
 
   /**
@@ -84,10 +93,50 @@ public class AsyncQueryResponse {
     _responseMap.get(serverRoutingInstance).markRequestSubmitted();
   }
 
-  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+  /**
+   * Receives the data table for the given server (or the hedged request for the given server), returns the server
+   * response if the data table is accepted, or {@code null} if a data table is already received for the server.
+   * <p>When a {@link DataTableConsumer} is configured, the accepted data table is consumed and released before the
+   * server is counted as responded, so that the consumer has seen all the data tables when the query is done.
+   */
+  ServerResponse receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
-    _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
-    _countDownLatch.countDown();
+    ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
+    if (serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs)) {
+      if (_dataTableConsumer != null) {
+        try {
+          _dataTableConsumer.consume(serverRoutingInstance, dataTable);
+        } finally {
+          serverResponse.releaseDataTable();
+          _countDownLatch.countDown();
+        }
+      } else {
+        _countDownLatch.countDown();
+      }
+      return serverResponse;
+    } else {
+      return null;
+    }
+  }
+
+  boolean hasResponded(ServerRoutingInstance serverRoutingInstance) {
+    return _responseMap.get(serverRoutingInstance).hasResponded();
+  }
+
+  void addScheduledHedge(ScheduledFuture<?> scheduledHedge) {
+    _scheduledHedges.add(scheduledHedge);
+  }
+
+  void addHedgedRequestId(long hedgedRequestId) {
+    _hedgedRequestIds.add(hedgedRequestId);
+  }
+
+  List<ScheduledFuture<?>> getScheduledHedges() {
+    return _scheduledHedges;
+  }
+
+  List<Long> getHedgedRequestIds() {
+    return _hedgedRequestIds;
   }
 
   void markQueryFailed() {
@@ -103,7 +152,7 @@ public class AsyncQueryResponse {
    */
   void markServerDown(ServerRoutingInstance serverRoutingInstance) {
     ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
-    if (serverResponse != null && serverResponse.getDataTable() == null) {
+    if (serverResponse != null && !serverResponse.hasResponded()) {
       markQueryFailed();
     }
   }
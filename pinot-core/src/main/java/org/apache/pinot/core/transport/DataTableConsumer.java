@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import org.apache.pinot.common.utils.DataTable;
+
+
+/**
+ * The {@code DataTableConsumer} consumes the data tables as they are received from the servers, e.g. to reduce the
+ * query response incrementally instead of after all servers responded.
+ * <p>The data tables consumed are not kept in the {@link ServerResponse} so that they can be released as soon as they
+ * are consumed.
+ */
+public interface DataTableConsumer {
+
+  /**
+   * Consumes the data table received from the given server. This method is invoked from the Netty threads, so it
+   * should be thread-safe and not block or do heavy work (e.g. hand the data table off to another thread instead).
+   */
+  void consume(ServerRoutingInstance serverRoutingInstance, DataTable dataTable);
+}
@@ -21,6 +21,7 @@ package org.apache.pinot.core.transport;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import java.nio.ByteBuffer;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.DataTable;
@@ -64,7 +65,18 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
     _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_RECEIVED, responseSize);
     try {
       long deserializationStartTimeMs = System.currentTimeMillis();
-      DataTable dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
+      ByteBuffer byteBuffer = msg.nioBuffer();
+      // NOTE: The message is a slice of the frame decoder's cumulation buffer, which is released and reused after this
+      //       method returns, so data tables keeping views of the buffer need their own copy of it. Take it with a
+      //       single bulk copy, which is the only copy on the broker side. Older data tables copy each section on
+      //       their own.
+      if (DataTableFactory.isReferencingBuffer(byteBuffer)) {
+        ByteBuffer copy = ByteBuffer.allocate(responseSize);
+        copy.put(byteBuffer);
+        copy.flip();
+        byteBuffer = copy;
+      }
+      DataTable dataTable = DataTableFactory.getDataTable(byteBuffer);
       _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
           (int) (System.currentTimeMillis() - deserializationStartTimeMs));
     } catch (Exception e) {
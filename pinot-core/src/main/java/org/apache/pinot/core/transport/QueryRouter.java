@@ -22,6 +22,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -30,6 +32,7 @@ import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +41,9 @@ import org.slf4j.LoggerFactory;
  * The {@code QueryRouter} class provides methods to route the query based on the routing table, and returns a
  * {@link AsyncQueryResponse} so that caller can handle the query response asynchronously.
  * <p>It works on {@link ServerChannels} which maintains only a single connection between the broker and each server.
+ * <p>When a {@link RequestHedger} is configured, for each server not responding after the hedge delay, the request is
+ * re-sent to another server hosting the same segments, and the first response is used. The hedged requests are sent
+ * with negative request ids so that their responses can be told apart from the responses of the original requests.
  */
 @ThreadSafe
 public class QueryRouter {
@@ -47,27 +53,49 @@ public class QueryRouter {
   private final BrokerMetrics _brokerMetrics;
   private final ServerChannels _serverChannels;
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
+  private final RequestHedger _requestHedger;
+  private final ConcurrentHashMap<Long, HedgedRequest> _hedgedRequestMap = new ConcurrentHashMap<>();
+  private final AtomicLong _hedgedRequestIdGenerator = new AtomicLong();
 
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics) {
+    this(brokerId, brokerMetrics, null);
+  }
+
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, @Nullable RequestHedger requestHedger) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics);
+    _requestHedger = requestHedger;
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
       long timeoutMs) {
+    return submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+        realtimeRoutingTable, timeoutMs, null);
+  }
+
+  /**
+   * Submits the query, where the data tables received are passed to the given {@link DataTableConsumer} (if not
+   * {@code null}) as they arrive instead of being kept in the {@link ServerResponse}.
+   */
+  public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
+      @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
+      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
+      long timeoutMs, @Nullable DataTableConsumer dataTableConsumer) {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     // Build map from server to request based on the routing table
     Map<ServerRoutingInstance, InstanceRequest> requestMap = new HashMap<>();
+    Map<ServerRoutingInstance, ServerInstance> serverInstanceMap = new HashMap<>();
     if (offlineBrokerRequest != null) {
       assert offlineRoutingTable != null;
       for (Map.Entry<ServerInstance, List<String>> entry : offlineRoutingTable.entrySet()) {
         ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.OFFLINE);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, offlineBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        serverInstanceMap.put(serverRoutingInstance, entry.getKey());
       }
     }
     if (realtimeBrokerRequest != null) {
@@ -76,18 +104,24 @@ public class QueryRouter {
         ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.REALTIME);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, realtimeBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        serverInstanceMap.put(serverRoutingInstance, entry.getKey());
       }
     }
 
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs,
+            dataTableConsumer);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
     for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
       ServerRoutingInstance serverRoutingInstance = entry.getKey();
       try {
         _serverChannels.sendRequest(serverRoutingInstance, entry.getValue());
         asyncQueryResponse.markRequestSubmitted(serverRoutingInstance);
+        if (_requestHedger != null) {
+          scheduleHedge(asyncQueryResponse, rawTableName, serverInstanceMap.get(serverRoutingInstance),
+              serverRoutingInstance, entry.getValue(), timeoutMs);
+        }
       } catch (Exception e) {
         LOGGER.error("Caught exception while sending request {} to server: {}, marking query failed", requestId,
             serverRoutingInstance, e);
@@ -101,18 +135,89 @@ public class QueryRouter {
     return asyncQueryResponse;
   }
 
+  /**
+   * Schedules the hedged request for the given server after the hedge delay. The hedged request is sent only if the
+   * server has not responded yet, the hedge budget is available, and another server hosts all the segments queried.
+   */
+  private void scheduleHedge(AsyncQueryResponse asyncQueryResponse, String rawTableName, ServerInstance serverInstance,
+      ServerRoutingInstance serverRoutingInstance, InstanceRequest instanceRequest, long timeoutMs) {
+    _requestHedger.recordRequestSent();
+    long hedgeDelayMs = _requestHedger.getHedgeDelayMs(serverRoutingInstance);
+    if (hedgeDelayMs < 0 || hedgeDelayMs >= timeoutMs) {
+      return;
+    }
+    ScheduledFuture<?> scheduledHedge = _requestHedger.schedule(() -> {
+      long requestId = instanceRequest.getRequestId();
+      if (!_asyncQueryResponseMap.containsKey(requestId) || asyncQueryResponse.hasResponded(serverRoutingInstance)) {
+        return;
+      }
+      TableType tableType = serverRoutingInstance.getTableType();
+      String tableNameWithType = TableNameBuilder.forType(tableType).tableNameWithType(rawTableName);
+      List<String> segments = instanceRequest.getSearchSegments();
+      ServerInstance hedgeServerInstance =
+          _requestHedger.getHedgeServerSelector().select(tableNameWithType, segments, serverInstance);
+      if (hedgeServerInstance == null || !_requestHedger.tryAcquireBudget()) {
+        return;
+      }
+      long hedgedRequestId = _hedgedRequestIdGenerator.decrementAndGet();
+      _hedgedRequestMap
+          .put(hedgedRequestId, new HedgedRequest(rawTableName, asyncQueryResponse, serverRoutingInstance));
+      asyncQueryResponse.addHedgedRequestId(hedgedRequestId);
+      // The query might be done before the hedged request id is added
+      if (!_asyncQueryResponseMap.containsKey(requestId)) {
+        _hedgedRequestMap.remove(hedgedRequestId);
+        return;
+      }
+      ServerRoutingInstance hedgeServerRoutingInstance = hedgeServerInstance.toServerRoutingInstance(tableType);
+      InstanceRequest hedgedInstanceRequest = getInstanceRequest(hedgedRequestId, instanceRequest.getQuery(), segments);
+      _requestHedger.send(() -> {
+        try {
+          _serverChannels.sendRequest(hedgeServerRoutingInstance, hedgedInstanceRequest);
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_FIRED, 1);
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while sending hedged request {} for request {} to server: {}",
+              hedgedRequestId, requestId, hedgeServerRoutingInstance, e);
+          _hedgedRequestMap.remove(hedgedRequestId);
+        }
+      });
+    }, hedgeDelayMs);
+    asyncQueryResponse.addScheduledHedge(scheduledHedge);
+  }
+
   public void shutDown() {
     _serverChannels.shutDown();
+    if (_requestHedger != null) {
+      _requestHedger.shutDown();
+    }
   }
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
     long requestId = Long.parseLong(dataTable.getMetadata().get(DataTable.REQUEST_ID_METADATA_KEY));
+    if (requestId < 0) {
+      // Response for a hedged request, use it as the response of the original server if it has not responded yet
+      HedgedRequest hedgedRequest = _hedgedRequestMap.remove(requestId);
+      if (hedgedRequest != null) {
+        ServerResponse serverResponse = hedgedRequest._asyncQueryResponse
+            .receiveDataTable(hedgedRequest._serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+        if (serverResponse != null) {
+          _brokerMetrics.addMeteredTableValue(hedgedRequest._rawTableName, BrokerMeter.HEDGED_REQUESTS_WON, 1);
+          // Record the time waited for the slow server (a lower bound of its response latency), so that the latency
+          // window still reflects the slow responses
+          _requestHedger.recordLatency(hedgedRequest._serverRoutingInstance, serverResponse.getResponseDelayMs());
+        }
+      }
+      return;
+    }
     AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
 
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
-      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+      ServerResponse serverResponse =
+          asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+      if (_requestHedger != null && serverResponse != null) {
+        _requestHedger.recordLatency(serverRoutingInstance, serverResponse.getResponseDelayMs());
+      }
     }
   }
 
@@ -123,7 +228,15 @@ public class QueryRouter {
   }
 
   void markQueryDone(long requestId) {
-    _asyncQueryResponseMap.remove(requestId);
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.remove(requestId);
+    if (asyncQueryResponse != null && _requestHedger != null) {
+      for (ScheduledFuture<?> scheduledHedge : asyncQueryResponse.getScheduledHedges()) {
+        scheduledHedge.cancel(false);
+      }
+      for (long hedgedRequestId : asyncQueryResponse.getHedgedRequestIds()) {
+        _hedgedRequestMap.remove(hedgedRequestId);
+      }
+    }
   }
 
   private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
@@ -135,4 +248,17 @@ public class QueryRouter {
     instanceRequest.setBrokerId(_brokerId);
     return instanceRequest;
   }
+
+  private static class HedgedRequest {
+    final String _rawTableName;
+    final AsyncQueryResponse _asyncQueryResponse;
+    final ServerRoutingInstance _serverRoutingInstance;
+
+    HedgedRequest(String rawTableName, AsyncQueryResponse asyncQueryResponse,
+        ServerRoutingInstance serverRoutingInstance) {
+      _rawTableName = rawTableName;
+      _asyncQueryResponse = asyncQueryResponse;
+      _serverRoutingInstance = serverRoutingInstance;
+    }
+  }
 }
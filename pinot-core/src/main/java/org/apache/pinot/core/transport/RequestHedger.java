@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.utils.NamedThreadFactory;
+
+
+/**
+ * The {@code RequestHedger} class decides when and where to send the hedged requests for the {@link QueryRouter}.
+ * <ul>
+ *   <li>
+ *     Hedge delay: the configured percentile of the recent response latencies of the server. No hedged request is sent
+ *     to a server until enough response latencies are recorded for it.
+ *   </li>
+ *   <li>
+ *     Hedge budget: each request sent adds the configured budget ratio to the budget (capped to
+ *     {@link #MAX_BUDGET}), and each hedged request takes 1 from it, so that the hedged requests cannot amplify the
+ *     load on the servers by more than the budget ratio.
+ *   </li>
+ *   <li>Hedge server: selected by the {@link HedgeServerSelector}.</li>
+ * </ul>
+ */
+@ThreadSafe
+public class RequestHedger {
+  // Number of recent response latencies kept for each server
+  static final int LATENCY_WINDOW_SIZE = 128;
+  // Minimum number of response latencies recorded for a server before sending hedged requests for it
+  static final int MIN_NUM_LATENCIES = 16;
+  // Maximum budget, which allows a burst of hedged requests when servers slow down after a quiet period
+  static final double MAX_BUDGET = 10;
+
+  private final HedgeServerSelector _hedgeServerSelector;
+  private final double _latencyPercentile;
+  private final double _budgetRatio;
+  private final Map<ServerRoutingInstance, LatencyWindow> _latencyWindowMap = new ConcurrentHashMap<>();
+  private final ScheduledThreadPoolExecutor _scheduledExecutor;
+  // Sending a request might block on connecting to the server, so the hedged requests are sent from a separate executor
+  // to not delay the other hedges on the single scheduler thread
+  private final ExecutorService _sendExecutor;
+
+  private double _budget;
+
+  public RequestHedger(HedgeServerSelector hedgeServerSelector, double latencyPercentile, double budgetRatio) {
+    _hedgeServerSelector = hedgeServerSelector;
+    _latencyPercentile = latencyPercentile;
+    _budgetRatio = budgetRatio;
+    _scheduledExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("request-hedger"));
+    _scheduledExecutor.setRemoveOnCancelPolicy(true);
+    _sendExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("request-hedger-send"));
+  }
+
+  public HedgeServerSelector getHedgeServerSelector() {
+    return _hedgeServerSelector;
+  }
+
+  /**
+   * Returns the delay in milliseconds after which the hedged request should be sent for the given server, or -1 if not
+   * enough response latencies are recorded for the server.
+   */
+  public long getHedgeDelayMs(ServerRoutingInstance serverRoutingInstance) {
+    LatencyWindow latencyWindow = _latencyWindowMap.get(serverRoutingInstance);
+    return latencyWindow != null ? latencyWindow.getPercentile(_latencyPercentile) : -1;
+  }
+
+  /**
+   * Records the response latency of a (non-hedged) request for the given server. When the hedged request wins, the time
+   * waited for the server is recorded as its response latency, so that the slow responses are not dropped from the
+   * latency window.
+   */
+  public void recordLatency(ServerRoutingInstance serverRoutingInstance, int latencyMs) {
+    _latencyWindowMap.computeIfAbsent(serverRoutingInstance, k -> new LatencyWindow()).record(latencyMs);
+  }
+
+  /**
+   * Records a (non-hedged) request sent, which adds to the hedge budget.
+   */
+  public synchronized void recordRequestSent() {
+    _budget = Math.min(_budget + _budgetRatio, MAX_BUDGET);
+  }
+
+  /**
+   * Takes 1 from the hedge budget if available, returns whether the hedged request can be sent.
+   */
+  public synchronized boolean tryAcquireBudget() {
+    if (_budget >= 1) {
+      _budget -= 1;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  public ScheduledFuture<?> schedule(Runnable hedge, long delayMs) {
+    return _scheduledExecutor.schedule(hedge, delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Sends the hedged request from the send executor.
+   */
+  public void send(Runnable send) {
+    _sendExecutor.execute(send);
+  }
+
+  public void shutDown() {
+    _scheduledExecutor.shutdownNow();
+    _sendExecutor.shutdownNow();
+  }
+
+  @VisibleForTesting
+  static class LatencyWindow {
+    final int[] _latencies = new int[LATENCY_WINDOW_SIZE];
+    int _numLatencies;
+
+    synchronized void record(int latencyMs) {
+      _latencies[_numLatencies++ % LATENCY_WINDOW_SIZE] = latencyMs;
+      // Prevent int overflow while keeping the position in the window
+      if (_numLatencies == 2 * LATENCY_WINDOW_SIZE) {
+        _numLatencies = LATENCY_WINDOW_SIZE;
+      }
+    }
+
+    synchronized long getPercentile(double percentile) {
+      int numLatencies = Math.min(_numLatencies, LATENCY_WINDOW_SIZE);
+      if (numLatencies < MIN_NUM_LATENCIES) {
+        return -1;
+      }
+      int[] sortedLatencies = Arrays.copyOf(_latencies, numLatencies);
+      Arrays.sort(sortedLatencies);
+      int index = (int) Math.ceil(percentile / 100 * numLatencies) - 1;
+      return sortedLatencies[Math.max(0, Math.min(index, numLatencies - 1))];
+    }
+  }
+}
@@ -38,10 +38,21 @@ public class ServerResponse {
     _startTimeMs = startTimeMs;
   }
 
+  /**
+   * Returns the data table received, or {@code null} if the server has not responded or the data table is already
+   * consumed by a {@link DataTableConsumer}.
+   */
   public DataTable getDataTable() {
     return _dataTable;
   }
 
+  /**
+   * Returns whether a data table is received from the server.
+   */
+  public boolean hasResponded() {
+    return _receiveDataTableTimeMs != 0;
+  }
+
   public int getSubmitDelayMs() {
     if (_submitRequestTimeMs != 0) {
       return (int) (_submitRequestTimeMs - _startTimeMs);
@@ -76,10 +87,25 @@ public class ServerResponse {
     _submitRequestTimeMs = System.currentTimeMillis();
   }
 
-  void receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs) {
+  /**
+   * Receives the data table, returns {@code false} if a data table is already received (e.g. the original request and
+   * the hedged request both responded), in which case the given data table is ignored.
+   */
+  synchronized boolean receiveDataTable(DataTable dataTable, int responseSize, int deserializationTimeMs) {
+    if (_receiveDataTableTimeMs != 0) {
+      return false;
+    }
     _receiveDataTableTimeMs = System.currentTimeMillis();
-    _dataTable = dataTable;
     _responseSize = responseSize;
     _deserializationTimeMs = deserializationTimeMs;
+    _dataTable = dataTable;
+    return true;
+  }
+
+  /**
+   * Releases the data table after it is consumed by a {@link DataTableConsumer}.
+   */
+  void releaseDataTable() {
+    _dataTable = null;
   }
 }
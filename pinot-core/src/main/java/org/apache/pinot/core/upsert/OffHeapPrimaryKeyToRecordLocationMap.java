@@ -0,0 +1,674 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implementation of {@link PrimaryKeyToRecordLocationMap} backed by memory mapped open addressing hash tables, which
+ * keep the primary keys off heap and can be snapshotted next to the segments and reloaded on server restart without
+ * replaying the segments.
+ * <p>The primary keys are stored as fixed width 128-bit murmur3 hashes, so 2 primary keys with the same hash are
+ * treated as the same key. The chance of a collision is negligible (about 1.5e-21 for 1 billion primary keys).
+ * <p>The primary keys are partitioned into {@value #NUM_SHARDS} shards by the low bits of the hash. Each shard is an
+ * independent hash table with its own index file and lock, so that the threads adding segments and the consuming thread
+ * do not serialize on a single lock. Each slot of the hash table is 32 bytes:
+ * <ul>
+ *   <li>[0, 16): 128-bit hash of the primary key</li>
+ *   <li>[16, 20): segment id, 0 for empty slot</li>
+ *   <li>[20, 24): doc id</li>
+ *   <li>[24, 32): timestamp</li>
+ * </ul>
+ * The segment id is assigned per valid doc ids instance (i.e. per segment being added or consumed), and is mapped back
+ * to the segment name and valid doc ids via an on-heap segment registry shared by all the shards.
+ * <p>On {@link #close()}, the hash tables are flushed to disk and a metadata file recording the capacity of the shards
+ * and the segment id, name and CRC of the immutable segments is written. On restart, the entries of the segments
+ * recorded in the metadata file are copied into fresh hash tables and the valid doc ids for these segments are rebuilt
+ * along the way, all the other entries (e.g. for the consuming segments) are dropped. Adding a segment with matching
+ * name and CRC claims the rebuilt valid doc ids without replaying the segment. The metadata file is deleted once
+ * loaded, so that a crash always falls back to replaying the segments. The record locations of the restored segments
+ * that are not added back (e.g. deleted or moved while the server was down) are removed via
+ * {@link #removeUnclaimedSnapshotSegments(Set)} once the initial segment load of the partition is done, so that they do
+ * not take part in the timestamp comparison of the newer records.
+ */
+@ThreadSafe
+public class OffHeapPrimaryKeyToRecordLocationMap implements PrimaryKeyToRecordLocationMap {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapPrimaryKeyToRecordLocationMap.class);
+
+  public static final String INDEX_FILE_SUFFIX = ".pk.index";
+  public static final String METADATA_FILE_SUFFIX = ".pk.metadata";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+  private static final int METADATA_VERSION = 2;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static final int NUM_SHARDS = 16;
+  private static final int SHARD_MASK = NUM_SHARDS - 1;
+  private static final int SLOT_SIZE_SHIFT = 5;
+  private static final int HASH_HIGH_OFFSET = 0;
+  private static final int HASH_LOW_OFFSET = 8;
+  private static final int SEGMENT_ID_OFFSET = 16;
+  private static final int DOC_ID_OFFSET = 20;
+  private static final int TIMESTAMP_OFFSET = 24;
+  private static final int EMPTY_SEGMENT_ID = 0;
+
+  // Capacity of each shard
+  private static final int DEFAULT_INITIAL_CAPACITY = 1 << 12;
+  private static final int MAX_CAPACITY = 1 << 26;
+  // Keep the load factor low to bound the probe length of linear probing
+  private static final double LOAD_FACTOR = 0.5;
+
+  private final File _metadataFile;
+  private final String _description;
+  private final Shard[] _shards = new Shard[NUM_SHARDS];
+
+  // Segment registry, where the mutations and the reference counts are guarded by the lock of this map. The segment id
+  // to entry map is also read without the lock by the shards, where the entry is always present while a slot refers to
+  // it. Lock ordering: shard lock before the lock of this map.
+  private final Map<Integer, SegmentEntry> _segmentIdToEntryMap = new ConcurrentHashMap<>();
+  private final Map<ThreadSafeMutableRoaringBitmap, SegmentEntry> _validDocIdsToEntryMap = new IdentityHashMap<>();
+  private int _nextSegmentId = EMPTY_SEGMENT_ID + 1;
+
+  /**
+   * Creates the map with the index and metadata files named after the given prefix under the given directory, and
+   * loads the snapshot if exists.
+   */
+  public OffHeapPrimaryKeyToRecordLocationMap(File dir, String filePrefix)
+      throws IOException {
+    if (!dir.exists()) {
+      Preconditions.checkState(dir.mkdirs(), "Failed to create directory: %s", dir);
+    }
+    _metadataFile = new File(dir, filePrefix + METADATA_FILE_SUFFIX);
+    _description = "Upsert primary key index: " + new File(dir, filePrefix).getAbsolutePath();
+    for (int i = 0; i < NUM_SHARDS; i++) {
+      _shards[i] = new Shard(new File(dir, filePrefix + "_" + i + INDEX_FILE_SUFFIX));
+    }
+
+    boolean loaded = false;
+    if (_metadataFile.exists()) {
+      try {
+        loadSnapshot();
+        loaded = true;
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while loading snapshot from file: {}, rebuilding the index", _metadataFile, e);
+        for (Shard shard : _shards) {
+          shard.closeBuffer();
+        }
+        _segmentIdToEntryMap.clear();
+        _validDocIdsToEntryMap.clear();
+        _nextSegmentId = EMPTY_SEGMENT_ID + 1;
+      }
+    }
+    // Delete the metadata file so that the index files won't be used after a crash
+    FileUtils.deleteQuietly(_metadataFile);
+    if (!loaded) {
+      for (Shard shard : _shards) {
+        shard.init(DEFAULT_INITIAL_CAPACITY);
+      }
+    }
+  }
+
+  private void loadSnapshot()
+      throws IOException {
+    int[] capacities = new int[NUM_SHARDS];
+    try (DataInputStream dataInputStream = new DataInputStream(new FileInputStream(_metadataFile))) {
+      int version = dataInputStream.readInt();
+      Preconditions.checkState(version == METADATA_VERSION, "Unsupported metadata version: %s", version);
+      int numShards = dataInputStream.readInt();
+      Preconditions.checkState(numShards == NUM_SHARDS, "Unsupported number of shards: %s", numShards);
+      for (int i = 0; i < NUM_SHARDS; i++) {
+        capacities[i] = dataInputStream.readInt();
+      }
+      int numSegments = dataInputStream.readInt();
+      for (int i = 0; i < numSegments; i++) {
+        int segmentId = dataInputStream.readInt();
+        String segmentName = dataInputStream.readUTF();
+        String segmentCrc = dataInputStream.readUTF();
+        SegmentEntry segmentEntry = new SegmentEntry(segmentId, segmentName, new ThreadSafeMutableRoaringBitmap());
+        segmentEntry._snapshotCrc = segmentCrc;
+        _segmentIdToEntryMap.put(segmentId, segmentEntry);
+        _validDocIdsToEntryMap.put(segmentEntry._validDocIds, segmentEntry);
+        _nextSegmentId = Math.max(_nextSegmentId, segmentId + 1);
+      }
+    }
+    int size = 0;
+    for (int i = 0; i < NUM_SHARDS; i++) {
+      size += _shards[i].load(capacities[i]);
+    }
+    LOGGER.info("Loaded {} primary keys for {} segments from snapshot: {}", size, _segmentIdToEntryMap.size(),
+        _metadataFile);
+  }
+
+  @Nullable
+  @Override
+  public RecordLocation get(PrimaryKey primaryKey) {
+    HashCode hashCode = hash(primaryKey);
+    return getShard(hashCode).get(hashCode);
+  }
+
+  @Nullable
+  @Override
+  public RecordLocation compute(PrimaryKey primaryKey,
+      BiFunction<PrimaryKey, RecordLocation, RecordLocation> remappingFunction) {
+    HashCode hashCode = hash(primaryKey);
+    return getShard(hashCode).compute(primaryKey, hashCode, remappingFunction);
+  }
+
+  @Override
+  public void removeRecordLocations(ThreadSafeMutableRoaringBitmap validDocIds) {
+    SegmentEntry segmentEntry;
+    synchronized (this) {
+      segmentEntry = _validDocIdsToEntryMap.get(validDocIds);
+    }
+    if (segmentEntry == null) {
+      return;
+    }
+    // Purge the shards before removing the segment entry so that the shards can always resolve the segment ids in the
+    // slots
+    for (Shard shard : _shards) {
+      shard.removeSegment(segmentEntry._segmentId);
+    }
+    synchronized (this) {
+      _validDocIdsToEntryMap.remove(validDocIds);
+      _segmentIdToEntryMap.remove(segmentEntry._segmentId);
+    }
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Shard shard : _shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  @Nullable
+  @Override
+  public ThreadSafeMutableRoaringBitmap claimSnapshotSegment(String segmentName, String segmentCrc) {
+    ThreadSafeMutableRoaringBitmap validDocIdsToRemove = null;
+    synchronized (this) {
+      for (SegmentEntry segmentEntry : _segmentIdToEntryMap.values()) {
+        if (segmentEntry._snapshotCrc != null && segmentEntry._segmentName.equals(segmentName)) {
+          String snapshotCrc = segmentEntry._snapshotCrc;
+          segmentEntry._snapshotCrc = null;
+          if (snapshotCrc.equals(segmentCrc)) {
+            segmentEntry._segmentCrc = segmentCrc;
+            return segmentEntry._validDocIds;
+          } else {
+            LOGGER.info("Segment: {} CRC changed from: {} to: {}, dropping the snapshot record locations", segmentName,
+                snapshotCrc, segmentCrc);
+            validDocIdsToRemove = segmentEntry._validDocIds;
+            break;
+          }
+        }
+      }
+    }
+    // NOTE: Remove the record locations without holding the lock of this map to follow the lock ordering
+    if (validDocIdsToRemove != null) {
+      removeRecordLocations(validDocIdsToRemove);
+    }
+    return null;
+  }
+
+  @Override
+  public void removeUnclaimedSnapshotSegments(@Nullable Set<String> segmentsToKeep) {
+    List<SegmentEntry> segmentEntriesToRemove = new ArrayList<>();
+    synchronized (this) {
+      for (SegmentEntry segmentEntry : _segmentIdToEntryMap.values()) {
+        if (segmentEntry._snapshotCrc != null && (segmentsToKeep == null || !segmentsToKeep
+            .contains(segmentEntry._segmentName))) {
+          // Reset the snapshot CRC so that the segment can no longer be claimed
+          segmentEntry._snapshotCrc = null;
+          segmentEntriesToRemove.add(segmentEntry);
+        }
+      }
+    }
+    // NOTE: Remove the record locations without holding the lock of this map to follow the lock ordering
+    for (SegmentEntry segmentEntry : segmentEntriesToRemove) {
+      LOGGER.info("Segment: {} restored from snapshot is not added, dropping the snapshot record locations",
+          segmentEntry._segmentName);
+      removeRecordLocations(segmentEntry._validDocIds);
+    }
+  }
+
+  @Override
+  public synchronized void setSegmentCrc(ThreadSafeMutableRoaringBitmap validDocIds, String segmentCrc) {
+    SegmentEntry segmentEntry = _validDocIdsToEntryMap.get(validDocIds);
+    if (segmentEntry != null) {
+      segmentEntry._segmentCrc = segmentCrc;
+    }
+  }
+
+  @Override
+  public void close() {
+    int[] capacities = new int[NUM_SHARDS];
+    int size = 0;
+    boolean flushed = true;
+    for (int i = 0; i < NUM_SHARDS; i++) {
+      Shard shard = _shards[i];
+      synchronized (shard) {
+        if (shard._buffer == null) {
+          // Already closed
+          return;
+        }
+        capacities[i] = shard._capacity;
+        size += shard._size;
+        try {
+          shard._buffer.flush();
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while flushing the primary key index: {}", shard._indexFile, e);
+          flushed = false;
+        } finally {
+          shard.closeBuffer();
+        }
+      }
+    }
+    if (flushed) {
+      try {
+        writeMetadata(capacities, size);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while snapshotting the primary key index: {}", _metadataFile, e);
+        FileUtils.deleteQuietly(_metadataFile);
+      }
+    }
+  }
+
+  private synchronized void writeMetadata(int[] capacities, int size)
+      throws IOException {
+    File tempFile = new File(_metadataFile.getPath() + TEMP_FILE_SUFFIX);
+    int numSegments = 0;
+    try (DataOutputStream dataOutputStream = new DataOutputStream(new FileOutputStream(tempFile))) {
+      dataOutputStream.writeInt(METADATA_VERSION);
+      dataOutputStream.writeInt(NUM_SHARDS);
+      for (int capacity : capacities) {
+        dataOutputStream.writeInt(capacity);
+      }
+      for (SegmentEntry segmentEntry : _segmentIdToEntryMap.values()) {
+        if (segmentEntry._segmentCrc != null) {
+          numSegments++;
+        }
+      }
+      dataOutputStream.writeInt(numSegments);
+      for (SegmentEntry segmentEntry : _segmentIdToEntryMap.values()) {
+        if (segmentEntry._segmentCrc != null) {
+          dataOutputStream.writeInt(segmentEntry._segmentId);
+          dataOutputStream.writeUTF(segmentEntry._segmentName);
+          dataOutputStream.writeUTF(segmentEntry._segmentCrc);
+        }
+      }
+    }
+    Preconditions.checkState(tempFile.renameTo(_metadataFile), "Failed to rename file: %s to: %s", tempFile,
+        _metadataFile);
+    LOGGER.info("Snapshotted {} primary keys for {} segments into: {}", size, numSegments, _metadataFile);
+  }
+
+  private synchronized SegmentEntry acquireEntry(RecordLocation recordLocation) {
+    ThreadSafeMutableRoaringBitmap validDocIds = recordLocation.getValidDocIds();
+    SegmentEntry segmentEntry = _validDocIdsToEntryMap.get(validDocIds);
+    if (segmentEntry == null) {
+      int segmentId = _nextSegmentId++;
+      Preconditions.checkState(segmentId != EMPTY_SEGMENT_ID, "Segment id overflow");
+      segmentEntry = new SegmentEntry(segmentId, recordLocation.getSegmentName(), validDocIds);
+      _segmentIdToEntryMap.put(segmentId, segmentEntry);
+      _validDocIdsToEntryMap.put(validDocIds, segmentEntry);
+    }
+    segmentEntry._numEntries++;
+    return segmentEntry;
+  }
+
+  private synchronized void releaseEntry(int segmentId) {
+    SegmentEntry segmentEntry = _segmentIdToEntryMap.get(segmentId);
+    if (--segmentEntry._numEntries == 0) {
+      _segmentIdToEntryMap.remove(segmentId);
+      _validDocIdsToEntryMap.remove(segmentEntry._validDocIds);
+    }
+  }
+
+  private Shard getShard(HashCode hashCode) {
+    // Use the low bits of the hash to pick the shard, and the high bits to pick the slot within the shard
+    return _shards[(int) getLowBits(hashCode) & SHARD_MASK];
+  }
+
+  /**
+   * Copies the slot at the given offset of the source buffer into the first empty slot of its probe sequence in the
+   * destination buffer.
+   */
+  private static void copySlot(PinotDataBuffer srcBuffer, long srcOffset, PinotDataBuffer destBuffer, int destMask) {
+    int destSlot = (int) srcBuffer.getLong(srcOffset + HASH_HIGH_OFFSET) & destMask;
+    while (destBuffer.getInt(getOffset(destSlot) + SEGMENT_ID_OFFSET) != EMPTY_SEGMENT_ID) {
+      destSlot = (destSlot + 1) & destMask;
+    }
+    srcBuffer.copyTo(srcOffset, destBuffer, getOffset(destSlot), 1 << SLOT_SIZE_SHIFT);
+  }
+
+  private static long getOffset(int slot) {
+    return (long) slot << SLOT_SIZE_SHIFT;
+  }
+
+  private static long getLowBits(HashCode hashCode) {
+    byte[] bytes = hashCode.asBytes();
+    long low = 0;
+    for (int i = 15; i >= 8; i--) {
+      low = (low << 8) | (bytes[i] & 0xFF);
+    }
+    return low;
+  }
+
+  /**
+   * Hashes the primary key values with a type tag and length prefix for each value so that different value sequences
+   * do not produce the same input bytes.
+   */
+  private static HashCode hash(PrimaryKey primaryKey) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    for (Object value : primaryKey.getValues()) {
+      if (value instanceof Integer) {
+        hasher.putByte((byte) 0).putInt((Integer) value);
+      } else if (value instanceof Long) {
+        hasher.putByte((byte) 1).putLong((Long) value);
+      } else if (value instanceof Float) {
+        hasher.putByte((byte) 2).putFloat((Float) value);
+      } else if (value instanceof Double) {
+        hasher.putByte((byte) 3).putDouble((Double) value);
+      } else if (value instanceof ByteArray) {
+        byte[] bytes = ((ByteArray) value).getBytes();
+        hasher.putByte((byte) 4).putInt(bytes.length).putBytes(bytes);
+      } else {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        hasher.putByte((byte) 5).putInt(bytes.length).putBytes(bytes);
+      }
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * One of the independent hash tables, guarded by its own lock.
+   */
+  private class Shard {
+    final File _indexFile;
+    PinotDataBuffer _buffer;
+    int _capacity;
+    int _mask;
+    int _size;
+
+    Shard(File indexFile) {
+      _indexFile = indexFile;
+    }
+
+    void init(int capacity)
+        throws IOException {
+      _buffer = createBuffer(_indexFile, capacity);
+      _capacity = capacity;
+      _mask = capacity - 1;
+      _size = 0;
+    }
+
+    /**
+     * Loads the shard from the snapshot index file, and returns the number of primary keys loaded.
+     * <p>The entries of the snapshot segments are copied into a fresh hash table while the valid doc ids are rebuilt,
+     * and all the other entries are dropped. The snapshot table is never modified while being scanned, so that each
+     * entry is visited exactly once (deleting in place would shift the entries already visited into the scanned range
+     * with the wrap-around of the probe sequences).
+     */
+    int load(int capacity)
+        throws IOException {
+      Preconditions.checkState(Integer.bitCount(capacity) == 1 && capacity <= MAX_CAPACITY, "Invalid capacity: %s",
+          capacity);
+      long indexSize = (long) capacity << SLOT_SIZE_SHIFT;
+      Preconditions.checkState(_indexFile.length() == indexSize, "Index file size: %s does not match capacity: %s",
+          _indexFile.length(), capacity);
+
+      File tempFile = new File(_indexFile.getPath() + TEMP_FILE_SUFFIX);
+      _buffer = createBuffer(tempFile, capacity);
+      _capacity = capacity;
+      _mask = capacity - 1;
+      _size = 0;
+      try (PinotDataBuffer snapshotBuffer = PinotDataBuffer
+          .mapFile(_indexFile, true, 0, indexSize, ByteOrder.nativeOrder(), _description)) {
+        for (int slot = 0; slot < capacity; slot++) {
+          long offset = getOffset(slot);
+          SegmentEntry segmentEntry = _segmentIdToEntryMap.get(snapshotBuffer.getInt(offset + SEGMENT_ID_OFFSET));
+          if (segmentEntry != null) {
+            copySlot(snapshotBuffer, offset, _buffer, _mask);
+            segmentEntry._validDocIds.add(snapshotBuffer.getInt(offset + DOC_ID_OFFSET));
+            segmentEntry._numEntries++;
+            _size++;
+          }
+        }
+      }
+      Preconditions.checkState(tempFile.renameTo(_indexFile), "Failed to rename file: %s to: %s", tempFile,
+          _indexFile);
+      return _size;
+    }
+
+    @Nullable
+    synchronized RecordLocation get(HashCode hashCode) {
+      if (_buffer == null) {
+        return null;
+      }
+      int slot = findSlot(hashCode);
+      return getSegmentId(slot) != EMPTY_SEGMENT_ID ? getRecordLocation(slot) : null;
+    }
+
+    @Nullable
+    synchronized RecordLocation compute(PrimaryKey primaryKey, HashCode hashCode,
+        BiFunction<PrimaryKey, RecordLocation, RecordLocation> remappingFunction) {
+      if (_buffer == null) {
+        return null;
+      }
+      int slot = findSlot(hashCode);
+      int currentSegmentId = getSegmentId(slot);
+      RecordLocation currentRecordLocation = currentSegmentId != EMPTY_SEGMENT_ID ? getRecordLocation(slot) : null;
+      RecordLocation newRecordLocation = remappingFunction.apply(primaryKey, currentRecordLocation);
+      if (newRecordLocation == currentRecordLocation) {
+        return currentRecordLocation;
+      }
+      if (newRecordLocation == null) {
+        deleteSlot(slot);
+        _size--;
+        releaseEntry(currentSegmentId);
+        return null;
+      }
+
+      // Acquire the new entry before releasing the current one so that the segment id is kept when the new record
+      // location points to the same segment
+      SegmentEntry segmentEntry = acquireEntry(newRecordLocation);
+      long offset = getOffset(slot);
+      if (currentSegmentId == EMPTY_SEGMENT_ID) {
+        _buffer.putLong(offset + HASH_HIGH_OFFSET, hashCode.asLong());
+        _buffer.putLong(offset + HASH_LOW_OFFSET, getLowBits(hashCode));
+      }
+      _buffer.putInt(offset + SEGMENT_ID_OFFSET, segmentEntry._segmentId);
+      _buffer.putInt(offset + DOC_ID_OFFSET, newRecordLocation.getDocId());
+      _buffer.putLong(offset + TIMESTAMP_OFFSET, newRecordLocation.getTimestamp());
+      if (currentSegmentId == EMPTY_SEGMENT_ID) {
+        _size++;
+        if (_size > _capacity * LOAD_FACTOR) {
+          expand();
+        }
+      } else {
+        releaseEntry(currentSegmentId);
+      }
+      return newRecordLocation;
+    }
+
+    /**
+     * Removes all the entries for the given segment id. The reference count of the segment entry is not maintained
+     * because the segment entry is removed afterwards.
+     */
+    synchronized void removeSegment(int segmentId) {
+      if (_buffer == null) {
+        return;
+      }
+      // When deleting a slot, re-check the same slot because entries after it might be shifted backward into it.
+      // Entries shifted into the scanned range with the wrap-around are either of other segments or already removed.
+      int slot = 0;
+      while (slot < _capacity) {
+        if (getSegmentId(slot) == segmentId) {
+          deleteSlot(slot);
+          _size--;
+        } else {
+          slot++;
+        }
+      }
+    }
+
+    synchronized int size() {
+      return _size;
+    }
+
+    void closeBuffer() {
+      if (_buffer != null) {
+        try {
+          _buffer.close();
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while closing the primary key index: {}", _indexFile, e);
+        }
+        _buffer = null;
+      }
+    }
+
+    private RecordLocation getRecordLocation(int slot) {
+      SegmentEntry segmentEntry = _segmentIdToEntryMap.get(getSegmentId(slot));
+      long offset = getOffset(slot);
+      return new RecordLocation(segmentEntry._segmentName, _buffer.getInt(offset + DOC_ID_OFFSET),
+          _buffer.getLong(offset + TIMESTAMP_OFFSET), segmentEntry._validDocIds);
+    }
+
+    /**
+     * Returns the slot holding the given hash, or the empty slot where the hash should be inserted.
+     */
+    private int findSlot(HashCode hashCode) {
+      long high = hashCode.asLong();
+      long low = getLowBits(hashCode);
+      int slot = (int) high & _mask;
+      while (true) {
+        long offset = getOffset(slot);
+        if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) == EMPTY_SEGMENT_ID || (
+            _buffer.getLong(offset + HASH_HIGH_OFFSET) == high && _buffer.getLong(offset + HASH_LOW_OFFSET) == low)) {
+          return slot;
+        }
+        slot = (slot + 1) & _mask;
+      }
+    }
+
+    /**
+     * Deletes the entry in the given slot, and shifts the following entries in the same probe sequence backward to
+     * fill the hole so that no tombstone is needed.
+     */
+    private void deleteSlot(int slot) {
+      int hole = slot;
+      int next = (hole + 1) & _mask;
+      while (getSegmentId(next) != EMPTY_SEGMENT_ID) {
+        int idealSlot = (int) _buffer.getLong(getOffset(next) + HASH_HIGH_OFFSET) & _mask;
+        // The entry can be moved into the hole if the hole is within its probe sequence (between the ideal slot and
+        // the current slot)
+        if (((next - idealSlot) & _mask) >= ((next - hole) & _mask)) {
+          _buffer.copyTo(getOffset(next), _buffer, getOffset(hole), 1 << SLOT_SIZE_SHIFT);
+          hole = next;
+        }
+        next = (next + 1) & _mask;
+      }
+      _buffer.putInt(getOffset(hole) + SEGMENT_ID_OFFSET, EMPTY_SEGMENT_ID);
+    }
+
+    private void expand() {
+      Preconditions.checkState(_capacity < MAX_CAPACITY, "Primary key index: %s reaches the max capacity: %s",
+          _indexFile, MAX_CAPACITY);
+      int newCapacity = _capacity << 1;
+      int newMask = newCapacity - 1;
+      File tempFile = new File(_indexFile.getPath() + TEMP_FILE_SUFFIX);
+      PinotDataBuffer newBuffer;
+      try {
+        newBuffer = createBuffer(tempFile, newCapacity);
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while expanding the primary key index: " + _indexFile, e);
+      }
+      for (int slot = 0; slot < _capacity; slot++) {
+        long offset = getOffset(slot);
+        if (_buffer.getInt(offset + SEGMENT_ID_OFFSET) != EMPTY_SEGMENT_ID) {
+          copySlot(_buffer, offset, newBuffer, newMask);
+        }
+      }
+      closeBuffer();
+      Preconditions.checkState(tempFile.renameTo(_indexFile), "Failed to rename file: %s to: %s", tempFile,
+          _indexFile);
+      _buffer = newBuffer;
+      _capacity = newCapacity;
+      _mask = newMask;
+    }
+
+    private PinotDataBuffer createBuffer(File file, int capacity)
+        throws IOException {
+      // Always map a new file so that all the slots are zero-filled (empty)
+      FileUtils.deleteQuietly(file);
+      return PinotDataBuffer.mapFile(file, false, 0, (long) capacity << SLOT_SIZE_SHIFT, ByteOrder.nativeOrder(),
+          _description);
+    }
+
+    private int getSegmentId(int slot) {
+      return _buffer.getInt(getOffset(slot) + SEGMENT_ID_OFFSET);
+    }
+  }
+
+  private static class SegmentEntry {
+    final int _segmentId;
+    final String _segmentName;
+    final ThreadSafeMutableRoaringBitmap _validDocIds;
+    int _numEntries;
+    // CRC of the immutable segment, only set for the segments to be included in the snapshot
+    String _segmentCrc;
+    // CRC recorded in the snapshot, only set for the restored segments not claimed yet
+    String _snapshotCrc;
+
+    SegmentEntry(int segmentId, String segmentName, ThreadSafeMutableRoaringBitmap validDocIds) {
+      _segmentId = segmentId;
+      _segmentName = segmentName;
+      _validDocIds = validDocIds;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+
+
+/**
+ * Implementation of {@link PrimaryKeyToRecordLocationMap} backed by a {@link ConcurrentHashMap}. The map is not
+ * persisted, and has to be rebuilt from the segments on every server restart.
+ */
+@ThreadSafe
+public class OnHeapPrimaryKeyToRecordLocationMap implements PrimaryKeyToRecordLocationMap {
+  private final ConcurrentHashMap<PrimaryKey, RecordLocation> _map = new ConcurrentHashMap<>();
+
+  @Nullable
+  @Override
+  public RecordLocation get(PrimaryKey primaryKey) {
+    return _map.get(primaryKey);
+  }
+
+  @Nullable
+  @Override
+  public RecordLocation compute(PrimaryKey primaryKey,
+      BiFunction<PrimaryKey, RecordLocation, RecordLocation> remappingFunction) {
+    return _map.compute(primaryKey, remappingFunction);
+  }
+
+  @Override
+  public void removeRecordLocations(ThreadSafeMutableRoaringBitmap validDocIds) {
+    _map.forEach((primaryKey, recordLocation) -> {
+      if (recordLocation.getValidDocIds() == validDocIds) {
+        // Check and remove to prevent removing the key that is just updated.
+        _map.remove(primaryKey, recordLocation);
+      }
+    });
+  }
+
+  @Override
+  public int size() {
+    return _map.size();
+  }
+}
@@ -20,7 +20,8 @@ package org.apache.pinot.core.upsert;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Iterator;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMetrics;
@@ -61,20 +62,43 @@ public class PartitionUpsertMetadataManager {
   private final int _partitionId;
   private final ServerMetrics _serverMetrics;
 
+  @VisibleForTesting
+  final PrimaryKeyToRecordLocationMap _primaryKeyToRecordLocationMap;
+
   public PartitionUpsertMetadataManager(String tableNameWithType, int partitionId, ServerMetrics serverMetrics) {
+    this(tableNameWithType, partitionId, serverMetrics, new OnHeapPrimaryKeyToRecordLocationMap());
+  }
+
+  public PartitionUpsertMetadataManager(String tableNameWithType, int partitionId, ServerMetrics serverMetrics,
+      PrimaryKeyToRecordLocationMap primaryKeyToRecordLocationMap) {
     _tableNameWithType = tableNameWithType;
     _partitionId = partitionId;
     _serverMetrics = serverMetrics;
+    _primaryKeyToRecordLocationMap = primaryKeyToRecordLocationMap;
   }
 
-  // TODO(upset): consider an off-heap KV store to persist this index to improve the recovery speed.
-  @VisibleForTesting
-  final ConcurrentHashMap<PrimaryKey, RecordLocation> _primaryKeyToRecordLocationMap = new ConcurrentHashMap<>();
-
   /**
    * Initializes the upsert metadata for the given immutable segment, returns the valid doc ids for the segment.
    */
   public ThreadSafeMutableRoaringBitmap addSegment(String segmentName, Iterator<RecordInfo> recordInfoIterator) {
+    return addSegment(segmentName, null, recordInfoIterator);
+  }
+
+  /**
+   * Initializes the upsert metadata for the given immutable segment, returns the valid doc ids for the segment. When
+   * the segment CRC is provided and matches the one in the snapshot of the primary key index, the valid doc ids are
+   * restored from the snapshot without iterating the records.
+   */
+  public ThreadSafeMutableRoaringBitmap addSegment(String segmentName, @Nullable String segmentCrc,
+      Iterator<RecordInfo> recordInfoIterator) {
+    if (segmentCrc != null) {
+      ThreadSafeMutableRoaringBitmap validDocIds =
+          _primaryKeyToRecordLocationMap.claimSnapshotSegment(segmentName, segmentCrc);
+      if (validDocIds != null) {
+        LOGGER.info("Restored upsert metadata for segment: {} from snapshot", segmentName);
+        return validDocIds;
+      }
+    }
     LOGGER.info("Adding upsert metadata for segment: {}", segmentName);
 
     ThreadSafeMutableRoaringBitmap validDocIds = new ThreadSafeMutableRoaringBitmap();
@@ -130,6 +154,9 @@ public class PartitionUpsertMetadataManager {
         }
       });
     }
+    if (segmentCrc != null) {
+      _primaryKeyToRecordLocationMap.setSegmentCrc(validDocIds, segmentCrc);
+    }
     // Update metrics
     _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
         _primaryKeyToRecordLocationMap.size());
@@ -171,20 +198,38 @@ public class PartitionUpsertMetadataManager {
   public void removeSegment(String segmentName, ThreadSafeMutableRoaringBitmap validDocIds) {
     LOGGER.info("Removing upsert metadata for segment: {}", segmentName);
 
-    if (!validDocIds.getMutableRoaringBitmap().isEmpty()) {
+    if (!validDocIds.isEmpty()) {
       // Remove all the record locations that point to the valid doc ids of the removed segment.
-      _primaryKeyToRecordLocationMap.forEach((primaryKey, recordLocation) -> {
-        if (recordLocation.getValidDocIds() == validDocIds) {
-          // Check and remove to prevent removing the key that is just updated.
-          _primaryKeyToRecordLocationMap.remove(primaryKey, recordLocation);
-        }
-      });
+      _primaryKeyToRecordLocationMap.removeRecordLocations(validDocIds);
     }
     // Update metrics
     _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
         _primaryKeyToRecordLocationMap.size());
   }
 
+  /**
+   * Removes the upsert metadata restored from the snapshot of the primary key index for the segments not added yet,
+   * except for the given segments to keep (all of them when {@code null}). Should be invoked before adding any segment
+   * with the segments assigned to this server, and after the initial segment load of the partition with {@code null},
+   * so that the segments deleted or moved while the server was down do not affect the newer records. The removed
+   * segments will be replayed if added later.
+   */
+  public void removeUnclaimedSnapshotSegments(@Nullable Set<String> segmentsToKeep) {
+    _primaryKeyToRecordLocationMap.removeUnclaimedSnapshotSegments(segmentsToKeep);
+    // Update metrics
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.UPSERT_PRIMARY_KEYS_COUNT,
+        _primaryKeyToRecordLocationMap.size());
+  }
+
+  /**
+   * Snapshots the primary key index if supported and releases the resources. Should be invoked before removing the
+   * segments on server shutdown so that the record locations of the segments are kept in the snapshot.
+   */
+  public void close() {
+    LOGGER.info("Closing upsert metadata for partition: {} of table: {}", _partitionId, _tableNameWithType);
+    _primaryKeyToRecordLocationMap.close();
+  }
+
   public static final class RecordInfo {
     private final PrimaryKey _primaryKey;
     private final int _docId;
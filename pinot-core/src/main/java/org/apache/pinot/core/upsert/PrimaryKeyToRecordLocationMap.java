@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+
+
+/**
+ * The index from primary key to the location of the latest record with that key, used by the
+ * {@link PartitionUpsertMetadataManager} to maintain the valid doc ids of the segments within a partition.
+ * <p>All the record locations pointing to the same segment share the same valid doc ids instance, which is also used
+ * to identify the segment when removing it.
+ */
+public interface PrimaryKeyToRecordLocationMap extends Closeable {
+
+  /**
+   * Returns the record location for the given primary key, or {@code null} if the primary key does not exist.
+   */
+  @Nullable
+  RecordLocation get(PrimaryKey primaryKey);
+
+  /**
+   * Atomically computes the record location for the given primary key, with the same semantics as
+   * {@link java.util.Map#compute(Object, BiFunction)}.
+   */
+  @Nullable
+  RecordLocation compute(PrimaryKey primaryKey,
+      BiFunction<PrimaryKey, RecordLocation, RecordLocation> remappingFunction);
+
+  /**
+   * Removes all the record locations pointing to the segment with the given valid doc ids.
+   */
+  void removeRecordLocations(ThreadSafeMutableRoaringBitmap validDocIds);
+
+  /**
+   * Returns the number of primary keys in the map.
+   */
+  int size();
+
+  /**
+   * Returns the valid doc ids restored from the snapshot for the given immutable segment if the segment CRC matches the
+   * one in the snapshot, or {@code null} if the segment needs to be replayed. When the CRC does not match, the record
+   * locations restored for the segment are dropped. Each restored segment can only be claimed once.
+   */
+  @Nullable
+  default ThreadSafeMutableRoaringBitmap claimSnapshotSegment(String segmentName, String segmentCrc) {
+    return null;
+  }
+
+  /**
+   * Removes the record locations restored from the snapshot for the segments not claimed yet, except for the given
+   * segments to keep (all the unclaimed segments are removed when the set is {@code null}). The removed segments can no
+   * longer be claimed, and will be replayed if added later.
+   */
+  default void removeUnclaimedSnapshotSegments(@Nullable Set<String> segmentsToKeep) {
+  }
+
+  /**
+   * Marks the segment with the given valid doc ids as an immutable segment with the given CRC, so that its record
+   * locations can be included in the snapshot.
+   */
+  default void setSegmentCrc(ThreadSafeMutableRoaringBitmap validDocIds, String segmentCrc) {
+  }
+
+  /**
+   * Snapshots the map if supported and releases the resources. All the operations after closing the map are ignored.
+   */
+  @Override
+  default void close() {
+  }
+}
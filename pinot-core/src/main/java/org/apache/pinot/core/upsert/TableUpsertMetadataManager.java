@@ -18,8 +18,13 @@
  */
 package org.apache.pinot.core.upsert;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.ServerMetrics;
 
@@ -32,14 +37,65 @@ public class TableUpsertMetadataManager {
   private final Map<Integer, PartitionUpsertMetadataManager> _partitionMetadataManagerMap = new ConcurrentHashMap<>();
   private final String _tableNameWithType;
   private final ServerMetrics _serverMetrics;
+  private final File _offHeapIndexDir;
+  private final IntFunction<Set<String>> _assignedSegmentsProvider;
 
   public TableUpsertMetadataManager(String tableNameWithType, ServerMetrics serverMetrics) {
+    this(tableNameWithType, serverMetrics, null, partitionId -> null);
+  }
+
+  /**
+   * When the off-heap index directory is provided, the primary key index for each partition is kept off heap and
+   * snapshotted under the directory, otherwise it is kept on heap. The assigned segments provider returns the segments
+   * of the given partition assigned to this server, or {@code null} if unknown, and is used to drop the segments
+   * restored from the snapshot but no longer assigned to this server before adding any segment to the partition.
+   */
+  public TableUpsertMetadataManager(String tableNameWithType, ServerMetrics serverMetrics,
+      @Nullable File offHeapIndexDir, IntFunction<Set<String>> assignedSegmentsProvider) {
     _tableNameWithType = tableNameWithType;
     _serverMetrics = serverMetrics;
+    _offHeapIndexDir = offHeapIndexDir;
+    _assignedSegmentsProvider = assignedSegmentsProvider;
   }
 
   public PartitionUpsertMetadataManager getOrCreatePartitionManager(int partitionId) {
-    return _partitionMetadataManagerMap.computeIfAbsent(partitionId,
-        k -> new PartitionUpsertMetadataManager(_tableNameWithType, k, _serverMetrics));
+    return _partitionMetadataManagerMap.computeIfAbsent(partitionId, this::createPartitionManager);
+  }
+
+  private PartitionUpsertMetadataManager createPartitionManager(int partitionId) {
+    PartitionUpsertMetadataManager partitionUpsertMetadataManager =
+        new PartitionUpsertMetadataManager(_tableNameWithType, partitionId, _serverMetrics,
+            createPrimaryKeyToRecordLocationMap(partitionId));
+    if (_offHeapIndexDir != null) {
+      // Drop the segments restored from the snapshot but no longer assigned to this server (e.g. deleted or moved while
+      // the server was down) before adding any segment, so that they do not take part in the timestamp comparison
+      Set<String> assignedSegments = _assignedSegmentsProvider.apply(partitionId);
+      if (assignedSegments != null) {
+        partitionUpsertMetadataManager.removeUnclaimedSnapshotSegments(assignedSegments);
+      }
+    }
+    return partitionUpsertMetadataManager;
+  }
+
+  private PrimaryKeyToRecordLocationMap createPrimaryKeyToRecordLocationMap(int partitionId) {
+    if (_offHeapIndexDir == null) {
+      return new OnHeapPrimaryKeyToRecordLocationMap();
+    }
+    try {
+      return new OffHeapPrimaryKeyToRecordLocationMap(_offHeapIndexDir, "partition_" + partitionId);
+    } catch (IOException e) {
+      throw new RuntimeException(
+          "Caught exception while creating off-heap primary key index for partition: " + partitionId + " of table: "
+              + _tableNameWithType, e);
+    }
+  }
+
+  /**
+   * Snapshots (if supported) and releases the primary key index for all the partitions.
+   */
+  public void close() {
+    for (PartitionUpsertMetadataManager partitionUpsertMetadataManager : _partitionMetadataManagerMap.values()) {
+      partitionUpsertMetadataManager.close();
+    }
   }
 }
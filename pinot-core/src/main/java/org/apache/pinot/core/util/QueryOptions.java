@@ -21,7 +21,10 @@ package org.apache.pinot.core.util;
 import com.google.common.base.Preconditions;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
 import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 
 
 /**
@@ -33,6 +36,11 @@ public class QueryOptions {
   private final boolean _responseFormatSQL;
   private final boolean _preserveType;
   private final boolean _skipUpsert;
+  private final boolean _groupByMergeTree;
+  private final int _dataTableVersion;
+  private final CompressionType _dataTableCompressionType;
+  private final boolean _compileTransforms;
+  private final int _targetBlockSizeBytes;
 
   public QueryOptions(@Nullable Map<String, String> queryOptions) {
     if (queryOptions != null) {
@@ -41,12 +49,22 @@ public class QueryOptions {
       _responseFormatSQL = Request.SQL.equalsIgnoreCase(queryOptions.get(Request.QueryOptionKey.RESPONSE_FORMAT));
       _preserveType = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.PRESERVE_TYPE));
       _skipUpsert = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.SKIP_UPSERT));
+      _groupByMergeTree = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.GROUP_BY_MERGE_TREE));
+      _dataTableVersion = getDataTableVersion(queryOptions);
+      _dataTableCompressionType = getDataTableCompressionType(queryOptions);
+      _compileTransforms = Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.COMPILE_TRANSFORMS));
+      _targetBlockSizeBytes = getTargetBlockSizeBytes(queryOptions);
     } else {
       _timeoutMs = null;
       _groupByModeSQL = false;
       _responseFormatSQL = false;
       _preserveType = false;
       _skipUpsert = false;
+      _groupByMergeTree = false;
+      _dataTableVersion = Broker.DEFAULT_DATA_TABLE_VERSION;
+      _dataTableCompressionType = CompressionType.PASS_THROUGH;
+      _compileTransforms = false;
+      _targetBlockSizeBytes = DocIdSetPlanNode.DEFAULT_TARGET_BLOCK_SIZE_BYTES;
     }
   }
 
@@ -71,6 +89,26 @@ public class QueryOptions {
     return _skipUpsert;
   }
 
+  public boolean isGroupByMergeTree() {
+    return _groupByMergeTree;
+  }
+
+  public int getDataTableVersion() {
+    return _dataTableVersion;
+  }
+
+  public CompressionType getDataTableCompressionType() {
+    return _dataTableCompressionType;
+  }
+
+  public boolean isCompileTransforms() {
+    return _compileTransforms;
+  }
+
+  public int getTargetBlockSizeBytes() {
+    return _targetBlockSizeBytes;
+  }
+
   @Nullable
   public static Long getTimeoutMs(Map<String, String> queryOptions) {
     String timeoutMsString = queryOptions.get(Request.QueryOptionKey.TIMEOUT_MS);
@@ -82,4 +120,39 @@ public class QueryOptions {
       return null;
     }
   }
+
+  private static int getTargetBlockSizeBytes(Map<String, String> queryOptions) {
+    String targetBlockSizeBytesString = queryOptions.get(Request.QueryOptionKey.TARGET_BLOCK_SIZE_BYTES);
+    if (targetBlockSizeBytesString != null) {
+      int targetBlockSizeBytes = Integer.parseInt(targetBlockSizeBytesString);
+      Preconditions
+          .checkState(targetBlockSizeBytes > 0, "Target block size must be positive, got: %s", targetBlockSizeBytes);
+      return targetBlockSizeBytes;
+    } else {
+      return DocIdSetPlanNode.DEFAULT_TARGET_BLOCK_SIZE_BYTES;
+    }
+  }
+
+  private static int getDataTableVersion(Map<String, String> queryOptions) {
+    String dataTableVersionString = queryOptions.get(Request.QueryOptionKey.DATA_TABLE_VERSION);
+    return dataTableVersionString != null ? Integer.parseInt(dataTableVersionString)
+        : Broker.DEFAULT_DATA_TABLE_VERSION;
+  }
+
+  /**
+   * Returns the requested data table compression type, or PASS_THROUGH (no compression) if not requested or not
+   * recognized by this server.
+   */
+  private static CompressionType getDataTableCompressionType(Map<String, String> queryOptions) {
+    String compressionTypeString = queryOptions.get(Request.QueryOptionKey.DATA_TABLE_COMPRESSION_TYPE);
+    if (compressionTypeString != null) {
+      try {
+        return CompressionType.valueOf(compressionTypeString.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        return CompressionType.PASS_THROUGH;
+      }
+    } else {
+      return CompressionType.PASS_THROUGH;
+    }
+  }
 }
@@ -35,6 +35,7 @@ import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.config.TagNameUtils;
 import org.apache.pinot.core.data.function.FunctionEvaluator;
 import org.apache.pinot.core.data.function.FunctionEvaluatorFactory;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
 import org.apache.pinot.core.startree.v2.AggregationFunctionColumnPair;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IndexingConfig;
@@ -49,6 +50,7 @@ import org.apache.pinot.spi.config.table.ingestion.BatchIngestionConfig;
 import org.apache.pinot.spi.config.table.ingestion.FilterConfig;
 import org.apache.pinot.spi.config.table.ingestion.IngestionConfig;
 import org.apache.pinot.spi.config.table.ingestion.TransformConfig;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.ingestion.batch.BatchConfig;
 import org.apache.pinot.spi.stream.StreamConfig;
@@ -421,6 +423,11 @@ public final class TableConfigUtils {
         columnNameToConfigMap.put(columnName, "Range Column Config");
       }
     }
+    if (indexingConfig.getJsonIndexColumns() != null) {
+      for (String columnName : indexingConfig.getJsonIndexColumns()) {
+        columnNameToConfigMap.put(columnName, "Json Index Config");
+      }
+    }
     if (indexingConfig.getSortedColumn() != null) {
       for (String columnName : indexingConfig.getSortedColumn()) {
         columnNameToConfigMap.put(columnName, "Sorted Column Config");
@@ -474,6 +481,15 @@ public final class TableConfigUtils {
       Preconditions.checkState(schema.getFieldSpecFor(columnName) != null,
           "Column Name " + columnName + " defined in " + configName + " must be a valid column defined in the schema");
     }
+
+    // Json index is only supported on single-value STRING columns
+    if (indexingConfig.getJsonIndexColumns() != null) {
+      for (String columnName : indexingConfig.getJsonIndexColumns()) {
+        FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
+        Preconditions.checkState(fieldSpec.isSingleValueField() && fieldSpec.getDataType() == FieldSpec.DataType.STRING,
+            "Json index can only be created on single-value STRING column: " + columnName);
+      }
+    }
   }
 
   /**
@@ -501,6 +517,28 @@ public final class TableConfigUtils {
         Preconditions.checkArgument(fieldConfig.getEncodingType() == FieldConfig.EncodingType.DICTIONARY,
             "FST Index is only enabled on dictionary encoded columns");
       }
+
+      Map<String, String> properties = fieldConfig.getProperties();
+      if (properties != null) {
+        String compressionType = properties.get(FieldConfig.RAW_INDEX_COMPRESSION_TYPE);
+        if (compressionType != null) {
+          try {
+            ChunkCompressorFactory.CompressionType.valueOf(compressionType.toUpperCase());
+          } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                "Invalid raw index compression type: " + compressionType + " for column: " + columnName);
+          }
+        }
+        String compressionLevel = properties.get(FieldConfig.RAW_INDEX_COMPRESSION_LEVEL);
+        if (compressionLevel != null) {
+          try {
+            Integer.parseInt(compressionLevel);
+          } catch (NumberFormatException e) {
+            throw new IllegalStateException(
+                "Invalid raw index compression level: " + compressionLevel + " for column: " + columnName);
+          }
+        }
+      }
     }
   }
 
@@ -516,6 +554,7 @@ public final class TableConfigUtils {
     indexingConfig
         .setOnHeapDictionaryColumns(sanitizeListBasedIndexingColumns(indexingConfig.getOnHeapDictionaryColumns()));
     indexingConfig.setRangeIndexColumns(sanitizeListBasedIndexingColumns(indexingConfig.getRangeIndexColumns()));
+    indexingConfig.setJsonIndexColumns(sanitizeListBasedIndexingColumns(indexingConfig.getJsonIndexColumns()));
     indexingConfig.setVarLengthDictionaryColumns(
         sanitizeListBasedIndexingColumns(indexingConfig.getVarLengthDictionaryColumns()));
     return indexingConfig;
@@ -27,7 +27,11 @@ import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory.CompressionType;
+import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.spi.utils.ByteArray;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 
@@ -41,8 +45,20 @@ public class DataTableSerDeTest {
 
   private static final int NUM_ROWS = 100;
 
-  @Test
-  public void testException()
+  @DataProvider
+  public static Object[][] versionAndCompressionType() {
+    return new Object[][]{
+        {2, CompressionType.PASS_THROUGH}, {3, CompressionType.PASS_THROUGH}, {3, CompressionType.LZ4}
+    };
+  }
+
+  private static DataTable serDe(DataTable dataTable, CompressionType compressionType)
+      throws IOException {
+    return DataTableFactory.getDataTable(DataTableFactory.toBytes(dataTable, compressionType));
+  }
+
+  @Test(dataProvider = "versionAndCompressionType")
+  public void testException(int version, CompressionType compressionType)
       throws IOException {
     Exception exception = new UnsupportedOperationException("Caught exception.");
     ProcessingException processingException =
@@ -51,7 +67,7 @@ public class DataTableSerDeTest {
 
     DataTable dataTable = new DataTableImplV2();
     dataTable.addException(processingException);
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    DataTable newDataTable = serDe(dataTable, compressionType);
     Assert.assertNull(newDataTable.getDataSchema());
     Assert.assertEquals(newDataTable.getNumberOfRows(), 0);
 
@@ -60,15 +76,15 @@ public class DataTableSerDeTest {
     Assert.assertEquals(actual, expected);
   }
 
-  @Test
-  public void testEmptyStrings()
+  @Test(dataProvider = "versionAndCompressionType")
+  public void testEmptyStrings(int version, CompressionType compressionType)
       throws IOException {
     String emptyString = StringUtils.EMPTY;
     String[] emptyStringArray = {StringUtils.EMPTY};
 
     DataSchema dataSchema = new DataSchema(new String[]{"SV", "MV"},
         new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.STRING_ARRAY});
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
     for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
       dataTableBuilder.startRow();
       dataTableBuilder.setColumn(0, emptyString);
@@ -77,7 +93,7 @@ public class DataTableSerDeTest {
     }
 
     DataTable dataTable = dataTableBuilder.build();
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    DataTable newDataTable = serDe(dataTable, compressionType);
     Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
     Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS);
 
@@ -87,8 +103,8 @@ public class DataTableSerDeTest {
     }
   }
 
-  @Test
-  public void testAllDataTypes()
+  @Test(dataProvider = "versionAndCompressionType")
+  public void testAllDataTypes(int version, CompressionType compressionType)
       throws IOException {
     DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
     int numColumns = columnDataTypes.length;
@@ -98,13 +114,14 @@ public class DataTableSerDeTest {
     }
     DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
 
-    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
 
     int[] ints = new int[NUM_ROWS];
     long[] longs = new long[NUM_ROWS];
     float[] floats = new float[NUM_ROWS];
     double[] doubles = new double[NUM_ROWS];
     String[] strings = new String[NUM_ROWS];
+    ByteArray[] bytes = new ByteArray[NUM_ROWS];
     Object[] objects = new Object[NUM_ROWS];
     int[][] intArrays = new int[NUM_ROWS][];
     long[][] longArrays = new long[NUM_ROWS][];
@@ -136,6 +153,10 @@ public class DataTableSerDeTest {
             strings[rowId] = RandomStringUtils.random(RANDOM.nextInt(20));
             dataTableBuilder.setColumn(colId, strings[rowId]);
             break;
+          case BYTES:
+            bytes[rowId] = new ByteArray(RandomStringUtils.random(RANDOM.nextInt(20)).getBytes());
+            dataTableBuilder.setColumn(colId, bytes[rowId]);
+            break;
           // Just test Double here, all object types will be covered in ObjectCustomSerDeTest.
           case OBJECT:
             objects[rowId] = RANDOM.nextDouble();
@@ -192,7 +213,7 @@ public class DataTableSerDeTest {
     }
 
     DataTable dataTable = dataTableBuilder.build();
-    DataTable newDataTable = DataTableFactory.getDataTable(dataTable.toBytes());
+    DataTable newDataTable = serDe(dataTable, compressionType);
     Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
     Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
 
@@ -214,6 +235,9 @@ public class DataTableSerDeTest {
           case STRING:
             Assert.assertEquals(newDataTable.getString(rowId, colId), strings[rowId], ERROR_MESSAGE);
             break;
+          case BYTES:
+            Assert.assertEquals(newDataTable.getBytes(rowId, colId), bytes[rowId], ERROR_MESSAGE);
+            break;
           case OBJECT:
             Assert.assertEquals(newDataTable.getObject(rowId, colId), objects[rowId], ERROR_MESSAGE);
             break;
@@ -239,4 +263,72 @@ public class DataTableSerDeTest {
       }
     }
   }
+
+  @Test
+  public void testCompression()
+      throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"intCol", "longCol", "stringCol"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.LONG, DataSchema.ColumnDataType.STRING
+        });
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, DataTableImplV3.VERSION);
+    int numRows = 10_000;
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, rowId % 10);
+      dataTableBuilder.setColumn(1, (long) rowId % 100);
+      dataTableBuilder.setColumn(2, "value_" + (rowId % 5));
+      dataTableBuilder.finishRow();
+    }
+    DataTable dataTable = dataTableBuilder.build();
+    Assert.assertTrue(dataTable instanceof DataTableImplV3);
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, "123");
+
+    byte[] uncompressedBytes = DataTableFactory.toBytes(dataTable, CompressionType.PASS_THROUGH);
+    byte[] compressedBytes = DataTableFactory.toBytes(dataTable, CompressionType.LZ4);
+    Assert.assertTrue(compressedBytes.length < uncompressedBytes.length);
+
+    for (byte[] bytes : new byte[][]{uncompressedBytes, compressedBytes}) {
+      DataTable newDataTable = DataTableFactory.getDataTable(bytes);
+      Assert.assertTrue(newDataTable instanceof DataTableImplV3);
+      Assert.assertEquals(newDataTable.getDataSchema(), dataSchema);
+      Assert.assertEquals(newDataTable.getNumberOfRows(), numRows);
+      Assert.assertEquals(newDataTable.getMetadata().get(DataTable.REQUEST_ID_METADATA_KEY), "123");
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Assert.assertEquals(newDataTable.getInt(rowId, 0), rowId % 10);
+        Assert.assertEquals(newDataTable.getLong(rowId, 1), (long) rowId % 100);
+        Assert.assertEquals(newDataTable.getString(rowId, 2), "value_" + (rowId % 5));
+      }
+
+      // Re-serialize the deserialized data table
+      DataTable reserializedDataTable = DataTableFactory.getDataTable(newDataTable.toBytes());
+      Assert.assertEquals(reserializedDataTable.getNumberOfRows(), numRows);
+      Assert.assertEquals(reserializedDataTable.getString(numRows - 1, 2), "value_" + ((numRows - 1) % 5));
+    }
+  }
+
+  @Test(dataProvider = "versionAndCompressionType")
+  public void testObjectColumn(int version, CompressionType compressionType)
+      throws IOException {
+    DataSchema dataSchema = new DataSchema(new String[]{"key", "intermediateResult"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.OBJECT});
+    DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema, version);
+    AvgPair[] avgPairs = new AvgPair[NUM_ROWS];
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      avgPairs[rowId] = new AvgPair(RANDOM.nextDouble(), RANDOM.nextInt(1000));
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, rowId);
+      dataTableBuilder.setColumn(1, avgPairs[rowId]);
+      dataTableBuilder.finishRow();
+    }
+
+    DataTable newDataTable = serDe(dataTableBuilder.build(), compressionType);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+    for (int rowId = 0; rowId < NUM_ROWS; rowId++) {
+      Assert.assertEquals(newDataTable.getInt(rowId, 0), rowId, ERROR_MESSAGE);
+      AvgPair avgPair = newDataTable.getObject(rowId, 1);
+      Assert.assertEquals(avgPair.getSum(), avgPairs[rowId].getSum(), ERROR_MESSAGE);
+      Assert.assertEquals(avgPair.getCount(), avgPairs[rowId].getCount(), ERROR_MESSAGE);
+    }
+  }
 }
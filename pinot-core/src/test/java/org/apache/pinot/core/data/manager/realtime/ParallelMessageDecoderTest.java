@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.core.data.manager.realtime.ParallelMessageDecoder.DecodedBatch;
+import org.apache.pinot.core.data.manager.realtime.ParallelMessageDecoder.DecodedMessage;
+import org.apache.pinot.core.data.recordtransformer.RecordTransformer;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ParallelMessageDecoderTest {
+  private static final int NUM_MESSAGES = 1000;
+  private static final String VALUE_COLUMN = "value";
+
+  @Test
+  public void testDecode() {
+    ParallelMessageDecoder parallelMessageDecoder =
+        new ParallelMessageDecoder(4, IntegerMessageDecoder::new, ValueTransformer::new, "testDecoder");
+    try {
+      DecodedBatch decodedBatch = parallelMessageDecoder.decode(new IntegerMessageBatch());
+      for (int i = 0; i < NUM_MESSAGES; i++) {
+        DecodedMessage decodedMessage = decodedBatch.get(i);
+        // Messages that are multiples of 10 cannot be decoded
+        if (i % 10 == 0) {
+          assertNull(decodedMessage.getDecodedRow());
+          continue;
+        }
+        assertNotNull(decodedMessage.getDecodedRow());
+        if (i % 10 == 1) {
+          // Dropped by the transformer
+          assertTrue(decodedMessage.getTransformedRows().isEmpty());
+          assertEquals(decodedMessage.getNumRowsDropped(), 1);
+        } else if (i % 10 == 2) {
+          // Failed in the transformer
+          assertTrue(decodedMessage.getTransformedRows().isEmpty());
+          assertNotNull(decodedMessage.getTransformException());
+        } else {
+          // Rows should be returned in the offset order
+          assertEquals(decodedMessage.getTransformedRows().size(), 1);
+          assertEquals(decodedMessage.getTransformedRows().get(0).getValue(VALUE_COLUMN), i);
+          assertEquals(decodedMessage.getNumRowsDropped(), 0);
+          assertNull(decodedMessage.getTransformException());
+        }
+      }
+
+      // Cancel a partially consumed batch
+      decodedBatch = parallelMessageDecoder.decode(new IntegerMessageBatch());
+      assertEquals(decodedBatch.get(5).getTransformedRows().get(0).getValue(VALUE_COLUMN), 5);
+      decodedBatch.cancel();
+    } finally {
+      parallelMessageDecoder.close();
+    }
+  }
+
+  private static class IntegerMessageBatch implements MessageBatch<Integer> {
+    @Override
+    public int getMessageCount() {
+      return NUM_MESSAGES;
+    }
+
+    @Override
+    public Integer getMessageAtIndex(int index) {
+      return index;
+    }
+
+    @Override
+    public int getMessageOffsetAtIndex(int index) {
+      return 0;
+    }
+
+    @Override
+    public int getMessageLengthAtIndex(int index) {
+      return 1;
+    }
+
+    @Override
+    public long getNextStreamMessageOffsetAtIndex(int index) {
+      return index + 1;
+    }
+  }
+
+  private static class IntegerMessageDecoder implements StreamMessageDecoder<Integer> {
+    @Override
+    public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName) {
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, GenericRow destination) {
+      if (payload % 10 == 0) {
+        return null;
+      }
+      destination.putValue(VALUE_COLUMN, payload);
+      return destination;
+    }
+
+    @Override
+    public GenericRow decode(Integer payload, int offset, int length, GenericRow destination) {
+      return decode(payload, destination);
+    }
+  }
+
+  private static class ValueTransformer implements RecordTransformer {
+    @Override
+    public GenericRow transform(GenericRow record) {
+      int value = (int) record.getValue(VALUE_COLUMN);
+      if (value % 10 == 1) {
+        return null;
+      }
+      if (value % 10 == 2) {
+        throw new IllegalStateException("Failed to transform value: " + value);
+      }
+      return record;
+    }
+  }
+}
@@ -134,6 +134,26 @@ public class IndexedTableTest {
     checkSurvivors(indexedTable, survivors);
   }
 
+  @Test(dataProvider = "initDataProvider")
+  public void testMergeUnfinishedTable(String orderBy, List<String> survivors) {
+    QueryContext queryContext = QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3, d4 ORDER BY " + orderBy);
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "d4", "sum(m1)", "max(m2)"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+
+    // Split the records of the non-concurrent test across 2 thread-local tables, then merge them before finishing
+    SimpleIndexedTable indexedTable = new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
+    SimpleIndexedTable tableToMerge = new SimpleIndexedTable(dataSchema, queryContext, 5, TRIM_THRESHOLD);
+    IndexedTable mergeTable = new SimpleIndexedTable(dataSchema, queryContext, 10, TRIM_THRESHOLD);
+    testNonConcurrent(tableToMerge, mergeTable);
+    indexedTable.upsert(getRecord(new Object[]{"a", 1, 10d, 1000, 10d, 100d}));
+    indexedTable.upsert(getRecord(new Object[]{"m", 13, 130d, 1000, 600d, 1300d}));
+    indexedTable.mergeUnfinishedTable(tableToMerge);
+    Assert.assertEquals(indexedTable.size(), 13);
+    indexedTable.finish(true);
+    checkSurvivors(indexedTable, survivors);
+  }
+
   @DataProvider(name = "initDataProvider")
   public Object[][] initDataProvider() {
     List<Object[]> data = new ArrayList<>();
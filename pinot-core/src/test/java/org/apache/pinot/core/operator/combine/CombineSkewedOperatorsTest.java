@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.exception.EarlyTerminationException;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+/**
+ * This test mimic the behavior of combining operators with skewed cost, where the first operator cannot finish until
+ * all the other operators are processed. With the operators handed out dynamically, the other threads should pick up
+ * the remaining operators instead of waiting behind the slow one.
+ */
+@SuppressWarnings("rawtypes")
+public class CombineSkewedOperatorsTest {
+  private static final int NUM_OPERATORS = 10;
+  private static final int NUM_THREADS = 2;
+  private static final long TIMEOUT_MS = 10_000L;
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+  }
+
+  @Test
+  public void testAggregationOnlyCombineOperator() {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromPQL("SELECT COUNT(*) FROM table");
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    CountDownLatch fastOperatorsLatch = new CountDownLatch(NUM_OPERATORS - 1);
+    // NOTE: With a single thread for the query (single core), the slow operator cannot wait for the other operators.
+    CountDownLatch slowOperatorLatch = CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY > 1 ? fastOperatorsLatch : null;
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    operators.add(new CountOperator(aggregationFunctions, slowOperatorLatch, null));
+    for (int i = 1; i < NUM_OPERATORS; i++) {
+      operators.add(new CountOperator(aggregationFunctions, null, fastOperatorsLatch));
+    }
+    AggregationOnlyCombineOperator combineOperator =
+        new AggregationOnlyCombineOperator(operators, queryContext, _executorService,
+            System.currentTimeMillis() + TIMEOUT_MS);
+    IntermediateResultsBlock resultsBlock = combineOperator.nextBlock();
+    assertNull(resultsBlock.getProcessingExceptions());
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    assertEquals(aggregationResult.get(0), (long) NUM_OPERATORS);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  /**
+   * Operator that returns a count of 1, and optionally waits for a latch before returning or counts down a latch after
+   * it is processed.
+   */
+  private static class CountOperator extends BaseOperator<IntermediateResultsBlock> {
+    final AggregationFunction[] _aggregationFunctions;
+    final CountDownLatch _latchToAwait;
+    final CountDownLatch _latchToCountDown;
+
+    CountOperator(AggregationFunction[] aggregationFunctions, CountDownLatch latchToAwait,
+        CountDownLatch latchToCountDown) {
+      _aggregationFunctions = aggregationFunctions;
+      _latchToAwait = latchToAwait;
+      _latchToCountDown = latchToCountDown;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      if (_latchToAwait != null) {
+        try {
+          if (!_latchToAwait.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Other operators are not processed while the slow operator is running");
+          }
+        } catch (InterruptedException e) {
+          throw new EarlyTerminationException();
+        }
+      }
+      if (_latchToCountDown != null) {
+        _latchToCountDown.countDown();
+      }
+      return new IntermediateResultsBlock(_aggregationFunctions, new ArrayList<>(Collections.singletonList(1L)),
+          false);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "CountOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(1, 0, 0, 1);
+    }
+  }
+}
@@ -98,6 +98,15 @@ public class CombineSlowOperatorsTest {
     testCombineOperator(operators, combineOperator);
   }
 
+  @Test
+  public void testGroupByOrderByMergeTreeCombineOperator() {
+    List<Operator> operators = getOperators();
+    GroupByOrderByMergeTreeCombineOperator combineOperator = new GroupByOrderByMergeTreeCombineOperator(operators,
+        QueryContextConverterUtils.getQueryContextFromPQL("SELECT COUNT(*) FROM table GROUP BY column"),
+        _executorService, TIMEOUT_MS, InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
+    testCombineOperator(operators, combineOperator);
+  }
+
   /**
    * NOTE: It is hard to test the logger behavior, but only one error message about the query timeout should be logged
    *       for each query.
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.combine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.exception.EarlyTerminationException;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests for the {@link GroupByOrderByMergeTreeCombineOperator} when merging the thread-local tables fails.
+ */
+@SuppressWarnings("rawtypes")
+public class GroupByOrderByMergeTreeCombineOperatorTest {
+  private static final int NUM_THREADS = 2;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final DataSchema DATA_SCHEMA = new DataSchema(new String[]{"column", "count(*)"},
+      new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.LONG});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+  }
+
+  @Test
+  public void testFailedMerge() {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContextFromPQL("SELECT COUNT(*) FROM table GROUP BY column");
+    AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+    // The operators wait for each other so that each thread aggregates one operator into its own table, and the
+    // incompatible intermediate results for the same group fail the merge of the 2 tables
+    // NOTE: With a single thread for the query (single core), both operators are aggregated into the same table, and
+    //       the aggregation fails instead of the merge.
+    CountDownLatch operatorsLatch = new CountDownLatch(CombineOperatorUtils.getNumThreadsForQuery(2));
+    List<Operator> operators = Arrays.asList(new GroupByOperator(aggregationFunctions, operatorsLatch, 1L),
+        new GroupByOperator(aggregationFunctions, operatorsLatch, "invalid"));
+    GroupByOrderByMergeTreeCombineOperator combineOperator =
+        new GroupByOrderByMergeTreeCombineOperator(operators, queryContext, _executorService,
+            System.currentTimeMillis() + TIMEOUT_MS, InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
+
+    // The combine operator should return right after the merge fails instead of waiting until the query timeout
+    long startTimeMs = System.currentTimeMillis();
+    IntermediateResultsBlock resultsBlock = combineOperator.nextBlock();
+    assertTrue(System.currentTimeMillis() - startTimeMs < TIMEOUT_MS);
+    List<ProcessingException> processingExceptions = resultsBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    assertTrue(processingExceptions.get(0).getMessage().contains(ClassCastException.class.getName()));
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  /**
+   * Operator that returns a single group with the given intermediate result after all the operators are running.
+   */
+  private static class GroupByOperator extends BaseOperator<IntermediateResultsBlock> {
+    final AggregationFunction[] _aggregationFunctions;
+    final CountDownLatch _operatorsLatch;
+    final Object _intermediateResult;
+
+    GroupByOperator(AggregationFunction[] aggregationFunctions, CountDownLatch operatorsLatch,
+        Object intermediateResult) {
+      _aggregationFunctions = aggregationFunctions;
+      _operatorsLatch = operatorsLatch;
+      _intermediateResult = intermediateResult;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      _operatorsLatch.countDown();
+      try {
+        if (!_operatorsLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          throw new IllegalStateException("Operators are not processed in parallel");
+        }
+      } catch (InterruptedException e) {
+        throw new EarlyTerminationException();
+      }
+      GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey();
+      groupKey._groupId = 0;
+      groupKey._stringKey = "group";
+      AggregationGroupByResult aggregationGroupByResult = mock(AggregationGroupByResult.class);
+      when(aggregationGroupByResult.getGroupKeyIterator())
+          .thenReturn(Collections.singletonList(groupKey).iterator());
+      when(aggregationGroupByResult.getResultForKey(any(), anyInt())).thenReturn(_intermediateResult);
+      return new IntermediateResultsBlock(_aggregationFunctions, aggregationGroupByResult, DATA_SCHEMA);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "GroupByOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(1, 0, 0, 1);
+    }
+  }
+}
@@ -34,6 +34,7 @@ import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.SelectionOrderByOperator;
 import org.apache.pinot.core.plan.CombinePlanNode;
 import org.apache.pinot.core.plan.PlanNode;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
@@ -222,6 +223,76 @@ public class SelectionCombineOperatorTest {
     assertEquals(combineResult.getNumTotalDocs(), NUM_SEGMENTS * NUM_RECORDS_PER_SEGMENT);
   }
 
+  @Test
+  public void testSelectionOrderByBoundaryValue() {
+    // Values in segment 1 are [50, 150)
+    IndexSegment indexSegment = _indexSegments.get(1);
+
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContextFromPQL("SELECT * FROM testTable ORDER BY intColumn");
+    SelectionOrderByOperator operator =
+        (SelectionOrderByOperator) PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext).run();
+    operator.setBoundaryValue(55);
+    PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) operator.nextBlock().getSelectionResult();
+    assertNotNull(selectionResult);
+    // Rows with values larger than or equal to the boundary value should be skipped
+    assertEquals(selectionResult.size(), 5);
+    int expectedValue = 54;
+    while (!selectionResult.isEmpty()) {
+      assertEquals((int) selectionResult.poll()[0], expectedValue--);
+    }
+
+    queryContext = QueryContextConverterUtils.getQueryContextFromPQL("SELECT * FROM testTable ORDER BY intColumn DESC");
+    operator = (SelectionOrderByOperator) PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext).run();
+    operator.setBoundaryValue(144);
+    selectionResult = (PriorityQueue<Object[]>) operator.nextBlock().getSelectionResult();
+    assertNotNull(selectionResult);
+    // Rows with values smaller than or equal to the boundary value should be skipped
+    assertEquals(selectionResult.size(), 5);
+    expectedValue = 145;
+    while (!selectionResult.isEmpty()) {
+      assertEquals((int) selectionResult.poll()[0], expectedValue++);
+    }
+
+    // Ordering on transform expression cannot be performed on dictionary ids
+    queryContext =
+        QueryContextConverterUtils.getQueryContextFromPQL("SELECT * FROM testTable ORDER BY ADD(intColumn, 0)");
+    operator = (SelectionOrderByOperator) PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext).run();
+    operator.setBoundaryValue(55.0);
+    selectionResult = (PriorityQueue<Object[]>) operator.nextBlock().getSelectionResult();
+    assertNotNull(selectionResult);
+    assertEquals(selectionResult.size(), 5);
+    expectedValue = 54;
+    while (!selectionResult.isEmpty()) {
+      Object[] row = selectionResult.poll();
+      assertEquals(row[0], (double) expectedValue);
+      assertEquals(row[1], expectedValue--);
+    }
+  }
+
+  @Test
+  public void testSelectionOrderByMultipleExpressions() {
+    // Values in segment 1 are [50, 150), and are sorted on docId
+    IndexSegment indexSegment = _indexSegments.get(1);
+
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContextFromPQL("SELECT * FROM testTable ORDER BY intColumn DESC, $docId");
+    SelectionOrderByOperator operator =
+        (SelectionOrderByOperator) PLAN_MAKER.makeSegmentPlanNode(indexSegment, queryContext).run();
+    // Rows with the same value as the boundary value can still make the top rows
+    operator.setBoundaryValue(145);
+    PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) operator.nextBlock().getSelectionResult();
+    assertNotNull(selectionResult);
+    assertEquals(selectionResult.size(), 5);
+    int expectedValue = 145;
+    while (!selectionResult.isEmpty()) {
+      Object[] row = selectionResult.poll();
+      assertEquals(row[0], expectedValue);
+      assertEquals(row[1], expectedValue - 50);
+      expectedValue++;
+    }
+  }
+
   private IntermediateResultsBlock getCombineResult(String query) {
     QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromPQL(query);
     List<PlanNode> planNodes = new ArrayList<>(NUM_SEGMENTS);
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.query.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+public class SVScanDocIdIteratorTest {
+  private static final int NUM_DOCS = 10_000;
+  private static final int CARDINALITY = 20;
+  private static final int MATCHING_VALUE = 7;
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private final int[] _values = new int[NUM_DOCS];
+
+  public SVScanDocIdIteratorTest() {
+    for (int i = 0; i < NUM_DOCS; i++) {
+      _values[i] = RANDOM.nextInt(CARDINALITY);
+    }
+  }
+
+  @Test
+  public void testDictionaryBasedScan() {
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.indexOf(Integer.toString(MATCHING_VALUE))).thenReturn(MATCHING_VALUE);
+    when(dictionary.length()).thenReturn(CARDINALITY);
+    PredicateEvaluator predicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(ExpressionContext.forIdentifier("col"),
+            Integer.toString(MATCHING_VALUE)), dictionary);
+    testScan(predicateEvaluator, new IntForwardIndexReader(_values, true));
+  }
+
+  @Test
+  public void testRawValueBasedScan() {
+    PredicateEvaluator predicateEvaluator = RangePredicateEvaluatorFactory.newRawValueBasedEvaluator(
+        new RangePredicate(ExpressionContext.forIdentifier("col"), true, Integer.toString(MATCHING_VALUE), false,
+            Integer.toString(MATCHING_VALUE + 1)), DataType.INT);
+    testScan(predicateEvaluator, new IntForwardIndexReader(_values, false));
+  }
+
+  private void testScan(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader) {
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (_values[i] == MATCHING_VALUE) {
+        expectedDocIds.add(i);
+      }
+    }
+
+    // Sequential scan
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, NUM_DOCS);
+    List<Integer> actualDocIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      actualDocIds.add(docId);
+    }
+    assertEquals(actualDocIds, expectedDocIds, ERROR_MESSAGE);
+    assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS, ERROR_MESSAGE);
+
+    // Mix of next() and advance(), number of entries scanned should be the same as evaluating the documents one by one
+    docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, NUM_DOCS);
+    int nextDocId = 0;
+    long expectedNumEntriesScanned = 0;
+    while (true) {
+      int targetDocId = nextDocId + (RANDOM.nextBoolean() ? 0 : RANDOM.nextInt(500));
+      int expectedDocId = Constants.EOF;
+      for (int i = targetDocId; i < NUM_DOCS; i++) {
+        expectedNumEntriesScanned++;
+        if (_values[i] == MATCHING_VALUE) {
+          expectedDocId = i;
+          break;
+        }
+      }
+      if (targetDocId == nextDocId) {
+        assertEquals(docIdIterator.next(), expectedDocId, ERROR_MESSAGE);
+      } else {
+        assertEquals(docIdIterator.advance(targetDocId), expectedDocId, ERROR_MESSAGE);
+      }
+      assertEquals(docIdIterator.getNumEntriesScanned(), expectedNumEntriesScanned, ERROR_MESSAGE);
+      if (expectedDocId == Constants.EOF) {
+        break;
+      }
+      nextDocId = expectedDocId + 1;
+    }
+
+    // Apply AND on a bitmap
+    MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+    MutableRoaringBitmap expectedResult = new MutableRoaringBitmap();
+    int numDocsInBitmap = 0;
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (RANDOM.nextBoolean()) {
+        docIds.add(i);
+        numDocsInBitmap++;
+        if (_values[i] == MATCHING_VALUE) {
+          expectedResult.add(i);
+        }
+      }
+    }
+    // Document ids out of the range should be ignored
+    docIds.add(NUM_DOCS);
+    docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, NUM_DOCS);
+    assertEquals(docIdIterator.applyAnd(docIds), expectedResult, ERROR_MESSAGE);
+    assertEquals(docIdIterator.getNumEntriesScanned(), numDocsInBitmap, ERROR_MESSAGE);
+  }
+
+  private static class IntForwardIndexReader implements ForwardIndexReader<ForwardIndexReaderContext> {
+    final int[] _values;
+    final boolean _dictionaryEncoded;
+
+    IntForwardIndexReader(int[] values, boolean dictionaryEncoded) {
+      _values = values;
+      _dictionaryEncoded = dictionaryEncoded;
+    }
+
+    @Override
+    public boolean isDictionaryEncoded() {
+      return _dictionaryEncoded;
+    }
+
+    @Override
+    public boolean isSingleValue() {
+      return true;
+    }
+
+    @Override
+    public DataType getValueType() {
+      return DataType.INT;
+    }
+
+    @Override
+    public int getDictId(int docId, ForwardIndexReaderContext context) {
+      return _values[docId];
+    }
+
+    @Override
+    public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
+      for (int i = 0; i < length; i++) {
+        dictIdBuffer[i] = _values[docIds[i]];
+      }
+    }
+
+    @Override
+    public int getInt(int docId, ForwardIndexReaderContext context) {
+      return _values[docId];
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
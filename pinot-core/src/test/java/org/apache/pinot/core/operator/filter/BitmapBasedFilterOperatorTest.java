@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter;
+
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+@SuppressWarnings("rawtypes")
+public class BitmapBasedFilterOperatorTest {
+  private static final int NUM_DOCS = 10;
+
+  @Test
+  public void testExclusivePredicateOnSharedBitmap() {
+    // The inverted index reader returns the same bitmap instance for every read
+    MutableRoaringBitmap sharedDocIds = MutableRoaringBitmap.bitmapOf(2, 3, 5);
+    InvertedIndexReader invertedIndexReader = mock(InvertedIndexReader.class);
+    when(invertedIndexReader.getDocIds(0)).thenReturn(sharedDocIds);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getInvertedIndex()).thenReturn(invertedIndexReader);
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isExclusive()).thenReturn(true);
+    when(predicateEvaluator.getNonMatchingDictIds()).thenReturn(new int[]{0});
+
+    // Run the query twice, both should get the same result and the shared bitmap should not be modified
+    int[] expectedDocIds = new int[]{0, 1, 4, 6, 7, 8, 9};
+    for (int i = 0; i < 2; i++) {
+      BitmapBasedFilterOperator filterOperator =
+          new BitmapBasedFilterOperator(predicateEvaluator, dataSource, NUM_DOCS);
+      BlockDocIdIterator iterator = filterOperator.nextBlock().getBlockDocIdSet().iterator();
+      for (int expectedDocId : expectedDocIds) {
+        assertEquals(iterator.next(), expectedDocId);
+      }
+      assertEquals(iterator.next(), Constants.EOF);
+      assertEquals(sharedDocIds, MutableRoaringBitmap.bitmapOf(2, 3, 5));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.transform.function;
+
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class TransformExpressionCompilerTest extends BaseTransformFunctionTest {
+
+  @Test
+  public void testArithmeticExpression() {
+    testCompiledDoubleExpression(
+        String.format("sub(mult(%s,%s),div(%s,%s))", INT_SV_COLUMN, DOUBLE_SV_COLUMN, LONG_SV_COLUMN, FLOAT_SV_COLUMN));
+    testCompiledDoubleExpression(
+        String.format("add(mult(%s,2.5,%s),sqrt(abs(%s)),-1.5)", INT_SV_COLUMN, FLOAT_SV_COLUMN, DOUBLE_SV_COLUMN));
+    testCompiledDoubleExpression(
+        String.format("mod(floor(%s),add(%s,%s,1))", DOUBLE_SV_COLUMN, INT_SV_COLUMN, INT_SV_COLUMN));
+    // Same column referenced multiple times
+    testCompiledDoubleExpression(String.format("div(3,sub(%s,mult(%s,%s)))", INT_SV_COLUMN, INT_SV_COLUMN,
+        DOUBLE_SV_COLUMN));
+  }
+
+  @Test
+  public void testCaseExpression() {
+    int intLiteral = _intSVValues[0];
+    testCompiledDoubleExpression(String
+        .format("case(greater_than(%s,%d),less_than(mult(%s,2),%s),mult(%s,%s),sub(%s,1),add(%s,0.5))", INT_SV_COLUMN,
+            intLiteral, INT_SV_COLUMN, DOUBLE_SV_COLUMN, DOUBLE_SV_COLUMN, FLOAT_SV_COLUMN, LONG_SV_COLUMN,
+            DOUBLE_SV_COLUMN));
+    testCompiledDoubleExpression(String
+        .format("case(and(greater_than_or_equal(%d,%s),not_equals(%s,%s)),%s,mult(%s,-1))", intLiteral,
+            INT_SV_COLUMN, DOUBLE_SV_COLUMN, FLOAT_SV_COLUMN, DOUBLE_SV_COLUMN, DOUBLE_SV_COLUMN));
+    testCompiledDoubleExpression(String
+        .format("add(case(or(equals(%s,%d),less_than_or_equal(%s,%s)),%s,%s),1)", INT_SV_COLUMN, intLiteral,
+            FLOAT_SV_COLUMN, DOUBLE_SV_COLUMN, INT_SV_COLUMN, DOUBLE_SV_COLUMN));
+  }
+
+  @Test
+  public void testComparisonExpression() {
+    testCompiledIntExpression(String.format("greater_than(mult(%s,2),%s)", INT_SV_COLUMN, DOUBLE_SV_COLUMN));
+    testCompiledIntExpression(String.format("and(less_than(%s,%d),equals(mod(%s,2),0))", INT_SV_COLUMN,
+        _intSVValues[0], INT_SV_COLUMN));
+    testCompiledIntExpression(
+        String.format("greater_than_or_equal(sub(%s,%s),1500.25)", DOUBLE_SV_COLUMN, FLOAT_SV_COLUMN));
+  }
+
+  @Test
+  public void testScalarFunction() {
+    testCompiledDoubleExpression(String.format("max(%s,1.5)", DOUBLE_SV_COLUMN));
+    testCompiledDoubleExpression(String.format("min(mult(%s,%s),%s)", INT_SV_COLUMN, FLOAT_SV_COLUMN, LONG_SV_COLUMN));
+  }
+
+  @Test
+  public void testNotCompiled() {
+    // Identifier
+    testNotCompiled(INT_SV_COLUMN);
+    // No fused child
+    testNotCompiled(String.format("add(%s,%s)", INT_SV_COLUMN, DOUBLE_SV_COLUMN));
+    // LONG values are not compared as doubles
+    testNotCompiled(String.format("greater_than(%s,mult(%s,2))", LONG_SV_COLUMN, INT_SV_COLUMN));
+    // INT and FLOAT values are compared as floats
+    testNotCompiled(String.format("less_than(%s,%s)", INT_SV_COLUMN, FLOAT_SV_COLUMN));
+    // Literal not exactly representable as double
+    testNotCompiled(String.format("greater_than(mult(%s,2),0.1)", DOUBLE_SV_COLUMN));
+    // Non-numeric result
+    testNotCompiled(String.format("upper(%s)", STRING_SV_COLUMN));
+  }
+
+  @Test
+  public void testUnsupportedChild() {
+    // Scalar function on string is evaluated by the interpreted transform function
+    testCompiledDoubleExpression(
+        String.format("mult(add(length(%s),1),%s)", STRING_ALPHANUM_SV_COLUMN, DOUBLE_SV_COLUMN));
+  }
+
+  private void testCompiledDoubleExpression(String expressionString) {
+    ExpressionContext expression = QueryContextConverterUtils.getExpression(expressionString);
+    TransformFunction compiledFunction = TransformExpressionCompiler.compile(expression, _dataSourceMap);
+    assertTrue(compiledFunction instanceof CompiledTransformFunction, expressionString);
+    TransformFunction interpretedFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    assertEquals(compiledFunction.getName(), interpretedFunction.getName());
+    assertEquals(compiledFunction.getResultMetadata().getDataType(), DataType.DOUBLE);
+    double[] expectedValues = interpretedFunction.transformToDoubleValuesSV(_projectionBlock);
+    testTransformFunction(compiledFunction, expectedValues);
+  }
+
+  private void testCompiledIntExpression(String expressionString) {
+    ExpressionContext expression = QueryContextConverterUtils.getExpression(expressionString);
+    TransformFunction compiledFunction = TransformExpressionCompiler.compile(expression, _dataSourceMap);
+    assertTrue(compiledFunction instanceof CompiledTransformFunction, expressionString);
+    TransformFunction interpretedFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    assertEquals(compiledFunction.getResultMetadata().getDataType(), DataType.INT);
+    int[] expectedValues = interpretedFunction.transformToIntValuesSV(_projectionBlock);
+    testTransformFunction(compiledFunction, expectedValues);
+  }
+
+  private void testNotCompiled(String expressionString) {
+    ExpressionContext expression = QueryContextConverterUtils.getExpression(expressionString);
+    TransformFunction transformFunction = TransformExpressionCompiler.compile(expression, _dataSourceMap);
+    assertFalse(transformFunction instanceof CompiledTransformFunction, expressionString);
+    assertEquals(transformFunction.getClass(), TransformFunctionFactory.get(expression, _dataSourceMap).getClass());
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class DocIdSetPlanNodeTest {
+
+  @Test
+  public void testGetMaxDocPerCall() {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    mockDataSource(indexSegment, "intColumn", DataType.INT, true, true, 1);
+    mockDataSource(indexSegment, "longColumn", DataType.LONG, true, false, 1);
+    mockDataSource(indexSegment, "stringMVColumn", DataType.STRING, false, true, 1000);
+    for (int i = 0; i < 10; i++) {
+      mockDataSource(indexSegment, "stringColumn" + i, DataType.STRING, true, true, 1);
+    }
+
+    // No projection column (e.g. COUNT(*))
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Collections.emptySet()),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    // Narrow numeric columns should get the largest block
+    assertEquals(
+        DocIdSetPlanNode.getMaxDocPerCall(indexSegment, new HashSet<>(Arrays.asList("intColumn", "longColumn"))),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    // Wide projections should get smaller blocks, but no smaller than the lower bound
+    int numDocsPerCall = DocIdSetPlanNode.getMaxDocPerCall(indexSegment, Collections.singleton("stringMVColumn"));
+    assertTrue(numDocsPerCall < DocIdSetPlanNode.MAX_DOC_PER_CALL);
+    assertTrue(numDocsPerCall >= DocIdSetPlanNode.MIN_DOC_PER_CALL);
+    HashSet<String> stringColumns = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      stringColumns.add("stringColumn" + i);
+    }
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, stringColumns),
+        DocIdSetPlanNode.DEFAULT_TARGET_BLOCK_SIZE_BYTES / (4 * (32 + Integer.BYTES)));
+
+    // Target block size should be configurable
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, stringColumns, 4 * (32 + Integer.BYTES) * 5000), 5000);
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, stringColumns, Integer.MAX_VALUE),
+        DocIdSetPlanNode.MAX_DOC_PER_CALL);
+
+    stringColumns.add("stringMVColumn");
+    assertEquals(DocIdSetPlanNode.getMaxDocPerCall(indexSegment, stringColumns), DocIdSetPlanNode.MIN_DOC_PER_CALL);
+  }
+
+  private static void mockDataSource(IndexSegment indexSegment, String column, DataType dataType, boolean singleValue,
+      boolean hasDictionary, int maxNumValuesPerMVEntry) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getDataType()).thenReturn(dataType);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(singleValue);
+    when(dataSourceMetadata.getMaxNumValuesPerMVEntry()).thenReturn(maxNumValuesPerMVEntry);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    if (hasDictionary) {
+      when(dataSource.getDictionary()).thenReturn(mock(Dictionary.class));
+    }
+    when(indexSegment.getDataSource(column)).thenReturn(dataSource);
+  }
+}
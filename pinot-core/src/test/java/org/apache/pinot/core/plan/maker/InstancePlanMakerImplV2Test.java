@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan.maker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class InstancePlanMakerImplV2Test {
+  private static final int NUM_SEGMENTS = 100;
+
+  @Test
+  public void testSortSegmentsByEstimatedCost() {
+    Random random = new Random();
+    List<IndexSegment> indexSegments = new ArrayList<>(NUM_SEGMENTS);
+    List<SegmentMetadata> segmentMetadataList = new ArrayList<>(NUM_SEGMENTS);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+      if (i % 10 == 0) {
+        // Consuming segment, where the number of documents keeps growing while sorting
+        AtomicInteger numDocs = new AtomicInteger(random.nextInt(1000));
+        when(segmentMetadata.getTotalDocs()).thenAnswer(invocation -> numDocs.addAndGet(random.nextInt(1000)));
+      } else {
+        when(segmentMetadata.getTotalDocs()).thenReturn(random.nextInt(1000));
+      }
+      IndexSegment indexSegment = mock(IndexSegment.class);
+      when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+      indexSegments.add(indexSegment);
+      segmentMetadataList.add(segmentMetadata);
+    }
+    Collections.shuffle(indexSegments, random);
+
+    List<IndexSegment> sortedIndexSegments = InstancePlanMakerImplV2.sortSegmentsByEstimatedCost(indexSegments);
+    assertEquals(sortedIndexSegments.size(), NUM_SEGMENTS);
+    assertTrue(sortedIndexSegments.containsAll(indexSegments));
+    // The number of documents should be read only once per segment
+    for (SegmentMetadata segmentMetadata : segmentMetadataList) {
+      verify(segmentMetadata, times(1)).getTotalDocs();
+    }
+
+    // Segments with the same number of documents should keep their original order
+    IndexSegment first = mockSegment(10);
+    IndexSegment second = mockSegment(10);
+    IndexSegment largest = mockSegment(20);
+    List<IndexSegment> sortedSegments =
+        InstancePlanMakerImplV2.sortSegmentsByEstimatedCost(Arrays.asList(first, second, largest));
+    assertSame(sortedSegments.get(0), largest);
+    assertSame(sortedSegments.get(1), first);
+    assertSame(sortedSegments.get(2), second);
+  }
+
+  private static IndexSegment mockSegment(int numDocs) {
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(numDocs);
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return indexSegment;
+  }
+}
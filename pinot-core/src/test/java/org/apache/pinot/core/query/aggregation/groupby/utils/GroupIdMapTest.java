@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.groupby.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class GroupIdMapTest {
+  private static final int NUM_VALUES = 100_000;
+  private static final Random RANDOM = new Random();
+
+  @Test
+  public void testIntGroupIdMap() {
+    // Use small initial capacity to trigger multiple incremental resizes
+    IntGroupIdMap groupIdMap = new IntGroupIdMap(1);
+    Map<Integer, Integer> expectedGroupIds = new HashMap<>();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      int key = RANDOM.nextInt(NUM_VALUES / 2);
+      int groupId = groupIdMap.get(key);
+      if (groupId == IntGroupIdMap.INVALID_ID) {
+        groupId = groupIdMap.put(key);
+        assertEquals(groupId, expectedGroupIds.size());
+        expectedGroupIds.put(key, groupId);
+      } else {
+        assertEquals((Integer) groupId, expectedGroupIds.get(key));
+      }
+    }
+    int numGroups = groupIdMap.size();
+    assertEquals(numGroups, expectedGroupIds.size());
+    for (int groupId = 0; groupId < numGroups; groupId++) {
+      assertEquals((Integer) groupId, expectedGroupIds.get(groupIdMap.getKey(groupId)));
+    }
+
+    groupIdMap.clear();
+    assertEquals(groupIdMap.size(), 0);
+    for (int key : expectedGroupIds.keySet()) {
+      assertEquals(groupIdMap.get(key), IntGroupIdMap.INVALID_ID);
+    }
+  }
+
+  @Test
+  public void testLongGroupIdMap() {
+    // Use small initial capacity to trigger multiple incremental resizes
+    LongGroupIdMap groupIdMap = new LongGroupIdMap(1);
+    Map<Long, Integer> expectedGroupIds = new HashMap<>();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      long key = RANDOM.nextInt(NUM_VALUES / 2) * (long) Integer.MAX_VALUE;
+      int groupId = groupIdMap.get(key);
+      if (groupId == LongGroupIdMap.INVALID_ID) {
+        groupId = groupIdMap.put(key);
+        assertEquals(groupId, expectedGroupIds.size());
+        expectedGroupIds.put(key, groupId);
+      } else {
+        assertEquals((Integer) groupId, expectedGroupIds.get(key));
+      }
+    }
+    int numGroups = groupIdMap.size();
+    assertEquals(numGroups, expectedGroupIds.size());
+    for (int groupId = 0; groupId < numGroups; groupId++) {
+      assertEquals((Integer) groupId, expectedGroupIds.get(groupIdMap.getKey(groupId)));
+    }
+
+    groupIdMap.clear();
+    assertEquals(groupIdMap.size(), 0);
+    for (long key : expectedGroupIds.keySet()) {
+      assertEquals(groupIdMap.get(key), LongGroupIdMap.INVALID_ID);
+    }
+  }
+
+  @Test
+  public void testIntArrayGroupIdMap() {
+    int keyLength = 3;
+    // Use small initial capacity to trigger multiple incremental resizes
+    IntArrayGroupIdMap groupIdMap = new IntArrayGroupIdMap(keyLength, 1);
+    Map<List<Integer>, Integer> expectedGroupIds = new HashMap<>();
+    // Reuse the same array for all the lookups
+    int[] key = new int[keyLength];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      key[0] = RANDOM.nextInt(100);
+      key[1] = RANDOM.nextInt(100);
+      key[2] = RANDOM.nextInt(5);
+      List<Integer> expectedKey = Arrays.asList(key[0], key[1], key[2]);
+      int groupId = groupIdMap.get(key);
+      if (groupId == IntArrayGroupIdMap.INVALID_ID) {
+        groupId = groupIdMap.put(key);
+        assertEquals(groupId, expectedGroupIds.size());
+        expectedGroupIds.put(expectedKey, groupId);
+      } else {
+        assertEquals((Integer) groupId, expectedGroupIds.get(expectedKey));
+      }
+    }
+    int numGroups = groupIdMap.size();
+    assertEquals(numGroups, expectedGroupIds.size());
+    for (int groupId = 0; groupId < numGroups; groupId++) {
+      List<Integer> storedKey = Arrays.asList(groupIdMap.getKeyElement(groupId, 0), groupIdMap.getKeyElement(groupId, 1),
+          groupIdMap.getKeyElement(groupId, 2));
+      assertEquals((Integer) groupId, expectedGroupIds.get(storedKey));
+    }
+
+    groupIdMap.clear();
+    assertEquals(groupIdMap.size(), 0);
+    assertEquals(groupIdMap.get(key), IntArrayGroupIdMap.INVALID_ID);
+  }
+}
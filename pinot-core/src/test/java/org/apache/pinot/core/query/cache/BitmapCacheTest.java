@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class BitmapCacheTest {
+
+  @Test
+  public void testGetAndInvalidate() {
+    BitmapCache bitmapCache = new BitmapCache(1024 * 1024, 1, mock(ServerMetrics.class));
+    Object indexReader1 = new Object();
+    Object indexReader2 = new Object();
+    AtomicInteger numLoads = new AtomicInteger();
+
+    ImmutableRoaringBitmap bitmap = bitmapCache.getPostingList(indexReader1, 1, id -> {
+      numLoads.incrementAndGet();
+      return MutableRoaringBitmap.bitmapOf(id);
+    });
+    assertEquals(bitmap.toArray(), new int[]{1});
+    assertSame(bitmapCache.getPostingList(indexReader1, 1, id -> {
+      numLoads.incrementAndGet();
+      return MutableRoaringBitmap.bitmapOf(id);
+    }), bitmap);
+    assertEquals(numLoads.get(), 1);
+
+    // Different index reader should not share the entry
+    bitmapCache.getPostingList(indexReader2, 1, id -> {
+      numLoads.incrementAndGet();
+      return MutableRoaringBitmap.bitmapOf(id);
+    });
+    assertEquals(numLoads.get(), 2);
+
+    ImmutableRoaringBitmap union = bitmapCache.getUnion(indexReader1, new int[]{1, 2, 3}, () -> {
+      numLoads.incrementAndGet();
+      return MutableRoaringBitmap.bitmapOf(1, 2, 3);
+    });
+    assertEquals(union.toArray(), new int[]{1, 2, 3});
+    assertSame(bitmapCache.getUnion(indexReader1, new int[]{1, 2, 3}, () -> {
+      numLoads.incrementAndGet();
+      return MutableRoaringBitmap.bitmapOf(1, 2, 3);
+    }), union);
+    assertEquals(numLoads.get(), 3);
+    assertEquals(bitmapCache.size(), 3);
+    assertTrue(bitmapCache.getSizeInBytes() > 0);
+
+    bitmapCache.invalidate(indexReader1);
+    assertEquals(bitmapCache.size(), 1);
+    bitmapCache.invalidate(indexReader2);
+    assertEquals(bitmapCache.size(), 0);
+    assertEquals(bitmapCache.getSizeInBytes(), 0);
+  }
+
+  @Test
+  public void testAdmission() {
+    // Memory-mapped posting lists are weighed by the entry overhead only, so the cache (single segment to have a global
+    // size bound) can hold 10 of them
+    BitmapCache bitmapCache = new BitmapCache(10 * 256, 1, mock(ServerMetrics.class));
+    Object indexReader = new Object();
+    AtomicInteger numLoads = new AtomicInteger();
+
+    // Entries are admitted on the first access when the cache is not full
+    for (int i = 0; i < 10; i++) {
+      bitmapCache.getPostingList(indexReader, i, BitmapCacheTest::mappedBitmapOf);
+    }
+    assertEquals(bitmapCache.size(), 10);
+    assertEquals(bitmapCache.getSizeInBytes(), 10 * 256);
+
+    // A new entry is not admitted into the full cache on the first access, but admitted on the second access
+    for (int i = 0; i < 3; i++) {
+      ImmutableRoaringBitmap bitmap = bitmapCache.getPostingList(indexReader, 10, id -> {
+        numLoads.incrementAndGet();
+        return mappedBitmapOf(id);
+      });
+      assertEquals(bitmap.toArray(), new int[]{10});
+    }
+    assertEquals(numLoads.get(), 2);
+    assertEquals(bitmapCache.size(), 10);
+    assertEquals(bitmapCache.getSizeInBytes(), 10 * 256);
+  }
+
+  private static ImmutableRoaringBitmap mappedBitmapOf(int value) {
+    MutableRoaringBitmap bitmap = MutableRoaringBitmap.bitmapOf(value);
+    ByteBuffer byteBuffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+    bitmap.serialize(byteBuffer);
+    byteBuffer.flip();
+    return new ImmutableRoaringBitmap(byteBuffer);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.cache;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+
+public class SegmentResultCacheTest {
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String QUERY =
+      "SELECT COUNT(*), DISTINCTCOUNT(foo) FROM testTable_OFFLINE WHERE bar > 10 OPTION(timeoutMs=1000)";
+
+  @Test
+  public void testGetKey() {
+    IndexSegment immutableSegment = mockImmutableSegment("123");
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(QUERY);
+    SegmentResultCache.Key key = SegmentResultCache.getKey(immutableSegment, queryContext);
+    assertNotNull(key);
+
+    // Query options should not be part of the key
+    assertEquals(SegmentResultCache.getKey(immutableSegment, QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT COUNT(*), DISTINCTCOUNT(foo) FROM testTable_OFFLINE WHERE bar > 10 OPTION(timeoutMs=2000)")), key);
+
+    // Different filter
+    assertNotEquals(SegmentResultCache.getKey(immutableSegment, QueryContextConverterUtils
+        .getQueryContextFromSQL("SELECT COUNT(*), DISTINCTCOUNT(foo) FROM testTable_OFFLINE WHERE bar > 20")), key);
+
+    // Different segment CRC (segment refreshed)
+    assertNotEquals(SegmentResultCache.getKey(mockImmutableSegment("456"), queryContext), key);
+
+    // Mutable segment is not cacheable
+    MutableSegment mutableSegment = mock(MutableSegment.class);
+    when(mutableSegment.getSegmentName()).thenReturn(SEGMENT_NAME);
+    assertNull(SegmentResultCache.getKey(mutableSegment, queryContext));
+
+    // Group-by and selection queries are not cacheable
+    assertNull(SegmentResultCache.getKey(immutableSegment,
+        QueryContextConverterUtils.getQueryContextFromSQL("SELECT COUNT(*) FROM testTable_OFFLINE GROUP BY foo")));
+    assertNull(SegmentResultCache
+        .getKey(immutableSegment, QueryContextConverterUtils.getQueryContextFromSQL("SELECT * FROM testTable_OFFLINE")));
+  }
+
+  @Test
+  public void testGetAndPut() {
+    SegmentResultCache segmentResultCache = new SegmentResultCache(1024 * 1024, mock(ServerMetrics.class));
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(QUERY);
+    SegmentResultCache.Key key = SegmentResultCache.getKey(mockImmutableSegment("123"), queryContext);
+    assertNotNull(key);
+    assertNull(segmentResultCache.get(key));
+
+    IntOpenHashSet distinctValues = new IntOpenHashSet(new int[]{1, 2, 3});
+    IntermediateResultsBlock resultsBlock =
+        new IntermediateResultsBlock(queryContext.getAggregationFunctions(), Arrays.asList(100L, distinctValues),
+            false);
+    ExecutionStatistics executionStatistics = new ExecutionStatistics(100L, 200L, 300L, 1000L);
+    segmentResultCache.put(key, resultsBlock, executionStatistics);
+    assertEquals(segmentResultCache.size(), 1);
+
+    // Modify the results in-place (as the combine operator does) should not affect the cached results
+    distinctValues.add(4);
+
+    SegmentResultCache.CachedResult cachedResult = segmentResultCache.get(key);
+    assertNotNull(cachedResult);
+    assertEquals(cachedResult.getExecutionStatistics().getNumDocsScanned(), 100L);
+    assertEquals(cachedResult.getExecutionStatistics().getNumTotalDocs(), 1000L);
+    List<Object> aggregationResult = cachedResult.getAggregationResult();
+    assertEquals(aggregationResult.get(0), 100L);
+    assertEquals(aggregationResult.get(1), new IntOpenHashSet(new int[]{1, 2, 3}));
+
+    // Each hit should get a new copy of the mutable results
+    assertNotSame(cachedResult.getAggregationResult().get(1), aggregationResult.get(1));
+  }
+
+  private static IndexSegment mockImmutableSegment(String crc) {
+    ImmutableSegment immutableSegment = mock(ImmutableSegment.class);
+    when(immutableSegment.getSegmentName()).thenReturn(SEGMENT_NAME);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getCrc()).thenReturn(crc);
+    when(immutableSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    return immutableSegment;
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class StreamingBrokerReducerTest {
+  private static final CalciteSqlCompiler SQL_COMPILER = new CalciteSqlCompiler();
+  private static final long REDUCE_TIMEOUT_MS = 10_000L;
+
+  private BrokerReduceService _brokerReduceService;
+
+  @BeforeClass
+  public void setUp() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(Broker.CONFIG_OF_ENABLE_STREAMING_REDUCE, true);
+    _brokerReduceService = new BrokerReduceService(new PinotConfiguration(properties));
+  }
+
+  @Test
+  public void testAggregation()
+      throws IOException {
+    BrokerRequest brokerRequest = getBrokerRequest("SELECT SUM(m1), COUNT(*) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"sum(m1)", "count(*)"},
+        new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.LONG});
+    Object[][][] rows = new Object[][][]{{{1.0, 1L}}, {{2.0, 2L}}, {{3.0, 3L}}};
+    List<Object[]> resultRows = reduceAndCompare(brokerRequest, dataSchema, rows);
+    assertEquals(resultRows.size(), 1);
+    assertEquals(resultRows.get(0), new Object[]{6.0, 6L});
+  }
+
+  @Test
+  public void testGroupBy()
+      throws IOException {
+    BrokerRequest brokerRequest =
+        getBrokerRequest("SELECT d1, SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC LIMIT 2");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "sum(m1)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+    Object[][][] rows = new Object[][][]{{{1, 1.0}, {2, 2.0}}, {{1, 3.0}, {3, 1.0}}, {}};
+    List<Object[]> resultRows = reduceAndCompare(brokerRequest, dataSchema, rows);
+    assertEquals(resultRows.size(), 2);
+    assertEquals(resultRows.get(0), new Object[]{1, 4.0});
+    assertEquals(resultRows.get(1), new Object[]{2, 2.0});
+  }
+
+  @Test
+  public void testConcurrentGroupBy()
+      throws IOException {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(Broker.CONFIG_OF_ENABLE_STREAMING_REDUCE, true);
+    properties.put(Broker.CONFIG_OF_MAX_REDUCE_THREADS_PER_QUERY, 4);
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration(properties));
+    BrokerRequest brokerRequest =
+        getBrokerRequest("SELECT d1, SUM(m1) FROM testTable GROUP BY d1 ORDER BY SUM(m1) DESC LIMIT 10");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"d1", "sum(m1)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+    // 20 servers, each returns groups 0 to 9 with value (group + 1)
+    int numServers = 20;
+    Object[][][] rows = new Object[numServers][10][];
+    for (int i = 0; i < numServers; i++) {
+      for (int j = 0; j < 10; j++) {
+        rows[i][j] = new Object[]{j, (double) (j + 1)};
+      }
+    }
+    StreamingBrokerReducer streamingBrokerReducer =
+        brokerReduceService.getStreamingBrokerReducer(brokerRequest, REDUCE_TIMEOUT_MS);
+    assertNotNull(streamingBrokerReducer);
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : getDataTableMap(dataSchema, rows).entrySet()) {
+      streamingBrokerReducer.consume(entry.getKey(), entry.getValue());
+    }
+    BrokerResponseNative brokerResponse = streamingBrokerReducer.seal(null);
+    assertEquals(brokerResponse.getExceptionsSize(), 0);
+    assertEquals(brokerResponse.getNumDocsScanned(), 10L * numServers);
+    List<Object[]> resultRows = brokerResponse.getResultTable().getRows();
+    assertEquals(resultRows.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(resultRows.get(i), new Object[]{9 - i, (double) (10 - i) * numServers});
+    }
+    brokerReduceService.shutDown();
+  }
+
+  @Test
+  public void testSelectionOrderBy()
+      throws IOException {
+    BrokerRequest brokerRequest = getBrokerRequest("SELECT d1, m1 FROM testTable ORDER BY m1 DESC LIMIT 3");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"m1", "d1"}, new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.INT});
+    Object[][][] rows = new Object[][][]{{{5.0, 1}, {1.0, 2}}, {{4.0, 3}, {3.0, 4}, {2.0, 5}}};
+    List<Object[]> resultRows = reduceAndCompare(brokerRequest, dataSchema, rows);
+    assertEquals(resultRows.size(), 3);
+    assertEquals(resultRows.get(0), new Object[]{1, 5.0});
+    assertEquals(resultRows.get(1), new Object[]{3, 4.0});
+    assertEquals(resultRows.get(2), new Object[]{4, 3.0});
+
+    // No data rows
+    resultRows = reduceAndCompare(brokerRequest, dataSchema, new Object[][][]{{}, {}});
+    assertTrue(resultRows.isEmpty());
+  }
+
+  @Test
+  public void testUnsupportedQuery() {
+    // Selection only queries are not supported for streaming reduce
+    assertNull(_brokerReduceService
+        .getStreamingBrokerReducer(getBrokerRequest("SELECT d1 FROM testTable LIMIT 10"), REDUCE_TIMEOUT_MS));
+
+    // Streaming reduce is disabled by default
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration());
+    assertNull(brokerReduceService
+        .getStreamingBrokerReducer(getBrokerRequest("SELECT SUM(m1) FROM testTable"), REDUCE_TIMEOUT_MS));
+    brokerReduceService.shutDown();
+  }
+
+  /**
+   * Reduces the data tables with both the streaming broker reducer and the broker reduce service, asserts the results
+   * and execution statistics are the same, and returns the result rows.
+   */
+  private List<Object[]> reduceAndCompare(BrokerRequest brokerRequest, DataSchema dataSchema, Object[][][] rows)
+      throws IOException {
+    StreamingBrokerReducer streamingBrokerReducer =
+        _brokerReduceService.getStreamingBrokerReducer(brokerRequest, REDUCE_TIMEOUT_MS);
+    assertNotNull(streamingBrokerReducer);
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : getDataTableMap(dataSchema, rows).entrySet()) {
+      streamingBrokerReducer.consume(entry.getKey(), entry.getValue());
+    }
+    BrokerResponseNative streamingBrokerResponse = streamingBrokerReducer.seal(null);
+    // Data tables received after the reducer is sealed should be ignored
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : getDataTableMap(dataSchema, rows).entrySet()) {
+      streamingBrokerReducer.consume(entry.getKey(), entry.getValue());
+    }
+
+    BrokerResponseNative brokerResponse = _brokerReduceService
+        .reduceOnDataTable(brokerRequest, getDataTableMap(dataSchema, rows), REDUCE_TIMEOUT_MS, null);
+
+    assertEquals(streamingBrokerResponse.getNumDocsScanned(), brokerResponse.getNumDocsScanned());
+    assertEquals(streamingBrokerResponse.getNumDocsScanned(), 10L * rows.length);
+    assertEquals(streamingBrokerResponse.getExceptionsSize(), brokerResponse.getExceptionsSize());
+    assertEquals(streamingBrokerResponse.getResultTable().getDataSchema(),
+        brokerResponse.getResultTable().getDataSchema());
+    List<Object[]> streamingResultRows = streamingBrokerResponse.getResultTable().getRows();
+    List<Object[]> resultRows = brokerResponse.getResultTable().getRows();
+    int numRows = resultRows.size();
+    assertEquals(streamingResultRows.size(), numRows);
+    for (int i = 0; i < numRows; i++) {
+      assertEquals(streamingResultRows.get(i), resultRows.get(i));
+    }
+    return streamingResultRows;
+  }
+
+  private static BrokerRequest getBrokerRequest(String sqlQuery) {
+    BrokerRequest brokerRequest = SQL_COMPILER.compileToBrokerRequest(sqlQuery);
+    Map<String, String> queryOptions = new HashMap<>();
+    queryOptions.put(Request.QueryOptionKey.GROUP_BY_MODE, Request.SQL);
+    queryOptions.put(Request.QueryOptionKey.RESPONSE_FORMAT, Request.SQL);
+    brokerRequest.setQueryOptions(queryOptions);
+    return brokerRequest;
+  }
+
+  /**
+   * Builds one data table per server with the given rows, where each data table has 10 documents scanned.
+   */
+  private static Map<ServerRoutingInstance, DataTable> getDataTableMap(DataSchema dataSchema, Object[][][] rows)
+      throws IOException {
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new LinkedHashMap<>();
+    ColumnDataType[] columnDataTypes = dataSchema.getColumnDataTypes();
+    for (int i = 0; i < rows.length; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema.clone());
+      for (Object[] row : rows[i]) {
+        dataTableBuilder.startRow();
+        for (int colId = 0; colId < row.length; colId++) {
+          switch (columnDataTypes[colId]) {
+            case INT:
+              dataTableBuilder.setColumn(colId, (int) row[colId]);
+              break;
+            case LONG:
+              dataTableBuilder.setColumn(colId, (long) row[colId]);
+              break;
+            case DOUBLE:
+              dataTableBuilder.setColumn(colId, (double) row[colId]);
+              break;
+            default:
+              throw new IllegalStateException();
+          }
+        }
+        dataTableBuilder.finishRow();
+      }
+      DataTable dataTable = dataTableBuilder.build();
+      dataTable.getMetadata().put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, "10");
+      dataTableMap.put(new ServerRoutingInstance("localhost", 1234 + i, TableType.OFFLINE), dataTable);
+    }
+    return dataTableMap;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _brokerReduceService.shutDown();
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.realtime.impl;
+
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class ThreadSafeMutableRoaringBitmapTest {
+
+  @Test
+  public void testSnapshot() {
+    ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(0);
+    ImmutableRoaringBitmap snapshot = bitmap.getSnapshot();
+    assertEquals(snapshot.toArray(), new int[]{0});
+
+    // Snapshot should be reused when the bitmap is not modified
+    assertSame(bitmap.getSnapshot(), snapshot);
+    bitmap.add(0);
+    assertSame(bitmap.getSnapshot(), snapshot);
+    bitmap.remove(1);
+    assertSame(bitmap.getSnapshot(), snapshot);
+
+    // Snapshot should not be affected by the modification, and a new snapshot should be created
+    bitmap.add(1);
+    assertEquals(snapshot.toArray(), new int[]{0});
+    ImmutableRoaringBitmap newSnapshot = bitmap.getSnapshot();
+    assertNotSame(newSnapshot, snapshot);
+    assertEquals(newSnapshot.toArray(), new int[]{0, 1});
+
+    bitmap.remove(0);
+    assertEquals(newSnapshot.toArray(), new int[]{0, 1});
+    assertEquals(bitmap.getSnapshot().toArray(), new int[]{1});
+    assertFalse(bitmap.isEmpty());
+    bitmap.remove(1);
+    assertTrue(bitmap.isEmpty());
+    assertTrue(bitmap.getSnapshot().isEmpty());
+  }
+
+  @Test
+  public void testSnapshotWithManyChanges() {
+    ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap();
+    assertTrue(bitmap.getSnapshot().isEmpty());
+
+    // Apply more changes than tracked between two snapshots
+    int numDocs = 100_000;
+    for (int i = 0; i < numDocs; i++) {
+      bitmap.add(i);
+    }
+    bitmap.remove(0);
+    ImmutableRoaringBitmap snapshot = bitmap.getSnapshot();
+    assertEquals(snapshot.getCardinality(), numDocs - 1);
+    assertFalse(snapshot.contains(0));
+    assertSame(bitmap.getSnapshot(), snapshot);
+
+    // New snapshot should be built from the previous snapshot plus the changes
+    bitmap.add(0);
+    bitmap.remove(1);
+    ImmutableRoaringBitmap newSnapshot = bitmap.getSnapshot();
+    assertEquals(newSnapshot.getCardinality(), numDocs - 1);
+    assertTrue(newSnapshot.contains(0));
+    assertFalse(newSnapshot.contains(1));
+    assertFalse(snapshot.contains(0));
+    assertTrue(snapshot.contains(1));
+  }
+}
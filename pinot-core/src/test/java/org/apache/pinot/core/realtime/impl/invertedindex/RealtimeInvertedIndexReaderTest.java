@@ -18,9 +18,11 @@
  */
 package org.apache.pinot.core.realtime.impl.invertedindex;
 
+import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
@@ -103,4 +105,44 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader();
+    // Each posting list gets 10_000 document ids, which are compacted into the sealed bitmap multiple times
+    int numDocs = 100_000;
+    int cardinality = 10;
+
+    // Single writer: document i has dictionary ids (i % cardinality) and (i % cardinality) again to simulate duplicate
+    // values in a multi-value entry
+    Thread writer = new Thread(() -> {
+      for (int docId = 0; docId < numDocs; docId++) {
+        int dictId = docId % cardinality;
+        realtimeInvertedIndexReader.add(dictId, docId);
+        realtimeInvertedIndexReader.add(dictId, docId);
+      }
+    });
+    writer.start();
+
+    // Readers should always see a consistent prefix of the posting list
+    while (writer.isAlive()) {
+      for (int dictId = 0; dictId < cardinality; dictId++) {
+        int expectedDocId = dictId;
+        IntIterator intIterator = realtimeInvertedIndexReader.getDocIds(dictId).getIntIterator();
+        while (intIterator.hasNext()) {
+          assertEquals(intIterator.next(), expectedDocId);
+          expectedDocId += cardinality;
+        }
+      }
+    }
+    writer.join();
+
+    for (int dictId = 0; dictId < cardinality; dictId++) {
+      MutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(dictId);
+      assertEquals(docIds.getCardinality(), numDocs / cardinality);
+      assertEquals(docIds.first(), dictId);
+      assertEquals(docIds.last(), numDocs - cardinality + dictId);
+    }
+  }
 }
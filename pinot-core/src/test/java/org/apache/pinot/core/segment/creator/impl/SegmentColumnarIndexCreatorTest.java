@@ -20,9 +20,22 @@ package org.apache.pinot.core.segment.creator.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.data.readers.PinotSegmentRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -121,6 +134,63 @@ public class SegmentColumnarIndexCreatorTest {
     assertFalse(configuration.containsKey(COLUMN_PROPERTY_KEY_PREFIX + "c"));
   }
 
+  @Test
+  public void testParallelIndexing()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension("intColumn", DataType.INT)
+        .addSingleValueDimension("stringColumn", DataType.STRING).addMultiValueDimension("mvColumn", DataType.INT)
+        .addMetric("rawLongColumn", DataType.LONG).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName("testTable")
+        .setNoDictionaryColumns(Collections.singletonList("rawLongColumn")).build();
+
+    // Use more rows than the parallel indexing chunk size to test multiple chunks and the partial last chunk
+    int numRows = 25_000;
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue("intColumn", random.nextInt(100));
+      row.putValue("stringColumn", RandomStringUtils.randomAlphabetic(5));
+      row.putValue("mvColumn", new Object[]{random.nextInt(10), random.nextInt(10)});
+      row.putValue("rawLongColumn", random.nextLong());
+      rows.add(row);
+    }
+
+    File serialSegmentDir = buildSegment(tableConfig, schema, rows, "serialSegment", 1);
+    File parallelSegmentDir = buildSegment(tableConfig, schema, rows, "parallelSegment", 4);
+    try (PinotSegmentRecordReader serialRecordReader = new PinotSegmentRecordReader(serialSegmentDir);
+        PinotSegmentRecordReader parallelRecordReader = new PinotSegmentRecordReader(parallelSegmentDir)) {
+      int numRowsRead = 0;
+      while (serialRecordReader.hasNext()) {
+        assertTrue(parallelRecordReader.hasNext());
+        GenericRow serialRow = serialRecordReader.next();
+        GenericRow parallelRow = parallelRecordReader.next();
+        assertEquals(parallelRow.getValue("intColumn"), serialRow.getValue("intColumn"));
+        assertEquals(parallelRow.getValue("stringColumn"), serialRow.getValue("stringColumn"));
+        assertEquals((Object[]) parallelRow.getValue("mvColumn"), (Object[]) serialRow.getValue("mvColumn"));
+        assertEquals(parallelRow.getValue("rawLongColumn"), serialRow.getValue("rawLongColumn"));
+        numRowsRead++;
+      }
+      assertFalse(parallelRecordReader.hasNext());
+      assertEquals(numRowsRead, numRows);
+    }
+  }
+
+  private File buildSegment(TableConfig tableConfig, Schema schema, List<GenericRow> rows, String segmentName,
+      int indexingParallelism)
+      throws Exception {
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+    segmentGeneratorConfig.setTableName("testTable");
+    segmentGeneratorConfig.setOutDir(TEMP_DIR.getPath());
+    segmentGeneratorConfig.setSegmentName(segmentName);
+    segmentGeneratorConfig.createInvertedIndexForColumn("intColumn");
+    segmentGeneratorConfig.setIndexingParallelism(indexingParallelism);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(rows));
+    driver.build();
+    return new File(TEMP_DIR, segmentName);
+  }
+
   @AfterClass
   public void tearDown()
       throws IOException {
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.realtime.impl.invertedindex.RealtimeJsonIndexReader;
+import org.apache.pinot.core.segment.creator.JsonIndexCreator;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
+import org.apache.pinot.core.segment.index.readers.JsonIndexReader;
+import org.apache.pinot.core.segment.index.readers.json.ImmutableJsonIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class JsonIndexTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "JsonIndexTest");
+  private static final String COLUMN_NAME = "json";
+  private static final String[] RECORDS = new String[]{
+      "{\"name\":\"adam\",\"age\":20,\"addresses\":[{\"street\":\"main st\",\"country\":\"us\"},"
+          + "{\"street\":\"second st\",\"country\":\"ca\"}]}",
+      "{\"name\":\"bob\",\"age\":25,\"addresses\":[{\"street\":\"main st\",\"country\":\"ca\"}],"
+          + "\"skills\":[\"java\",\"go\"]}",
+      "{\"name\":\"charles\",\"age\":30,\"nested\":{\"flag\":true}}",
+      "not a json",
+      "{\"name\":\"david\",\"age\":null}"
+  };
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(INDEX_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Test
+  public void testImmutableJsonIndex()
+      throws IOException {
+    try (JsonIndexCreator jsonIndexCreator = new OnHeapJsonIndexCreator(INDEX_DIR, COLUMN_NAME)) {
+      for (String record : RECORDS) {
+        jsonIndexCreator.add(record);
+      }
+      jsonIndexCreator.seal();
+    }
+
+    File indexFile = new File(INDEX_DIR, COLUMN_NAME + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+        JsonIndexReader jsonIndexReader = new ImmutableJsonIndexReader(dataBuffer)) {
+      testJsonIndexReader(jsonIndexReader);
+    }
+  }
+
+  @Test
+  public void testRealtimeJsonIndex()
+      throws IOException {
+    try (RealtimeJsonIndexReader jsonIndexReader = new RealtimeJsonIndexReader()) {
+      for (String record : RECORDS) {
+        jsonIndexReader.add(record);
+      }
+      testJsonIndexReader(jsonIndexReader);
+    }
+  }
+
+  @Test
+  public void testRealtimeJsonIndexWithManyDocuments()
+      throws IOException {
+    // Add enough documents to compact the posting lists multiple times
+    int numDocs = 10_000;
+    try (RealtimeJsonIndexReader jsonIndexReader = new RealtimeJsonIndexReader()) {
+      for (int i = 0; i < numDocs; i++) {
+        jsonIndexReader.add("{\"key\":\"" + (i % 2 == 0 ? "even" : "odd") + "\"}");
+      }
+      // Query multiple times to ensure the posting lists are not modified by the queries
+      for (int i = 0; i < 2; i++) {
+        int[] evenDocIds = jsonIndexReader.getMatchingDocIds("key = 'even'").toArray();
+        assertEquals(evenDocIds.length, numDocs / 2);
+        for (int j = 0; j < evenDocIds.length; j++) {
+          assertEquals(evenDocIds[j], j * 2);
+        }
+        assertEquals(jsonIndexReader.getMatchingDocIds("key != 'even'").getCardinality(), numDocs / 2);
+        assertEquals(jsonIndexReader.getMatchingDocIds("key IS NOT NULL").getCardinality(), numDocs);
+      }
+    }
+  }
+
+  private void testJsonIndexReader(JsonIndexReader jsonIndexReader) {
+    assertEquals(jsonIndexReader.getMatchingDocIds("name = 'adam'").toArray(), new int[]{0});
+    assertEquals(jsonIndexReader.getMatchingDocIds("age = 25").toArray(), new int[]{1});
+    assertEquals(jsonIndexReader.getMatchingDocIds("name IN ('bob', 'david', 'eric')").toArray(), new int[]{1, 4});
+    assertEquals(jsonIndexReader.getMatchingDocIds("name != 'adam'").toArray(), new int[]{1, 2, 4});
+    assertEquals(jsonIndexReader.getMatchingDocIds("name NOT IN ('adam', 'bob')").toArray(), new int[]{2, 4});
+    assertEquals(jsonIndexReader.getMatchingDocIds("age IS NULL").toArray(), new int[]{3, 4});
+    assertEquals(jsonIndexReader.getMatchingDocIds("age IS NOT NULL").toArray(), new int[]{0, 1, 2});
+    assertEquals(jsonIndexReader.getMatchingDocIds("nested.flag = 'true'").toArray(), new int[]{2});
+    assertEquals(jsonIndexReader.getMatchingDocIds("\"addresses[*].country\" = 'ca'").toArray(), new int[]{0, 1});
+    assertEquals(jsonIndexReader.getMatchingDocIds("\"skills[*]\" = 'go'").toArray(), new int[]{1});
+    assertEquals(jsonIndexReader.getMatchingDocIds("\"addresses[*].street\" = 'main st' AND age = 25").toArray(),
+        new int[]{1});
+    assertEquals(jsonIndexReader.getMatchingDocIds("\"skills[*]\" = 'java' OR nested.flag IS NOT NULL").toArray(),
+        new int[]{1, 2});
+    // Predicates on the same array are evaluated per document rather than per element
+    assertEquals(jsonIndexReader
+        .getMatchingDocIds("\"addresses[*].street\" = 'main st' AND \"addresses[*].country\" = 'ca'").toArray(),
+        new int[]{0, 1});
+  }
+}
@@ -27,6 +27,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.segment.ReadMode;
@@ -519,6 +521,48 @@ public class SegmentPreProcessorTest {
     Assert.assertEquals(singleFileIndex.length(), newFileSize);
   }
 
+  @Test
+  public void testV3CreateIndicesInParallel()
+      throws Exception {
+    constructV3Segment();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setInvertedIndexColumns(
+        new HashSet<>(Arrays.asList(COLUMN1_NAME, COLUMN7_NAME, COLUMN13_NAME, NO_SUCH_COLUMN_NAME)));
+    indexLoadingConfig.setRangeIndexColumns(new HashSet<>(Arrays.asList(COLUMN1_NAME, COLUMN13_NAME)));
+
+    // Missing indexes should be removed from the config, existing index and non-existing column should be kept
+    IndexLoadingConfig lazyIndexLoadingConfig = new IndexLoadingConfig();
+    lazyIndexLoadingConfig.setInvertedIndexColumns(new HashSet<>(indexLoadingConfig.getInvertedIndexColumns()));
+    lazyIndexLoadingConfig.setRangeIndexColumns(new HashSet<>(indexLoadingConfig.getRangeIndexColumns()));
+    Assert.assertTrue(SegmentPreProcessor.removeMissingIndexes(_indexDir, lazyIndexLoadingConfig));
+    Assert.assertEquals(lazyIndexLoadingConfig.getInvertedIndexColumns(),
+        new HashSet<>(Arrays.asList(COLUMN7_NAME, NO_SUCH_COLUMN_NAME)));
+    Assert.assertTrue(lazyIndexLoadingConfig.getRangeIndexColumns().isEmpty());
+
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      indexLoadingConfig.setIndexBuildingExecutor(executorService);
+      try (SegmentPreProcessor processor = new SegmentPreProcessor(_indexDir, indexLoadingConfig, null)) {
+        processor.process();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+
+    try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(_indexDir, ReadMode.mmap);
+        SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      Assert.assertTrue(reader.hasIndexFor(COLUMN1_NAME, ColumnIndexType.INVERTED_INDEX));
+      Assert.assertTrue(reader.hasIndexFor(COLUMN7_NAME, ColumnIndexType.INVERTED_INDEX));
+      Assert.assertTrue(reader.hasIndexFor(COLUMN13_NAME, ColumnIndexType.INVERTED_INDEX));
+      Assert.assertTrue(reader.hasIndexFor(COLUMN1_NAME, ColumnIndexType.RANGE_INDEX));
+      Assert.assertTrue(reader.hasIndexFor(COLUMN13_NAME, ColumnIndexType.RANGE_INDEX));
+    }
+
+    // All the indexes exist now
+    Assert.assertFalse(SegmentPreProcessor.removeMissingIndexes(_indexDir, indexLoadingConfig));
+  }
+
   private void checkInvertedIndexCreation(boolean reCreate)
       throws Exception {
     try (SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(_indexDir, ReadMode.mmap);
@@ -19,6 +19,8 @@
 package org.apache.pinot.core.segment.processing.framework;
 
 import com.google.common.collect.Lists;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.commons.lang.math.RandomUtils;
 import org.apache.pinot.core.segment.processing.collector.Collector;
@@ -39,11 +42,13 @@ import org.apache.pinot.core.segment.processing.collector.ValueAggregatorFactory
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 
 
 /**
@@ -51,23 +56,28 @@ import static org.testng.Assert.assertTrue;
  */
 public class CollectorTest {
 
+  private static final File WORKING_DIR = new File(FileUtils.getTempDirectory(), "CollectorTest");
+
   private final List<String> uniqueD = new ArrayList<>();
   private static final Random RANDOM = new Random(10);
 
   @BeforeClass
   public void before() {
+    FileUtils.deleteQuietly(WORKING_DIR);
+    assertTrue(WORKING_DIR.mkdirs());
     for (int i = 0; i < 20; i++) {
       uniqueD.add(RandomStringUtils.random(5));
     }
   }
 
   @Test
-  public void testConcatCollector() {
+  public void testConcatCollector()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .build();
     CollectorConfig collectorConfig = new CollectorConfig.Builder().build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
     assertEquals(collector.getClass(), ConcatCollector.class);
 
     for (int i = 0; i < 100; i++) {
@@ -83,16 +93,18 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
   }
 
   @Test
-  public void testRollupCollectorWithNoMetrics() {
+  public void testRollupCollectorWithNoMetrics()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .build();
     CollectorConfig collectorConfig =
         new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
     assertEquals(collector.getClass(), RollupCollector.class);
 
     Set<String> usedValues = new HashSet<>();
@@ -111,16 +123,18 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
   }
 
   @Test
-  public void testRollupCollectorWithDefaultAggregations() {
+  public void testRollupCollectorWithDefaultAggregations()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .addMetric("m1", FieldSpec.DataType.INT).addMetric("m2", FieldSpec.DataType.LONG).build();
     CollectorConfig collectorConfig =
         new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
 
     Map<String, Integer> m1Map = new HashMap<>();
     Map<String, Long> m2Map = new HashMap<>();
@@ -153,16 +167,18 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
   }
 
   @Test
-  public void testRollupCollectorWithMVDimensions() {
+  public void testRollupCollectorWithMVDimensions()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addMultiValueDimension("dMv", FieldSpec.DataType.STRING)
             .addMetric("m1", FieldSpec.DataType.INT).build();
     CollectorConfig collectorConfig =
         new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
 
     GenericRow r1 = new GenericRow();
     r1.putValue("dMv", new Object[]{"a", "b"});
@@ -181,10 +197,12 @@ public class CollectorTest {
     collector.collect(r3);
     collector.collect(r4);
     assertEquals(collector.size(), 3);
+    collector.close();
   }
 
   @Test
-  public void testRollupCollectorWithMinMaxAggregations() {
+  public void testRollupCollectorWithMinMaxAggregations()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .addMetric("m1", FieldSpec.DataType.INT).addMetric("m2", FieldSpec.DataType.LONG).build();
@@ -194,7 +212,7 @@ public class CollectorTest {
     CollectorConfig collectorConfig =
         new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP)
             .setAggregatorTypeMap(valueAggregatorMap).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
 
     Map<String, Integer> m1Map = new HashMap<>();
     Map<String, Long> m2Map = new HashMap<>();
@@ -227,15 +245,17 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
   }
 
   @Test
-  public void testConcatCollectorWithSort() {
+  public void testConcatCollectorWithSort()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .build();
     CollectorConfig collectorConfig = new CollectorConfig.Builder().setSortOrder(Lists.newArrayList("d")).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
     assertEquals(collector.getClass(), ConcatCollector.class);
 
     List<String> dValues = new ArrayList<>();
@@ -256,17 +276,19 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
   }
 
   @Test
-  public void testRollupCollectorWithSort() {
+  public void testRollupCollectorWithSort()
+      throws IOException {
     Schema schema =
         new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
             .addMetric("m1", FieldSpec.DataType.INT).build();
     CollectorConfig collectorConfig =
         new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP)
             .setSortOrder(Lists.newArrayList("d")).build();
-    Collector collector = CollectorFactory.getCollector(collectorConfig, schema);
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
 
     Set<String> dValues = new HashSet<>();
     for (int i = 0; i < 100; i++) {
@@ -287,5 +309,47 @@ public class CollectorTest {
     }
     collector.reset();
     assertEquals(collector.size(), 0);
+    collector.close();
+  }
+
+  @Test
+  public void testRollupCollectorWithBytesMetric()
+      throws IOException {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName("testSchema").addSingleValueDimension("d", FieldSpec.DataType.STRING)
+            .addMetric("m1", FieldSpec.DataType.INT).addMetric("m2", FieldSpec.DataType.BYTES).build();
+    CollectorConfig collectorConfig =
+        new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP).build();
+    Collector collector = CollectorFactory.getCollector(collectorConfig, schema, WORKING_DIR);
+
+    // BYTES metric value is kept as is when there is a single row for the group
+    for (int i = 0; i < 10; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue("d", Integer.toString(i));
+      row.putValue("m1", i);
+      row.putValue("m2", new byte[]{(byte) i});
+      collector.collect(row);
+    }
+    assertEquals(collector.size(), 10);
+    Iterator<GenericRow> iterator = collector.iterator();
+    while (iterator.hasNext()) {
+      GenericRow next = iterator.next();
+      int i = Integer.parseInt((String) next.getValue("d"));
+      assertEquals(next.getValue("m1"), i);
+      assertEquals((byte[]) next.getValue("m2"), new byte[]{(byte) i});
+    }
+
+    // BYTES metric cannot be aggregated
+    GenericRow row = new GenericRow();
+    row.putValue("d", "0");
+    row.putValue("m1", 0);
+    row.putValue("m2", new byte[]{0});
+    expectThrows(IllegalArgumentException.class, () -> collector.collect(row));
+    collector.close();
+  }
+
+  @AfterClass
+  public void after() {
+    FileUtils.deleteQuietly(WORKING_DIR);
   }
 }
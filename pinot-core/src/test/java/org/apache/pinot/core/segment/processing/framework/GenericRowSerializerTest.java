@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.processing.framework;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.pinot.core.segment.processing.collector.GenericRowSerializer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.MetricFieldSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+
+/**
+ * Tests for {@link GenericRowSerializer}
+ */
+public class GenericRowSerializerTest {
+
+  @Test
+  public void testSerDe() {
+    List<FieldSpec> fieldSpecs = Arrays
+        .asList(new DimensionFieldSpec("intSV", FieldSpec.DataType.INT, true),
+            new DimensionFieldSpec("longSV", FieldSpec.DataType.LONG, true),
+            new DimensionFieldSpec("stringSV", FieldSpec.DataType.STRING, true),
+            new DimensionFieldSpec("bytesSV", FieldSpec.DataType.BYTES, true),
+            new DimensionFieldSpec("floatMV", FieldSpec.DataType.FLOAT, false),
+            new DimensionFieldSpec("stringMV", FieldSpec.DataType.STRING, false),
+            new MetricFieldSpec("doubleMetric", FieldSpec.DataType.DOUBLE));
+    GenericRowSerializer serializer = new GenericRowSerializer(fieldSpecs);
+
+    GenericRow row = new GenericRow();
+    row.putValue("intSV", 123);
+    row.putValue("longSV", 123L);
+    // Non-ASCII characters (including supplementary characters) should round-trip without loss
+    row.putValue("stringSV", "abc\u00E9\uD83D\uDE00");
+    row.putValue("bytesSV", new byte[]{1, 2, 3});
+    row.putValue("floatMV", new Object[]{1.5f, 2.5f});
+    row.putValue("stringMV", new Object[]{"", "xyz"});
+    row.putValue("doubleMetric", 1.23);
+
+    byte[] bytes = serializer.serialize(row);
+    GenericRow deserializedRow = serializer.deserialize(bytes, new GenericRow());
+    assertEquals(deserializedRow.getValue("intSV"), 123);
+    assertEquals(deserializedRow.getValue("longSV"), 123L);
+    assertEquals(deserializedRow.getValue("stringSV"), "abc\u00E9\uD83D\uDE00");
+    assertEquals((byte[]) deserializedRow.getValue("bytesSV"), new byte[]{1, 2, 3});
+    assertEquals((Object[]) deserializedRow.getValue("floatMV"), new Object[]{1.5f, 2.5f});
+    assertEquals((Object[]) deserializedRow.getValue("stringMV"), new Object[]{"", "xyz"});
+    assertEquals(deserializedRow.getValue("doubleMetric"), 1.23);
+    assertEquals(serializer.serialize(deserializedRow), bytes);
+
+    // Multi-value order matters
+    row.putValue("stringMV", new Object[]{"xyz", ""});
+    assertFalse(Arrays.equals(serializer.serialize(row), bytes));
+
+    // Null values and null multi-value arrays (e.g. empty multi-value) should round-trip as null
+    row.putValue("longSV", null);
+    row.putValue("stringSV", null);
+    row.putValue("stringMV", null);
+    byte[] bytesWithNulls = serializer.serialize(row);
+    deserializedRow = serializer.deserialize(bytesWithNulls, deserializedRow);
+    assertEquals(deserializedRow.getValue("intSV"), 123);
+    assertNull(deserializedRow.getValue("longSV"));
+    assertNull(deserializedRow.getValue("stringSV"));
+    assertEquals((byte[]) deserializedRow.getValue("bytesSV"), new byte[]{1, 2, 3});
+    assertEquals((Object[]) deserializedRow.getValue("floatMV"), new Object[]{1.5f, 2.5f});
+    assertNull(deserializedRow.getValue("stringMV"));
+    assertEquals(deserializedRow.getValue("doubleMetric"), 1.23);
+    assertEquals(serializer.serialize(deserializedRow), bytesWithNulls);
+  }
+}
@@ -110,7 +110,7 @@ public class SegmentReducerTest {
     File reducerOutputDir = new File(_baseDir, "reducer_output");
     FileUtils.deleteQuietly(reducerOutputDir);
     assertTrue(reducerOutputDir.mkdirs());
-    SegmentReducer segmentReducer = new SegmentReducer(reducerId, _partDir, reducerConfig, reducerOutputDir);
+    SegmentReducer segmentReducer = new SegmentReducer(reducerId, _partDir, reducerConfig, reducerOutputDir, _baseDir);
     segmentReducer.reduce();
     segmentReducer.cleanup();
 
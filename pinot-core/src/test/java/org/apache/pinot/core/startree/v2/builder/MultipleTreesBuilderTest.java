@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.startree.v2.builder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.store.SegmentDirectoryPaths;
+import org.apache.pinot.core.startree.v2.StarTreeV2Constants;
+import org.apache.pinot.core.startree.v2.StarTreeV2Constants.MetadataKey;
+import org.apache.pinot.core.startree.v2.builder.MultipleTreesBuilder.BuildMode;
+import org.apache.pinot.spi.config.table.StarTreeIndexConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.env.CommonsConfigurationUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class MultipleTreesBuilderTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "MultipleTreesBuilderTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String DIMENSION_D1 = "d1";
+  private static final String DIMENSION_D2 = "d2";
+  private static final String DIMENSION_D3 = "d3";
+  private static final String METRIC = "m";
+  private static final int NUM_RECORDS = 10000;
+  private static final int MAX_LEAF_RECORDS = 10;
+
+  private File _segmentDir;
+  private List<StarTreeIndexConfig> _starTreeIndexConfigs;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(DIMENSION_D1, DataType.INT)
+        .addSingleValueDimension(DIMENSION_D2, DataType.INT).addSingleValueDimension(DIMENSION_D3, DataType.STRING)
+        .addMetric(METRIC, DataType.LONG).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+
+    Random random = new Random();
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(DIMENSION_D1, random.nextInt(10));
+      record.putValue(DIMENSION_D2, random.nextInt(100));
+      record.putValue(DIMENSION_D3, "v" + random.nextInt(50));
+      record.putValue(METRIC, random.nextLong());
+      records.add(record);
+    }
+
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+    segmentGeneratorConfig.setOutDir(TEMP_DIR.getPath());
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+    _segmentDir = new File(TEMP_DIR, SEGMENT_NAME);
+
+    List<String> functionColumnPairs = Arrays.asList("COUNT__*", "SUM__" + METRIC, "MAX__" + METRIC);
+    _starTreeIndexConfigs = Arrays
+        .asList(new StarTreeIndexConfig(Arrays.asList(DIMENSION_D1, DIMENSION_D2, DIMENSION_D3), null,
+                functionColumnPairs, MAX_LEAF_RECORDS),
+            new StarTreeIndexConfig(Arrays.asList(DIMENSION_D3, DIMENSION_D1), null, functionColumnPairs,
+                MAX_LEAF_RECORDS),
+            new StarTreeIndexConfig(Arrays.asList(DIMENSION_D2, DIMENSION_D3), Collections.singletonList(DIMENSION_D3),
+                functionColumnPairs, MAX_LEAF_RECORDS));
+  }
+
+  @Test
+  public void testParallelBuild()
+      throws Exception {
+    for (BuildMode buildMode : BuildMode.values()) {
+      File sequentialDir =
+          buildStarTrees("sequential_" + buildMode, buildMode, 1, MultipleTreesBuilder.DEFAULT_MAX_MEMORY_BYTES);
+      File parallelDir =
+          buildStarTrees("parallel_" + buildMode, buildMode, 3, MultipleTreesBuilder.DEFAULT_MAX_MEMORY_BYTES);
+      // Memory budget too small to build star-trees in parallel, should fall back to sequential build
+      File fallbackDir = buildStarTrees("fallback_" + buildMode, buildMode, 3, 1);
+      for (File dir : Arrays.asList(parallelDir, fallbackDir)) {
+        assertTrue(FileUtils.contentEquals(new File(sequentialDir, StarTreeV2Constants.INDEX_FILE_NAME),
+            new File(dir, StarTreeV2Constants.INDEX_FILE_NAME)));
+        assertTrue(FileUtils.contentEquals(new File(sequentialDir, StarTreeV2Constants.INDEX_MAP_FILE_NAME),
+            new File(dir, StarTreeV2Constants.INDEX_MAP_FILE_NAME)));
+        assertEquals(getStarTreeMetadata(dir), getStarTreeMetadata(sequentialDir));
+      }
+    }
+  }
+
+  private File buildStarTrees(String name, BuildMode buildMode, int parallelism, long maxMemoryBytes)
+      throws Exception {
+    File indexDir = new File(TEMP_DIR, name);
+    FileUtils.copyDirectory(_segmentDir, indexDir);
+    try (MultipleTreesBuilder builder = new MultipleTreesBuilder(_starTreeIndexConfigs, false, indexDir, buildMode)) {
+      builder.setParallelism(parallelism);
+      builder.setMaxMemoryBytes(maxMemoryBytes);
+      builder.build();
+    }
+    return SegmentDirectoryPaths.findSegmentDirectory(indexDir);
+  }
+
+  private static List<String> getStarTreeMetadata(File segmentDirectory) {
+    PropertiesConfiguration metadataProperties =
+        CommonsConfigurationUtils.fromFile(new File(segmentDirectory, V1Constants.MetadataKeys.METADATA_FILE_NAME));
+    Configuration starTreeMetadata = metadataProperties.subset(MetadataKey.STAR_TREE_SUBSET);
+    List<String> entries = new ArrayList<>();
+    Iterator<String> keys = starTreeMetadata.getKeys();
+    while (keys.hasNext()) {
+      String key = keys.next();
+      entries.add(key + "=" + starTreeMetadata.getList(key));
+    }
+    Collections.sort(entries);
+    return entries;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -27,6 +27,7 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.datatable.DataTableImplV2;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
 import org.apache.pinot.spi.config.table.TableType;
@@ -38,6 +39,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -75,6 +77,21 @@ public class QueryRoutingTest {
     return queryScheduler;
   }
 
+  /**
+   * Returns a query scheduler that responds with the request id of the incoming request.
+   */
+  private QueryScheduler mockEchoQueryScheduler(int responseDelayMs) {
+    QueryScheduler queryScheduler = mock(QueryScheduler.class);
+    when(queryScheduler.submit(any())).thenAnswer(invocation -> {
+      Thread.sleep(responseDelayMs);
+      ServerQueryRequest queryRequest = invocation.getArgument(0);
+      DataTable dataTable = new DataTableImplV2();
+      dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(queryRequest.getRequestId()));
+      return Futures.immediateFuture(dataTable.toBytes());
+    });
+    return queryScheduler;
+  }
+
   @Test
   public void testValidResponse()
       throws Exception {
@@ -229,6 +246,49 @@ public class QueryRoutingTest {
     assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
   }
 
+  @Test
+  public void testHedgedRequest()
+      throws Exception {
+    long requestId = 789;
+    ServerInstance slowServerInstance = new ServerInstance("localhost", TEST_PORT + 1);
+    ServerInstance fastServerInstance = new ServerInstance("localhost", TEST_PORT + 2);
+    ServerRoutingInstance slowServerRoutingInstance = slowServerInstance.toServerRoutingInstance(TableType.OFFLINE);
+    ServerRoutingInstance fastServerRoutingInstance = fastServerInstance.toServerRoutingInstance(TableType.OFFLINE);
+    QueryServer slowQueryServer =
+        new QueryServer(TEST_PORT + 1, mockEchoQueryScheduler(3_000), mock(ServerMetrics.class));
+    QueryServer fastQueryServer = new QueryServer(TEST_PORT + 2, mockEchoQueryScheduler(0), mock(ServerMetrics.class));
+    slowQueryServer.start();
+    fastQueryServer.start();
+
+    RequestHedger requestHedger =
+        new RequestHedger((tableNameWithType, segments, serverInstance) -> fastServerInstance, 50, 1);
+    // Not enough latency samples yet, so no hedge delay
+    assertEquals(requestHedger.getHedgeDelayMs(slowServerRoutingInstance), -1);
+    for (int i = 0; i < RequestHedger.MIN_NUM_LATENCIES; i++) {
+      requestHedger.recordLatency(slowServerRoutingInstance, 10);
+    }
+    assertEquals(requestHedger.getHedgeDelayMs(slowServerRoutingInstance), 10);
+    QueryRouter queryRouter = new QueryRouter("testBroker", mock(BrokerMetrics.class), requestHedger);
+
+    // The hedged request to the fast server should answer on behalf of the slow server
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse = queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST,
+        Collections.singletonMap(slowServerInstance, Collections.emptyList()), null, null, 10_000L);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    assertTrue(response.containsKey(slowServerRoutingInstance));
+    assertFalse(response.containsKey(fastServerRoutingInstance));
+    assertNotNull(response.get(slowServerRoutingInstance).getDataTable());
+    assertTrue(System.currentTimeMillis() - startTimeMs < 3_000);
+
+    // The only budget (earned by the single request sent) is taken by the hedged request
+    assertFalse(requestHedger.tryAcquireBudget());
+
+    queryRouter.shutDown();
+    slowQueryServer.shutDown();
+    fastQueryServer.shutDown();
+  }
+
   @AfterClass
   public void tearDown() {
     _queryRouter.shutDown();
@@ -0,0 +1,369 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.upsert;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.core.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.core.upsert.PartitionUpsertMetadataManager.RecordInfo;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPrimaryKeyToRecordLocationMapTest {
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "OffHeapPrimaryKeyToRecordLocationMapTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = RAW_TABLE_NAME + "_REALTIME";
+  private static final String FILE_PREFIX = "partition_0";
+  private static final int NUM_KEYS = 100_000;
+
+  @BeforeMethod
+  public void setUp() {
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Test
+  public void testComputeAndRemove()
+      throws Exception {
+    OffHeapPrimaryKeyToRecordLocationMap map = new OffHeapPrimaryKeyToRecordLocationMap(INDEX_DIR, FILE_PREFIX);
+    String segment1 = getSegmentName(1);
+    String segment2 = getSegmentName(2);
+    ThreadSafeMutableRoaringBitmap validDocIds1 = new ThreadSafeMutableRoaringBitmap();
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+
+    // Insert enough keys to expand the hash table several times
+    for (int i = 0; i < NUM_KEYS; i++) {
+      int docId = i;
+      map.compute(getPrimaryKey(i), (primaryKey, recordLocation) -> {
+        assertNull(recordLocation);
+        return new RecordLocation(segment1, docId, 100, validDocIds1);
+      });
+    }
+    assertEquals(map.size(), NUM_KEYS);
+
+    // Move the even keys to segment2, keep the odd keys
+    for (int i = 0; i < NUM_KEYS; i++) {
+      int docId = i;
+      map.compute(getPrimaryKey(i), (primaryKey, recordLocation) -> {
+        assertNotNull(recordLocation);
+        assertSame(recordLocation.getValidDocIds(), validDocIds1);
+        return docId % 2 == 0 ? new RecordLocation(segment2, docId / 2, 120, validDocIds2) : recordLocation;
+      });
+    }
+    assertEquals(map.size(), NUM_KEYS);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      RecordLocation recordLocation = map.get(getPrimaryKey(i));
+      assertNotNull(recordLocation);
+      if (i % 2 == 0) {
+        checkRecordLocation(recordLocation, segment2, i / 2, 120);
+        assertSame(recordLocation.getValidDocIds(), validDocIds2);
+      } else {
+        checkRecordLocation(recordLocation, segment1, i, 100);
+        assertSame(recordLocation.getValidDocIds(), validDocIds1);
+      }
+    }
+
+    // Remove segment1, which requires shifting the entries of segment2 within the probe sequences
+    map.removeRecordLocations(validDocIds1);
+    assertEquals(map.size(), NUM_KEYS / 2);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      RecordLocation recordLocation = map.get(getPrimaryKey(i));
+      if (i % 2 == 0) {
+        assertNotNull(recordLocation);
+        checkRecordLocation(recordLocation, segment2, i / 2, 120);
+      } else {
+        assertNull(recordLocation);
+      }
+    }
+
+    // Remove the keys via compute
+    for (int i = 0; i < NUM_KEYS; i += 2) {
+      assertNull(map.compute(getPrimaryKey(i), (primaryKey, recordLocation) -> null));
+    }
+    assertEquals(map.size(), 0);
+    map.close();
+  }
+
+  @Test
+  public void testPrimaryKeyTypes()
+      throws Exception {
+    OffHeapPrimaryKeyToRecordLocationMap map = new OffHeapPrimaryKeyToRecordLocationMap(INDEX_DIR, FILE_PREFIX);
+    String segment = getSegmentName(1);
+    ThreadSafeMutableRoaringBitmap validDocIds = new ThreadSafeMutableRoaringBitmap();
+    PrimaryKey[] primaryKeys = new PrimaryKey[]{
+        new PrimaryKey(new Object[]{1}), new PrimaryKey(new Object[]{1L}), new PrimaryKey(new Object[]{1.0f}),
+        new PrimaryKey(new Object[]{1.0}), new PrimaryKey(new Object[]{"1"}),
+        new PrimaryKey(new Object[]{new ByteArray(new byte[]{1})}), new PrimaryKey(new Object[]{"ab", "c"}),
+        new PrimaryKey(new Object[]{"a", "bc"})
+    };
+    for (int i = 0; i < primaryKeys.length; i++) {
+      int docId = i;
+      map.compute(primaryKeys[i], (primaryKey, recordLocation) -> {
+        assertNull(recordLocation);
+        return new RecordLocation(segment, docId, 100, validDocIds);
+      });
+    }
+    assertEquals(map.size(), primaryKeys.length);
+    for (int i = 0; i < primaryKeys.length; i++) {
+      RecordLocation recordLocation = map.get(primaryKeys[i]);
+      assertNotNull(recordLocation);
+      checkRecordLocation(recordLocation, segment, i, 100);
+    }
+    map.close();
+  }
+
+  @Test
+  public void testSnapshot()
+      throws Exception {
+    String segment1 = getSegmentName(1);
+    String segment2 = getSegmentName(2);
+    String segment3 = getSegmentName(3);
+    List<RecordInfo> recordInfoList1 = new ArrayList<>();
+    List<RecordInfo> recordInfoList2 = new ArrayList<>();
+    for (int i = 0; i < NUM_KEYS; i++) {
+      recordInfoList1.add(new RecordInfo(getPrimaryKey(i), i, 100));
+      // Overrides the odd keys of segment1
+      if (i % 2 == 1) {
+        recordInfoList2.add(new RecordInfo(getPrimaryKey(i), i / 2, 120));
+      }
+    }
+
+    PartitionUpsertMetadataManager upsertMetadataManager = createUpsertMetadataManager();
+    ThreadSafeMutableRoaringBitmap validDocIds1 =
+        upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    ThreadSafeMutableRoaringBitmap validDocIds2 =
+        upsertMetadataManager.addSegment(segment2, "crc2", recordInfoList2.iterator());
+    // Consuming segment overrides key 0
+    ThreadSafeMutableRoaringBitmap validDocIds3 = new ThreadSafeMutableRoaringBitmap();
+    upsertMetadataManager.updateRecord(segment3, new RecordInfo(getPrimaryKey(0), 0, 150), validDocIds3);
+    int[] expectedValidDocIds1 = validDocIds1.getMutableRoaringBitmap().toArray();
+    int[] expectedValidDocIds2 = validDocIds2.getMutableRoaringBitmap().toArray();
+    assertEquals(expectedValidDocIds1.length, NUM_KEYS / 2 - 1);
+    assertEquals(expectedValidDocIds2.length, NUM_KEYS / 2);
+    upsertMetadataManager.close();
+    assertTrue(new File(INDEX_DIR, FILE_PREFIX + OffHeapPrimaryKeyToRecordLocationMap.METADATA_FILE_SUFFIX).exists());
+
+    // Reload from the snapshot, the entries of the consuming segment should be dropped
+    upsertMetadataManager = createUpsertMetadataManager();
+    assertFalse(new File(INDEX_DIR, FILE_PREFIX + OffHeapPrimaryKeyToRecordLocationMap.METADATA_FILE_SUFFIX).exists());
+    PrimaryKeyToRecordLocationMap recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
+    assertEquals(recordLocationMap.size(), NUM_KEYS - 1);
+    assertNull(recordLocationMap.get(getPrimaryKey(0)));
+    // Records should not be replayed when restoring from the snapshot
+    ThreadSafeMutableRoaringBitmap restoredValidDocIds1 =
+        upsertMetadataManager.addSegment(segment1, "crc1", new ArrayList<RecordInfo>().iterator());
+    assertEquals(restoredValidDocIds1.getMutableRoaringBitmap().toArray(), expectedValidDocIds1);
+    // Segment2 is replaced with a different CRC, and should be replayed
+    List<RecordInfo> newRecordInfoList2 = new ArrayList<>();
+    newRecordInfoList2.add(new RecordInfo(getPrimaryKey(1), 0, 120));
+    ThreadSafeMutableRoaringBitmap newValidDocIds2 =
+        upsertMetadataManager.addSegment(segment2, "newCrc2", newRecordInfoList2.iterator());
+    assertEquals(newValidDocIds2.getMutableRoaringBitmap().toArray(), new int[]{0});
+    assertEquals(recordLocationMap.size(), NUM_KEYS / 2);
+    RecordLocation recordLocation = recordLocationMap.get(getPrimaryKey(1));
+    assertNotNull(recordLocation);
+    checkRecordLocation(recordLocation, segment2, 0, 120);
+    assertSame(recordLocation.getValidDocIds(), newValidDocIds2);
+    recordLocation = recordLocationMap.get(getPrimaryKey(2));
+    assertNotNull(recordLocation);
+    checkRecordLocation(recordLocation, segment1, 2, 100);
+    assertSame(recordLocation.getValidDocIds(), restoredValidDocIds1);
+    // Restored segment can only be claimed once
+    assertNull(recordLocationMap.claimSnapshotSegment(segment1, "crc1"));
+    upsertMetadataManager.close();
+
+    // Reload again without adding segment2, which should be excluded from the next snapshot
+    upsertMetadataManager = createUpsertMetadataManager();
+    upsertMetadataManager.addSegment(segment1, "crc1", new ArrayList<RecordInfo>().iterator());
+    upsertMetadataManager.close();
+    upsertMetadataManager = createUpsertMetadataManager();
+    recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
+    assertEquals(recordLocationMap.size(), NUM_KEYS / 2 - 1);
+    assertNull(recordLocationMap.get(getPrimaryKey(1)));
+    assertNull(recordLocationMap.claimSnapshotSegment(segment2, "newCrc2"));
+    assertNotNull(recordLocationMap.claimSnapshotSegment(segment1, "crc1"));
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testSnapshotDropsConsumingSegment()
+      throws Exception {
+    String segment1 = getSegmentName(1);
+    String segment2 = getSegmentName(2);
+    List<RecordInfo> recordInfoList1 = new ArrayList<>();
+    for (int i = 0; i < NUM_KEYS; i++) {
+      recordInfoList1.add(new RecordInfo(getPrimaryKey(i), i, 100));
+    }
+    PartitionUpsertMetadataManager upsertMetadataManager = createUpsertMetadataManager();
+    upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    // Consuming segment overrides every third key, whose entries are spread over all the slots including the ones
+    // wrapping around the end of the hash tables
+    ThreadSafeMutableRoaringBitmap validDocIds2 = new ThreadSafeMutableRoaringBitmap();
+    int numOverriddenKeys = 0;
+    for (int i = 0; i < NUM_KEYS; i += 3) {
+      upsertMetadataManager.updateRecord(segment2, new RecordInfo(getPrimaryKey(i), i / 3, 150), validDocIds2);
+      numOverriddenKeys++;
+    }
+    upsertMetadataManager.close();
+
+    // Each restored entry should be counted exactly once
+    upsertMetadataManager = createUpsertMetadataManager();
+    PrimaryKeyToRecordLocationMap recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
+    int expectedNumKeys = NUM_KEYS - numOverriddenKeys;
+    assertEquals(recordLocationMap.size(), expectedNumKeys);
+    ThreadSafeMutableRoaringBitmap restoredValidDocIds1 = recordLocationMap.claimSnapshotSegment(segment1, "crc1");
+    assertNotNull(restoredValidDocIds1);
+    assertEquals(restoredValidDocIds1.getMutableRoaringBitmap().getCardinality(), expectedNumKeys);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      RecordLocation recordLocation = recordLocationMap.get(getPrimaryKey(i));
+      if (i % 3 == 0) {
+        assertNull(recordLocation);
+      } else {
+        assertNotNull(recordLocation);
+        checkRecordLocation(recordLocation, segment1, i, 100);
+      }
+    }
+
+    // Removing the keys one by one should release the restored segment
+    for (int i = 1; i < NUM_KEYS; i++) {
+      if (i % 3 != 0) {
+        recordLocationMap.compute(getPrimaryKey(i), (primaryKey, recordLocation) -> null);
+      }
+    }
+    assertEquals(recordLocationMap.size(), 0);
+    recordLocationMap.setSegmentCrc(restoredValidDocIds1, "crc1");
+    upsertMetadataManager.close();
+    upsertMetadataManager = createUpsertMetadataManager();
+    assertNull(upsertMetadataManager._primaryKeyToRecordLocationMap.claimSnapshotSegment(segment1, "crc1"));
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testSnapshotWithSegmentNotAddedBack()
+      throws Exception {
+    String segment1 = getSegmentName(1);
+    String segment2 = getSegmentName(2);
+    String segment3 = getSegmentName(3);
+    PartitionUpsertMetadataManager upsertMetadataManager = createUpsertMetadataManager();
+    List<RecordInfo> recordInfoList1 = new ArrayList<>();
+    List<RecordInfo> recordInfoList2 = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      recordInfoList1.add(new RecordInfo(getPrimaryKey(i), i, 100));
+      recordInfoList2.add(new RecordInfo(getPrimaryKey(i + 10), i, 200));
+    }
+    upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    upsertMetadataManager.addSegment(segment2, "crc2", recordInfoList2.iterator());
+    upsertMetadataManager.close();
+
+    // Segment2 is deleted while the server is down, and should be dropped before adding any segment
+    upsertMetadataManager = createUpsertMetadataManager();
+    PrimaryKeyToRecordLocationMap recordLocationMap = upsertMetadataManager._primaryKeyToRecordLocationMap;
+    assertEquals(recordLocationMap.size(), 20);
+    upsertMetadataManager.removeUnclaimedSnapshotSegments(Collections.singleton(segment1));
+    assertEquals(recordLocationMap.size(), 10);
+    assertNull(recordLocationMap.get(getPrimaryKey(10)));
+    assertNull(recordLocationMap.claimSnapshotSegment(segment2, "crc2"));
+
+    // Newer segment with a lower timestamp than the dropped record should not be rejected
+    List<RecordInfo> recordInfoList3 = new ArrayList<>();
+    recordInfoList3.add(new RecordInfo(getPrimaryKey(10), 0, 150));
+    ThreadSafeMutableRoaringBitmap validDocIds3 =
+        upsertMetadataManager.addSegment(segment3, "crc3", recordInfoList3.iterator());
+    assertEquals(validDocIds3.getMutableRoaringBitmap().toArray(), new int[]{0});
+    RecordLocation recordLocation = recordLocationMap.get(getPrimaryKey(10));
+    assertNotNull(recordLocation);
+    checkRecordLocation(recordLocation, segment3, 0, 150);
+
+    // After the initial segment load, the segments not added back should be dropped, and replayed if added later
+    upsertMetadataManager.removeUnclaimedSnapshotSegments(null);
+    assertEquals(recordLocationMap.size(), 1);
+    assertNull(recordLocationMap.get(getPrimaryKey(0)));
+    ThreadSafeMutableRoaringBitmap validDocIds1 =
+        upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    assertEquals(validDocIds1.getMutableRoaringBitmap().getCardinality(), 10);
+    assertEquals(recordLocationMap.size(), 11);
+    upsertMetadataManager.close();
+  }
+
+  @Test
+  public void testCrashRecovery()
+      throws Exception {
+    PartitionUpsertMetadataManager upsertMetadataManager = createUpsertMetadataManager();
+    String segment1 = getSegmentName(1);
+    List<RecordInfo> recordInfoList1 = new ArrayList<>();
+    recordInfoList1.add(new RecordInfo(getPrimaryKey(0), 0, 100));
+    upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    upsertMetadataManager.close();
+
+    // Load the snapshot, then "crash" without closing the map
+    upsertMetadataManager = createUpsertMetadataManager();
+    assertEquals(upsertMetadataManager._primaryKeyToRecordLocationMap.size(), 1);
+
+    // Without the metadata file, the index should be rebuilt from scratch
+    upsertMetadataManager = createUpsertMetadataManager();
+    assertEquals(upsertMetadataManager._primaryKeyToRecordLocationMap.size(), 0);
+    ThreadSafeMutableRoaringBitmap validDocIds1 =
+        upsertMetadataManager.addSegment(segment1, "crc1", recordInfoList1.iterator());
+    assertEquals(validDocIds1.getMutableRoaringBitmap().toArray(), new int[]{0});
+    upsertMetadataManager.close();
+  }
+
+  private static PartitionUpsertMetadataManager createUpsertMetadataManager()
+      throws Exception {
+    return new PartitionUpsertMetadataManager(REALTIME_TABLE_NAME, 0, Mockito.mock(ServerMetrics.class),
+        new OffHeapPrimaryKeyToRecordLocationMap(INDEX_DIR, FILE_PREFIX));
+  }
+
+  private static String getSegmentName(int sequenceNumber) {
+    return new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, System.currentTimeMillis()).toString();
+  }
+
+  private static PrimaryKey getPrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+
+  private static void checkRecordLocation(RecordLocation recordLocation, String segmentName, int docId,
+      long timestamp) {
+    assertEquals(recordLocation.getSegmentName(), segmentName);
+    assertEquals(recordLocation.getDocId(), docId);
+    assertEquals(recordLocation.getTimestamp(), timestamp);
+  }
+}
@@ -59,6 +59,26 @@ public class FixedByteChunkSVForwardIndexTest {
     testDouble(compressionType);
   }
 
+  @Test
+  public void testWithLZ4Compression()
+      throws Exception {
+    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.LZ4;
+    testInt(compressionType);
+    testLong(compressionType);
+    testFloat(compressionType);
+    testDouble(compressionType);
+  }
+
+  @Test
+  public void testWithZstandardCompression()
+      throws Exception {
+    ChunkCompressorFactory.CompressionType compressionType = ChunkCompressorFactory.CompressionType.ZSTANDARD;
+    testInt(compressionType);
+    testLong(compressionType);
+    testFloat(compressionType);
+    testDouble(compressionType);
+  }
+
   @Test
   public void testWithoutCompression()
       throws Exception {
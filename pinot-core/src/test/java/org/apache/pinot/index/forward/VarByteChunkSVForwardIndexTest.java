@@ -54,6 +54,18 @@ public class VarByteChunkSVForwardIndexTest {
     test(ChunkCompressorFactory.CompressionType.SNAPPY);
   }
 
+  @Test
+  public void testWithLZ4Compression()
+      throws Exception {
+    test(ChunkCompressorFactory.CompressionType.LZ4);
+  }
+
+  @Test
+  public void testWithZstandardCompression()
+      throws Exception {
+    test(ChunkCompressorFactory.CompressionType.ZSTANDARD);
+  }
+
   @Test
   public void testWithoutCompression()
       throws Exception {
@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
+import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImplTestUtils;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.filter.JsonMatchFilterOperator;
+import org.apache.pinot.core.plan.FilterPlanNode;
+import org.apache.pinot.core.query.exception.BadQueryRequestException;
+import org.apache.pinot.core.query.request.context.FilterContext;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.predicate.JsonMatchPredicate;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.RecordReader;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+/**
+ * Queries test for JSON_MATCH on both the offline (immutable) and the consuming (mutable) segment, covering the SQL
+ * parsing, the {@link JsonMatchPredicate} and the {@link JsonMatchFilterOperator}.
+ */
+public class JsonMatchQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "JsonMatchQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String JSON_COLUMN = "jsonColumn";
+  private static final String NO_INDEX_COLUMN = "noIndexColumn";
+  private static final String[] RECORDS = new String[]{
+      "{\"name\":\"adam\",\"age\":20,\"addresses\":[{\"street\":\"main st\",\"country\":\"us\"},"
+          + "{\"street\":\"second st\",\"country\":\"ca\"}]}",
+      "{\"name\":\"bob\",\"age\":25,\"addresses\":[{\"street\":\"main st\",\"country\":\"ca\"}],"
+          + "\"skills\":[\"java\",\"go\"]}",
+      "{\"name\":\"charles\",\"age\":30,\"nested\":{\"flag\":true}}",
+      "{\"name\":\"david\",\"age\":null}"
+  };
+
+  private IndexSegment _offlineSegment;
+  private MutableSegmentImpl _consumingSegment;
+  private IndexSegment _indexSegment;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return Collections.singletonList(_indexSegment);
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(RECORDS.length);
+    for (int i = 0; i < RECORDS.length; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_COLUMN, i);
+      row.putValue(JSON_COLUMN, RECORDS[i]);
+      row.putValue(NO_INDEX_COLUMN, RECORDS[i]);
+      rows.add(row);
+    }
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(INT_COLUMN, DataType.INT).addSingleValueDimension(JSON_COLUMN, DataType.STRING)
+        .addSingleValueDimension(NO_INDEX_COLUMN, DataType.STRING).build();
+
+    // Offline segment
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setJsonIndexColumns(Collections.singletonList(JSON_COLUMN)).build();
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows)) {
+      driver.init(segmentGeneratorConfig, recordReader);
+      driver.build();
+    }
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.getJsonIndexColumns().add(JSON_COLUMN);
+    _offlineSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+
+    // Consuming segment
+    _consumingSegment = MutableSegmentImplTestUtils
+        .createMutableSegmentImpl(schema, Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+            Collections.singleton(JSON_COLUMN), false, false, null, null, null);
+    for (GenericRow row : rows) {
+      _consumingSegment.index(row, null);
+    }
+  }
+
+  @Test
+  public void testJsonMatch() {
+    for (IndexSegment indexSegment : Arrays.asList(_offlineSegment, _consumingSegment)) {
+      _indexSegment = indexSegment;
+      testJsonMatch("name = ''adam''", 1);
+      testJsonMatch("name IN (''bob'', ''david'', ''eric'')", 2);
+      testJsonMatch("age IS NULL", 1);
+      testJsonMatch("nested.flag = ''true''", 1);
+      testJsonMatch("\"addresses[*].country\" = ''ca''", 2);
+      testJsonMatch("\"skills[*]\" = ''java'' OR nested.flag IS NOT NULL", 2);
+      testJsonMatch("\"addresses[*].street\" = ''main st'' AND age = 25", 1);
+
+      // Combined with other predicates
+      String query = String.format("SELECT COUNT(*) FROM %s WHERE JSON_MATCH(%s, '%s') AND %s > 0", RAW_TABLE_NAME,
+          JSON_COLUMN, "\"addresses[*].street\" = ''main st''", INT_COLUMN);
+      assertEquals(getCount(query), 1L);
+    }
+  }
+
+  private void testJsonMatch(String filterString, long expectedCount) {
+    String query =
+        String.format("SELECT COUNT(*) FROM %s WHERE JSON_MATCH(%s, '%s')", RAW_TABLE_NAME, JSON_COLUMN, filterString);
+
+    // SQL parsing
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(query);
+    FilterContext filter = queryContext.getFilter();
+    assertEquals(filter.getType(), FilterContext.Type.PREDICATE);
+    assertTrue(filter.getPredicate() instanceof JsonMatchPredicate);
+    assertEquals(((JsonMatchPredicate) filter.getPredicate()).getValue(), filterString.replace("''", "'"));
+
+    // Filter operator
+    assertTrue(new FilterPlanNode(_indexSegment, queryContext).run() instanceof JsonMatchFilterOperator);
+
+    // Query result
+    assertEquals(getCount(query), expectedCount, query);
+  }
+
+  private long getCount(String query) {
+    BaseOperator<IntermediateResultsBlock> operator = getOperatorForSqlQuery(query);
+    return (long) operator.nextBlock().getAggregationResult().get(0);
+  }
+
+  @Test
+  public void testJsonMatchWithoutIndex() {
+    String query = String
+        .format("SELECT COUNT(*) FROM %s WHERE JSON_MATCH(%s, 'name = ''adam''')", RAW_TABLE_NAME, NO_INDEX_COLUMN);
+    for (IndexSegment indexSegment : Arrays.asList(_offlineSegment, _consumingSegment)) {
+      _indexSegment = indexSegment;
+      expectThrows(BadQueryRequestException.class, () -> getOperatorForSqlQuery(query));
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _offlineSegment.destroy();
+    _consumingSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -184,6 +184,19 @@ public class TransformQueriesTest extends BaseQueriesTest {
     }
   }
 
+  @Test
+  public void testCompiledTransformWithAvgInnerSegment() {
+    String option = " OPTION(compileTransforms=true)";
+    String query = "SELECT AVG(SUB(INT_COL1, INT_COL2)) FROM testTable" + option;
+    runAndVerifyInnerSegmentQuery(query, -10000.0, 10);
+
+    query = "SELECT AVG(ADD(INT_COL1, LONG_COL1)) FROM testTable" + option;
+    runAndVerifyInnerSegmentQuery(query, 5010000.0, 10);
+
+    query = "SELECT AVG(ADD(DIV(INT_COL1, INT_COL2), DIV(LONG_COL1, LONG_COL2))) FROM testTable" + option;
+    runAndVerifyInnerSegmentQuery(query, 10.0, 10);
+  }
+
   private void runAndVerifyInnerSegmentQuery(String query, double expectedSum, int expectedCount) {
     AggregationOperator aggregationOperator = getOperatorForPqlQuery(query);
     IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
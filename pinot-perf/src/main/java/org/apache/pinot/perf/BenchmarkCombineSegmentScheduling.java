@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.combine.AggregationOnlyCombineOperator;
+import org.apache.pinot.core.operator.combine.CombineOperatorUtils;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark for the segment scheduling of the combine operator on a skewed segment mix, where a few large segments
+ * are mixed with many small ones.
+ * <ul>
+ *   <li>strideScheduling: the previous fixed stride assignment (operatorIndex += numThreads)</li>
+ *   <li>dynamicScheduling: the shared cursor assignment in the combine operator, segments in arrival order</li>
+ *   <li>dynamicSchedulingCostOrdered: the shared cursor assignment with segments sorted by cost (largest first)</li>
+ * </ul>
+ */
+@SuppressWarnings("rawtypes")
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx8G"})
+public class BenchmarkCombineSegmentScheduling {
+  private static final int NUM_LARGE_SEGMENTS = 4;
+  private static final int NUM_SMALL_SEGMENTS = 60;
+  private static final int NUM_DOCS_LARGE_SEGMENT = 2_000_000;
+  private static final int NUM_DOCS_SMALL_SEGMENT = 100_000;
+  private static final long TIMEOUT_MS = 60_000L;
+  private static final Random RANDOM = new Random(42);
+
+  private QueryContext _queryContext;
+  private List<Operator> _operators;
+  private List<Operator> _costOrderedOperators;
+  private ExecutorService _executorService;
+
+  @Setup
+  public void setup() {
+    _queryContext = QueryContextConverterUtils.getQueryContextFromPQL("SELECT SUM(m1) FROM testTable");
+    AggregationFunction[] aggregationFunctions = _queryContext.getAggregationFunctions();
+
+    _operators = new ArrayList<>(NUM_LARGE_SEGMENTS + NUM_SMALL_SEGMENTS);
+    for (int i = 0; i < NUM_LARGE_SEGMENTS; i++) {
+      _operators.add(new ScanOperator(aggregationFunctions, NUM_DOCS_LARGE_SEGMENT));
+    }
+    for (int i = 0; i < NUM_SMALL_SEGMENTS; i++) {
+      _operators.add(new ScanOperator(aggregationFunctions, NUM_DOCS_SMALL_SEGMENT));
+    }
+    Collections.shuffle(_operators, RANDOM);
+    _costOrderedOperators = new ArrayList<>(_operators);
+    _costOrderedOperators.sort(
+        Comparator.comparingInt((Operator operator) -> ((ScanOperator) operator)._numDocs).reversed());
+
+    _executorService = Executors.newFixedThreadPool(CombineOperatorUtils.MAX_NUM_THREADS_PER_QUERY);
+  }
+
+  @TearDown
+  public void destroy() {
+    _executorService.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double strideScheduling()
+      throws Exception {
+    int numOperators = _operators.size();
+    int numThreads = CombineOperatorUtils.getNumThreadsForQuery(numOperators);
+    List<Future<Double>> futures = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      int threadIndex = i;
+      futures.add(_executorService.submit(() -> {
+        double sum = 0;
+        for (int operatorIndex = threadIndex; operatorIndex < numOperators; operatorIndex += numThreads) {
+          IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+          sum += (Double) resultsBlock.getAggregationResult().get(0);
+        }
+        return sum;
+      }));
+    }
+    double sum = 0;
+    for (Future<Double> future : futures) {
+      sum += future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double dynamicScheduling() {
+    return combine(_operators);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double dynamicSchedulingCostOrdered() {
+    return combine(_costOrderedOperators);
+  }
+
+  private double combine(List<Operator> operators) {
+    AggregationOnlyCombineOperator combineOperator =
+        new AggregationOnlyCombineOperator(operators, _queryContext, _executorService,
+            System.currentTimeMillis() + TIMEOUT_MS);
+    return (Double) combineOperator.nextBlock().getAggregationResult().get(0);
+  }
+
+  /**
+   * Operator that mimics a full scan over a segment with the given number of documents.
+   */
+  private static class ScanOperator extends BaseOperator<IntermediateResultsBlock> {
+    final AggregationFunction[] _aggregationFunctions;
+    final int _numDocs;
+    final long[] _values = new long[1024];
+    final AtomicLong _numDocsScanned = new AtomicLong();
+
+    ScanOperator(AggregationFunction[] aggregationFunctions, int numDocs) {
+      _aggregationFunctions = aggregationFunctions;
+      _numDocs = numDocs;
+      for (int i = 0; i < _values.length; i++) {
+        _values[i] = RANDOM.nextInt(1000);
+      }
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      double sum = 0;
+      for (int i = 0; i < _numDocs; i++) {
+        long value = _values[i & 1023];
+        sum += Math.sqrt(value * i);
+      }
+      _numDocsScanned.set(_numDocs);
+      List<Object> aggregationResult = new ArrayList<>(1);
+      aggregationResult.add(sum);
+      return new IntermediateResultsBlock(_aggregationFunctions, aggregationResult, false);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "ScanOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(_numDocsScanned.get(), 0, 0, _numDocs);
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkCombineSegmentScheduling.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(1).measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
@@ -193,6 +194,53 @@ public class BenchmarkIndexedTable {
     mergedTable.finish(false);
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void mergeTreeIndexedTable()
+      throws InterruptedException, TimeoutException, ExecutionException {
+    int numSegments = 10;
+
+    // Table left by a finished thread, waiting to be paired with the table from the next finished thread (same as
+    // GroupByOrderByMergeTreeCombineOperator)
+    AtomicReference<SimpleIndexedTable> pendingTable = new AtomicReference<>();
+    List<Callable<Void>> innerSegmentCallables = new ArrayList<>(numSegments);
+
+    for (int i = 0; i < numSegments; i++) {
+
+      // put 10k records in each thread-local indexed table, then pair up with the other tables in parallel
+      Callable<Void> callable = () -> {
+        SimpleIndexedTable table = new SimpleIndexedTable(_dataSchema, _queryContext, TRIM_SIZE, TRIM_THRESHOLD);
+        for (int r = 0; r < NUM_RECORDS; r++) {
+          table.upsert(getNewRecord());
+        }
+        while (true) {
+          SimpleIndexedTable tableToMerge = pendingTable.getAndSet(null);
+          if (tableToMerge == null) {
+            if (pendingTable.compareAndSet(null, table)) {
+              return null;
+            }
+          } else {
+            if (tableToMerge.size() > table.size()) {
+              tableToMerge.mergeUnfinishedTable(table);
+              table = tableToMerge;
+            } else {
+              table.mergeUnfinishedTable(tableToMerge);
+            }
+          }
+        }
+      };
+      innerSegmentCallables.add(callable);
+    }
+
+    List<Future<Void>> futures = _executorService.invokeAll(innerSegmentCallables);
+    for (Future<Void> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+
+    pendingTable.get().finish(false);
+  }
+
   public static void main(String[] args)
       throws Exception {
     ChainedOptionsBuilder opt =
@@ -25,6 +25,8 @@ import java.util.concurrent.TimeUnit;
 import org.I0Itec.zkclient.ZkClient;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.manager.zk.ZNRecordSerializer;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.requesthandler.OptimizationFlags;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadataImpl;
@@ -50,7 +52,8 @@ import org.openjdk.jmh.runner.options.TimeValue;
 @Fork(value = 1, jvmArgs = {"-server", "-Xmx8G", "-XX:MaxDirectMemorySize=16G"})
 public class BenchmarkQueryEngine {
   /** List of query patterns used in the benchmark */
-  private static final String[] QUERY_PATTERNS = new String[]{"SELECT count(*) from myTable"};
+  private static final String[] QUERY_PATTERNS = new String[]{"SELECT count(*) from myTable",
+      "SELECT sum(myMetric), max(myMetric) from myTable", "SELECT * from myTable ORDER BY myMetric LIMIT 1000"};
 
   /** List of optimization flags to test,
    * see {@link OptimizationFlags#getOptimizationFlags(BrokerRequest)} for the syntax
@@ -62,6 +65,12 @@ public class BenchmarkQueryEngine {
   @Param({"0"})
   public int queryPattern;
 
+  /** Target block size passed as query option, see {@link DocIdSetPlanNode#getMaxDocPerCall}. Setting it to
+   * Integer.MAX_VALUE restores the fixed block size used before the block size was derived from the projected
+   * columns. */
+  @Param({"524288", "2147483647"})
+  public int targetBlockSizeBytes;
+
   /** The table name which contains the offline data, for example "myTable_OFFLINE." */
   private static final String TABLE_NAME = "myTable_OFFLINE";
 
@@ -85,6 +94,7 @@ public class BenchmarkQueryEngine {
       throws Exception {
     System.out.println("Using table name " + TABLE_NAME);
     System.out.println("Using data directory " + DATA_DIRECTORY);
+    System.out.println("Using target block size " + targetBlockSizeBytes);
     System.out.println("Starting pinot");
 
     PerfBenchmarkDriverConf conf = new PerfBenchmarkDriverConf();
@@ -135,7 +145,7 @@ public class BenchmarkQueryEngine {
 
     ranOnce = false;
 
-    System.out.println(_perfBenchmarkDriver.postQuery(QUERY_PATTERNS[queryPattern], optimizationFlags).toString());
+    System.out.println(_perfBenchmarkDriver.postQuery(getQuery(), optimizationFlags).toString());
   }
 
   @Benchmark
@@ -143,7 +153,12 @@ public class BenchmarkQueryEngine {
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
   public int sendQueryToPinot()
       throws Exception {
-    return _perfBenchmarkDriver.postQuery(QUERY_PATTERNS[queryPattern], optimizationFlags).get("totalDocs").asInt();
+    return _perfBenchmarkDriver.postQuery(getQuery(), optimizationFlags).get("totalDocs").asInt();
+  }
+
+  private String getQuery() {
+    return QUERY_PATTERNS[queryPattern] + " OPTION(" + QueryOptionKey.TARGET_BLOCK_SIZE_BYTES + "="
+        + targetBlockSizeBytes + ")";
   }
 
   public static void main(String[] args)
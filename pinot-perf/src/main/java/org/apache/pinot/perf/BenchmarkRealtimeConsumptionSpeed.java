@@ -20,9 +20,11 @@ package org.apache.pinot.perf;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import java.io.File;
+import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.integration.tests.BaseClusterIntegrationTest;
 import org.apache.pinot.integration.tests.ClusterIntegrationTestUtils;
+import org.apache.pinot.spi.stream.StreamConfigProperties;
 import org.apache.pinot.tools.utils.KafkaStarterUtils;
 import org.apache.pinot.util.TestUtils;
 
@@ -30,10 +32,13 @@ import org.apache.pinot.util.TestUtils;
 /**
  * Benchmark that writes a configurable amount of rows in Kafka and checks how much time it takes to consume all of
  * them.
+ * <p>Set the system property {@code decoderParallelism} (e.g. -DdecoderParallelism=4) to decode and transform the
+ * messages on multiple threads, see {@link StreamConfigProperties#DECODER_PARALLELISM}.
  */
 public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTest {
   private static final int ROW_COUNT = 100_000;
   private static final long TIMEOUT_MILLIS = 20 * 60 * 1000L; // Twenty minutes
+  private static final int DECODER_PARALLELISM = Integer.getInteger("decoderParallelism", 1);
 
   public static void main(String[] args) {
     try {
@@ -44,6 +49,13 @@ public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTes
     System.exit(0);
   }
 
+  @Override
+  protected Map<String, String> getStreamConfigs() {
+    Map<String, String> streamConfigs = super.getStreamConfigs();
+    streamConfigs.put(StreamConfigProperties.DECODER_PARALLELISM, Integer.toString(DECODER_PARALLELISM));
+    return streamConfigs;
+  }
+
   private void runBenchmark()
       throws Exception {
     TestUtils.ensureDirectoriesExistAndEmpty(_tempDir);
@@ -100,7 +112,9 @@ public class BenchmarkRealtimeConsumptionSpeed extends BaseClusterIntegrationTes
 
     long endTime = System.currentTimeMillis();
 
-    System.out.println("Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds");
+    System.out.println(
+        "Consumed " + ROW_COUNT + " rows in " + (endTime - startTime) / 1000.0 + " seconds with decoder parallelism "
+            + DECODER_PARALLELISM);
     FileUtils.deleteDirectory(_tempDir);
   }
 }
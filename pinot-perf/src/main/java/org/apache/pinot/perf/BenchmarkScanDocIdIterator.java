@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.io.util.PinotDataBitSet;
+import org.apache.pinot.core.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
+import org.apache.pinot.core.operator.filter.predicate.EqualsPredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.query.request.context.ExpressionContext;
+import org.apache.pinot.core.query.request.context.predicate.EqPredicate;
+import org.apache.pinot.core.realtime.impl.dictionary.IntOnHeapMutableDictionary;
+import org.apache.pinot.core.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for scanning a dictionary-encoded single-value column with an EQ predicate, comparing the block-based
+ * {@link SVScanDocIdIterator} against evaluating the documents one by one. {@link #blockAdvance()} advances the iterator
+ * to sparse targets, as in an AND with a selective leading filter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+public class BenchmarkScanDocIdIterator {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkScanDocIdIterator");
+  private static final int NUM_DOCS = 1_000_000;
+  private static final int ADVANCE_STRIDE = 1000;
+  private static final Random RANDOM = new Random();
+
+  // Selectivity of the predicate is 1 / cardinality
+  @Param({"2", "10", "100", "10000"})
+  public int _cardinality;
+
+  private PinotDataBuffer _dataBuffer;
+  private FixedBitSVForwardIndexReaderV2 _reader;
+  private PredicateEvaluator _predicateEvaluator;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    File indexFile = new File(INDEX_DIR, "cardinality-" + _cardinality);
+    int numBitsPerValue = PinotDataBitSet.getNumBitsPerValue(_cardinality - 1);
+    try (FixedBitSVForwardIndexWriter indexWriter = new FixedBitSVForwardIndexWriter(indexFile, NUM_DOCS,
+        numBitsPerValue)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        indexWriter.putDictId(RANDOM.nextInt(_cardinality));
+      }
+    }
+    _dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+    _reader = new FixedBitSVForwardIndexReaderV2(_dataBuffer, NUM_DOCS, numBitsPerValue);
+
+    // Dictionary id is the same as the value
+    IntOnHeapMutableDictionary dictionary = new IntOnHeapMutableDictionary();
+    for (int i = 0; i < _cardinality; i++) {
+      dictionary.index(i);
+    }
+    _predicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(ExpressionContext.forIdentifier("col"), "0"), dictionary);
+  }
+
+  @TearDown
+  public void tearDown()
+      throws Exception {
+    _dataBuffer.close();
+    FileUtils.deleteDirectory(INDEX_DIR);
+  }
+
+  @Benchmark
+  public int perDocScan() {
+    int numMatchingDocs = 0;
+    for (int docId = 0; docId < NUM_DOCS; docId++) {
+      if (_predicateEvaluator.applySV(_reader.getDictId(docId, null))) {
+        numMatchingDocs++;
+      }
+    }
+    return numMatchingDocs;
+  }
+
+  @Benchmark
+  public int blockScan() {
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS);
+    int numMatchingDocs = 0;
+    while (docIdIterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
+  @Benchmark
+  public int blockAdvance() {
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS);
+    int numMatchingDocs = 0;
+    int targetDocId = 0;
+    int docId;
+    while (targetDocId < NUM_DOCS && (docId = docIdIterator.advance(targetDocId)) != Constants.EOF) {
+      numMatchingDocs++;
+      targetDocId = Math.max(targetDocId + ADVANCE_STRIDE, docId + 1);
+    }
+    return numMatchingDocs;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkScanDocIdIterator.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.processing.collector.Collector;
+import org.apache.pinot.core.segment.processing.collector.CollectorConfig;
+import org.apache.pinot.core.segment.processing.collector.CollectorFactory;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for the sort and rollup paths of the collectors used by the SegmentProcessorFramework reducer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 30)
+@Measurement(iterations = 5, time = 30)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchmarkSegmentProcessingCollector {
+  private static final int NUM_ROWS = 1_000_000;
+  private static final String DIMENSION = "d";
+  private static final String TIME = "t";
+  private static final String METRIC = "m";
+
+  @Param({"1000", "100000", "1000000"})
+  private int _cardinality;
+
+  private File _workingDir;
+  private Schema _schema;
+  private GenericRow[] _rows;
+
+  @Setup
+  public void setUp() {
+    _workingDir = new File(FileUtils.getTempDirectory(), "BenchmarkSegmentProcessingCollector");
+    FileUtils.deleteQuietly(_workingDir);
+    _workingDir.mkdirs();
+
+    _schema = new Schema.SchemaBuilder().setSchemaName("benchmark")
+        .addSingleValueDimension(DIMENSION, FieldSpec.DataType.STRING)
+        .addSingleValueDimension(TIME, FieldSpec.DataType.LONG).addMetric(METRIC, FieldSpec.DataType.LONG).build();
+
+    _rows = new GenericRow[NUM_ROWS];
+    Random random = new Random();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      int key = random.nextInt(_cardinality);
+      row.putValue(DIMENSION, "dimension_" + key);
+      row.putValue(TIME, (long) key % 24);
+      row.putValue(METRIC, random.nextLong());
+      _rows[i] = row;
+    }
+  }
+
+  @Benchmark
+  public long concatWithSort()
+      throws IOException {
+    return collect(new CollectorConfig.Builder().setSortOrder(Collections.singletonList(DIMENSION)).build());
+  }
+
+  @Benchmark
+  public long rollup()
+      throws IOException {
+    return collect(new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP).build());
+  }
+
+  @Benchmark
+  public long rollupWithSort()
+      throws IOException {
+    return collect(new CollectorConfig.Builder().setCollectorType(CollectorFactory.CollectorType.ROLLUP)
+        .setSortOrder(Collections.singletonList(DIMENSION)).build());
+  }
+
+  private long collect(CollectorConfig collectorConfig)
+      throws IOException {
+    long sum = 0;
+    try (Collector collector = CollectorFactory.getCollector(collectorConfig, _schema, _workingDir)) {
+      for (GenericRow row : _rows) {
+        collector.collect(row);
+      }
+      Iterator<GenericRow> iterator = collector.iterator();
+      while (iterator.hasNext()) {
+        sum += (long) iterator.next().getValue(METRIC);
+      }
+    }
+    return sum;
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileUtils.deleteQuietly(_workingDir);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt =
+        new OptionsBuilder().include(BenchmarkSegmentProcessingCollector.class.getSimpleName());
+    new Runner(opt.build()).run();
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Benchmark for aggregating arithmetic and CASE transform expressions on a single segment, comparing the interpreted
+ * transform functions against the ones compiled by the TransformExpressionCompiler (enabled with the
+ * <code>compileTransforms</code> query option).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@State(Scope.Benchmark)
+public class BenchmarkTransformExpressionCompiler {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkTransformExpressionCompiler");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1_000_000;
+  private static final Random RANDOM = new Random();
+
+  private static final String ARITHMETIC_QUERY = "SELECT SUM(a * b - c / d) FROM testTable";
+  private static final String CASE_QUERY =
+      "SELECT SUM(CASE WHEN a > b THEN a * b - c / d WHEN c < d THEN c / d ELSE a - b END) FROM testTable";
+  private static final String COMPILE_TRANSFORMS_OPTION = " OPTION(compileTransforms=true)";
+
+  @Param({"ARITHMETIC", "CASE"})
+  public String _expression;
+
+  private final PlanMaker _planMaker = new InstancePlanMakerImplV2();
+  private IndexSegment _indexSegment;
+  private QueryContext _interpretedQueryContext;
+  private QueryContext _compiledQueryContext;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue("a", RANDOM.nextInt(1000));
+      row.putValue("b", RANDOM.nextLong() % 1000);
+      row.putValue("c", RANDOM.nextFloat() * 1000);
+      row.putValue("d", RANDOM.nextDouble() * 1000 + 1);
+      rows.add(row);
+    }
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(TABLE_NAME).addMetric("a", DataType.INT)
+        .addMetric("b", DataType.LONG).addMetric("c", DataType.FLOAT).addMetric("d", DataType.DOUBLE).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(TABLE_NAME).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+
+    String query = _expression.equals("ARITHMETIC") ? ARITHMETIC_QUERY : CASE_QUERY;
+    _interpretedQueryContext = QueryContextConverterUtils.getQueryContextFromSQL(query);
+    _compiledQueryContext = QueryContextConverterUtils.getQueryContextFromSQL(query + COMPILE_TRANSFORMS_OPTION);
+
+    // Both ways should give the same result
+    Object interpretedResult = interpreted();
+    Object compiledResult = compiled();
+    Preconditions.checkState(interpretedResult.equals(compiledResult), "Result mismatch, interpreted: %s, compiled: %s",
+        interpretedResult, compiledResult);
+  }
+
+  @TearDown
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+
+  @Benchmark
+  public Object interpreted() {
+    return aggregate(_interpretedQueryContext);
+  }
+
+  @Benchmark
+  public Object compiled() {
+    return aggregate(_compiledQueryContext);
+  }
+
+  private Object aggregate(QueryContext queryContext) {
+    IntermediateResultsBlock resultsBlock =
+        (IntermediateResultsBlock) _planMaker.makeSegmentPlanNode(_indexSegment, queryContext).run().nextBlock();
+    return resultsBlock.getAggregationResult().get(0);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkTransformExpressionCompiler.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -34,12 +34,16 @@ import org.apache.pinot.spi.data.DimensionFieldSpec;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.core.data.readers.GenericRowRecordReader;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.io.compression.ChunkCompressorFactory;
+import org.apache.pinot.core.io.compression.ZstandardCompressor;
+import org.apache.pinot.core.io.writer.impl.BaseChunkSVForwardIndexWriter;
 import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.ProjectionBlock;
@@ -49,6 +53,12 @@ import org.apache.pinot.core.operator.filter.TestFilterOperator;
 import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndexCreator;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReader;
+import org.apache.pinot.core.segment.index.readers.ForwardIndexReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.BaseChunkSVForwardIndexReader.ChunkReaderContext;
+import org.apache.pinot.core.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
@@ -91,6 +101,12 @@ public class RawIndexBenchmark {
   @Option(name = "-numConsecutiveLookups", required = false, usage = "Number of consecutive docIds to lookup")
   private int _numConsecutiveLookups = DEFAULT_NUM_CONSECUTIVE_LOOKUP;
 
+  @Option(name = "-compressionTypes", required = false, usage = "Comma separated compression types to compare for the raw index column")
+  private String _compressionTypes = "PASS_THROUGH,SNAPPY,LZ4,ZSTANDARD";
+
+  @Option(name = "-compressionLevel", required = false, usage = "Compression level for ZSTANDARD compression")
+  private int _compressionLevel = ZstandardCompressor.DEFAULT_COMPRESSION_LEVEL;
+
   @Option(name = "-help", required = false, help = true, aliases = {"-h"}, usage = "print this message")
   private boolean _help = false;
 
@@ -107,6 +123,7 @@ public class RawIndexBenchmark {
     IndexSegment segment = ImmutableSegmentLoader.load(segmentFile, ReadMode.valueOf(_loadMode));
     compareIndexSizes(segment, segmentFile, _fwdIndexColumn, _rawIndexColumn);
     compareLookups(segment);
+    compareCompressionTypes(segment);
 
     // Cleanup the temporary directory
     if (_segmentDir != null) {
@@ -230,6 +247,60 @@ public class RawIndexBenchmark {
     return (System.currentTimeMillis() - start);
   }
 
+  /**
+   * Compares the index size and the scan throughput of the raw index column with different compression types.
+   * <p>For each compression type, rewrites the values of the raw index column into a standalone raw index, then scans
+   * all the values from the index.
+   *
+   * @param segment Segment to compare the compression types for
+   */
+  @SuppressWarnings("unchecked")
+  private void compareCompressionTypes(IndexSegment segment)
+      throws Exception {
+    int numDocs = segment.getSegmentMetadata().getTotalDocs();
+    String[] values = new String[numDocs];
+    int lengthOfLongestEntry = 0;
+    ForwardIndexReader reader = segment.getDataSource(_rawIndexColumn).getForwardIndex();
+    try (ForwardIndexReaderContext readerContext = reader.createContext()) {
+      for (int i = 0; i < numDocs; i++) {
+        values[i] = reader.getString(i, readerContext);
+        lengthOfLongestEntry = Math.max(lengthOfLongestEntry, StringUtil.encodeUtf8(values[i]).length);
+      }
+    }
+
+    File indexDir = new File(SEGMENT_DIR_NAME, "compression");
+    FileUtils.forceMkdir(indexDir);
+    for (String compressionTypeName : _compressionTypes.split(",")) {
+      ChunkCompressorFactory.CompressionType compressionType =
+          ChunkCompressorFactory.CompressionType.valueOf(compressionTypeName.trim().toUpperCase());
+      String column = _rawIndexColumn + "_" + compressionType;
+      try (SingleValueVarByteRawIndexCreator indexCreator = new SingleValueVarByteRawIndexCreator(indexDir,
+          compressionType, column, numDocs, FieldSpec.DataType.STRING, lengthOfLongestEntry, false,
+          BaseChunkSVForwardIndexWriter.DEFAULT_VERSION, _compressionLevel)) {
+        for (String value : values) {
+          indexCreator.putString(value);
+        }
+      }
+      File indexFile = new File(indexDir, column + V1Constants.Indexes.RAW_SV_FORWARD_INDEX_FILE_EXTENSION);
+
+      long scanTime;
+      try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(indexFile);
+          VarByteChunkSVForwardIndexReader indexReader = new VarByteChunkSVForwardIndexReader(dataBuffer,
+              FieldSpec.DataType.STRING); ChunkReaderContext readerContext = indexReader.createContext()) {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < numDocs; i++) {
+          indexReader.getString(i, readerContext);
+        }
+        scanTime = System.currentTimeMillis() - start;
+      }
+
+      System.out.println(
+          compressionType + " raw index size: " + toMegaBytes(indexFile.length()) + " MB, scan time: " + scanTime
+              + " ms, scan throughput: " + (numDocs / Math.max(scanTime, 1)) + " docs/ms");
+    }
+    FileUtils.deleteQuietly(indexDir);
+  }
+
   /**
    * Convert from bytes to mega-bytes.
    *
@@ -96,6 +96,7 @@ public class SegmentGenerationTaskRunner implements Serializable {
     segmentGeneratorConfig.setRecordReaderPath(_taskSpec.getRecordReaderSpec().getClassName());
     segmentGeneratorConfig.setInputFilePath(_taskSpec.getInputFilePath());
     segmentGeneratorConfig.setCustomProperties(_taskSpec.getCustomProperties());
+    segmentGeneratorConfig.setIndexingParallelism(_taskSpec.getIndexingParallelism());
 
     //build segment
     SegmentIndexCreationDriverImpl segmentIndexCreationDriver = new SegmentIndexCreationDriverImpl();
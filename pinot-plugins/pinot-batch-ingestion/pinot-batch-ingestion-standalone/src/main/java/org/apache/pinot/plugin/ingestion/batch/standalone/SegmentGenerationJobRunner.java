@@ -188,6 +188,7 @@ public class SegmentGenerationJobRunner implements IngestionJobRunner {
         taskSpec.setSchema(schema);
         taskSpec.setTableConfig(tableConfig.toJsonNode());
         taskSpec.setSequenceId(i);
+        taskSpec.setIndexingParallelism(_spec.getSegmentIndexingParallelism());
         taskSpec.setSegmentNameGeneratorSpec(_spec.getSegmentNameGeneratorSpec());
         taskSpec.setCustomProperty(BatchConfigProperties.INPUT_DATA_FILE_URI_KEY, inputFileURI.toString());
 
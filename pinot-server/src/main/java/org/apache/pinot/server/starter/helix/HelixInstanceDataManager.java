@@ -25,6 +25,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -36,6 +38,7 @@ import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.CommonConstants;
+import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.data.manager.TableDataManager;
@@ -47,6 +50,7 @@ import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegmentImpl;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
+import org.apache.pinot.core.segment.index.loader.SegmentPreProcessor;
 import org.apache.pinot.core.segment.index.metadata.SegmentMetadata;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
@@ -71,6 +75,10 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private HelixManager _helixManager;
   private ServerMetrics _serverMetrics;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  // Shared by all the segments to build the missing indexes of the columns in parallel, null if not enabled
+  private ExecutorService _indexBuildingExecutor;
+  // Builds the missing indexes for the segments already online, one segment at a time, null if not enabled
+  private ExecutorService _lazyIndexBuildingExecutor;
 
   @Override
   public synchronized void init(PinotConfiguration config, HelixManager helixManager, ServerMetrics serverMetrics)
@@ -95,6 +103,17 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     // Initialize the table data manager provider
     TableDataManagerProvider.init(_instanceDataManagerConfig);
 
+    int indexBuildParallelism = _instanceDataManagerConfig.getIndexBuildParallelism();
+    if (indexBuildParallelism > 1) {
+      LOGGER.info("Building the missing indexes with parallelism: {}", indexBuildParallelism);
+      _indexBuildingExecutor =
+          Executors.newFixedThreadPool(indexBuildParallelism, new NamedThreadFactory("index-building"));
+    }
+    if (_instanceDataManagerConfig.isLazyIndexBuildEnabled()) {
+      LOGGER.info("Building the missing indexes for OFFLINE segments lazily");
+      _lazyIndexBuildingExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("lazy-index-building"));
+    }
+
     LOGGER.info("Initialized Helix instance data manager");
   }
 
@@ -106,6 +125,12 @@ public class HelixInstanceDataManager implements InstanceDataManager {
 
   @Override
   public synchronized void shutDown() {
+    if (_lazyIndexBuildingExecutor != null) {
+      _lazyIndexBuildingExecutor.shutdownNow();
+    }
+    if (_indexBuildingExecutor != null) {
+      _indexBuildingExecutor.shutdownNow();
+    }
     for (TableDataManager tableDataManager : _tableDataManagerMap.values()) {
       tableDataManager.shutDown();
     }
@@ -118,9 +143,25 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Adding segment: {} to table: {}", segmentName, offlineTableName);
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, offlineTableName);
     Preconditions.checkNotNull(tableConfig);
+    IndexLoadingConfig indexLoadingConfig = createIndexLoadingConfig(tableConfig);
+    // When building indexes lazily, load the segment without the missing indexes first, then reload it in the
+    // background to build the missing indexes and replace the segment
+    boolean buildIndexesLazily =
+        _lazyIndexBuildingExecutor != null && SegmentPreProcessor.removeMissingIndexes(indexDir, indexLoadingConfig);
     _tableDataManagerMap.computeIfAbsent(offlineTableName, k -> createTableDataManager(k, tableConfig))
-        .addSegment(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+        .addSegment(indexDir, indexLoadingConfig);
     LOGGER.info("Added segment: {} to table: {}", segmentName, offlineTableName);
+    if (buildIndexesLazily) {
+      LOGGER.info("Scheduling building missing indexes for segment: {} in table: {}", segmentName, offlineTableName);
+      _lazyIndexBuildingExecutor.submit(() -> {
+        try {
+          reloadSegment(offlineTableName, segmentName);
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while building missing indexes for segment: {} in table: {}", segmentName,
+              offlineTableName, e);
+        }
+      });
+    }
   }
 
   @Override
@@ -130,10 +171,16 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, realtimeTableName);
     Preconditions.checkNotNull(tableConfig);
     _tableDataManagerMap.computeIfAbsent(realtimeTableName, k -> createTableDataManager(k, tableConfig))
-        .addSegment(segmentName, tableConfig, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+        .addSegment(segmentName, tableConfig, createIndexLoadingConfig(tableConfig));
     LOGGER.info("Added segment: {} to table: {}", segmentName, realtimeTableName);
   }
 
+  private IndexLoadingConfig createIndexLoadingConfig(TableConfig tableConfig) {
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig);
+    indexLoadingConfig.setIndexBuildingExecutor(_indexBuildingExecutor);
+    return indexLoadingConfig;
+  }
+
   private TableDataManager createTableDataManager(String tableNameWithType, TableConfig tableConfig) {
     LOGGER.info("Creating table data manager for table: {}", tableNameWithType);
     TableDataManagerConfig tableDataManagerConfig =
@@ -245,8 +292,8 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       FileUtils.copyDirectory(segmentBackupDir, indexDir);
 
       // Load from index directory
-      ImmutableSegment immutableSegment = ImmutableSegmentLoader
-          .load(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig), schema);
+      ImmutableSegment immutableSegment =
+          ImmutableSegmentLoader.load(indexDir, createIndexLoadingConfig(tableConfig), schema);
 
       // Replace the old segment in memory
       tableDataManager.addSegment(immutableSegment);
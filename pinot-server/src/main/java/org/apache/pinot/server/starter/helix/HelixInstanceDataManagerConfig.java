@@ -67,6 +67,20 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // response times to suffer.
   private static final String MAX_PARALLEL_SEGMENT_BUILDS = "realtime.max.parallel.segment.builds";
 
+  // Key of how many threads are used to index the columns when building a realtime segment.
+  // A value of 1 indexes all the columns on the segment build thread.
+  private static final String REALTIME_SEGMENT_BUILD_PARALLELISM = "realtime.segment.build.parallelism";
+
+  // Key of how many threads are shared by all the segments on this server to build the missing indexes (inverted index,
+  // range index and bloom filter) of the columns when loading the segments.
+  // A value of 1 builds the indexes on the segment loading thread one column at a time.
+  private static final String INDEX_BUILD_PARALLELISM = "index.build.parallelism";
+
+  // Key of whether to bring the OFFLINE segments online before building their missing indexes (inverted index, range
+  // index and bloom filter). The filters on the affected columns are solved by scanning until the indexes are built in
+  // the background and the segment is swapped with the indexed one.
+  private static final String ENABLE_LAZY_INDEX_BUILD = "index.build.lazy";
+
   // Key of whether to enable split commit
   private static final String ENABLE_SPLIT_COMMIT = "enable.split.commit";
   // Key of whether to enable split commit end with segment metadata files.
@@ -194,6 +208,21 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
 
+  @Override
+  public int getRealtimeSegmentBuildParallelism() {
+    return _instanceDataManagerConfiguration.getProperty(REALTIME_SEGMENT_BUILD_PARALLELISM, 1);
+  }
+
+  @Override
+  public int getIndexBuildParallelism() {
+    return _instanceDataManagerConfiguration.getProperty(INDEX_BUILD_PARALLELISM, 1);
+  }
+
+  @Override
+  public boolean isLazyIndexBuildEnabled() {
+    return _instanceDataManagerConfiguration.getProperty(ENABLE_LAZY_INDEX_BUILD, false);
+  }
+
   @Override
   public String toString() {
     String configString = "";
@@ -38,6 +38,9 @@ public class FieldConfig extends BaseJsonConfig {
   public static String VAR_LENGTH_DICTIONARY_COLUMN_KEY = "useVarLengthDictionary";
   public static String DERIVE_NUM_DOCS_PER_CHUNK_RAW_INDEX_KEY = "deriveNumDocsPerChunkForRawIndex";
   public static String RAW_INDEX_WRITER_VERSION = "rawIndexWriterVersion";
+  // Compression type (e.g. SNAPPY, LZ4, ZSTANDARD) and compression level (only for ZSTANDARD) for the raw index
+  public static String RAW_INDEX_COMPRESSION_TYPE = "rawIndexCompressionType";
+  public static String RAW_INDEX_COMPRESSION_LEVEL = "rawIndexCompressionLevel";
 
   public static String TEXT_INDEX_REALTIME_READER_REFRESH_KEY = "textIndexRealtimeReaderRefreshThreshold";
   // Lucene creates a query result cache if this option is enabled
@@ -30,6 +30,7 @@ public class RoutingConfig extends BaseJsonConfig {
   public static final String TIME_SEGMENT_PRUNER_TYPE = "time";
   public static final String REPLICA_GROUP_INSTANCE_SELECTOR_TYPE = "replicaGroup";
   public static final String STRICT_REPLICA_GROUP_INSTANCE_SELECTOR_TYPE = "strictReplicaGroup";
+  public static final String ADAPTIVE_INSTANCE_SELECTOR_TYPE = "adaptive";
 
   // Replaced by _segmentPrunerTypes and _instanceSelectorType
   @Deprecated
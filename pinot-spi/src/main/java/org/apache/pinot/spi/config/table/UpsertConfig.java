@@ -21,6 +21,7 @@ package org.apache.pinot.spi.config.table;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.BaseJsonConfig;
 
 
@@ -30,16 +31,39 @@ public class UpsertConfig extends BaseJsonConfig {
     FULL, PARTIAL, NONE
   }
 
+  /**
+   * Where the servers keep the primary key to record location index:
+   * <ul>
+   *   <li>ON_HEAP: in a heap hash map, rebuilt from the segments on every server restart</li>
+   *   <li>OFF_HEAP: in a memory mapped hash table next to the segments, snapshotted on shutdown and reloaded on
+   *   restart without replaying the segments</li>
+   * </ul>
+   */
+  public enum PrimaryKeyStore {
+    ON_HEAP, OFF_HEAP
+  }
+
   private final Mode _mode;
+  private final PrimaryKeyStore _primaryKeyStore;
 
   @JsonCreator
-  public UpsertConfig(@JsonProperty(value = "mode", required = true) Mode mode) {
+  public UpsertConfig(@JsonProperty(value = "mode", required = true) Mode mode,
+      @JsonProperty("primaryKeyStore") @Nullable PrimaryKeyStore primaryKeyStore) {
     Preconditions.checkArgument(mode != null, "Upsert mode must be configured");
     Preconditions.checkArgument(mode != Mode.PARTIAL, "Partial upsert mode is not supported");
     _mode = mode;
+    _primaryKeyStore = primaryKeyStore != null ? primaryKeyStore : PrimaryKeyStore.ON_HEAP;
+  }
+
+  public UpsertConfig(Mode mode) {
+    this(mode, null);
   }
 
   public Mode getMode() {
     return _mode;
   }
+
+  public PrimaryKeyStore getPrimaryKeyStore() {
+    return _primaryKeyStore;
+  }
 }
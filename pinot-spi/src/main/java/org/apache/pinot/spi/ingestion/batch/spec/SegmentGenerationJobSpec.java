@@ -76,6 +76,11 @@ public class SegmentGenerationJobSpec implements Serializable {
    */
   private int _segmentCreationJobParallelism;
 
+  /**
+   * Number of threads used to index the columns within each segment creation task.
+   */
+  private int _segmentIndexingParallelism = 1;
+
   /**
    * Should overwrite output segments if existed.
    */
@@ -247,6 +252,14 @@ public class SegmentGenerationJobSpec implements Serializable {
   public void setSegmentCreationJobParallelism(int segmentCreationJobParallelism) {
     _segmentCreationJobParallelism = segmentCreationJobParallelism;
   }
+
+  public int getSegmentIndexingParallelism() {
+    return _segmentIndexingParallelism;
+  }
+
+  public void setSegmentIndexingParallelism(int segmentIndexingParallelism) {
+    _segmentIndexingParallelism = segmentIndexingParallelism;
+  }
 }
 
 
@@ -68,6 +68,11 @@ public class SegmentGenerationTaskSpec implements Serializable {
    */
   private int _sequenceId;
 
+  /**
+   * Number of threads used to index the columns of the segment
+   */
+  private int _indexingParallelism = 1;
+
   /**
    * Custom properties set into segment metadata
    */
@@ -129,6 +134,14 @@ public class SegmentGenerationTaskSpec implements Serializable {
     _sequenceId = sequenceId;
   }
 
+  public int getIndexingParallelism() {
+    return _indexingParallelism;
+  }
+
+  public void setIndexingParallelism(int indexingParallelism) {
+    _indexingParallelism = indexingParallelism;
+  }
+
   public void setCustomProperty(String key, String value) {
     if (!key.startsWith(CUSTOM_PREFIX)) {
       key = CUSTOM_PREFIX + key;
@@ -54,6 +54,7 @@ public class StreamConfig {
 
   public static final long DEFAULT_STREAM_CONNECTION_TIMEOUT_MILLIS = 30_000;
   public static final int DEFAULT_STREAM_FETCH_TIMEOUT_MILLIS = 5_000;
+  public static final int DEFAULT_DECODER_PARALLELISM = 1;
 
   private static final String SIMPLE_CONSUMER_TYPE_STRING = "simple";
 
@@ -68,6 +69,7 @@ public class StreamConfig {
 
   private final long _connectionTimeoutMillis;
   private final int _fetchTimeoutMillis;
+  private final int _decoderParallelism;
 
   private final int _flushThresholdRows;
   private final long _flushThresholdTimeMillis;
@@ -178,6 +180,18 @@ public class StreamConfig {
     }
     _flushAutotuneInitialRows = autotuneInitialRows > 0 ? autotuneInitialRows : DEFAULT_FLUSH_AUTOTUNE_INITIAL_ROWS;
 
+    int decoderParallelism = DEFAULT_DECODER_PARALLELISM;
+    String decoderParallelismValue = streamConfigMap.get(StreamConfigProperties.DECODER_PARALLELISM);
+    if (decoderParallelismValue != null) {
+      try {
+        decoderParallelism = Integer.parseInt(decoderParallelismValue);
+      } catch (Exception e) {
+        LOGGER.warn("Invalid config {}: {}, defaulting to: {}", StreamConfigProperties.DECODER_PARALLELISM,
+            decoderParallelismValue, DEFAULT_DECODER_PARALLELISM);
+      }
+    }
+    _decoderParallelism = decoderParallelism > 0 ? decoderParallelism : DEFAULT_DECODER_PARALLELISM;
+
     String groupIdKey = StreamConfigProperties.constructStreamProperty(_type, StreamConfigProperties.GROUP_ID);
     _groupId = streamConfigMap.get(groupIdKey);
 
@@ -297,6 +311,10 @@ public class StreamConfig {
     return _fetchTimeoutMillis;
   }
 
+  public int getDecoderParallelism() {
+    return _decoderParallelism;
+  }
+
   public int getFlushThresholdRows() {
     return _flushThresholdRows;
   }
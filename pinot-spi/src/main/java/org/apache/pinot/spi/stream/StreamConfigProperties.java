@@ -103,6 +103,12 @@ public class StreamConfigProperties {
   // Time threshold that controller will wait for the segment to be built by the server
   public static final String SEGMENT_COMMIT_TIMEOUT_SECONDS = "realtime.segment.commit.timeoutSeconds";
 
+  /**
+   * Number of threads used to decode and transform the messages of a fetched batch before they are indexed in offset
+   * order by the consumer thread. By default 1, which decodes, transforms and indexes on the consumer thread.
+   */
+  public static final String DECODER_PARALLELISM = "realtime.decoder.parallelism";
+
   /**
    * Helper method to create a stream specific property
    */